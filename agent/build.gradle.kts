@@ -46,6 +46,9 @@ tasks.withType<Javadoc> {
 
 dependencies {
     implementation("org.ow2.asm:asm:9.8")
+    implementation("org.ow2.asm:asm-tree:9.8")
+    implementation("org.ow2.asm:asm-analysis:9.8")
+    implementation("org.ow2.asm:asm-commons:9.8")
     implementation("org.ow2.asm:asm-util:9.8")
     implementation(project(":core"))
     implementation("org.apache.logging.log4j:log4j-api:2.25.4")
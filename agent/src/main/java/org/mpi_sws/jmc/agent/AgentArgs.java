@@ -10,11 +10,15 @@ public class AgentArgs {
     private static final String INSTRUMENTING_PKG_FLAG = "instrumentingPackages";
     private static final String EXCLUDED_PKG_FLAG = "excludedPackages";
     private static final String JMC_RUNTIME_JAR_PATH_FLAG = "jmcRuntimeJarPath";
+    private static final String CACHE_PATH_FLAG = "cachePath";
+    private static final String ESCAPE_ANALYSIS_FLAG = "escapeAnalysis";
     private boolean debug = false;
     private String debugSavePath = "build/generated/instrumented";
     private List<String> instrumentingPackages = new ArrayList<>();
     private List<String> excludedPackages = new ArrayList<>();
     private String jmcRuntimeJarPath = "build/deps/jmc-0.1.1.jar";
+    private String cachePath = null;
+    private boolean escapeAnalysis = false;
 
     /**
      * The AgentArgs constructor is used to parse the agent arguments.
@@ -37,10 +41,16 @@ public class AgentArgs {
                         excludedPackages = List.of(parts[1].split(";"));
                     } else if (parts[0].equals(JMC_RUNTIME_JAR_PATH_FLAG)) {
                         jmcRuntimeJarPath = parts[1];
+                    } else if (parts[0].equals(CACHE_PATH_FLAG)) {
+                        cachePath = parts[1];
+                    } else if (parts[0].equals(ESCAPE_ANALYSIS_FLAG)) {
+                        escapeAnalysis = Boolean.parseBoolean(parts[1]);
                     }
                 } else {
                     if (arg.equals(DEBUG_FLAG)) {
                         debug = true;
+                    } else if (arg.equals(ESCAPE_ANALYSIS_FLAG)) {
+                        escapeAnalysis = true;
                     }
                 }
             }
@@ -92,6 +102,40 @@ public class AgentArgs {
         return jmcRuntimeJarPath;
     }
 
+    /**
+     * Gets the directory of the instrumented-class cache.
+     *
+     * @return the cache directory, or {@code null} if caching is disabled
+     */
+    public String getCachePath() {
+        return cachePath;
+    }
+
+    /**
+     * Checks if accesses on objects that never leave their allocating thread are left
+     * uninstrumented.
+     *
+     * @return true if the escape analysis is enabled, false otherwise
+     */
+    public boolean isEscapeAnalysis() {
+        return escapeAnalysis;
+    }
+
+    /**
+     * Gets a canonical description of the arguments that affect the instrumented bytecode. Classes
+     * instrumented under equal keys are interchangeable.
+     *
+     * @return the instrumentation key
+     */
+    public String getInstrumentationKey() {
+        return "instrumentingPackages="
+                + instrumentingPackages
+                + ";excludedPackages="
+                + excludedPackages
+                + ";escapeAnalysis="
+                + escapeAnalysis;
+    }
+
     public String toString() {
         return "AgentArgs{"
                 + "debug="
@@ -106,6 +150,11 @@ public class AgentArgs {
                 + ", jmcRuntimeJarPath='"
                 + jmcRuntimeJarPath
                 + '\''
+                + ", cachePath='"
+                + cachePath
+                + '\''
+                + ", escapeAnalysis="
+                + escapeAnalysis
                 + '}';
     }
 }
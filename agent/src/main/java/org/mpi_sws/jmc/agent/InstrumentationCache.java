@@ -0,0 +1,194 @@
+package org.mpi_sws.jmc.agent;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An on-disk cache of instrumented classes, shared by all the JVMs that run the agent with the
+ * same configuration.
+ *
+ * <p>Each entry is keyed by the SHA-256 hash of the agent jar, the arguments that affect the
+ * instrumentation, the class name and the original class bytes. A change to any of them yields a
+ * new key, so entries are never invalidated, only left unused. An entry holds the instrumented
+ * bytes of the class, or is empty when the agent leaves the class unchanged (for instance, classes
+ * annotated with {@code JmcIgnoreInstrumentation}).
+ *
+ * <p>Entries are written to a temporary file and moved in place, so concurrent JVMs never observe
+ * a partial entry. The cache is best effort: any I/O error is logged and treated as a miss.
+ */
+public class InstrumentationCache {
+    private static final Logger LOGGER = LogManager.getLogger(InstrumentationCache.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final MessageDigest prefixDigest;
+
+    private InstrumentationCache(Path directory, MessageDigest prefixDigest) {
+        this.directory = directory;
+        this.prefixDigest = prefixDigest;
+    }
+
+    /**
+     * Creates the cache configured by the agent arguments.
+     *
+     * @param agentArgs the agent arguments
+     * @return the cache, or {@code null} if caching is disabled, the escape analysis is enabled or
+     *     the agent jar cannot be fingerprinted
+     */
+    public static InstrumentationCache create(AgentArgs agentArgs) {
+        return create(agentArgs, agentJarPath());
+    }
+
+    /**
+     * Creates the cache configured by the agent arguments, with entries keyed by the given agent
+     * jar.
+     *
+     * @param agentArgs the agent arguments
+     * @param agentJar the jar of the agent, or {@code null} if the agent is not running from a jar
+     * @return the cache, or {@code null} if caching is disabled, the escape analysis is enabled or
+     *     the agent jar cannot be fingerprinted
+     */
+    public static InstrumentationCache create(AgentArgs agentArgs, Path agentJar) {
+        String cachePath = agentArgs.getCachePath();
+        if (cachePath == null || cachePath.isEmpty()) {
+            return null;
+        }
+        if (agentArgs.isEscapeAnalysis()) {
+            // The outcome of the escape analysis depends on the constructors of other classes,
+            // which are not part of the key
+            LOGGER.warn("The escape analysis is enabled, disabling the instrumentation cache");
+            return null;
+        }
+        if (agentJar == null) {
+            LOGGER.warn("Agent is not running from a jar, disabling the instrumentation cache");
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            try (InputStream in = Files.newInputStream(agentJar)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            digest.update(agentArgs.getInstrumentationKey().getBytes(StandardCharsets.UTF_8));
+            // Check that prefix digests can be cloned for each lookup
+            digest.clone();
+            Path directory = Paths.get(cachePath);
+            Files.createDirectories(directory);
+            LOGGER.info("Using instrumentation cache at {}", directory.toAbsolutePath());
+            return new InstrumentationCache(directory, digest);
+        } catch (IOException | NoSuchAlgorithmException | CloneNotSupportedException e) {
+            LOGGER.warn("Failed to set up the instrumentation cache, disabling it", e);
+            return null;
+        }
+    }
+
+    private static Path agentJarPath() {
+        try {
+            CodeSource codeSource = InstrumentationCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            Path path = Paths.get(codeSource.getLocation().toURI());
+            return Files.isRegularFile(path) ? path : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the cache key of a class.
+     *
+     * @param className the internal name of the class
+     * @param classFileBuffer the original class bytes
+     * @return the key of the class
+     */
+    public String key(String className, byte[] classFileBuffer) {
+        MessageDigest digest;
+        try {
+            digest = (MessageDigest) prefixDigest.clone();
+        } catch (CloneNotSupportedException e) {
+            // Checked when the cache is created
+            throw new IllegalStateException(e);
+        }
+        digest.update(className.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        byte[] hash = digest.digest(classFileBuffer);
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Looks up a class in the cache.
+     *
+     * @param key the key of the class
+     * @return the cached instrumented bytes, an empty array if the class is left unchanged, or
+     *     {@code null} on a miss
+     */
+    public byte[] get(String key) {
+        try {
+            return Files.readAllBytes(entryPath(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read instrumentation cache entry {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the instrumented bytes of a class in the cache.
+     *
+     * @param key the key of the class
+     * @param instrumented the instrumented bytes, or an empty array if the class is left unchanged
+     */
+    public void put(String key, byte[] instrumented) {
+        Path entry = entryPath(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+            Files.write(temp, instrumented);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to write instrumentation cache entry {}", key, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // The temporary file is left behind
+                }
+            }
+        }
+    }
+
+    private Path entryPath(String key) {
+        // Shard the entries so that no directory grows too large
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".class");
+    }
+}
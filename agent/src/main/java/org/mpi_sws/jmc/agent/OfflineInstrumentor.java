@@ -0,0 +1,160 @@
+package org.mpi_sws.jmc.agent;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mpi_sws.jmc.agent.visitors.JmcClassScan;
+import org.mpi_sws.jmc.agent.visitors.JmcEscapeAnalysis;
+import org.mpi_sws.jmc.agent.visitors.JmcVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The OfflineInstrumentor class instruments classes ahead of time, outside of the JVM that runs
+ * them. It applies the same scan and visitors as {@link PremainInstrumentor} to the class files of
+ * a classpath root, a directory or a jar, and writes the matched classes to an output directory.
+ *
+ * <p>It is driven by the {@code jmcInstrument} task of the Gradle plugin, which splits the
+ * classpath into batches of class files and instruments them in parallel. Putting the output
+ * directories before the original classpath, in the same order, runs the instrumented classes
+ * without the agent.
+ */
+public class OfflineInstrumentor implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(OfflineInstrumentor.class);
+
+    private final JmcMatcher matcher;
+    private final boolean escapeAnalysis;
+    // Loads the types referenced by the instrumented classes, to compute their frames
+    private final URLClassLoader loader;
+    // Constructor summaries of the escape analysis, shared by the classes of the batch
+    private final Map<String, Boolean> constructorSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new OfflineInstrumentor.
+     *
+     * @param agentArgs the agent arguments, only the packages and the escape analysis are used
+     * @param classpath the classpath of the instrumented classes, including the JMC library
+     * @throws IOException if an entry of the classpath cannot be converted to a URL
+     */
+    public OfflineInstrumentor(AgentArgs agentArgs, List<File> classpath) throws IOException {
+        this.matcher =
+                new JmcMatcher(
+                        agentArgs.getInstrumentingPackages(), agentArgs.getExcludedPackages());
+        this.escapeAnalysis = agentArgs.isEscapeAnalysis();
+        URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = classpath.get(i).toURI().toURL();
+        }
+        this.loader = new URLClassLoader(urls, ClassLoader.getPlatformClassLoader());
+    }
+
+    /**
+     * Instruments a batch of class files of a classpath root. This is the entry point used by the
+     * Gradle plugin, which calls it reflectively from an isolated worker.
+     *
+     * @param agentArgs the agent arguments, in the format of the {@code -javaagent} option
+     * @param classpath the classpath of the instrumented classes, including the JMC library
+     * @param root the classpath root, a directory or a jar
+     * @param entries the paths of the class files in the root, relative to the root
+     * @param outputDir the directory to write the matched classes to
+     * @throws IOException if the root cannot be read or the output cannot be written
+     */
+    public static void instrument(
+            String agentArgs, List<File> classpath, File root, List<String> entries, File outputDir)
+            throws IOException {
+        try (OfflineInstrumentor instrumentor =
+                new OfflineInstrumentor(new AgentArgs(agentArgs), classpath)) {
+            instrumentor.instrumentEntries(root, entries, outputDir.toPath());
+        }
+    }
+
+    /**
+     * Instruments the given class files of a classpath root.
+     *
+     * <p>Every matched class is written to the output directory, instrumented or not, so that the
+     * output shadows the same classes of the root as the agent would have transformed. The other
+     * classes are left out.
+     *
+     * @param root the classpath root, a directory or a jar
+     * @param entries the paths of the class files in the root, relative to the root
+     * @param outputDir the directory to write the matched classes to
+     * @throws IOException if the root cannot be read or the output cannot be written
+     */
+    public void instrumentEntries(File root, List<String> entries, Path outputDir)
+            throws IOException {
+        if (root.isDirectory()) {
+            for (String entry : entries) {
+                byte[] classFileBuffer = Files.readAllBytes(root.toPath().resolve(entry));
+                write(outputDir, entry, classFileBuffer);
+            }
+            return;
+        }
+        try (ZipFile jar = new ZipFile(root)) {
+            for (String entry : entries) {
+                ZipEntry zipEntry = jar.getEntry(entry);
+                if (zipEntry == null) {
+                    continue;
+                }
+                try (InputStream in = jar.getInputStream(zipEntry)) {
+                    write(outputDir, entry, in.readAllBytes());
+                }
+            }
+        }
+    }
+
+    private void write(Path outputDir, String entry, byte[] classFileBuffer) throws IOException {
+        String className = entry.substring(0, entry.length() - ".class".length());
+        byte[] transformed = instrument(className, classFileBuffer);
+        if (transformed == null) {
+            return;
+        }
+        Path out = outputDir.resolve(entry);
+        Files.createDirectories(out.getParent());
+        Files.write(out, transformed);
+    }
+
+    /**
+     * Instruments a single class.
+     *
+     * @param className the internal name of the class
+     * @param classFileBuffer the class file
+     * @return the instrumented class file, the original one if the class matches but is left
+     *     unchanged, or null if the class does not match the instrumented packages
+     */
+    public byte[] instrument(String className, byte[] classFileBuffer) {
+        if (!this.matcher.matches(className, loader)) {
+            return null;
+        }
+        JmcClassScan scan = new JmcClassScan(classFileBuffer);
+        if (scan.hasIgnoreAnnotation()) {
+            return classFileBuffer;
+        }
+        LOGGER.debug("Instrumenting class: {}", className);
+        JmcEscapeAnalysis analysis = null;
+        if (this.escapeAnalysis) {
+            analysis =
+                    new JmcEscapeAnalysis(loader, className, classFileBuffer, constructorSummaries);
+        }
+        return JmcVisitor.transform(classFileBuffer, scan, analysis, loader);
+    }
+
+    /**
+     * Closes the loader of the classpath.
+     *
+     * @throws IOException if the loader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        loader.close();
+    }
+}
@@ -4,15 +4,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mpi_sws.jmc.agent.visitors.*;
 import org.mpi_sws.jmc.checker.exceptions.JmcUnsupportedFeatureException;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassWriter;
 
 import java.io.File;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.nio.file.Files;
 import java.security.ProtectionDomain;
-import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The PremainInstrumentor class is responsible for transforming classes during the premain phase of
@@ -24,6 +23,9 @@ public class PremainInstrumentor implements ClassFileTransformer {
 
     private final AgentArgs agentArgs;
     private final JmcMatcher matcher;
+    private final InstrumentationCache cache;
+    // Constructor summaries of the escape analysis, shared by all the instrumented classes
+    private final Map<String, Boolean> constructorSummaries = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new PremainInstrumentor with the specified agent arguments.
@@ -31,29 +33,44 @@ public class PremainInstrumentor implements ClassFileTransformer {
      * @param agentArgs the agent arguments containing configuration for instrumentation
      */
     public PremainInstrumentor(AgentArgs agentArgs) {
+        this(agentArgs, InstrumentationCache.create(agentArgs));
+    }
+
+    /**
+     * Constructs a new PremainInstrumentor with the specified agent arguments and instrumentation
+     * cache.
+     *
+     * @param agentArgs the agent arguments containing configuration for instrumentation
+     * @param cache the instrumentation cache, or {@code null} to instrument every class
+     */
+    public PremainInstrumentor(AgentArgs agentArgs, InstrumentationCache cache) {
         this.agentArgs = agentArgs;
         this.matcher =
                 new JmcMatcher(
                         agentArgs.getInstrumentingPackages(), agentArgs.getExcludedPackages());
+        this.cache = cache;
     }
 
     /**
      * Transforms the class file buffer of a class being loaded or redefined.
      *
-     * <p>Specifically, if the class matches the arguments provided to the agent, it applies the
-     * following visitors in order:
+     * <p>Specifically, if the class matches the arguments provided to the agent, it scans the class
+     * once with {@link JmcClassScan}, which checks for the JmcIgnoreInstrumentation annotation and
+     * collects the synchronization data, and then applies the following visitors in a single pass:
      *
      * <ul>
-     *   <li>JmcIgnoreVisitor: Checks if the class has the JmcIgnoreInstrumentation annotation.
-     *   <li>JmcSyncScanVisitor: Scans the class for synchronized methods and collects data.
      *   <li>JmcSyncMethodVisitor: Instruments synchronized methods based on the collected data.
      *   <li>JmcFutureVisitor: Instruments classes related to futures and executors.
      *   <li>JmcAtomicVisitor: Instruments atomic classes.
      *   <li>JmcReentrantLockVisitor: Instruments reentrant locks.
      *   <li>JmcThreadVisitor: Instruments thread-related classes.
-     *   <li>JmcReadWriteVisitor: Instruments read-write calls throughout.
+     *   <li>JmcReadWriteVisitor: Instruments read-write calls throughout, except, if the escape
+     *       analysis is enabled, the accesses on objects that never leave their thread.
      * </ul>
      *
+     * <p>If an instrumentation cache is configured, the outcome for a class is looked up in the
+     * cache first, and the visitors run only on a miss.
+     *
      * @param loader the defining loader of the class to be transformed, may be {@code null} if the
      *     bootstrap loader
      * @param className the name of the class in the internal form of fully qualified class and
@@ -63,7 +80,7 @@ public class PremainInstrumentor implements ClassFileTransformer {
      *     redefined or retransformed; if this is a class load, {@code null}
      * @param protectionDomain the protection domain of the class being defined or redefined
      * @param classFileBuffer the input byte buffer in class file format - must not be modified
-     * @return the transformed class file buffer, or the original
+     * @return the transformed class file buffer, or the original if the class is left unchanged
      */
     public byte[] transform(
             ClassLoader loader,
@@ -73,32 +90,54 @@ public class PremainInstrumentor implements ClassFileTransformer {
             byte[] classFileBuffer)
             throws IllegalClassFormatException, JmcUnsupportedFeatureException {
         String finalClassName = className.replace("/", ".");
-        byte[] copiedClassBuffer = Arrays.copyOf(classFileBuffer, classFileBuffer.length);
-
+        // Returning the original buffer, which is never modified, tells the JVM that the class is
+        // unchanged and spares it from parsing the class again
         if (!this.matcher.matches(finalClassName, loader)) {
-            return copiedClassBuffer;
+            return classFileBuffer;
         }
 
-        try {
-            ClassReader tempCr = new ClassReader(copiedClassBuffer);
-            ClassWriter tempCw =
-                    new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        String cacheKey = null;
+        if (this.cache != null) {
+            cacheKey = this.cache.key(className, classFileBuffer);
+            byte[] cached = this.cache.get(cacheKey);
+            if (cached != null) {
+                if (cached.length == 0) {
+                    return classFileBuffer;
+                }
+                if (this.agentArgs.isDebug()) {
+                    record(className, cached);
+                }
+                return cached;
+            }
+        }
 
-            JmcIgnoreVisitor ignoreVisitor = new JmcIgnoreVisitor(tempCw);
-            tempCr.accept(
-                    ignoreVisitor,
-                    ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        try {
+            JmcClassScan scan = new JmcClassScan(classFileBuffer);
 
-            if (ignoreVisitor.hasIgnoreAnnotation()) {
-                return copiedClassBuffer; // Skip instrumentation if the class has
+            if (scan.hasIgnoreAnnotation()) {
+                if (cacheKey != null) {
+                    this.cache.put(cacheKey, new byte[0]);
+                }
+                return classFileBuffer; // Skip instrumentation if the class has
                 // JmcIgnoreInstrumentation annotation
             }
 
             LOGGER.info("Instrumenting class: {}", finalClassName);
-            byte[] transformed = JmcVisitor.transform(copiedClassBuffer);
+            JmcEscapeAnalysis escapeAnalysis = null;
+            if (this.agentArgs.isEscapeAnalysis()) {
+                escapeAnalysis =
+                        new JmcEscapeAnalysis(
+                                loader, className, classFileBuffer, constructorSummaries);
+            }
+            byte[] transformed = JmcVisitor.transform(classFileBuffer, scan, escapeAnalysis);
             if (this.agentArgs.isDebug()) {
                 record(className, transformed);
             }
+            if (cacheKey != null) {
+                // JmcVisitor returns its input when it leaves the class unchanged
+                this.cache.put(
+                        cacheKey, transformed == classFileBuffer ? new byte[0] : transformed);
+            }
             return transformed;
         } catch (Exception e) {
             if (e instanceof JmcUnsupportedFeatureException) {
@@ -0,0 +1,92 @@
+package org.mpi_sws.jmc.agent.visitors;
+
+import org.objectweb.asm.ClassReader;
+
+import java.util.Set;
+
+/**
+ * JmcClassScan is the read-only analysis of a class that precedes its instrumentation. It runs
+ * {@link JmcIgnoreVisitor}, {@link JmcIgnoreEnumVisitor}, {@link JmcIgnoreFinalizerVisitor}, {@link
+ * JmcSyncScanVisitor} and {@link JmcUntouchedMethodScanVisitor} in a single pass over the class,
+ * without a ClassWriter. The ClassReader of the scan is reused by {@link JmcVisitor} for the
+ * instrumentation itself.
+ */
+public class JmcClassScan {
+    private final ClassReader classReader;
+    private final JmcIgnoreVisitor ignoreVisitor;
+    private final JmcIgnoreEnumVisitor enumVisitor;
+    private final JmcIgnoreFinalizerVisitor finalizerVisitor;
+    private final JmcSyncScanData syncScanData;
+    private final JmcUntouchedMethodScanVisitor untouchedMethodVisitor;
+
+    /**
+     * Scans the given class.
+     *
+     * @param classFileBuffer the class file as a byte array
+     */
+    public JmcClassScan(byte[] classFileBuffer) {
+        this.classReader = new ClassReader(classFileBuffer);
+        this.syncScanData = new JmcSyncScanData();
+        this.untouchedMethodVisitor = new JmcUntouchedMethodScanVisitor(null);
+        this.finalizerVisitor =
+                new JmcIgnoreFinalizerVisitor(
+                        new JmcSyncScanVisitor(untouchedMethodVisitor, syncScanData));
+        this.enumVisitor = new JmcIgnoreEnumVisitor(finalizerVisitor);
+        this.ignoreVisitor = new JmcIgnoreVisitor(enumVisitor);
+        classReader.accept(ignoreVisitor, ClassReader.SKIP_FRAMES);
+    }
+
+    /**
+     * Returns the reader of the scanned class.
+     *
+     * @return the class reader
+     */
+    public ClassReader getClassReader() {
+        return classReader;
+    }
+
+    /**
+     * Checks if the class has the JmcIgnoreInstrumentation annotation.
+     *
+     * @return true if the class has the annotation, false otherwise
+     */
+    public boolean hasIgnoreAnnotation() {
+        return ignoreVisitor.hasIgnoreAnnotation();
+    }
+
+    /**
+     * Returns true if the class is an enum.
+     *
+     * @return true if the class is an enum, false otherwise
+     */
+    public boolean isEnum() {
+        return enumVisitor.isEnum();
+    }
+
+    /**
+     * Returns true if the class declares a finalize() method.
+     *
+     * @return true if the class has a finalizer, false otherwise
+     */
+    public boolean hasFinalizer() {
+        return finalizerVisitor.hasFinalizer();
+    }
+
+    /**
+     * Returns the synchronization constructs found in the class.
+     *
+     * @return the sync scan data
+     */
+    public JmcSyncScanData getSyncScanData() {
+        return syncScanData;
+    }
+
+    /**
+     * Returns the methods that the instrumentation leaves unchanged.
+     *
+     * @return the keys of the untouched methods
+     */
+    public Set<String> getUntouchedMethods() {
+        return untouchedMethodVisitor.getUntouchedMethods();
+    }
+}
@@ -0,0 +1,462 @@
+package org.mpi_sws.jmc.agent.visitors;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.objectweb.asm.tree.analysis.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An escape analysis that finds the instance field accesses on objects that never leave the
+ * thread that allocates them. Such accesses cannot race, so {@link JmcReadWriteVisitor} leaves
+ * them uninstrumented.
+ *
+ * <p>The analysis is intra-procedural and flow-insensitive in what it considers escaping. An
+ * object allocated with {@code NEW} in a method is thread-local if no value that may point to it
+ * is stored in a field, a static field or an array, passed to a method, returned, thrown or used
+ * as a monitor. The only call an object may take part in is its own constructor, provided the
+ * constructor does not leak {@code this}. Constructors are summarized, across classes, by the same
+ * analysis applied to their receiver, and the summaries are shared by all the classes that are
+ * instrumented.
+ *
+ * <p>Any failure (unresolvable class, malformed code, etc.) makes the analysis fall back to
+ * instrumenting every access.
+ */
+public class JmcEscapeAnalysis {
+
+    // Stands for the receiver of the constructor being summarized
+    private static final AbstractInsnNode THIS = new InsnNode(Opcodes.NOP);
+
+    // Headroom given to the frames in case preceding visitors did not update the maximums
+    private static final int EXTRA_STACK = 16;
+    private static final int EXTRA_LOCALS = 16;
+
+    private final ClassLoader loader;
+    private final String className;
+    private final byte[] classFileBuffer;
+    private final Map<String, Boolean> constructorSummaries;
+    private final Set<String> summariesInProgress = new HashSet<>();
+
+    /**
+     * Creates the analysis for a class being instrumented.
+     *
+     * @param loader the loader of the class, used to look up the constructors it calls, may be
+     *     {@code null} for the bootstrap loader
+     * @param className the internal name of the class
+     * @param classFileBuffer the original bytes of the class
+     * @param constructorSummaries whether a constructor, keyed by {@code owner.<init>descriptor},
+     *     keeps {@code this} thread-local. Shared across the instrumented classes and must be
+     *     thread-safe.
+     */
+    public JmcEscapeAnalysis(
+            ClassLoader loader,
+            String className,
+            byte[] classFileBuffer,
+            Map<String, Boolean> constructorSummaries) {
+        this.loader = loader;
+        this.className = className;
+        this.classFileBuffer = classFileBuffer;
+        this.constructorSummaries = constructorSummaries;
+    }
+
+    /**
+     * Returns the instance field accesses of the method that target thread-local objects.
+     *
+     * @param owner the internal name of the class declaring the method
+     * @param method the method, as it will be visited by the instrumentation
+     * @return the positions of the thread-local GETFIELD and PUTFIELD instructions among all the
+     *     field instructions of the method
+     */
+    public Set<Integer> threadLocalFieldAccesses(String owner, MethodNode method) {
+        if (!allocates(method)) {
+            return Collections.emptySet();
+        }
+        EscapeInterpreter interpreter = new EscapeInterpreter(false);
+        Frame<EscapeValue>[] frames = analyze(owner, method, interpreter);
+        if (frames == null) {
+            return Collections.emptySet();
+        }
+        Set<Integer> result = new HashSet<>();
+        int fieldInsnIndex = 0;
+        for (int i = 0; i < method.instructions.size(); i++) {
+            AbstractInsnNode insn = method.instructions.get(i);
+            if (!(insn instanceof FieldInsnNode)) {
+                continue;
+            }
+            int position = fieldInsnIndex++;
+            Frame<EscapeValue> frame = frames[i];
+            if (frame == null) {
+                // Unreachable code
+                continue;
+            }
+            EscapeValue objectRef;
+            if (insn.getOpcode() == Opcodes.GETFIELD) {
+                objectRef = frame.getStack(frame.getStackSize() - 1);
+            } else if (insn.getOpcode() == Opcodes.PUTFIELD) {
+                objectRef = frame.getStack(frame.getStackSize() - 2);
+            } else {
+                continue;
+            }
+            if (interpreter.isThreadLocal(objectRef)) {
+                result.add(position);
+            }
+        }
+        return result;
+    }
+
+    private static boolean allocates(MethodNode method) {
+        for (AbstractInsnNode insn : method.instructions) {
+            if (insn.getOpcode() == Opcodes.NEW) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Frame<EscapeValue>[] analyze(
+            String owner, MethodNode method, EscapeInterpreter interpreter) {
+        int maxStack = method.maxStack;
+        int maxLocals = method.maxLocals;
+        method.maxStack = maxStack + EXTRA_STACK;
+        method.maxLocals = maxLocals + EXTRA_LOCALS;
+        try {
+            return new Analyzer<>(interpreter).analyze(owner, method);
+        } catch (AnalyzerException | RuntimeException e) {
+            return null;
+        } finally {
+            method.maxStack = maxStack;
+            method.maxLocals = maxLocals;
+        }
+    }
+
+    /**
+     * Checks whether the constructor keeps its receiver thread-local: it only reads and writes the
+     * fields of {@code this} and calls a constructor of the superclass (or of the same class) that
+     * does the same.
+     */
+    private boolean constructorKeepsThisLocal(String owner, String descriptor) {
+        if (owner.equals("java/lang/Object")) {
+            return true;
+        }
+        String key = owner + ".<init>" + descriptor;
+        Boolean summary = constructorSummaries.get(key);
+        if (summary != null) {
+            return summary;
+        }
+        if (!summariesInProgress.add(key)) {
+            // Only possible with malformed constructor chains
+            return false;
+        }
+        try {
+            boolean result = summarizeConstructor(owner, descriptor);
+            constructorSummaries.put(key, result);
+            return result;
+        } finally {
+            summariesInProgress.remove(key);
+        }
+    }
+
+    private boolean summarizeConstructor(String owner, String descriptor) {
+        byte[] bytes = classBytes(owner);
+        if (bytes == null) {
+            return false;
+        }
+        ClassNode classNode = new ClassNode();
+        try {
+            new ClassReader(bytes).accept(classNode, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        for (MethodNode method : classNode.methods) {
+            if (method.name.equals("<init>") && method.desc.equals(descriptor)) {
+                EscapeInterpreter interpreter = new EscapeInterpreter(true);
+                if (analyze(owner, method, interpreter) == null) {
+                    return false;
+                }
+                return !interpreter.escaped.contains(THIS);
+            }
+        }
+        return false;
+    }
+
+    private byte[] classBytes(String owner) {
+        if (owner.equals(className)) {
+            return classFileBuffer;
+        }
+        String resource = owner + ".class";
+        try (InputStream in =
+                loader != null
+                        ? loader.getResourceAsStream(resource)
+                        : ClassLoader.getSystemResourceAsStream(resource)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The abstract value of the analysis: the allocation sites a value may point to, and whether
+     * it may also point to any other object (or be a primitive).
+     */
+    private static final class EscapeValue implements Value {
+        private final int size;
+        private final Set<AbstractInsnNode> sites;
+        private final boolean unknown;
+
+        private EscapeValue(int size, Set<AbstractInsnNode> sites, boolean unknown) {
+            this.size = size;
+            this.sites = sites;
+            this.unknown = unknown;
+        }
+
+        private static EscapeValue unknown(int size) {
+            return new EscapeValue(size, Collections.emptySet(), true);
+        }
+
+        private static EscapeValue site(AbstractInsnNode insn) {
+            return new EscapeValue(1, Collections.singleton(insn), false);
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EscapeValue other)) {
+                return false;
+            }
+            return size == other.size && unknown == other.unknown && sites.equals(other.sites);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, sites, unknown);
+        }
+    }
+
+    /**
+     * Tracks the allocation sites through the locals and the operand stack, and records the ones
+     * that escape.
+     */
+    private final class EscapeInterpreter extends Interpreter<EscapeValue> {
+        // Whether the receiver of the method is the constructor receiver being summarized
+        private final boolean summarizing;
+        private final Set<AbstractInsnNode> escaped = new HashSet<>();
+
+        private EscapeInterpreter(boolean summarizing) {
+            super(Opcodes.ASM9);
+            this.summarizing = summarizing;
+        }
+
+        private boolean isThreadLocal(EscapeValue value) {
+            if (value == null || value.unknown || value.sites.isEmpty()) {
+                return false;
+            }
+            for (AbstractInsnNode site : value.sites) {
+                if (site == THIS || escaped.contains(site)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void escape(EscapeValue value) {
+            if (value != null) {
+                escaped.addAll(value.sites);
+            }
+        }
+
+        private EscapeValue valueOf(Type type) {
+            if (type == Type.VOID_TYPE) {
+                return null;
+            }
+            return EscapeValue.unknown(type.getSize());
+        }
+
+        @Override
+        public EscapeValue newValue(Type type) {
+            if (type == null) {
+                return EscapeValue.unknown(1);
+            }
+            return valueOf(type);
+        }
+
+        @Override
+        public EscapeValue newParameterValue(boolean isInstanceMethod, int local, Type type) {
+            if (summarizing && isInstanceMethod && local == 0) {
+                return EscapeValue.site(THIS);
+            }
+            return newValue(type);
+        }
+
+        @Override
+        public EscapeValue newOperation(AbstractInsnNode insn) {
+            switch (insn.getOpcode()) {
+                case Opcodes.NEW:
+                    return EscapeValue.site(insn);
+                case Opcodes.ACONST_NULL:
+                    // Points to no object: a field access on it throws before any race
+                    return new EscapeValue(1, Collections.emptySet(), false);
+                case Opcodes.LCONST_0:
+                case Opcodes.LCONST_1:
+                case Opcodes.DCONST_0:
+                case Opcodes.DCONST_1:
+                    return EscapeValue.unknown(2);
+                case Opcodes.LDC:
+                    Object constant = ((LdcInsnNode) insn).cst;
+                    return EscapeValue.unknown(
+                            constant instanceof Long || constant instanceof Double ? 2 : 1);
+                case Opcodes.GETSTATIC:
+                    return valueOf(Type.getType(((FieldInsnNode) insn).desc));
+                default:
+                    return EscapeValue.unknown(1);
+            }
+        }
+
+        @Override
+        public EscapeValue copyOperation(AbstractInsnNode insn, EscapeValue value) {
+            return value;
+        }
+
+        @Override
+        public EscapeValue unaryOperation(AbstractInsnNode insn, EscapeValue value) {
+            switch (insn.getOpcode()) {
+                case Opcodes.LNEG:
+                case Opcodes.DNEG:
+                case Opcodes.I2L:
+                case Opcodes.I2D:
+                case Opcodes.L2D:
+                case Opcodes.F2L:
+                case Opcodes.F2D:
+                case Opcodes.D2L:
+                    return EscapeValue.unknown(2);
+                case Opcodes.CHECKCAST:
+                    return value;
+                case Opcodes.GETFIELD:
+                    return valueOf(Type.getType(((FieldInsnNode) insn).desc));
+                case Opcodes.PUTSTATIC:
+                case Opcodes.ATHROW:
+                case Opcodes.MONITORENTER:
+                case Opcodes.MONITOREXIT:
+                case Opcodes.ARETURN:
+                    escape(value);
+                    return null;
+                default:
+                    return EscapeValue.unknown(1);
+            }
+        }
+
+        @Override
+        public EscapeValue binaryOperation(
+                AbstractInsnNode insn, EscapeValue value1, EscapeValue value2) {
+            switch (insn.getOpcode()) {
+                case Opcodes.LALOAD:
+                case Opcodes.DALOAD:
+                case Opcodes.LADD:
+                case Opcodes.DADD:
+                case Opcodes.LSUB:
+                case Opcodes.DSUB:
+                case Opcodes.LMUL:
+                case Opcodes.DMUL:
+                case Opcodes.LDIV:
+                case Opcodes.DDIV:
+                case Opcodes.LREM:
+                case Opcodes.DREM:
+                case Opcodes.LSHL:
+                case Opcodes.LSHR:
+                case Opcodes.LUSHR:
+                case Opcodes.LAND:
+                case Opcodes.LOR:
+                case Opcodes.LXOR:
+                    return EscapeValue.unknown(2);
+                case Opcodes.PUTFIELD:
+                    // The receiver does not escape, the stored value does
+                    escape(value2);
+                    return null;
+                default:
+                    return EscapeValue.unknown(1);
+            }
+        }
+
+        @Override
+        public EscapeValue ternaryOperation(
+                AbstractInsnNode insn,
+                EscapeValue value1,
+                EscapeValue value2,
+                EscapeValue value3) {
+            if (insn.getOpcode() == Opcodes.AASTORE) {
+                escape(value3);
+            }
+            return null;
+        }
+
+        @Override
+        public EscapeValue naryOperation(
+                AbstractInsnNode insn, List<? extends EscapeValue> values) {
+            if (insn.getOpcode() == Opcodes.MULTIANEWARRAY) {
+                return EscapeValue.unknown(1);
+            }
+            String descriptor;
+            int firstEscaping = 0;
+            if (insn instanceof MethodInsnNode methodInsn) {
+                descriptor = methodInsn.desc;
+                if (insn.getOpcode() == Opcodes.INVOKESPECIAL
+                        && methodInsn.name.equals("<init>")
+                        && constructorKeepsThisLocal(methodInsn.owner, methodInsn.desc)) {
+                    firstEscaping = 1;
+                }
+            } else {
+                // INVOKEDYNAMIC
+                descriptor = ((InvokeDynamicInsnNode) insn).desc;
+            }
+            for (int i = firstEscaping; i < values.size(); i++) {
+                escape(values.get(i));
+            }
+            return valueOf(Type.getReturnType(descriptor));
+        }
+
+        @Override
+        public void returnOperation(
+                AbstractInsnNode insn, EscapeValue value, EscapeValue expected) {
+            escape(value);
+        }
+
+        @Override
+        public EscapeValue merge(EscapeValue value1, EscapeValue value2) {
+            if (value1.equals(value2)) {
+                return value1;
+            }
+            Set<AbstractInsnNode> sites = new HashSet<>(value1.sites);
+            sites.addAll(value2.sites);
+            return new EscapeValue(
+                    Math.min(value1.size, value2.size),
+                    sites,
+                    value1.unknown || value2.unknown || value1.size != value2.size);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -27,13 +29,28 @@ public class JmcReadWriteVisitor {
         /** Set of final field names in this class (format: "owner/name") */
         private final Set<String> finalFields = new HashSet<>();
 
+        /** Finds the accesses on thread-local objects, null if every access is instrumented */
+        private final JmcEscapeAnalysis escapeAnalysis;
+
         /**
          * Constructor.
          *
          * @param cv The underlying ClassVisitor
          */
         public ReadWriteClassVisitor(ClassVisitor cv) {
+            this(cv, null);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param cv The underlying ClassVisitor
+         * @param escapeAnalysis The escape analysis used to skip accesses on thread-local objects,
+         *     or null to instrument every access
+         */
+        public ReadWriteClassVisitor(ClassVisitor cv, JmcEscapeAnalysis escapeAnalysis) {
             super(Opcodes.ASM9, cv);
+            this.escapeAnalysis = escapeAnalysis;
         }
 
         private String className;
@@ -78,7 +95,30 @@ public class JmcReadWriteVisitor {
                 return mv;
             }
 
-            return new ReadWriteMethodVisitor(mv, access, descriptor, "<init>".equals(name), className, finalFields);
+            boolean constructor = "<init>".equals(name);
+            if (escapeAnalysis == null) {
+                return new ReadWriteMethodVisitor(
+                        mv, access, descriptor, constructor, className, finalFields);
+            }
+            // Buffer the method so that the analysis sees its whole code before it is instrumented.
+            // Inside the node, mv names its own (null) delegate, hence the copy.
+            MethodVisitor target = mv;
+            return new MethodNode(Opcodes.ASM9, access, name, descriptor, signature, exceptions) {
+                @Override
+                public void visitEnd() {
+                    Set<Integer> threadLocalAccesses =
+                            escapeAnalysis.threadLocalFieldAccesses(className, this);
+                    accept(
+                            new ReadWriteMethodVisitor(
+                                    target,
+                                    access,
+                                    descriptor,
+                                    constructor,
+                                    className,
+                                    finalFields,
+                                    threadLocalAccesses));
+                }
+            };
         }
     }
 
@@ -95,6 +135,9 @@ public class JmcReadWriteVisitor {
         private final String className;
         private final Set<String> finalFields;
 
+        /** Positions, among the field instructions of the method, of the thread-local accesses */
+        private final Set<Integer> threadLocalAccesses;
+        private int fieldInsnIndex = 0;
 
         /**
          * Constructor.
@@ -109,11 +152,31 @@ public class JmcReadWriteVisitor {
         public ReadWriteMethodVisitor(
                 MethodVisitor mv, int access, String descriptor, boolean constructor,
                 String className, Set<String> finalFields) {
+            this(mv, access, descriptor, constructor, className, finalFields,
+                    Collections.emptySet());
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param mv         The underlying MethodVisitor
+         * @param access     The method's access flags
+         * @param descriptor The method descriptor (e.g., "(I)V")
+         * @param constructor Whether this is a constructor
+         * @param className The name of the class being visited
+         * @param finalFields Set of final field keys (format: "owner/name")
+         * @param threadLocalAccesses Positions, among the field instructions of the method, of the
+         *     accesses on thread-local objects, which are left uninstrumented
+         */
+        public ReadWriteMethodVisitor(
+                MethodVisitor mv, int access, String descriptor, boolean constructor,
+                String className, Set<String> finalFields, Set<Integer> threadLocalAccesses) {
             super(Opcodes.ASM9, mv, access, descriptor);
             this.instrumented = false;
             this.constructor = constructor;
             this.className = className;
             this.finalFields = finalFields;
+            this.threadLocalAccesses = threadLocalAccesses;
         }
 
         private void insertUpdateEventCall(
@@ -126,6 +189,10 @@ public class JmcReadWriteVisitor {
                 // Ignore assertionsDisabled field
                 return;
             }
+            if (Objects.equals(name, JmcSyncMethodVisitor.MONITOR_FIELD)) {
+                // Ignore the monitor field, only used by the runtime
+                return;
+            }
             if (constructorNotInitialized()) {
                 return;
             }
@@ -158,6 +225,11 @@ public class JmcReadWriteVisitor {
          */
         @Override
         public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            if (threadLocalAccesses.contains(fieldInsnIndex++)) {
+                // The object never leaves the current thread, the access cannot race
+                super.visitFieldInsn(opcode, owner, name, descriptor);
+                return;
+            }
             boolean shouldInstrument = false;
             boolean isWrite = false;
             boolean isStatic = false;
@@ -221,6 +293,9 @@ public class JmcReadWriteVisitor {
             if (Objects.equals(name, "$assertionsDisabled")) {
                 return false;
             }
+            if (Objects.equals(name, JmcSyncMethodVisitor.MONITOR_FIELD)) {
+                return false;
+            }
             if (constructorNotInitialized()) {
                 return false;
             }
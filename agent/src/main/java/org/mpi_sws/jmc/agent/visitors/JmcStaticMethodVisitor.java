@@ -49,7 +49,7 @@ public class JmcStaticMethodVisitor extends ClassVisitor {
             staticExecutorFields.add(new ExecutorFieldInfo(name, desc));
         }
 
-        if (isStaticFinalField(access)) {
+        if (isStaticFinalField(access) && !isConstantSerialVersionUID(name, desc, value)) {
             return super.visitField(removeFinal(access), name, desc, signature, value);
         }
         return super.visitField(access, name, desc, signature, value);
@@ -227,6 +227,15 @@ public class JmcStaticMethodVisitor extends ClassVisitor {
                     false);
         }
 
+        // Mark the initialization complete, the static fields can now be snapshot
+        mv.visitLdcInsn(Type.getObjectType(className));
+        mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                "org/mpi_sws/jmc/runtime/JmcRuntimeUtils",
+                "staticInitializedClassDone",
+                "(Ljava/lang/Class;)V",
+                false);
+
         mv.visitInsn(Opcodes.RETURN);
         mv.visitMaxs(-1, -1);
         mv.visitEnd();
@@ -238,6 +247,12 @@ public class JmcStaticMethodVisitor extends ClassVisitor {
         return (access & Opcodes.ACC_STATIC) != 0 && (access & Opcodes.ACC_FINAL) != 0;
     }
 
+    // Serialization ignores a serialVersionUID that is not final. A constant one is never written
+    // by the static initializer, so it keeps its modifier.
+    private boolean isConstantSerialVersionUID(String name, String desc, Object value) {
+        return name.equals("serialVersionUID") && desc.equals("J") && value != null;
+    }
+
     private boolean isStaticExecutorServiceField(int access, String desc) {
         if ((access & Opcodes.ACC_STATIC) == 0) {
             return false;
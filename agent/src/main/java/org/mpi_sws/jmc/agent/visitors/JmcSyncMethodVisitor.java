@@ -3,6 +3,7 @@ package org.mpi_sws.jmc.agent.visitors;
 import org.objectweb.asm.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -11,10 +12,27 @@ import java.util.Objects;
  * JmcSyncMethodVisitor is a ClassVisitor that instruments synchronized methods and blocks in a
  * class. It replaces synchronized methods with non-synchronized versions and adds locking logic
  * around method calls to ensure thread safety.
+ *
+ * <p>A class with synchronized instance methods or blocks also implements {@code JmcMonitorHolder}:
+ * it gets a synthetic field, {@link #MONITOR_FIELD}, where the runtime stores the monitor of each
+ * instance, and the accessors of that field. Interfaces and records are left out, their instances
+ * use the monitor table of the runtime instead. When a superclass and its subclass both hold a
+ * monitor, the accessors of the subclass override the ones of the superclass, so the synchronized
+ * methods of both lock the same monitor.
+ *
+ * <p>These changes alter the default serialVersionUID of a Serializable class, {@link JmcVisitor}
+ * declares the one of the original class.
  */
 public class JmcSyncMethodVisitor extends ClassVisitor {
 
+    /** The name of the synthetic field holding the monitor of an instance. */
+    public static final String MONITOR_FIELD = "$jmcMonitor";
+
+    private static final String MONITOR_HOLDER = "org/mpi_sws/jmc/runtime/JmcMonitorHolder";
+    private static final String MONITOR_DESC = "L" + MONITOR_HOLDER + "$Monitor;";
+
     private String className;
+    private boolean holdsMonitor;
     private final JmcSyncScanData jmcSyncScanData;
 
     private final List<VisitorHelper.MethodInfo> syncMethods;
@@ -34,6 +52,18 @@ public class JmcSyncMethodVisitor extends ClassVisitor {
             String superName,
             String[] interfaces) {
         this.className = name;
+        this.holdsMonitor =
+                (jmcSyncScanData.hasSyncMethods() || jmcSyncScanData.hasSyncBlocks())
+                        && (access & Opcodes.ACC_INTERFACE) == 0
+                        && !Objects.equals(superName, "java/lang/Record");
+        if (holdsMonitor) {
+            String[] newInterfaces =
+                    Arrays.copyOf(
+                            interfaces == null ? new String[0] : interfaces,
+                            interfaces == null ? 1 : interfaces.length + 1);
+            newInterfaces[newInterfaces.length - 1] = MONITOR_HOLDER;
+            interfaces = newInterfaces;
+        }
         super.visit(version, access, name, signature, superName, interfaces);
     }
 
@@ -84,9 +114,54 @@ public class JmcSyncMethodVisitor extends ClassVisitor {
         for (VisitorHelper.MethodInfo methodInfo : syncMethods) {
             addSyncMethod(methodInfo);
         }
+        if (holdsMonitor) {
+            addMonitorField();
+        }
         super.visitEnd();
     }
 
+    // Adds the monitor field and the accessors of JmcMonitorHolder. JmcReadWriteVisitor skips the
+    // accesses to the field, which is only used by the runtime.
+    private void addMonitorField() {
+        FieldVisitor fv =
+                cv.visitField(
+                        Opcodes.ACC_PRIVATE | Opcodes.ACC_TRANSIENT | Opcodes.ACC_SYNTHETIC,
+                        MONITOR_FIELD,
+                        MONITOR_DESC,
+                        null,
+                        null);
+        fv.visitEnd();
+
+        MethodVisitor getter =
+                cv.visitMethod(
+                        Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC,
+                        "$jmcGetMonitor",
+                        "()" + MONITOR_DESC,
+                        null,
+                        null);
+        getter.visitCode();
+        getter.visitVarInsn(Opcodes.ALOAD, 0);
+        getter.visitFieldInsn(Opcodes.GETFIELD, className, MONITOR_FIELD, MONITOR_DESC);
+        getter.visitInsn(Opcodes.ARETURN);
+        getter.visitMaxs(-1, -1);
+        getter.visitEnd();
+
+        MethodVisitor setter =
+                cv.visitMethod(
+                        Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC,
+                        "$jmcSetMonitor",
+                        "(" + MONITOR_DESC + ")V",
+                        null,
+                        null);
+        setter.visitCode();
+        setter.visitVarInsn(Opcodes.ALOAD, 0);
+        setter.visitVarInsn(Opcodes.ALOAD, 1);
+        setter.visitFieldInsn(Opcodes.PUTFIELD, className, MONITOR_FIELD, MONITOR_DESC);
+        setter.visitInsn(Opcodes.RETURN);
+        setter.visitMaxs(-1, -1);
+        setter.visitEnd();
+    }
+
     // A recursive method to replay the values of the annotation for the given annotation visitor
     private void writeAnnotationValue(
             AnnotationVisitor annotationVisitor, String name, VisitorHelper.AnnotationValue value) {
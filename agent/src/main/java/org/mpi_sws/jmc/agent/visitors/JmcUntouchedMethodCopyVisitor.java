@@ -0,0 +1,46 @@
+package org.mpi_sws.jmc.agent.visitors;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Set;
+
+/**
+ * JmcUntouchedMethodCopyVisitor is a ClassVisitor that hands the methods found by {@link
+ * JmcUntouchedMethodScanVisitor} directly to the ClassWriter, bypassing the instrumentation
+ * visitors it delegates to.
+ *
+ * <p>When the ClassWriter was created from the ClassReader of the class, the reader then copies
+ * these methods verbatim, together with their original frames, instead of parsing them and having
+ * the writer recompute their frames.
+ */
+public class JmcUntouchedMethodCopyVisitor extends ClassVisitor {
+    private final ClassWriter classWriter;
+    private final Set<String> untouchedMethods;
+
+    /**
+     * Constructor.
+     *
+     * @param classVisitor the instrumentation visitors, writing to {@code classWriter}
+     * @param classWriter the writer at the end of the instrumentation visitors
+     * @param untouchedMethods the methods to copy, see {@link
+     *     JmcUntouchedMethodScanVisitor#getUntouchedMethods()}
+     */
+    public JmcUntouchedMethodCopyVisitor(
+            ClassVisitor classVisitor, ClassWriter classWriter, Set<String> untouchedMethods) {
+        super(Opcodes.ASM9, classVisitor);
+        this.classWriter = classWriter;
+        this.untouchedMethods = untouchedMethods;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            int access, String name, String desc, String signature, String[] exceptions) {
+        if (untouchedMethods.contains(JmcUntouchedMethodScanVisitor.methodKey(name, desc))) {
+            return classWriter.visitMethod(access, name, desc, signature, exceptions);
+        }
+        return super.visitMethod(access, name, desc, signature, exceptions);
+    }
+}
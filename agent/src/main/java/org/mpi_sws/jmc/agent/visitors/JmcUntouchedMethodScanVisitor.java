@@ -0,0 +1,195 @@
+package org.mpi_sws.jmc.agent.visitors;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JmcUntouchedMethodScanVisitor is a ClassVisitor that finds the methods left unchanged by the
+ * instrumentation visitors applied in {@link JmcVisitor}.
+ *
+ * <p>The instrumentation rewrites field accesses, method calls, type instructions, monitors and the
+ * JDK concurrency types in descriptors, and treats constructors, static initializers, synchronized
+ * and native methods, the overrides of the {@link Object} methods and the run method of threads
+ * specially. A method with code that involves none of these is left as is, so {@link
+ * JmcUntouchedMethodCopyVisitor} can copy it verbatim instead of passing it through the visitors
+ * and recomputing its frames.
+ */
+public class JmcUntouchedMethodScanVisitor extends ClassVisitor {
+
+    /** Internal name prefixes of the types that the instrumentation replaces. */
+    private static final String[] REPLACED_TYPE_PREFIXES = {
+        "java/util/concurrent/", "java/lang/Thread"
+    };
+
+    private final Set<String> untouchedMethods;
+    private boolean isExtendingThread;
+
+    public JmcUntouchedMethodScanVisitor(ClassVisitor classVisitor) {
+        super(Opcodes.ASM9, classVisitor);
+        this.untouchedMethods = new HashSet<>();
+    }
+
+    /**
+     * Returns the untouched methods of the class, keyed by {@link #methodKey(String, String)}.
+     *
+     * @return the keys of the untouched methods
+     */
+    public Set<String> getUntouchedMethods() {
+        return untouchedMethods;
+    }
+
+    /**
+     * Returns the key of a method in {@link #getUntouchedMethods()}.
+     *
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @return the key of the method
+     */
+    public static String methodKey(String name, String descriptor) {
+        return name + descriptor;
+    }
+
+    @Override
+    public void visit(
+            int version,
+            int access,
+            String name,
+            String signature,
+            String superName,
+            String[] interfaces) {
+        // The run method of a thread is renamed by JmcThreadVisitor
+        this.isExtendingThread = "java/lang/Thread".equals(superName);
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            int access, String name, String desc, String signature, String[] exceptions) {
+        MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+        if ((access & (Opcodes.ACC_SYNCHRONIZED | Opcodes.ACC_NATIVE | Opcodes.ACC_ABSTRACT)) != 0
+                || isSpecialMethod(name)
+                || (isExtendingThread && "run".equals(name))
+                || mentionsReplacedType(desc)
+                || mentionsReplacedType(signature)) {
+            return mv;
+        }
+        return new UntouchedMethodScanMethodVisitor(mv, methodKey(name, desc));
+    }
+
+    private static boolean isSpecialMethod(String name) {
+        return switch (name) {
+            case "<init>", "<clinit>", "hashCode", "equals", "toString", "finalize" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean mentionsReplacedType(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (String prefix : REPLACED_TYPE_PREFIXES) {
+            if (text.contains(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class UntouchedMethodScanMethodVisitor extends MethodVisitor {
+        private final String key;
+        private boolean touched;
+
+        public UntouchedMethodScanMethodVisitor(MethodVisitor mv, String key) {
+            super(Opcodes.ASM9, mv);
+            this.key = key;
+            this.touched = false;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (opcode == Opcodes.MONITORENTER || opcode == Opcodes.MONITOREXIT) {
+                touched = true;
+            }
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            touched = true;
+            super.visitTypeInsn(opcode, type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            touched = true;
+            super.visitFieldInsn(opcode, owner, name, descriptor);
+        }
+
+        @Override
+        public void visitMethodInsn(
+                int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            touched = true;
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(
+                String name, String descriptor, Handle bsm, Object... bsmArgs) {
+            touched = true;
+            super.visitInvokeDynamicInsn(name, descriptor, bsm, bsmArgs);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            if (value instanceof Type || value instanceof Handle || value instanceof ConstantDynamic) {
+                touched = true;
+            }
+            super.visitLdcInsn(value);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            touched = true;
+            super.visitMultiANewArrayInsn(descriptor, numDimensions);
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+            if (mentionsReplacedType(type)) {
+                touched = true;
+            }
+            super.visitTryCatchBlock(start, end, handler, type);
+        }
+
+        @Override
+        public void visitLocalVariable(
+                String name,
+                String descriptor,
+                String signature,
+                Label start,
+                Label end,
+                int index) {
+            if (mentionsReplacedType(descriptor) || mentionsReplacedType(signature)) {
+                touched = true;
+            }
+            super.visitLocalVariable(name, descriptor, signature, start, end, index);
+        }
+
+        @Override
+        public void visitEnd() {
+            // Abstract and native methods are not scanned, so the method has code
+            if (!touched) {
+                untouchedMethods.add(key);
+            }
+            super.visitEnd();
+        }
+    }
+}
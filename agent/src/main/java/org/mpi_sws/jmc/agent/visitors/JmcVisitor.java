@@ -4,6 +4,8 @@ import org.mpi_sws.jmc.checker.exceptions.JmcUnsupportedFeatureException;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.SerialVersionUIDAdder;
 
 /** The encapsulating visitor that applies all the other visitors in the correct order. */
 public class JmcVisitor {
@@ -15,39 +17,76 @@ public class JmcVisitor {
      * @return the transformed class file as a byte array
      */
     public static byte[] transform(byte[] classFileBuffer) {
-        ClassReader syncCr = new ClassReader(classFileBuffer);
-        ClassWriter syncCw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-
-        JmcSyncScanData syncScanData = new JmcSyncScanData();
-        JmcSyncScanVisitor syncScanVisitor = new JmcSyncScanVisitor(syncCw, syncScanData);
-        syncCr.accept(syncScanVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-
-
-        ClassReader enumCr = new ClassReader(classFileBuffer);
-        ClassWriter enumCw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-
-
-        JmcIgnoreEnumVisitor enumVisitor = new JmcIgnoreEnumVisitor(enumCw);
-        enumCr.accept(enumVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-
-
-        if (enumVisitor.isEnum()) {
-            return classFileBuffer;
-        }
+        return transform(classFileBuffer, null);
+    }
 
-        ClassReader finalizerCr = new ClassReader(classFileBuffer);
-        ClassWriter finalizerCw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+    /**
+     * The main method that applies all the visitors in the correct order.
+     *
+     * @param classFileBuffer the input class file as a byte array
+     * @param escapeAnalysis the escape analysis used to leave accesses on thread-local objects
+     *     uninstrumented, or null to instrument every access
+     * @return the transformed class file as a byte array
+     */
+    public static byte[] transform(byte[] classFileBuffer, JmcEscapeAnalysis escapeAnalysis) {
+        return transform(classFileBuffer, new JmcClassScan(classFileBuffer), escapeAnalysis);
+    }
 
-        JmcIgnoreFinalizerVisitor finalizerVisitor = new JmcIgnoreFinalizerVisitor(finalizerCw);
-        finalizerCr.accept(finalizerVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    /**
+     * The main method that applies all the visitors in the correct order, given the scan of the
+     * class.
+     *
+     * <p>The visitors run in a single pass over the reader of the scan. The ClassWriter is created
+     * from that reader, so that the methods the scan found untouched are copied verbatim and frames
+     * are only recomputed for the instrumented methods.
+     *
+     * @param classFileBuffer the input class file as a byte array
+     * @param scan the scan of the class, see {@link JmcClassScan}
+     * @param escapeAnalysis the escape analysis used to leave accesses on thread-local objects
+     *     uninstrumented, or null to instrument every access
+     * @return the transformed class file as a byte array, or {@code classFileBuffer} if the class is
+     *     left unchanged
+     */
+    public static byte[] transform(
+            byte[] classFileBuffer, JmcClassScan scan, JmcEscapeAnalysis escapeAnalysis) {
+        return transform(classFileBuffer, scan, escapeAnalysis, null);
+    }
 
-        if (finalizerVisitor.hasFinalizer()) {
+    /**
+     * The main method that applies all the visitors in the correct order, given the scan of the
+     * class and the loader used to compute the frames.
+     *
+     * <p>Computing the frames of a method looks up the common superclass of the types merged in
+     * it. Outside of the JVM running the class, e.g. when instrumenting ahead of time, these types
+     * are only visible to a loader over the classpath of the class.
+     *
+     * @param classFileBuffer the input class file as a byte array
+     * @param scan the scan of the class, see {@link JmcClassScan}
+     * @param escapeAnalysis the escape analysis used to leave accesses on thread-local objects
+     *     uninstrumented, or null to instrument every access
+     * @param loader the loader of the types referenced by the class, or null for the loader of the
+     *     agent
+     * @return the transformed class file as a byte array, or {@code classFileBuffer} if the class is
+     *     left unchanged
+     */
+    public static byte[] transform(
+            byte[] classFileBuffer,
+            JmcClassScan scan,
+            JmcEscapeAnalysis escapeAnalysis,
+            ClassLoader loader) {
+        if (scan.isEnum() || scan.hasFinalizer()) {
             return classFileBuffer;
         }
+        JmcSyncScanData syncScanData = scan.getSyncScanData();
 
-
-        ClassReader cr = new ClassReader(classFileBuffer);
-        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        ClassReader cr = scan.getClassReader();
+        ClassWriter cw =
+                new ClassWriter(cr, ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+                    @Override
+                    protected ClassLoader getClassLoader() {
+                        return loader == null ? super.getClassLoader() : loader;
+                    }
+                };
         ClassVisitor cv =
                 new JmcWaitNotifyVisitor(
                         new JmcStaticMethodVisitor(
@@ -64,10 +103,16 @@ public class JmcVisitor {
                                                                                                     new JmcNativeMethodVisitor(
                                                                                                         new JmcReadWriteVisitor
                                                                                                                 .ReadWriteClassVisitor(
-                                                                                                                cw))))))))),
+                                                                                                                cw, escapeAnalysis))))))))),
                                         syncScanData)));
+        cv = new JmcUntouchedMethodCopyVisitor(cv, cw, scan.getUntouchedMethods());
+        if (changesSerialVersionUID(cr, syncScanData)) {
+            // Sees the class before it is changed, and declares its default serialVersionUID
+            cv = new SerialVersionUIDAdder(cv);
+        }
         try{
-            cr.accept(cv, 0);
+            // Frames are recomputed for the visited methods and copied for the untouched ones
+            cr.accept(cv, ClassReader.SKIP_FRAMES);
             } catch (Exception e){
             if (e instanceof JmcUnsupportedFeatureException) {
                 throw (JmcUnsupportedFeatureException) e;
@@ -77,4 +122,23 @@ public class JmcVisitor {
         }
         return cw.toByteArray();
     }
+
+    /**
+     * Checks whether the instrumentation changes the default serialVersionUID of the class.
+     *
+     * <p>The default serialVersionUID of a Serializable class is a hash of its interfaces and of
+     * its non-private methods. {@link JmcSyncMethodVisitor} renames the synchronized methods, adds
+     * non-synchronized wrappers and makes the class implement {@code JmcMonitorHolder}, so
+     * instances serialized without the instrumentation could not be read back with it, and the
+     * other way around. Such classes get the serialVersionUID of the original class, unless they
+     * declare one. Whether a class is Serializable is not known from its bytes alone, since it may
+     * inherit the interface, so the field is added to non-Serializable classes as well, where it
+     * has no effect. Interfaces are left out: their fields must be public.
+     */
+    private static boolean changesSerialVersionUID(ClassReader cr, JmcSyncScanData syncScanData) {
+        return (cr.getAccess() & Opcodes.ACC_INTERFACE) == 0
+                && (syncScanData.hasSyncMethods()
+                        || syncScanData.hasSyncStaticMethods()
+                        || syncScanData.hasSyncBlocks());
+    }
 }
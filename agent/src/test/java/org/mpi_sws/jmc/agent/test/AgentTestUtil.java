@@ -8,6 +8,7 @@ import org.objectweb.asm.util.Textifier;
 import org.objectweb.asm.util.TraceClassVisitor;
 
 import java.io.File;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Files;
@@ -64,6 +65,47 @@ public class AgentTestUtil {
         }
     }
 
+    /**
+     * Reads the class file of a class from the classpath of the tests.
+     */
+    public static byte[] classBytes(Class<?> clazz) throws Exception {
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = AgentTestUtil.class.getClassLoader().getResourceAsStream(resource)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Defines the given bytes as the class of the same name in a new loader, which delegates the
+     * other classes to the loader of the tests. Defining the class verifies it.
+     */
+    public static Class<?> defineClass(Class<?> clazz, byte[] classFileBuffer) throws Exception {
+        String name = clazz.getName();
+        ClassLoader loader =
+                new ClassLoader(AgentTestUtil.class.getClassLoader()) {
+                    @Override
+                    protected Class<?> loadClass(String className, boolean resolve)
+                            throws ClassNotFoundException {
+                        if (!className.equals(name)) {
+                            return super.loadClass(className, resolve);
+                        }
+                        synchronized (getClassLoadingLock(className)) {
+                            Class<?> loaded = findLoadedClass(className);
+                            if (loaded == null) {
+                                loaded =
+                                        defineClass(
+                                                className,
+                                                classFileBuffer,
+                                                0,
+                                                classFileBuffer.length);
+                            }
+                            return loaded;
+                        }
+                    }
+                };
+        return loader.loadClass(name);
+    }
+
     /**
      * CAUTION! Should be used to record the correct transformation of a class file. Not to be used
      * in any active test path, but to be used to build the test database.
@@ -0,0 +1,98 @@
+package org.mpi_sws.jmc.agent.test;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.agent.test.test_programs.EscapePrograms;
+import org.mpi_sws.jmc.agent.visitors.JmcEscapeAnalysis;
+import org.mpi_sws.jmc.agent.visitors.JmcVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EscapeAnalysisTest {
+
+    private static final String CLASS_NAME = Type.getInternalName(EscapePrograms.class);
+
+    private static byte[] programBytes() throws Exception {
+        try (InputStream in =
+                EscapeAnalysisTest.class.getClassLoader().getResourceAsStream(CLASS_NAME + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static ClassNode transform(boolean escapeAnalysis) throws Exception {
+        byte[] bytes = programBytes();
+        JmcEscapeAnalysis analysis = null;
+        if (escapeAnalysis) {
+            analysis =
+                    new JmcEscapeAnalysis(
+                            EscapeAnalysisTest.class.getClassLoader(),
+                            CLASS_NAME,
+                            bytes,
+                            new ConcurrentHashMap<>());
+        }
+        ClassNode classNode = new ClassNode();
+        new ClassReader(JmcVisitor.transform(bytes, analysis)).accept(classNode, 0);
+        return classNode;
+    }
+
+    // Number of read and write events reported by the method
+    private static int events(ClassNode classNode, String methodName) {
+        for (MethodNode method : classNode.methods) {
+            if (!method.name.equals(methodName)) {
+                continue;
+            }
+            int events = 0;
+            for (AbstractInsnNode insn : method.instructions) {
+                if (insn instanceof MethodInsnNode call
+                        && call.owner.equals("org/mpi_sws/jmc/runtime/JmcRuntimeUtils")
+                        && (call.name.equals("readEventWithoutYield")
+                                || call.name.equals("writeEventWithoutYield"))) {
+                    events++;
+                }
+            }
+            return events;
+        }
+        throw new AssertionError("No method " + methodName);
+    }
+
+    private static void assertStaysInstrumented(String methodName) throws Exception {
+        int expected = events(transform(false), methodName);
+        assertTrue(expected > 0);
+        assertEquals(expected, events(transform(true), methodName));
+    }
+
+    @Test
+    public void testThreadLocalBuilderIsNotInstrumented() throws Exception {
+        assertEquals(4, events(transform(false), "threadLocalBuilder"));
+        assertEquals(0, events(transform(true), "threadLocalBuilder"));
+    }
+
+    @Test
+    public void testObjectStoredToFieldIsInstrumented() throws Exception {
+        assertStaysInstrumented("storedToField");
+    }
+
+    @Test
+    public void testObjectPassedToCallIsInstrumented() throws Exception {
+        assertStaysInstrumented("passedToCall");
+    }
+
+    @Test
+    public void testObjectCapturedByLambdaIsInstrumented() throws Exception {
+        assertStaysInstrumented("capturedByLambda");
+    }
+
+    @Test
+    public void testObjectStoredToArrayIsInstrumented() throws Exception {
+        assertStaysInstrumented("storedToArray");
+    }
+}
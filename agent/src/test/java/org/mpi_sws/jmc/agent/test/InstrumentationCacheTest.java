@@ -0,0 +1,94 @@
+package org.mpi_sws.jmc.agent.test;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mpi_sws.jmc.agent.AgentArgs;
+import org.mpi_sws.jmc.agent.InstrumentationCache;
+import org.mpi_sws.jmc.agent.PremainInstrumentor;
+import org.mpi_sws.jmc.agent.test.test_programs.UntouchedPrograms;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class InstrumentationCacheTest {
+
+    // The classes of the agent tests are never matched, so the program is passed under another name
+    private static final String CLASS_NAME = "example/UntouchedPrograms";
+
+    @TempDir Path tempDir;
+
+    private Path agentJar;
+    private byte[] classBytes;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        agentJar = tempDir.resolve("agent.jar");
+        Files.write(agentJar, new byte[] {1, 2, 3});
+        classBytes = AgentTestUtil.classBytes(UntouchedPrograms.class);
+    }
+
+    private AgentArgs args(String packages) {
+        return new AgentArgs("cachePath=" + tempDir.resolve("cache") + "," + packages);
+    }
+
+    private InstrumentationCache cache(AgentArgs agentArgs) {
+        InstrumentationCache cache = InstrumentationCache.create(agentArgs, agentJar);
+        assertNotNull(cache);
+        return cache;
+    }
+
+    private byte[] transform(AgentArgs agentArgs, InstrumentationCache cache) throws Exception {
+        return new PremainInstrumentor(agentArgs, cache)
+                .transform(null, CLASS_NAME, null, null, classBytes);
+    }
+
+    @Test
+    public void testHitReturnsTheInstrumentedBytes() throws Exception {
+        AgentArgs agentArgs = args("instrumentingPackages=example");
+        byte[] instrumented = transform(agentArgs, cache(agentArgs));
+        assertNotSame(classBytes, instrumented);
+
+        // Another JVM with the same configuration finds the entry
+        InstrumentationCache cache = cache(agentArgs);
+        assertArrayEquals(instrumented, cache.get(cache.key(CLASS_NAME, classBytes)));
+        assertArrayEquals(instrumented, transform(agentArgs, cache));
+    }
+
+    @Test
+    public void testChangedPackagesMiss() throws Exception {
+        AgentArgs agentArgs = args("instrumentingPackages=example");
+        InstrumentationCache cache = cache(agentArgs);
+        String key = cache.key(CLASS_NAME, classBytes);
+        transform(agentArgs, cache);
+        assertNotNull(cache.get(key));
+
+        for (String packages :
+                new String[] {
+                    "instrumentingPackages=example;other",
+                    "instrumentingPackages=example,excludedPackages=example.internal"
+                }) {
+            InstrumentationCache other = cache(args(packages));
+            String otherKey = other.key(CLASS_NAME, classBytes);
+            assertNotEquals(key, otherKey);
+            assertNull(other.get(otherKey));
+        }
+    }
+
+    @Test
+    public void testUnchangedEntryReturnsTheOriginalBuffer() throws Exception {
+        AgentArgs agentArgs = args("instrumentingPackages=example");
+        InstrumentationCache cache = cache(agentArgs);
+        // The program would be rewritten, so the original buffer can only come from the entry
+        cache.put(cache.key(CLASS_NAME, classBytes), new byte[0]);
+
+        assertSame(classBytes, transform(agentArgs, cache));
+    }
+}
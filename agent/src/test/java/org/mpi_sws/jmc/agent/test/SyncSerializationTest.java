@@ -0,0 +1,41 @@
+package org.mpi_sws.jmc.agent.test;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.agent.test.test_programs.DeclaredSerialVersionCounter;
+import org.mpi_sws.jmc.agent.test.test_programs.SerializableSyncCounter;
+import org.mpi_sws.jmc.agent.visitors.JmcVisitor;
+import org.mpi_sws.jmc.runtime.JmcMonitorHolder;
+
+import java.io.ObjectStreamClass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyncSerializationTest {
+
+    // The monitor holder interface and the wrappers of the synchronized methods are left out of
+    // the default serialVersionUID
+    @Test
+    public void testMonitorHolderKeepsSerialVersionUID() throws Exception {
+        byte[] transformed =
+                JmcVisitor.transform(AgentTestUtil.classBytes(SerializableSyncCounter.class));
+        Class<?> instrumented = AgentTestUtil.defineClass(SerializableSyncCounter.class, transformed);
+
+        assertNotSame(SerializableSyncCounter.class, instrumented);
+        assertTrue(JmcMonitorHolder.class.isAssignableFrom(instrumented));
+        assertEquals(
+                ObjectStreamClass.lookup(SerializableSyncCounter.class).getSerialVersionUID(),
+                ObjectStreamClass.lookup(instrumented).getSerialVersionUID());
+    }
+
+    @Test
+    public void testDeclaredSerialVersionUIDIsKept() throws Exception {
+        byte[] transformed =
+                JmcVisitor.transform(AgentTestUtil.classBytes(DeclaredSerialVersionCounter.class));
+        Class<?> instrumented =
+                AgentTestUtil.defineClass(DeclaredSerialVersionCounter.class, transformed);
+
+        assertEquals(42L, ObjectStreamClass.lookup(instrumented).getSerialVersionUID());
+    }
+}
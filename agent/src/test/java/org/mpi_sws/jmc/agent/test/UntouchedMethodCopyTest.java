@@ -0,0 +1,91 @@
+package org.mpi_sws.jmc.agent.test;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.agent.test.test_programs.UntouchedPrograms;
+import org.mpi_sws.jmc.agent.visitors.JmcClassScan;
+import org.mpi_sws.jmc.agent.visitors.JmcUntouchedMethodScanVisitor;
+import org.mpi_sws.jmc.agent.visitors.JmcVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.util.Textifier;
+import org.objectweb.asm.util.TraceMethodVisitor;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UntouchedMethodCopyTest {
+
+    private static byte[] programBytes() throws Exception {
+        return AgentTestUtil.classBytes(UntouchedPrograms.class);
+    }
+
+    private static MethodNode method(byte[] classBytes, String name) {
+        ClassNode classNode = new ClassNode();
+        // Frames are kept as they are in the class file
+        new ClassReader(classBytes).accept(classNode, 0);
+        for (MethodNode method : classNode.methods) {
+            if (method.name.equals(name)) {
+                return method;
+            }
+        }
+        throw new AssertionError("No method " + name);
+    }
+
+    // The code of the method, frames included
+    private static String code(byte[] classBytes, String name) {
+        MethodNode method = method(classBytes, name);
+        Textifier textifier = new Textifier();
+        method.accept(new TraceMethodVisitor(textifier));
+        StringWriter out = new StringWriter();
+        textifier.print(new PrintWriter(out));
+        return out.toString();
+    }
+
+    @Test
+    public void testScanFindsUntouchedMethods() throws Exception {
+        Set<String> untouched = new JmcClassScan(programBytes()).getUntouchedMethods();
+
+        assertTrue(untouched.contains(JmcUntouchedMethodScanVisitor.methodKey("sumUpTo", "(I)I")));
+        assertFalse(untouched.contains(JmcUntouchedMethodScanVisitor.methodKey("readValue", "()I")));
+        assertFalse(untouched.contains(JmcUntouchedMethodScanVisitor.methodKey("increment", "(I)I")));
+        assertFalse(untouched.contains(JmcUntouchedMethodScanVisitor.methodKey("<init>", "()V")));
+    }
+
+    @Test
+    public void testUntouchedMethodsAreCopied() throws Exception {
+        byte[] original = programBytes();
+        byte[] transformed = JmcVisitor.transform(original);
+
+        assertEquals(code(original, "sumUpTo"), code(transformed, "sumUpTo"));
+    }
+
+    @Test
+    public void testExcludedMethodsAreRewritten() throws Exception {
+        byte[] original = programBytes();
+        byte[] transformed = JmcVisitor.transform(original);
+
+        assertNotEquals(code(original, "readValue"), code(transformed, "readValue"));
+        assertNotEquals(code(original, "increment"), code(transformed, "increment"));
+        assertEquals(0, method(transformed, "increment").access & Opcodes.ACC_SYNCHRONIZED);
+    }
+
+    @Test
+    public void testTransformedClassVerifies() throws Exception {
+        byte[] transformed = JmcVisitor.transform(programBytes());
+
+        // Verifies every method of the class, then runs the copied one
+        Method sumUpTo =
+                AgentTestUtil.defineClass(UntouchedPrograms.class, transformed)
+                        .getMethod("sumUpTo", int.class);
+        assertEquals(UntouchedPrograms.sumUpTo(5), sumUpTo.invoke(null, 5));
+    }
+}
@@ -0,0 +1,15 @@
+package org.mpi_sws.jmc.agent.test.test_programs;
+
+import java.io.Serializable;
+
+/** A Serializable class with synchronized methods and a declared serialVersionUID. */
+public class DeclaredSerialVersionCounter implements Serializable {
+
+    private static final long serialVersionUID = 42L;
+
+    private int count;
+
+    public synchronized void increment() {
+        count++;
+    }
+}
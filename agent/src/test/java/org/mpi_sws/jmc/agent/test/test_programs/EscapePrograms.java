@@ -0,0 +1,46 @@
+package org.mpi_sws.jmc.agent.test.test_programs;
+
+/** Methods whose allocations do or do not leave the allocating thread. */
+public class EscapePrograms {
+
+    /** A plain holder, its constructor keeps {@code this} local. */
+    public static class Builder {
+        int value;
+    }
+
+    private Builder shared;
+
+    public int threadLocalBuilder() {
+        Builder builder = new Builder();
+        builder.value = 1;
+        builder.value = builder.value + 1;
+        return builder.value;
+    }
+
+    public void storedToField() {
+        Builder builder = new Builder();
+        builder.value = 1;
+        shared = builder;
+    }
+
+    public void passedToCall() {
+        Builder builder = new Builder();
+        builder.value = 1;
+        consume(builder);
+    }
+
+    public void capturedByLambda() {
+        Builder builder = new Builder();
+        builder.value = 1;
+        Runnable increment = () -> builder.value++;
+        increment.run();
+    }
+
+    public void storedToArray(Builder[] builders) {
+        Builder builder = new Builder();
+        builders[0] = builder;
+        builder.value = 1;
+    }
+
+    private static void consume(Builder builder) {}
+}
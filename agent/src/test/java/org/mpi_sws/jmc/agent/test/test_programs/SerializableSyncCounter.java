@@ -0,0 +1,19 @@
+package org.mpi_sws.jmc.agent.test.test_programs;
+
+import java.io.Serializable;
+
+/** A Serializable class with synchronized methods and no declared serialVersionUID. */
+public class SerializableSyncCounter implements Serializable {
+
+    private int count;
+
+    public synchronized void increment() {
+        count++;
+    }
+
+    public int get() {
+        synchronized (this) {
+            return count;
+        }
+    }
+}
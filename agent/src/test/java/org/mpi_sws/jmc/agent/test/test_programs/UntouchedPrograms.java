@@ -0,0 +1,26 @@
+package org.mpi_sws.jmc.agent.test.test_programs;
+
+/** A class with methods the instrumentation leaves alone and methods it rewrites. */
+public class UntouchedPrograms {
+
+    private int value;
+
+    /** Only arithmetic and branches, the loop needs a stack map frame. */
+    public static int sumUpTo(int bound) {
+        int sum = 0;
+        for (int i = 1; i <= bound; i++) {
+            sum += i % 2 == 0 ? i : -i;
+        }
+        return sum;
+    }
+
+    /** Reads a field. */
+    public int readValue() {
+        return value;
+    }
+
+    /** No instruction to rewrite, but synchronized methods are always rewritten. */
+    public synchronized int increment(int amount) {
+        return amount + 1;
+    }
+}
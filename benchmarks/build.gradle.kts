@@ -0,0 +1,39 @@
+plugins {
+    id("java")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+repositories {
+    mavenCentral()
+    mavenLocal()
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh(project(":agent"))
+    // The programs of the end-to-end benchmarks
+    jmh(project(":integration-test"))
+    jmh("org.apache.logging.log4j:log4j-api:2.25.4")
+    jmh("org.apache.logging.log4j:log4j-core:2.25.4")
+}
+
+val agentJar = project(":agent").projectDir.resolve("build/libs").resolve("agent.jar").absolutePath
+val jmcRuntimeJar = project(":core").projectDir.resolve("build/libs/core-0.1.2.jar").absolutePath
+
+jmh {
+    // Machine-readable results, to compare runs across releases
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // The end-to-end benchmarks run instrumented programs, like the integration tests
+    jvmArgsAppend.add(
+        "-javaagent:$agentJar=instrumentingPackages=org.mpi_sws.jmc.test,jmcRuntimeJarPath=$jmcRuntimeJar"
+    )
+    // Select benchmarks with -PjmhIncludes=<regex>
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+}
+
+tasks.named("jmh") {
+    dependsOn(":agent:agentJar", ":core:jar")
+}
@@ -0,0 +1,58 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.strategies.trust.Algo;
+import org.mpi_sws.jmc.strategies.trust.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the handling of a write by the Trust algorithm when reads of other tasks are pending
+ * on its location.
+ *
+ * <p>Each pending read is concurrent with the write, so the write computes a backward revisit for
+ * every one of them: a revisit view, its maximality check and a restricted copy of the graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlgoBenchmark {
+
+    /** The location all the events access. */
+    private static final int LOCATION = 1;
+
+    /** The number of reads pending on the location when the write is handled. */
+    @Param({"1", "8", "32"})
+    public int pendingReads;
+
+    /** The algorithm, fresh for each invocation. */
+    private Algo algo;
+
+    @Setup(Level.Invocation)
+    public void addPendingReads() {
+        algo = new Algo();
+        for (long task = 1; task <= pendingReads; task++) {
+            algo.updateEvent(new Event(task, LOCATION, Event.Type.READ));
+        }
+    }
+
+    @Benchmark
+    public Algo handleWrite() {
+        algo.updateEvent(new Event(0L, LOCATION, Event.Type.WRITE));
+        return algo;
+    }
+}
@@ -0,0 +1,74 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.checker.JmcCheckerConfiguration;
+import org.mpi_sws.jmc.checker.JmcFunctionalTestTarget;
+import org.mpi_sws.jmc.checker.JmcModelChecker;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.test.ParametricCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the model checker end to end on an instrumented program of the integration tests.
+ *
+ * <p>The random strategy runs a fixed number of iterations and reports iterations per second. The
+ * Trust strategy explores all the executions of the program and reports the time of the whole
+ * exploration, since the number of iterations is a property of the program.
+ */
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    /** The number of iterations of a random run. */
+    private static final int ITERATIONS = 100;
+
+    /** The number of threads of the counter program. */
+    @Param({"2", "3"})
+    public int threads;
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(ITERATIONS)
+    public JmcModelCheckerReport random() throws JmcCheckerException {
+        return check("random", ITERATIONS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public JmcModelCheckerReport trust() throws JmcCheckerException {
+        // No bound on the number of iterations: the exploration stops once complete
+        return check("trust", 0);
+    }
+
+    private JmcModelCheckerReport check(String strategy, int iterations)
+            throws JmcCheckerException {
+        JmcCheckerConfiguration config =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(iterations)
+                        .strategyType(strategy)
+                        .seed(0L)
+                        .debug(false)
+                        .build();
+        JmcModelChecker checker = new JmcModelChecker(config);
+        int numThreads = threads;
+        return checker.check(
+                new JmcFunctionalTestTarget(
+                        "ParametricCounter", () -> new ParametricCounter(numThreads).run()));
+    }
+}
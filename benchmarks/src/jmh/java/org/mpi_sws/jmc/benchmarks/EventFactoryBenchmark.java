@@ -0,0 +1,86 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.runtime.JmcFieldAccessEvent;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+import org.mpi_sws.jmc.strategies.trust.Event;
+import org.mpi_sws.jmc.strategies.trust.EventFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the translation of runtime events into the events of the Trust algorithm, which
+ * happens once for every event of every explored execution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventFactoryBenchmark {
+
+    /** The instance whose field is accessed. */
+    private final Object instance = new Object();
+
+    private JmcRuntimeEvent read;
+
+    private JmcRuntimeEvent write;
+
+    private JmcRuntimeEvent start;
+
+    @Setup
+    public void createEvents() {
+        read =
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.READ_EVENT,
+                        1L,
+                        instance,
+                        "org/mpi_sws/jmc/test/Counter",
+                        "count",
+                        "I",
+                        0,
+                        null);
+        write =
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.WRITE_EVENT,
+                        1L,
+                        instance,
+                        "org/mpi_sws/jmc/test/Counter",
+                        "count",
+                        "I",
+                        0,
+                        1);
+        start =
+                new JmcRuntimeEvent.Builder()
+                        .type(JmcRuntimeEvent.Type.START_EVENT)
+                        .taskId(2L)
+                        .param("startedBy", 1L)
+                        .build();
+    }
+
+    @Benchmark
+    public List<Event> readEvent() {
+        return EventFactory.fromRuntimeEvent(read);
+    }
+
+    @Benchmark
+    public List<Event> writeEvent() {
+        return EventFactory.fromRuntimeEvent(write);
+    }
+
+    @Benchmark
+    public List<Event> startEvent() {
+        return EventFactory.fromRuntimeEvent(start);
+    }
+}
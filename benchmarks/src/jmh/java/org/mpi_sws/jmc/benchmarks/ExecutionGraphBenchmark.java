@@ -0,0 +1,108 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.strategies.trust.Event;
+import org.mpi_sws.jmc.strategies.trust.ExecutionGraph;
+import org.mpi_sws.jmc.strategies.trust.ExecutionGraphNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of {@link ExecutionGraph} on the hot path of the Trust exploration:
+ * adding events, cloning the graph for a revisit, restricting it, and recomputing the vector clocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutionGraphBenchmark {
+
+    /** The number of events of the graph. */
+    @Param({"100", "1000"})
+    public int events;
+
+    /** The number of tasks of the graph. */
+    @Param({"4"})
+    public int tasks;
+
+    /** The number of locations of the graph. */
+    @Param({"8"})
+    public int locations;
+
+    /** The graph the benchmarks start from. */
+    private GraphBuilder.Built built;
+
+    /** A copy of the graph, restricted or revisited by the benchmark. */
+    private ExecutionGraph copy;
+
+    /** The keys of the second half of the events, removed by a restriction. */
+    private Set<Event.Key> tail;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        built = GraphBuilder.build(tasks, events, locations);
+        List<ExecutionGraphNode> nodes = built.nodes();
+        // The events added after a point form a suffix closed under po and rf, like the events
+        // removed by a backward revisit
+        tail = new HashSet<>();
+        for (ExecutionGraphNode node : nodes.subList(nodes.size() / 2, nodes.size())) {
+            tail.add(node.key());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copyGraph() {
+        copy = built.graph().clone();
+    }
+
+    @Benchmark
+    public ExecutionGraph addEvents() {
+        return GraphBuilder.build(tasks, events, locations).graph();
+    }
+
+    @Benchmark
+    public ExecutionGraph cloneGraph() {
+        return built.graph().clone();
+    }
+
+    @Benchmark
+    public ExecutionGraph restrictBySet() {
+        copy.restrictBySet(tail);
+        return copy;
+    }
+
+    @Benchmark
+    public ExecutionGraph restrictAndRecomputeVectorClocks() {
+        copy.restrictBySet(tail);
+        // Make the last remaining read read from the first write of its location, as a forward
+        // revisit does, so that its clock is stale
+        List<ExecutionGraphNode> nodes = built.nodes();
+        for (int i = nodes.size() / 2 - 1; i > 0; i--) {
+            Event event = nodes.get(i).getEvent();
+            if (event.getType() == Event.Type.READ) {
+                ExecutionGraphNode read = copy.getEventNode(event.getKey());
+                ExecutionGraphNode write = copy.getWrites(event.getLocation()).get(0);
+                copy.changeReadsFrom(read, write);
+                break;
+            }
+        }
+        copy.recomputeVectorClocks();
+        return copy;
+    }
+}
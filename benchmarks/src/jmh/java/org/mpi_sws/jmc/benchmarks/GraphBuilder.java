@@ -0,0 +1,58 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.strategies.trust.Event;
+import org.mpi_sws.jmc.strategies.trust.ExecutionGraph;
+import org.mpi_sws.jmc.strategies.trust.ExecutionGraphNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic execution graphs for the benchmarks.
+ *
+ * <p>The tasks take turns in a round-robin order. At each turn, a task reads or writes one of the
+ * locations, alternately, and every read reads from the coherence-maximal write, as in a
+ * sequentially consistent execution. The graphs are deterministic for given parameters.
+ */
+final class GraphBuilder {
+
+    private GraphBuilder() {}
+
+    /**
+     * Builds a graph.
+     *
+     * @param tasks the number of tasks
+     * @param events the total number of events, excluding the initial event
+     * @param locations the number of locations
+     * @return the nodes of the graph, in insertion order, the first one being the initial event
+     */
+    static Built build(int tasks, int events, int locations) {
+        ExecutionGraph graph = new ExecutionGraph();
+        List<ExecutionGraphNode> nodes = new ArrayList<>();
+        nodes.add(graph.addEvent(Event.init()));
+        for (int i = 0; i < events; i++) {
+            long task = i % tasks;
+            int location = (i / tasks) % locations;
+            boolean write = ((i / tasks) / locations) % 2 == 0;
+            if (write) {
+                ExecutionGraphNode node =
+                        graph.addEvent(new Event(task, location, Event.Type.WRITE));
+                graph.trackCoherency(node);
+                nodes.add(node);
+            } else {
+                ExecutionGraphNode node = graph.addEvent(new Event(task, location, Event.Type.READ));
+                graph.setReadsFrom(node, graph.getCoMax(location));
+                nodes.add(node);
+            }
+        }
+        return new Built(graph, nodes);
+    }
+
+    /**
+     * A built graph.
+     *
+     * @param graph the graph
+     * @param nodes the nodes of the graph, in insertion order
+     */
+    record Built(ExecutionGraph graph, List<ExecutionGraphNode> nodes) {}
+}
@@ -0,0 +1,61 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.agent.visitors.JmcVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the instrumentation of a class by the agent, which the agent pays for every class of
+ * the instrumented packages when it is loaded.
+ *
+ * <p>The bytes of the classes are read as resources, so they are the bytes before instrumentation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+    /** The internal name of the instrumented class, from the integration test programs. */
+    @Param({
+        "org/mpi_sws/jmc/test/Counter",
+        "org/mpi_sws/jmc/test/ParametricCounter",
+        "org/mpi_sws/jmc/test/ThreadPools",
+        "org/mpi_sws/jmc/test/mpmcQueue/MPMCQueue"
+    })
+    public String className;
+
+    /** The bytes of the class before instrumentation. */
+    private byte[] classBytes;
+
+    @Setup
+    public void readClass() throws IOException {
+        String resource = "/" + className + ".class";
+        try (InputStream in = InstrumentationBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Class not found on the classpath: " + className);
+            }
+            classBytes = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public byte[] transform() {
+        return JmcVisitor.transform(classBytes);
+    }
+}
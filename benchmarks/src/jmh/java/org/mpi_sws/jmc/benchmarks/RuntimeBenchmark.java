@@ -0,0 +1,89 @@
+package org.mpi_sws.jmc.benchmarks;
+
+import org.mpi_sws.jmc.checker.JmcCheckerConfiguration;
+import org.mpi_sws.jmc.checker.JmcFunctionalTestTarget;
+import org.mpi_sws.jmc.checker.JmcModelChecker;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.runtime.JmcRuntime;
+import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the calls the instrumented code makes into the runtime.
+ *
+ * <p>The runtime only accepts calls from the tasks it manages, so each invocation runs a single
+ * iteration of the model checker whose test target makes {@link #OPS} calls in a loop. The cost of
+ * setting up the iteration is amortized over the calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuntimeBenchmark {
+
+    /** The number of runtime calls per invocation. */
+    private static final int OPS = 10_000;
+
+    /** The field read by {@link #readEventWithoutYield()}. */
+    private static int field = 0;
+
+    private JmcModelChecker checker;
+
+    @Setup
+    public void createChecker() {
+        JmcCheckerConfiguration config =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(1)
+                        .strategyType("random")
+                        .seed(0L)
+                        .debug(false)
+                        .build();
+        checker = new JmcModelChecker(config);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public JmcModelCheckerReport yield() throws JmcCheckerException {
+        return checker.check(
+                new JmcFunctionalTestTarget(
+                        "yield",
+                        () -> {
+                            for (int i = 0; i < OPS; i++) {
+                                JmcRuntime.yield();
+                            }
+                        }));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public JmcModelCheckerReport readEventWithoutYield() throws JmcCheckerException {
+        return checker.check(
+                new JmcFunctionalTestTarget(
+                        "readEventWithoutYield",
+                        () -> {
+                            for (int i = 0; i < OPS; i++) {
+                                JmcRuntimeUtils.readEventWithoutYield(
+                                        null,
+                                        "org/mpi_sws/jmc/benchmarks/RuntimeBenchmark",
+                                        "field",
+                                        "I");
+                                field++;
+                            }
+                        }));
+    }
+}
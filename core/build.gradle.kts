@@ -23,6 +23,8 @@ java {
 dependencies {
     implementation("org.sosy-lab:java-smt:6.0.0")
     implementation("org.sosy-lab:javasmt-solver-z3:4.16.0")
+    // Ahead of the older copy bundled in kotlin-compiler, java-smt needs a recent Guava
+    implementation("com.google.guava:guava:33.2.1-jre")
     implementation("com.google.code.gson:gson:2.10.1")
     implementation("org.jetbrains.kotlin", "kotlin-compiler", "1.9.22") // 1.9.22
     implementation("commons-cli:commons-cli:1.6.0")
@@ -27,6 +27,10 @@ public @interface JmcCheckConfiguration {
      *       scheduler with a probabilistic guarantee of finding bugs of a given {@link #bugDepth()}.
      *   <li><code>fair-pct</code> - PCT followed by a fair (uniform-random) execution suffix; see
      *       {@link #pctFairBound()}.
+     *   <li><code>pos</code> - Partial order sampling: random priorities that are redrawn only for
+     *       the tasks whose steps race.
+     *   <li><code>coverage</code> - Random scheduling biased towards new execution graphs; see
+     *       {@link #saturationWindow()}.
      *   <li><code>trust</code> - Uses Trust to exhaustively enumerate all executions.
      * </ul>
      *
@@ -99,5 +103,100 @@ public @interface JmcCheckConfiguration {
      */
     int pctFairBound() default 0;
 
+    /**
+     * The saturation window for the <code>coverage</code> strategy: the number of consecutive
+     * iterations without a new execution graph after which the coverage is reported as saturated
+     * and the check stops.
+     *
+     * <p>A value {@code <= 0} (the default) never stops early. Ignored by strategies other than
+     * <code>coverage</code>.
+     *
+     * @return the saturation window, or a non-positive value to run all the iterations
+     */
+    int saturationWindow() default 0;
+
+    /**
+     * Whether the independent satisfiability checks of the symbolic exploration run concurrently,
+     * each on a prover of its own solver context.
+     *
+     * <p>Only meaningful with a <code>solver</code> and the <code>trust</code> strategy. The two
+     * polarities of a symbolic branch are then checked at the same time, so that a maximality
+     * check takes as long as its slowest query instead of the sum of both.
+     *
+     * @return true to run the satisfiability checks concurrently
+     */
+    boolean parallelSolverChecks() default false;
+
+    /**
+     * The fraction of the maximum heap above which the exploration stack of the <code>trust
+     * </code> strategy spills its oldest segments to disk.
+     *
+     * <p>An exhaustive exploration keeps an execution graph for every pending revisit. With a
+     * watermark, the oldest pending revisits are written to a temporary file once the used heap
+     * crosses it, and read back when the exploration reaches them. The value must be between 0 and
+     * 1; 0 keeps the whole stack in memory.
+     *
+     * @return the fraction of the maximum heap above which the stack is spilled
+     */
+    double stackSpillWatermark() default 0.0;
+
     long timeout() default -1L;
+
+    /**
+     * The number of independent workers sharing the check.
+     *
+     * <p>Each worker is a separate JVM (for instance, one Gradle test task per worker) with its own
+     * runtime and writes its reports to the <code>worker-&lt;index&gt;</code> sub-directory of
+     * {@link #reportPath()}. The index of a worker is read from the <code>jmc.workerIndex</code>
+     * system property and the number of workers can be overridden with the
+     * <code>jmc.workers</code> system property. All the workers must use the same {@link #seed()}
+     * and the same run id, a fresh one for every run, read from the <code>jmc.runId</code> system
+     * property. Each worker stores its report in its sub-directory and the last worker to finish
+     * merges them into the <code>report.json</code> of {@link #reportPath()}.
+     *
+     * <ul>
+     *   <li>With <code>trust</code>, the branches of the exploration tree are partitioned among the
+     *       workers, so that together they cover every execution.
+     *   <li>With <code>random</code>, <code>pct</code> and <code>fair-pct</code>, the {@link
+     *       #numIterations()} are split among the workers and each worker uses a seed derived from
+     *       {@link #seed()}. The first worker to find a bug stops the others.
+     * </ul>
+     *
+     * @return the number of workers
+     */
+    int workers() default 1;
+
+    /**
+     * Makes a yielding task pick and resume the next task itself, instead of waking up the
+     * scheduler thread to do so. This halves the number of thread wake-ups per scheduling point,
+     * which dominates the cost of short iterations.
+     *
+     * @return true if direct handoff is enabled, false otherwise
+     */
+    boolean directHandoff() default false;
+
+    /**
+     * Drops the scheduling points after accesses to locations that only one task has accessed so
+     * far. A field becomes a scheduling point again once a second task accesses it, and stays one
+     * in the following iterations.
+     *
+     * <p>This is an unsound heuristic: until a field is found shared, the interleavings in which
+     * a task observes it between accesses of another task are missed. It is therefore rejected
+     * with the exhaustive {@code trust} strategy and meant for the sampling strategies, such as
+     * {@code random}.
+     *
+     * @return true if the sharedness oracle is enabled, false otherwise
+     */
+    boolean sharednessOracle() default false;
+
+    /**
+     * Restores the static fields of instrumented classes at the start of every iteration from a
+     * snapshot taken after their first initialization, instead of running their static
+     * initializers again. Only the classes whose static fields all hold immutable values, such as
+     * primitives, strings and enum constants, are restored; the others run their initializers as
+     * usual.
+     *
+     * @return true if static snapshots are enabled, false otherwise
+     */
+    boolean staticSnapshots() default false;
 }
@@ -8,6 +8,7 @@ import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Optional;
 
 public class JmcObject {
     public static void objectWait(Object o) throws InterruptedException {
@@ -98,17 +99,36 @@ public class JmcObject {
     public static int handleHashCode(Object obj) {
         if (obj == null) return 0;
 
+        Method method = JMC_HASH_CODE_METHODS.get(obj.getClass()).orElse(null);
+        if (method == null) {
+            return obj.hashCode();
+        }
         try {
-            Method method = obj.getClass().getMethod("jmcHashCode");
-            method.setAccessible(true);
             return (int) method.invoke(obj);
-        } catch (NoSuchMethodException e) {
-            return obj.hashCode();
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException("Failed to invoke jmcHashCode", e);
         }
     }
 
+    /**
+     * The {@code jmcHashCode()} method of each class, if it has one. {@link #handleHashCode(Object)}
+     * is called for every field access event, so the reflective lookup (and the exception thrown
+     * when the method is missing) is done once per class.
+     */
+    private static final ClassValue<Optional<Method>> JMC_HASH_CODE_METHODS =
+            new ClassValue<>() {
+                @Override
+                protected Optional<Method> computeValue(Class<?> type) {
+                    try {
+                        Method method = type.getMethod("jmcHashCode");
+                        method.setAccessible(true);
+                        return Optional.of(method);
+                    } catch (NoSuchMethodException e) {
+                        return Optional.empty();
+                    }
+                }
+            };
+
     public static String toString(Object obj) {
         return obj.getClass().getName() + "@" + Integer.toHexString(handleHashCode(obj));
     }
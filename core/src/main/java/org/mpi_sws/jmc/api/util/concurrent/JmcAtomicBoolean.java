@@ -1,5 +1,6 @@
 package org.mpi_sws.jmc.api.util.concurrent;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
@@ -10,7 +11,6 @@ import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 public class JmcAtomicBoolean {
 
     private boolean value;
-    private final JmcReentrantLock lock;
 
     /**
      * Constructs a new JmcAtomicBoolean with the specified initial value.
@@ -18,7 +18,7 @@ public class JmcAtomicBoolean {
      * @param initialValue the initial value of the atomic boolean
      */
     public JmcAtomicBoolean(boolean initialValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 initialValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicBoolean",
@@ -26,15 +26,6 @@ public class JmcAtomicBoolean {
                 "Z");
         this.value = initialValue;
         JmcRuntime.yield();
-        JmcReentrantLock lock = new JmcReentrantLock();
-        JmcRuntimeUtils.writeEventWithoutYield(
-                this,
-                lock,
-                "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicBoolean",
-                "lock",
-                "Lorg/mpi_sws/jmc/api/util/concurrent/JmcReentrantLock;");
-        this.lock = lock;
-        JmcRuntime.yield();
     }
 
     /**
@@ -64,7 +55,7 @@ public class JmcAtomicBoolean {
      * @param newValue the new value to set
      */
     public void set(boolean newValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 newValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicBoolean",
@@ -76,35 +67,28 @@ public class JmcAtomicBoolean {
 
     /**
      * Atomically sets the value to the given updated value if the current value is equal to the
-     * expected value. Invokes a read event followed by a write event to the JMC runtime.
+     * expected value. Invokes a single read-modify-write event to the JMC runtime; a failed update
+     * only reads the current value.
      *
      * @param expectedValue the expected value
      * @param newValue      the new value to set if the current value equals the expected value
      * @return true if successful, false otherwise
      */
     public boolean compareAndSet(boolean expectedValue, boolean newValue) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicBoolean", "value", "Z");
-            if (value == expectedValue) {
-                JmcRuntime.yield();
-
-                JmcRuntimeUtils.writeEventWithoutYield(
+        boolean current = value;
+        Object written =
+                JmcRuntimeUtils.rmwEventWithoutYield(
                         this,
-                        newValue,
+                        current,
+                        v -> (Boolean) v == expectedValue ? newValue : JmcRmwUpdate.NO_WRITE,
                         "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicBoolean",
                         "value",
                         "Z");
-                value = newValue;
-                JmcRuntime.yield();
-                return true;
-            }
-            JmcRuntime.yield();
-            return false;
-        } finally {
-            lock.unlock();
+        if (written != JmcRmwUpdate.NO_WRITE) {
+            value = (Boolean) written;
         }
+        JmcRuntime.yield();
+        return current == expectedValue;
     }
 
     /**
@@ -1,17 +1,17 @@
 package org.mpi_sws.jmc.api.util.concurrent;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
 /**
- * A redefinition of {@link java.util.concurrent.atomic.AtomicInteger} for JMC model checking. This
- * class provides atomic operations on an integer value, ensuring thread safety through the use of a
- * reentrant lock.
+ * A redefinition of {@link java.util.concurrent.atomic.AtomicInteger} for JMC model checking. Each
+ * atomic update is reported to the JMC runtime as a single read-modify-write event, and the read and
+ * the write are performed in one scheduling step.
  */
 public class JmcAtomicInteger {
 
     private int value;
-    private final JmcReentrantLock lock;
 
     /**
      * Constructs a new JmcAtomicInteger with the specified initial value.
@@ -19,7 +19,7 @@ public class JmcAtomicInteger {
      * @param initialValue the initial value of the atomic integer
      */
     public JmcAtomicInteger(int initialValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 initialValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
@@ -27,15 +27,6 @@ public class JmcAtomicInteger {
                 "I");
         value = initialValue;
         JmcRuntime.yield();
-        JmcReentrantLock lock = new JmcReentrantLock();
-        JmcRuntimeUtils.writeEventWithoutYield(
-                this,
-                lock,
-                "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                "lock",
-                "Lorg/mpi_sws/jmc/api/util/concurrent/JmcReentrantLock;");
-        this.lock = lock;
-        JmcRuntime.yield();
     }
 
     /**
@@ -65,7 +56,7 @@ public class JmcAtomicInteger {
      * @param newValue the new value to set
      */
     public void set(int newValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 newValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
@@ -76,217 +67,115 @@ public class JmcAtomicInteger {
     }
 
     /**
-     * Atomically sets the value to the given updated value if the current value is equal to the
-     * expected value. Invokes a read followed by a write event to the JMC runtime.
+     * Applies the given update to the current value in a single atomic step. Invokes a
+     * read-modify-write event to the JMC runtime.
      *
-     * @param expectedValue the expected value
-     * @param newValue      the new value to set if the current value equals the expected value
-     * @return true if successful, false otherwise
+     * @param update maps the current value to the value to set, or to {@link
+     *     JmcRmwUpdate#NO_WRITE} to leave it unchanged
+     * @return the previous value
      */
-    public boolean compareAndSet(int expectedValue, int newValue) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            if (value == expectedValue) {
-                JmcRuntime.yield();
-
-                JmcRuntimeUtils.writeEventWithoutYield(
+    private int update(JmcRmwUpdate update) {
+        int current = value;
+        Object written =
+                JmcRuntimeUtils.rmwEventWithoutYield(
                         this,
-                        newValue,
+                        current,
+                        update,
                         "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
                         "value",
                         "I");
-                value = newValue;
-                JmcRuntime.yield();
-                return true;
-            }
-            JmcRuntime.yield();
-            return false;
-        } finally {
-            lock.unlock();
+        if (written != JmcRmwUpdate.NO_WRITE) {
+            value = (Integer) written;
         }
+        JmcRuntime.yield();
+        return current;
     }
 
     /**
-     * Atomically increments the current value by 1 and returns the previous value. Invokes a read
-     * followed by a write event to the JMC runtime.
+     * Atomically sets the value to the given updated value if the current value is equal to the
+     * expected value. Invokes a read-modify-write event to the JMC runtime; a failed update only
+     * reads the current value.
+     *
+     * @param expectedValue the expected value
+     * @param newValue      the new value to set if the current value equals the expected value
+     * @return true if successful, false otherwise
+     */
+    public boolean compareAndSet(int expectedValue, int newValue) {
+        return update(v -> (Integer) v == expectedValue ? newValue : JmcRmwUpdate.NO_WRITE)
+                == expectedValue;
+    }
+
+    /**
+     * Atomically increments the current value by 1 and returns the previous value. Invokes a
+     * read-modify-write event to the JMC runtime.
      *
      * @return the previous value before incrementing
      */
     public int getAndIncrement() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result + 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = result + 1;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v + 1);
     }
 
     /**
      * Atomically sets the value to the given new value and returns the previous value. Invokes a
-     * read followed by a write event to the JMC runtime.
+     * read-modify-write event to the JMC runtime.
      *
      * @param newValue the new value to set
      * @return the previous value before setting the new value
      */
     public int getAndSet(int newValue) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int oldValue = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    newValue,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = newValue;
-            JmcRuntime.yield();
-            return oldValue;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> newValue);
     }
 
     /**
      * Atomically adds the given delta to the current value and returns the updated value. Invokes a
-     * read followed by a write event to the JMC runtime.
+     * read-modify-write event to the JMC runtime.
      *
      * @param delta the value to add
      * @return the updated value after addition
      */
     public int addAndGet(int delta) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value + delta,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = value + delta;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v + delta) + delta;
     }
 
+    /**
+     * Atomically adds the given delta to the current value and returns the previous value. Invokes
+     * a read-modify-write event to the JMC runtime.
+     *
+     * @param delta the value to add
+     * @return the previous value before addition
+     */
     public int getAndAdd(int delta) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result + delta,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = result + delta;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v + delta);
     }
 
     /**
-     * Atomically increments the current value by 1 and returns the previous value. Invokes a read
-     * followed by a write event to the JMC runtime.
+     * Atomically increments the current value by 1 and returns the updated value. Invokes a
+     * read-modify-write event to the JMC runtime.
      *
-     * @return the previous value before incrementing
+     * @return the updated value after incrementing
      */
     public int incrementAndGet() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value + 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = value + 1;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-            return result;
-
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v + 1) + 1;
     }
 
+    /**
+     * Atomically decrements the current value by 1 and returns the previous value. Invokes a
+     * read-modify-write event to the JMC runtime.
+     *
+     * @return the previous value before decrementing
+     */
     public int getAndDecrement() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result - 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = result - 1;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v - 1);
     }
 
+    /**
+     * Atomically decrements the current value by 1 and returns the updated value. Invokes a
+     * read-modify-write event to the JMC runtime.
+     *
+     * @return the updated value after decrementing
+     */
     public int decrementAndGet() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value - 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger",
-                    "value",
-                    "I");
-            value = value - 1;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicInteger", "value", "I");
-            int result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Integer) v - 1) - 1;
     }
 
     /**
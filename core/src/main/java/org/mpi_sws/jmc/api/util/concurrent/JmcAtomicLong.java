@@ -1,15 +1,15 @@
 package org.mpi_sws.jmc.api.util.concurrent;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
 public class JmcAtomicLong {
 
     private long value;
-    private final JmcReentrantLock lock;
 
     public JmcAtomicLong(long initialValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 initialValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
@@ -18,16 +18,6 @@ public class JmcAtomicLong {
         );
         value = initialValue;
         JmcRuntime.yield();
-        JmcReentrantLock lock = new JmcReentrantLock();
-        JmcRuntimeUtils.writeEventWithoutYield(
-                this,
-                lock,
-                "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                "lock",
-                "Lorg/mpi_sws/jmc/api/util/concurrent/JmcReentrantLock;"
-        );
-        this.lock = lock;
-        JmcRuntime.yield();
     }
 
     public JmcAtomicLong() {
@@ -43,7 +33,7 @@ public class JmcAtomicLong {
     }
 
     public void set(long newValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 newValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
@@ -53,182 +43,60 @@ public class JmcAtomicLong {
         JmcRuntime.yield();
     }
 
-    public boolean compareAndSet(long expect, long update) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long currentValue = value;
-            JmcRuntime.yield();
-            if (currentValue == expect) {
-                JmcRuntimeUtils.writeEventWithoutYield(
+    /**
+     * Applies the update to the current value in a single read-modify-write event, and returns the
+     * previous value. An update to {@link JmcRmwUpdate#NO_WRITE} leaves the value unchanged.
+     */
+    private long update(JmcRmwUpdate update) {
+        long currentValue = value;
+        Object written =
+                JmcRuntimeUtils.rmwEventWithoutYield(
                         this,
+                        currentValue,
                         update,
                         "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
                         "value",
                         "J");
-                value = update;
-                JmcRuntime.yield();
-                return true;
-            } else {
-                return false;
-            }
-        } finally {
-            lock.unlock();
+        if (written != JmcRmwUpdate.NO_WRITE) {
+            value = (Long) written;
         }
+        JmcRuntime.yield();
+        return currentValue;
+    }
+
+    /**
+     * Atomically sets the value to the given updated value if the current value is the expected
+     * one. A failed update only reads the current value.
+     */
+    public boolean compareAndSet(long expect, long update) {
+        return update(v -> (Long) v == expect ? update : JmcRmwUpdate.NO_WRITE) == expect;
     }
 
     public long getAndIncrement() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result + 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = result + 1;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v + 1);
     }
 
     public long getAndSet(long newValue) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long oldValue = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    newValue,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = newValue;
-            JmcRuntime.yield();
-            return oldValue;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> newValue);
     }
 
     public long addAndGet(long delta) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value + delta,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = value + delta;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v + delta) + delta;
     }
 
     public long getAndAdd(long delta) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result + delta,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = result + delta;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v + delta);
     }
 
     public long incrementAndGet() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value + 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = value + 1;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v + 1) + 1;
     }
 
     public long getAndDecrement() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    result - 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = result - 1;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v - 1);
     }
 
     public long decrementAndGet() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    value - 1,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong",
-                    "value",
-                    "J");
-            value = value - 1;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this, "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicLong", "value", "J");
-            long result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> (Long) v - 1) - 1;
     }
 }
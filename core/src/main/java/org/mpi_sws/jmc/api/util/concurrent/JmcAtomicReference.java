@@ -1,13 +1,13 @@
 package org.mpi_sws.jmc.api.util.concurrent;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
 /**
  * A redefinition of {@link java.util.concurrent.atomic.AtomicReference} to support JMC model
- * checking. This class provides atomic operations on a reference variable, ensuring thread safety
- * through the use of a reentrant lock.
- * TODO : FIX THIS CLASS
+ * checking. Each atomic update of the reference is reported to the JMC runtime as a single
+ * read-modify-write event.
  *
  * @param <V> the type of the reference held by this atomic reference
  */
@@ -15,8 +15,6 @@ public class JmcAtomicReference<V> {
 
     private V value;
 
-    private final JmcReentrantLock lock;
-
     /**
      * Constructs a new JmcAtomicReference with a null initial value.
      */
@@ -33,7 +31,7 @@ public class JmcAtomicReference<V> {
      * @param initialValue the initial value of the atomic reference
      */
     public JmcAtomicReference(V initialValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 initialValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
@@ -41,45 +39,38 @@ public class JmcAtomicReference<V> {
                 "Ljava/lang/Object;");
         value = initialValue;
         JmcRuntime.yield();
-        JmcReentrantLock lock = new JmcReentrantLock();
-        JmcRuntimeUtils.writeEventWithoutYield(
-                this,
-                lock,
-                "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
-                "lock",
-                "Lorg/mpi_sws/jmc/api/util/concurrent/JmcReentrantLock;");
-        this.lock = lock;
-        JmcRuntime.yield();
     }
 
     /**
-     * Constructs a new JmcAtomicReference with a null initial value.
+     * Applies the update to the current reference in a single read-modify-write event, and returns
+     * the previous reference. An update to {@link JmcRmwUpdate#NO_WRITE} leaves the reference
+     * unchanged.
      */
-    public boolean compareAndSet(V expectedReference, V newReference) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            V readValue = value;
-            JmcRuntime.yield();
-            if (readValue == expectedReference) {
-                JmcRuntimeUtils.writeEventWithoutYield(
+    @SuppressWarnings("unchecked")
+    private V update(JmcRmwUpdate update) {
+        V readValue = value;
+        Object written =
+                JmcRuntimeUtils.rmwEventWithoutYield(
                         this,
-                        newReference,
+                        readValue,
+                        update,
                         "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
                         "value",
                         "Ljava/lang/Object;");
-                value = newReference;
-                JmcRuntime.yield();
-                return true;
-            }
-            return false;
-        } finally {
-            lock.unlock();
+        if (written != JmcRmwUpdate.NO_WRITE) {
+            value = (V) written;
         }
+        JmcRuntime.yield();
+        return readValue;
+    }
+
+    /**
+     * Atomically sets the reference to the given updated reference if the current reference is the
+     * expected one. A failed update only reads the current reference.
+     */
+    public boolean compareAndSet(V expectedReference, V newReference) {
+        return update(v -> v == expectedReference ? newReference : JmcRmwUpdate.NO_WRITE)
+                == expectedReference;
     }
 
     public V get() {
@@ -94,7 +85,7 @@ public class JmcAtomicReference<V> {
     }
 
     public void set(V newValue) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
                 newValue,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
@@ -105,28 +96,7 @@ public class JmcAtomicReference<V> {
     }
 
     public V getAndSet(V newValue) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            V result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    newValue,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            value = newValue;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return update(v -> newValue);
     }
 
     /**
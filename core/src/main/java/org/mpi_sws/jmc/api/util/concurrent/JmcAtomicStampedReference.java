@@ -1,167 +1,103 @@
 package org.mpi_sws.jmc.api.util.concurrent;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
 
-// TODO : FIX THIS CLASS
+/**
+ * A redefinition of {@link java.util.concurrent.atomic.AtomicStampedReference} for JMC model
+ * checking. As in the JDK, the reference and the stamp are held in an immutable pair stored in a
+ * single field, so that each operation is reported to the JMC runtime as a single event on that
+ * field. Updates are read-modify-write events.
+ *
+ * @param <V> the type of the reference
+ */
 public class JmcAtomicStampedReference<V> {
 
-    private int stamp;
+    private static final class Pair<T> {
+        final T reference;
+        final int stamp;
 
-    private V value;
+        private Pair(T reference, int stamp) {
+            this.reference = reference;
+            this.stamp = stamp;
+        }
+    }
 
-    private final JmcReentrantLock lock;
+    private Pair<V> pair;
 
     public JmcAtomicStampedReference(V initialValue, int initialStamp) {
-        JmcRuntimeUtils.writeEventWithoutYield(
+        Pair<V> initialPair = new Pair<>(initialValue, initialStamp);
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
                 this,
-                initialValue,
+                initialPair,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                "value",
+                "pair",
                 "Ljava/lang/Object;");
-        value = initialValue;
+        pair = initialPair;
         JmcRuntime.yield();
+    }
 
-        JmcRuntimeUtils.writeEventWithoutYield(
+    private Pair<V> readPair() {
+        JmcRuntimeUtils.readEventWithoutYield(
                 this,
-                initialStamp,
                 "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                "stamp",
-                "I");
-        stamp = initialStamp;
+                "pair",
+                "Ljava/lang/Object;");
+        Pair<V> result = pair;
         JmcRuntime.yield();
-
-        lock = new JmcReentrantLock();
+        return result;
     }
 
+    @SuppressWarnings("unchecked")
     public boolean compareAndSet(
             V expectedReference, V newReference, int expectedStamp, int newStamp) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            V readValue = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "stamp",
-                    "I");
-            int readStamp = stamp;
-
-            if (readValue == expectedReference && readStamp == expectedStamp) {
-                JmcRuntime.yield();
-
-                JmcRuntimeUtils.writeEventWithoutYield(
+        Pair<V> current = pair;
+        // A failed update only reads the pair
+        Object written =
+                JmcRuntimeUtils.rmwEventWithoutYield(
                         this,
-                        newReference,
+                        current,
+                        v -> {
+                            Pair<V> read = (Pair<V>) v;
+                            return read.reference == expectedReference
+                                            && read.stamp == expectedStamp
+                                    ? new Pair<>(newReference, newStamp)
+                                    : JmcRmwUpdate.NO_WRITE;
+                        },
                         "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                        "value",
+                        "pair",
                         "Ljava/lang/Object;");
-                value = newReference;
-                JmcRuntime.yield();
-
-                JmcRuntimeUtils.writeEventWithoutYield(
-                        this,
-                        newStamp,
-                        "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                        "stamp",
-                        "I");
-                stamp = newStamp;
-                JmcRuntime.yield();
-                return true;
-            }
-            JmcRuntime.yield();
-            return false;
-        } finally {
-            lock.unlock();
+        if (written != JmcRmwUpdate.NO_WRITE) {
+            pair = (Pair<V>) written;
         }
+        JmcRuntime.yield();
+        return written != JmcRmwUpdate.NO_WRITE;
     }
 
     public V getReference() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            V result = value;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return readPair().reference;
     }
 
     public int getStamp() {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "stamp",
-                    "I");
-            int result = stamp;
-            JmcRuntime.yield();
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        return readPair().stamp;
     }
 
     public void set(V newReference, int newStamp) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    newReference,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            value = newReference;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.writeEventWithoutYield(
-                    this,
-                    newStamp,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "stamp",
-                    "I");
-            stamp = newStamp;
-            JmcRuntime.yield();
-        } finally {
-            lock.unlock();
-        }
+        Pair<V> newPair = new Pair<>(newReference, newStamp);
+        JmcRuntimeUtils.atomicWriteEventWithoutYield(
+                this,
+                newPair,
+                "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
+                "pair",
+                "Ljava/lang/Object;");
+        pair = newPair;
+        JmcRuntime.yield();
     }
 
     public V get(int[] stampHolder) {
-        lock.lock();
-        try {
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "value",
-                    "Ljava/lang/Object;");
-            V result = value;
-            JmcRuntime.yield();
-
-            JmcRuntimeUtils.readEventWithoutYield(
-                    this,
-                    "org/mpi_sws/jmc/api/util/concurrent/JmcAtomicStampedReference",
-                    "stamp",
-                    "I");
-            int resultStamp = stamp;
-            JmcRuntime.yield();
-
-            stampHolder[0] = resultStamp;
-            return result;
-        } finally {
-            lock.unlock();
-        }
+        Pair<V> current = readPair();
+        stampHolder[0] = current.stamp;
+        return current.reference;
     }
 }
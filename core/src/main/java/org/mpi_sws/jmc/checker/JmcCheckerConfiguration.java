@@ -9,7 +9,9 @@ import org.mpi_sws.jmc.runtime.JmcRuntimeConfiguration;
 import org.mpi_sws.jmc.strategies.*;
 import org.mpi_sws.jmc.strategies.trust.TrustStrategy;
 
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Configuration for the JMC checker.
@@ -23,6 +25,13 @@ public class JmcCheckerConfiguration {
 
     private static final Logger LOGGER = LogManager.getLogger(JmcCheckerConfiguration.class);
 
+    /**
+     * Strategies whose iterations are independent given a seed. With more than one worker, these
+     * strategies split the iterations among the workers and each worker uses a seed derived from
+     * the configured one.
+     */
+    private static final Set<String> SEED_SHARDED_STRATEGIES = Set.of("random", "pct", "fair-pct", "pos", "coverage");
+
     private Integer numIterations;
 
     private String strategyType;
@@ -41,12 +50,30 @@ public class JmcCheckerConfiguration {
 
     private int pctFairBound;
 
+    private int saturationWindow;
+
+    private boolean parallelSolverChecks;
+
+    private double stackSpillWatermark;
+
     private String reportPath;
 
     private Duration timeout;
 
     private TrustStrategy.SchedulingPolicy schedulingPolicy;
 
+    private int workers;
+
+    private int workerIndex;
+
+    private String runId;
+
+    private boolean directHandoff;
+
+    private boolean sharednessOracle;
+
+    private boolean staticSnapshots;
+
     private JmcCheckerConfiguration() {
     }
 
@@ -121,6 +148,34 @@ public class JmcCheckerConfiguration {
         return pctFairBound;
     }
 
+    /**
+     * Returns the saturation window used by the {@code coverage} strategy.
+     *
+     * @return the number of iterations without a new graph before stopping; a value {@code <= 0}
+     *     never stops
+     */
+    public int getSaturationWindow() {
+        return saturationWindow;
+    }
+
+    /**
+     * Returns whether the symbolic satisfiability checks run concurrently.
+     *
+     * @return true if the satisfiability checks run concurrently
+     */
+    public boolean getParallelSolverChecks() {
+        return parallelSolverChecks;
+    }
+
+    /**
+     * Returns the fraction of the maximum heap above which the exploration stack spills to disk.
+     *
+     * @return the spill watermark, 0 if the stack is never spilled
+     */
+    public double getStackSpillWatermark() {
+        return stackSpillWatermark;
+    }
+
     /**
      * Sets the seed for the checker.
      *
@@ -155,26 +210,162 @@ public class JmcCheckerConfiguration {
         return schedulingPolicy;
     }
 
+    /**
+     * Returns the number of independent workers (JVMs) sharing the exploration.
+     *
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the index of this worker among the {@link #getWorkers()} workers.
+     *
+     * @return the worker index
+     */
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
+    /**
+     * Returns the identifier shared by the workers of one run, which tells the files they exchange
+     * in the report path apart from the ones left by earlier runs.
+     *
+     * @return the run id, or null if this is not a multi-worker run
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Returns whether yielding tasks hand off directly to the next task instead of going through
+     * the scheduler thread.
+     *
+     * @return true if direct handoff is enabled
+     */
+    public boolean getDirectHandoff() {
+        return directHandoff;
+    }
+
+    /**
+     * Returns whether the scheduling points after accesses to task-private locations are dropped.
+     * Only allowed with strategies that are not exhaustive.
+     *
+     * @return true if the sharedness oracle is enabled
+     */
+    public boolean getSharednessOracle() {
+        return sharednessOracle;
+    }
+
+    /**
+     * Returns whether the static fields of instrumented classes are restored from snapshots instead
+     * of re-running their static initializers.
+     *
+     * @return true if static snapshots are enabled
+     */
+    public boolean getStaticSnapshots() {
+        return staticSnapshots;
+    }
+
+    /**
+     * Checks whether the workers split the iterations and the seed of a seed-driven strategy, as
+     * opposed to partitioning a common exploration (see {@link #getWorkers()}).
+     *
+     * @return true if this is one worker of a seed-sharded run
+     */
+    public boolean isSeedSharded() {
+        return workers > 1
+                && strategyConstructor == null
+                && SEED_SHARDED_STRATEGIES.contains(strategyType);
+    }
+
+    /**
+     * Returns the number of iterations this worker runs. For seed-sharded runs the iterations are
+     * split as evenly as possible among the workers.
+     *
+     * @return the number of iterations of this worker
+     */
+    public Integer getWorkerNumIterations() {
+        if (!isSeedSharded() || numIterations == 0) {
+            return numIterations;
+        }
+        int share = numIterations / workers;
+        if (workerIndex < numIterations % workers) {
+            share++;
+        }
+        return share;
+    }
+
+    /**
+     * Returns the seed this worker uses. For seed-sharded runs each worker uses a different seed
+     * derived from {@link #getSeed()}.
+     *
+     * @return the seed of this worker
+     */
+    public Long getWorkerSeed() {
+        if (!isSeedSharded()) {
+            return seed;
+        }
+        return deriveWorkerSeed(seed, workerIndex);
+    }
+
+    /**
+     * Returns the report path of this worker. Each worker writes its reports (for instance the
+     * replay seed) to its own sub-directory of {@link #getReportPath()}, and the last worker to
+     * finish merges them into {@link #getReportPath()}.
+     *
+     * @return the report path of this worker
+     */
+    public String getWorkerReportPath() {
+        if (workers == 1) {
+            return reportPath;
+        }
+        return Paths.get(reportPath, "worker-" + workerIndex).toString();
+    }
+
+    /**
+     * Derives the seed of a worker from the seed of the run using the SplitMix64 finalizer, so
+     * that the random sequences of the workers are uncorrelated.
+     *
+     * @param seed        the seed of the run
+     * @param workerIndex the index of the worker
+     * @return the seed of the worker
+     */
+    public static long deriveWorkerSeed(long seed, int workerIndex) {
+        long z = seed + (workerIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Converts this configuration to a runtime configuration.
      *
      * @return a {@link JmcRuntimeConfiguration} based on this configuration
-     * @throws JmcInvalidStrategyException if the strategy type is invalid or the strategy cannot be
-     *                                     created
+     * @throws JmcInvalidStrategyException if the strategy type is invalid, the strategy cannot be
+     *                                     created or it is exhaustive and the sharedness oracle is
+     *                                     enabled
      */
     public JmcRuntimeConfiguration toRuntimeConfiguration() throws JmcInvalidStrategyException {
         SchedulingStrategy strategy;
         SchedulingStrategyConfiguration.Builder strategyConfigurationBuilder =
                 new SchedulingStrategyConfiguration.Builder()
-                        .seed(seed)
+                        .seed(getWorkerSeed())
                         .budget(budget)
                         .solver(solver)
                         .trustSchedulingPolicy(schedulingPolicy)
                         .bugDepth(bugDepth)
-                        .pctFairBound(pctFairBound);
+                        .pctFairBound(pctFairBound)
+                        .saturationWindow(saturationWindow)
+                        .parallelSolverChecks(parallelSolverChecks)
+                        .stackSpillWatermark(stackSpillWatermark)
+                        .workerPartition(workerIndex, workers);
         if (debug) {
             strategyConfigurationBuilder.debug();
-            strategyConfigurationBuilder.reportPath(reportPath);
+        }
+        if (debug || workers > 1) {
+            strategyConfigurationBuilder.reportPath(getWorkerReportPath());
         }
         if (strategyConstructor != null) {
             strategy = strategyConstructor.create(strategyConfigurationBuilder.build());
@@ -186,10 +377,18 @@ public class JmcCheckerConfiguration {
         if (strategy == null) {
             throw new JmcInvalidStrategyException("Strategy is null");
         }
+        if (sharednessOracle && strategy.isExhaustive()) {
+            // Also covers the strategies built by a constructor, such as @JmcTrustStrategy
+            throw new JmcInvalidStrategyException(
+                    "The sharedness oracle is unsound and cannot be used with an exhaustive strategy");
+        }
         return new JmcRuntimeConfiguration.Builder()
                 .strategy(strategy)
                 .debug(debug)
-                .reportPath(reportPath)
+                .reportPath(getWorkerReportPath())
+                .directHandoff(directHandoff)
+                .sharednessOracle(sharednessOracle)
+                .staticSnapshots(staticSnapshots)
                 .build();
     }
 
@@ -215,8 +414,16 @@ public class JmcCheckerConfiguration {
                 .budget(annotation.budget())
                 .bugDepth(annotation.bugDepth())
                 .pctFairBound(annotation.pctFairBound())
+                .saturationWindow(annotation.saturationWindow())
+                .parallelSolverChecks(annotation.parallelSolverChecks())
+                .stackSpillWatermark(annotation.stackSpillWatermark())
                 .timeout(annotation.timeout())
                 .schedulingPolicy(annotation.schedulingPolicy())
+                .workerPartition(0, annotation.workers())
+                .runId(System.getProperty("jmc.runId"))
+                .directHandoff(annotation.directHandoff())
+                .sharednessOracle(annotation.sharednessOracle())
+                .staticSnapshots(annotation.staticSnapshots())
                 .build();
     }
 
@@ -246,8 +453,26 @@ public class JmcCheckerConfiguration {
 
         private int pctFairBound;
 
+        private int saturationWindow;
+
+        private boolean parallelSolverChecks;
+
+        private double stackSpillWatermark;
+
         private TrustStrategy.SchedulingPolicy schedulingPolicy;
 
+        private int workers;
+
+        private int workerIndex;
+
+        private String runId;
+
+        private boolean directHandoff;
+
+        private boolean sharednessOracle;
+
+        private boolean staticSnapshots;
+
         public Builder() {
             this.numIterations = 0;
             this.strategyType = "random";
@@ -255,11 +480,20 @@ public class JmcCheckerConfiguration {
             this.debug = false;
             this.reportPath = "build/test-results/jmc-report";
             this.solver = "off";
-            this.seed = System.nanoTime();
+            this.seed = null;
             this.budget = 2;
             this.bugDepth = 3;
             this.pctFairBound = 0;
+            this.saturationWindow = 0;
+            this.parallelSolverChecks = false;
+            this.stackSpillWatermark = 0.0;
             this.timeout = null;
+            this.workers = 1;
+            this.workerIndex = 0;
+            this.runId = null;
+            this.directHandoff = false;
+            this.sharednessOracle = false;
+            this.staticSnapshots = false;
         }
 
         public Builder numIterations(Integer numIterations) {
@@ -293,6 +527,13 @@ public class JmcCheckerConfiguration {
             return this;
         }
 
+        /**
+         * Sets the seed of the strategy. Without one, a single checker uses a random seed and the
+         * workers of a run derive a common seed from the run id.
+         *
+         * @param seed the seed
+         * @return this builder
+         */
         public Builder seed(Long seed) {
             this.seed = seed;
             return this;
@@ -313,6 +554,21 @@ public class JmcCheckerConfiguration {
             return this;
         }
 
+        public Builder saturationWindow(int saturationWindow) {
+            this.saturationWindow = saturationWindow;
+            return this;
+        }
+
+        public Builder parallelSolverChecks(boolean parallelSolverChecks) {
+            this.parallelSolverChecks = parallelSolverChecks;
+            return this;
+        }
+
+        public Builder stackSpillWatermark(double stackSpillWatermark) {
+            this.stackSpillWatermark = stackSpillWatermark;
+            return this;
+        }
+
         public Builder timeout(Duration timeout) {
             this.timeout = timeout;
             return this;
@@ -332,11 +588,81 @@ public class JmcCheckerConfiguration {
             return this;
         }
 
+        /**
+         * Shares the exploration among {@code workers} independent workers (one per JVM) and
+         * configures this checker as worker {@code workerIndex}.
+         *
+         * @param workerIndex the index of this worker, in {@code [0, workers)}
+         * @param workers     the number of workers
+         * @return this builder
+         */
+        public Builder workerPartition(int workerIndex, int workers) {
+            this.workerIndex = workerIndex;
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the identifier shared by all the workers of one run. The launcher of the workers
+         * must pass a fresh one for every run.
+         *
+         * @param runId the run id
+         * @return this builder
+         */
+        public Builder runId(String runId) {
+            this.runId = runId;
+            return this;
+        }
+
+        public Builder directHandoff(boolean directHandoff) {
+            this.directHandoff = directHandoff;
+            return this;
+        }
+
+        public Builder sharednessOracle(boolean sharednessOracle) {
+            this.sharednessOracle = sharednessOracle;
+            return this;
+        }
+
+        public Builder staticSnapshots(boolean staticSnapshots) {
+            this.staticSnapshots = staticSnapshots;
+            return this;
+        }
+
         public JmcCheckerConfiguration build() throws JmcInvalidConfigurationException {
             if (numIterations == 0 && timeout == null) {
                 throw new JmcInvalidConfigurationException(
                         "Either numIterations or timeout must be set");
             }
+            if (workers < 1 || workerIndex < 0 || workerIndex >= workers) {
+                throw new JmcInvalidConfigurationException(
+                        "Invalid worker partition: index " + workerIndex + " of " + workers);
+            }
+            if (workers > 1
+                    && numIterations != 0
+                    && numIterations < workers
+                    && strategyConstructor == null
+                    && SEED_SHARDED_STRATEGIES.contains(strategyType)) {
+                throw new JmcInvalidConfigurationException(
+                        "Cannot split " + numIterations + " iterations among " + workers + " workers");
+            }
+            if (sharednessOracle && strategyConstructor == null && strategyType.equals("trust")) {
+                throw new JmcInvalidConfigurationException(
+                        "The sharedness oracle is unsound and cannot be used with the trust strategy");
+            }
+            if (workers > 1 && runId == null) {
+                // Without it, a worker cannot tell the bug marker and the reports of its run from
+                // the ones left by an earlier run
+                throw new JmcInvalidConfigurationException(
+                        "The workers of a run must share a run id");
+            }
+            Long seed = this.seed;
+            if (seed == null) {
+                // Workers partition or shard one exploration, so they must agree on the seed even
+                // when none is given. The run id is shared and String#hashCode is stable across
+                // JVMs.
+                seed = workers > 1 ? (long) runId.hashCode() : System.nanoTime();
+            }
             LOGGER.info("Using seed: {}", seed);
             JmcCheckerConfiguration config = new JmcCheckerConfiguration();
             config.numIterations = numIterations;
@@ -349,8 +675,17 @@ public class JmcCheckerConfiguration {
             config.budget = budget;
             config.bugDepth = bugDepth;
             config.pctFairBound = pctFairBound;
+            config.saturationWindow = saturationWindow;
+            config.parallelSolverChecks = parallelSolverChecks;
+            config.stackSpillWatermark = stackSpillWatermark;
             config.timeout = timeout;
             config.schedulingPolicy = schedulingPolicy;
+            config.workers = workers;
+            config.workerIndex = workerIndex;
+            config.runId = runId;
+            config.directHandoff = directHandoff;
+            config.sharednessOracle = sharednessOracle;
+            config.staticSnapshots = staticSnapshots;
             return config;
         }
     }
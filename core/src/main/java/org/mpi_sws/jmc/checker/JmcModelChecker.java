@@ -10,6 +10,13 @@ import org.mpi_sws.jmc.runtime.JmcRuntime;
 import org.mpi_sws.jmc.runtime.JmcRuntimeConfiguration;
 import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
 import org.mpi_sws.jmc.util.ExceptionUtil;
+import org.mpi_sws.jmc.util.FileUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * The JmcModelChecker class is responsible for managing the model checking process. It uses a
@@ -20,6 +27,19 @@ public class JmcModelChecker {
 
     private static final Logger LOGGER = LogManager.getLogger(JmcModelChecker.class);
 
+    /**
+     * Name of the file, in the shared report path, with which the first worker that finds a bug
+     * stops the other workers of a seed-sharded run. Its first line is the token of the run (see
+     * {@link #runToken()}), so that a marker left by an earlier run is ignored. Workers never delete
+     * it: a worker that starts late must still see the marker of a worker that already stopped.
+     */
+    private static final String WORKER_BUG_MARKER = "worker-bug-found.txt";
+
+    /**
+     * Number of iterations between two checks of the {@link #WORKER_BUG_MARKER}.
+     */
+    private static final int WORKER_POLL_INTERVAL = 100;
+
     private final JmcCheckerConfiguration config;
 
     /**
@@ -42,12 +62,22 @@ public class JmcModelChecker {
         JmcModelCheckerReport report = new JmcModelCheckerReport(runtimeConfig.getReportPath());
         report.setupReportPath();
         long startTime = System.currentTimeMillis();
+        String bugMarker = null;
+        if (config.getWorkers() > 1) {
+            report.setWorkerIndex(config.getWorkerIndex());
+            report.setRunId(config.getRunId());
+            LOGGER.info(
+                    "Running as worker {} of {}", config.getWorkerIndex(), config.getWorkers());
+            if (config.isSeedSharded()) {
+                bugMarker = Paths.get(config.getReportPath(), WORKER_BUG_MARKER).toString();
+            }
+        }
         long timeoutMarker = 0L;
         if (config.getTimeout() != null) {
             timeoutMarker = startTime + config.getTimeout().toMillis();
         }
         JmcRuntime.setup(runtimeConfig);
-        int numIterations = config.getNumIterations();
+        int numIterations = config.getWorkerNumIterations();
         int iteration = 0;
         try {
             LOGGER.info("JMC checker started");
@@ -79,6 +109,7 @@ public class JmcModelChecker {
                                 "Halting execution: {} due to exception: {}",
                                 iteration,
                                 e.getMessage());
+                        signalOtherWorkers(bugMarker, report);
                         throw e;
                     }
                 } catch (Exception e) {
@@ -93,6 +124,7 @@ public class JmcModelChecker {
                         LOGGER.error(
                                 "Assertion error in iteration {}: {}", iteration, e.getMessage());
                         JmcRuntime.recordTrace();
+                        signalOtherWorkers(bugMarker, report);
                         throw HaltCheckerException.error(
                                 "Assertion error in iteration " + iteration + ": " + e.getMessage(),
                                 e);
@@ -109,6 +141,12 @@ public class JmcModelChecker {
                     if (numIterations != 0 && iteration >= numIterations && successfulIteration) {
                         throw HaltCheckerException.ok();
                     }
+                    if (bugMarker != null
+                            && iteration % WORKER_POLL_INTERVAL == 0
+                            && isSignalledByOtherWorker(bugMarker)) {
+                        LOGGER.info("Another worker found a bug. Stopping at iteration {}", iteration);
+                        throw HaltCheckerException.ok();
+                    }
                     long curTime = System.currentTimeMillis();
                     if (timeoutMarker != 0L && curTime > timeoutMarker && successfulIteration) {
                         report.setErrorIteration(iteration);
@@ -151,17 +189,92 @@ public class JmcModelChecker {
                 throw new JmcCheckerException(e.getMessage(), e);
             }
         } finally {
-            long endTime = System.nanoTime();
+            long endTime = System.currentTimeMillis();
             JmcRuntime.tearDown(report);
             report.setTotalTimeMillis(endTime - startTime);
             int totalIterations = report.getTotalIterations();
             LOGGER.info("Model checking explored: {} completed iterations", totalIterations -
                     report.getBlockedIterations());
             LOGGER.info("Model checking explored: {} blocked iterations", report.getBlockedIterations());
+            if (config.getWorkers() > 1) {
+                mergeWorkerReports(report);
+            }
         }
         return report;
     }
 
+    /**
+     * Stores the report of this worker and, if it is the last worker of the run to finish, merges
+     * the reports of all the workers into the report path shared by the workers.
+     */
+    private void mergeWorkerReports(JmcModelCheckerReport report) {
+        report.store();
+        JmcModelCheckerReport merged =
+                JmcModelCheckerReport.mergeWorkerReports(
+                        config.getReportPath(), config.getWorkers(), config.getRunId());
+        if (merged == null) {
+            return;
+        }
+        // Two workers finishing together may both merge, they store the same report
+        merged.store();
+        if (merged.getErrorMessage() != null) {
+            LOGGER.error(
+                    "Worker {} of run {} found a bug: {}",
+                    merged.getWorkerIndex(),
+                    config.getRunId(),
+                    merged.getErrorMessage());
+        } else {
+            LOGGER.info(
+                    "All {} workers of run {} finished covering: {} iterations",
+                    config.getWorkers(),
+                    config.getRunId(),
+                    merged.getTotalIterations());
+        }
+    }
+
+    /**
+     * Records which worker, seed and iteration found a bug in the shared report path, so that the
+     * other workers of a seed-sharded run stop.
+     */
+    private void signalOtherWorkers(String bugMarker, JmcModelCheckerReport report) {
+        if (bugMarker == null) {
+            return;
+        }
+        FileUtil.unsafeStoreToFile(
+                bugMarker,
+                String.format(
+                        "%s%nworker=%d seed=%d iteration=%d replaySeed=%s%n",
+                        runToken(),
+                        config.getWorkerIndex(),
+                        config.getWorkerSeed(),
+                        report.getErrorIteration(),
+                        report.getReplaySeed()));
+    }
+
+    /**
+     * Checks whether a worker of this run has recorded a bug in the given marker.
+     */
+    private boolean isSignalledByOtherWorker(String bugMarker) {
+        Path path = Paths.get(bugMarker);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return runToken().equals(reader.readLine());
+        } catch (IOException e) {
+            // The marker is being written, the next poll reads it
+            return false;
+        }
+    }
+
+    /**
+     * Returns the token identifying the run this worker belongs to: the run id shared by its
+     * workers and the seed they derive their own seeds from.
+     */
+    private String runToken() {
+        return String.format("run=%s seed=%d", config.getRunId(), config.getSeed());
+    }
+
     /**
      * Replays the given test target. The replay is handled by the Strategy
      *
@@ -1,14 +1,30 @@
 package org.mpi_sws.jmc.checker;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.mpi_sws.jmc.util.FileUtil;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * The JmcModelCheckerReport class represents a report generated by the JMC model checker.
  */
 public class JmcModelCheckerReport {
 
+    /**
+     * Name of the file in which a worker stores its report, and in which the merged report of the
+     * workers is stored.
+     */
+    public static final String REPORT_FILE = "report.json";
+
     private final HashMap<String, Object> reportData;
 
     private final String reportPath;
@@ -85,6 +101,164 @@ public class JmcModelCheckerReport {
         return (Integer) o;
     }
 
+    public void setWorkerIndex(Integer workerIndex) {
+        setParam("workerIndex", workerIndex);
+    }
+
+    public Integer getWorkerIndex() {
+        return getParam("workerIndex");
+    }
+
+    public void setRunId(String runId) {
+        setParam("runId", runId);
+    }
+
+    public String getRunId() {
+        return getParam("runId");
+    }
+
+    /**
+     * Merges the reports of the workers that shared a run into a single report.
+     *
+     * <p>The iteration counts are summed up, the total time is the time of the slowest worker and
+     * the error (if any) is the one of the first worker that failed.
+     *
+     * @param reportPath the report path of the merged report
+     * @param reports    the reports of the workers
+     * @return the merged report
+     */
+    public static JmcModelCheckerReport merge(
+            String reportPath, List<JmcModelCheckerReport> reports) {
+        JmcModelCheckerReport merged = new JmcModelCheckerReport(reportPath);
+        int totalIterations = 0;
+        int blockedIterations = 0;
+        long totalTimeMillis = 0L;
+        for (JmcModelCheckerReport report : reports) {
+            totalIterations += report.getTotalIterations();
+            blockedIterations += report.getBlockedIterations();
+            Long time = report.getTotalTimeMillis();
+            if (time != null && time > totalTimeMillis) {
+                totalTimeMillis = time;
+            }
+            if (merged.getErrorMessage() == null && report.getErrorMessage() != null) {
+                merged.setErrorMessage(report.getErrorMessage());
+                merged.setErrorIteration(report.getErrorIteration());
+                merged.setWorkerIndex(report.getWorkerIndex());
+                merged.setReplaySeed(report.getReplaySeed());
+            }
+            if (merged.getRunId() == null) {
+                merged.setRunId(report.getRunId());
+            }
+        }
+        merged.setTotalIterations(totalIterations);
+        merged.setBlockedIterations(blockedIterations);
+        merged.setTotalTimeMillis(totalTimeMillis);
+        return merged;
+    }
+
+    /**
+     * Merges the reports stored by the workers of the given run under the <code>worker-&lt;index
+     * &gt;</code> sub-directories of the report path.
+     *
+     * @param reportPath the report path shared by the workers
+     * @param workers    the number of workers
+     * @param runId      the run id shared by the workers
+     * @return the merged report, or null if a worker has not stored its report for this run yet
+     */
+    public static JmcModelCheckerReport mergeWorkerReports(
+            String reportPath, int workers, String runId) {
+        List<JmcModelCheckerReport> reports = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            JmcModelCheckerReport report =
+                    read(Paths.get(reportPath, "worker-" + i, REPORT_FILE));
+            // A report left by an earlier run does not count
+            if (report == null || !runId.equals(report.getRunId())) {
+                return null;
+            }
+            reports.add(report);
+        }
+        return merge(reportPath, reports);
+    }
+
+    /**
+     * Stores the outcome of the check in the {@link #REPORT_FILE} of the report path. The file is
+     * replaced atomically, so that a worker merging the reports never reads a partial one.
+     */
+    public void store() {
+        JsonObject json = new JsonObject();
+        json.addProperty("runId", getRunId());
+        json.addProperty("workerIndex", getWorkerIndex());
+        json.addProperty("totalIterations", getTotalIterations());
+        json.addProperty("blockedIterations", getBlockedIterations());
+        json.addProperty("totalTimeMillis", getTotalTimeMillis());
+        json.addProperty("errorIteration", getErrorIteration());
+        json.addProperty("errorMessage", getErrorMessage());
+        json.addProperty("replaySeed", getReplaySeed());
+        try {
+            Path target = Paths.get(reportPath, REPORT_FILE);
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), REPORT_FILE, ".tmp");
+            Files.writeString(temp, json.toString());
+            Files.move(
+                    temp,
+                    target,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store the report in " + reportPath, e);
+        }
+    }
+
+    /**
+     * Reads a report stored with {@link #store()}.
+     *
+     * @param file the report file
+     * @return the report, or null if the file does not exist
+     */
+    public static JmcModelCheckerReport read(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read the report " + file, e);
+        }
+        JmcModelCheckerReport report = new JmcModelCheckerReport(file.getParent().toString());
+        JsonElement value;
+        if ((value = field(json, "runId")) != null) {
+            report.setRunId(value.getAsString());
+        }
+        if ((value = field(json, "workerIndex")) != null) {
+            report.setWorkerIndex(value.getAsInt());
+        }
+        if ((value = field(json, "totalIterations")) != null) {
+            report.setTotalIterations(value.getAsInt());
+        }
+        if ((value = field(json, "blockedIterations")) != null) {
+            report.setBlockedIterations(value.getAsInt());
+        }
+        if ((value = field(json, "totalTimeMillis")) != null) {
+            report.setTotalTimeMillis(value.getAsLong());
+        }
+        if ((value = field(json, "errorIteration")) != null) {
+            report.setErrorIteration(value.getAsInt());
+        }
+        if ((value = field(json, "errorMessage")) != null) {
+            report.setErrorMessage(value.getAsString());
+        }
+        if ((value = field(json, "replaySeed")) != null) {
+            report.setReplaySeed(value.getAsLong());
+        }
+        return report;
+    }
+
+    private static JsonElement field(JsonObject json, String name) {
+        JsonElement value = json.get(name);
+        return value == null || value.isJsonNull() ? null : value;
+    }
+
     public void setParam(String key, Object value) {
         this.reportData.put(key, value);
     }
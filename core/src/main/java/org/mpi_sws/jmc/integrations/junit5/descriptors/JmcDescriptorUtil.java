@@ -1,10 +1,13 @@
 package org.mpi_sws.jmc.integrations.junit5.descriptors;
 
+import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
 import org.mpi_sws.jmc.annotations.strategies.JmcMeasureGraphCoverage;
 import org.mpi_sws.jmc.annotations.strategies.JmcTrustStrategy;
 import org.mpi_sws.jmc.checker.JmcCheckerConfiguration;
 import org.mpi_sws.jmc.checker.exceptions.JmcInvalidConfigurationException;
+import org.mpi_sws.jmc.strategies.JmcInvalidStrategyException;
 import org.mpi_sws.jmc.strategies.SchedulingStrategyConfiguration;
+import org.mpi_sws.jmc.strategies.SchedulingStrategyFactory;
 import org.mpi_sws.jmc.strategies.trust.MeasureGraphCoverageStrategy;
 import org.mpi_sws.jmc.strategies.trust.MeasureGraphCoverageStrategyConfig;
 import org.mpi_sws.jmc.strategies.trust.TrustStrategy;
@@ -24,6 +27,10 @@ public class JmcDescriptorUtil {
      * Checks the provided class and method for JMC trust strategy annotations and updates the JMC
      * checker configuration builder accordingly.
      *
+     * <p>Without a trust strategy annotation, a {@link JmcMeasureGraphCoverage} annotation wraps
+     * the strategy named in {@link JmcCheckConfiguration#strategy()}, so that the graph coverage of
+     * the sampling strategies can be measured as well.
+     *
      * @param builder The JMC checker configuration builder to update.
      * @param clazz   The class to check for annotations.
      * @param method  The method to check for annotations.
@@ -36,11 +43,48 @@ public class JmcDescriptorUtil {
             return updateBuilderFromAnnotation(builder, method);
         } else if (clazz != null && hasStrategyAnnotation(clazz)) {
             return updateBuilderFromAnnotation(builder, clazz);
+        } else if (method != null && method.isAnnotationPresent(JmcMeasureGraphCoverage.class)) {
+            return measureCoverage(
+                    builder, method.getAnnotation(JmcMeasureGraphCoverage.class), clazz, method);
+        } else if (clazz != null && clazz.isAnnotationPresent(JmcMeasureGraphCoverage.class)) {
+            return measureCoverage(
+                    builder, clazz.getAnnotation(JmcMeasureGraphCoverage.class), clazz, method);
         } else {
             return builder;
         }
     }
 
+    private static JmcCheckerConfiguration.Builder measureCoverage(
+            JmcCheckerConfiguration.Builder builder,
+            JmcMeasureGraphCoverage coverageAnnotation,
+            Class<?> clazz,
+            Method method)
+            throws JmcInvalidConfigurationException {
+        JmcCheckConfiguration checkAnnotation = null;
+        if (method != null) {
+            checkAnnotation = method.getAnnotation(JmcCheckConfiguration.class);
+        }
+        if (checkAnnotation == null && clazz != null) {
+            checkAnnotation = clazz.getAnnotation(JmcCheckConfiguration.class);
+        }
+        String strategyType = checkAnnotation == null ? "random" : checkAnnotation.strategy();
+        if (!SchedulingStrategyFactory.isValidStrategy(strategyType)) {
+            throw new JmcInvalidConfigurationException("Invalid strategy: " + strategyType);
+        }
+        SchedulingStrategyConfiguration.SchedulingStrategyConstructor constructor =
+                (config) -> {
+                    try {
+                        return SchedulingStrategyFactory.createSchedulingStrategy(
+                                strategyType, config);
+                    } catch (JmcInvalidStrategyException e) {
+                        // The strategy name was validated above
+                        throw new IllegalStateException(e);
+                    }
+                };
+        return builder.strategyConstructor(
+                getCoverageStrategyConstructor(coverageAnnotation, constructor));
+    }
+
     private static boolean hasStrategyAnnotation(Method method) {
         return method.isAnnotationPresent(JmcTrustStrategy.class);
     }
@@ -120,13 +164,18 @@ public class JmcDescriptorUtil {
             if (annotation.seed() != 0L) {
                 seed = annotation.seed();
             }
-            return new TrustStrategy(
-                    seed,
-                    annotation.schedulingPolicy(),
-                    annotation.debug(),
-                    annotation.reportPath(),
-                    annotation.loggerTree(),
-                    annotation.solver());
+            TrustStrategy strategy =
+                    new TrustStrategy(
+                            seed,
+                            annotation.schedulingPolicy(),
+                            annotation.debug(),
+                            annotation.reportPath(),
+                            annotation.loggerTree(),
+                            annotation.solver());
+            strategy.setWorkerPartition(config.getWorkerIndex(), config.getWorkers());
+            strategy.setParallelSolverChecks(config.getParallelSolverChecks());
+            strategy.setStackSpillWatermark(config.getStackSpillWatermark());
+            return strategy;
         };
     }
 }
@@ -50,7 +50,10 @@ public class JmcMethodTestDescriptor extends AbstractTestDescriptor
         long seed = annotation.seed();
         int budget = annotation.budget();
         long timeout = annotation.timeout();
-        if (annotation.seed() == 0L) {
+        int workers = Integer.getInteger("jmc.workers", annotation.workers());
+        int workerIndex = Integer.getInteger("jmc.workerIndex", 0);
+        // Workers partition a common exploration tree, so they must agree on the seed
+        if (annotation.seed() == 0L && workers == 1) {
             seed = System.nanoTime();
         }
         return builder.numIterations(annotation.numIterations())
@@ -61,7 +64,15 @@ public class JmcMethodTestDescriptor extends AbstractTestDescriptor
                 .reportPath(annotation.reportPath())
                 .strategyType(annotation.strategy())
                 .solver(annotation.solver())
-                .schedulingPolicy(annotation.schedulingPolicy());
+                .schedulingPolicy(annotation.schedulingPolicy())
+                .saturationWindow(annotation.saturationWindow())
+                .parallelSolverChecks(annotation.parallelSolverChecks())
+                .stackSpillWatermark(annotation.stackSpillWatermark())
+                .workerPartition(workerIndex, workers)
+                .runId(System.getProperty("jmc.runId"))
+                .directHandoff(annotation.directHandoff())
+                .sharednessOracle(annotation.sharednessOracle())
+                .staticSnapshots(annotation.staticSnapshots());
     }
 
     /**
@@ -130,7 +141,9 @@ public class JmcMethodTestDescriptor extends AbstractTestDescriptor
             } else {
                 JmcModelCheckerReport report =
                         JmcTestExecutor.execute(testMethod, methodInstance, config);
-                if (testMethod.getAnnotation(JmcExpectExecutions.class) != null) {
+                // A single worker only explores its share of the executions
+                if (testMethod.getAnnotation(JmcExpectExecutions.class) != null
+                        && config.getWorkers() == 1) {
                     JmcExpectExecutions expectExecutions =
                             testMethod.getAnnotation(JmcExpectExecutions.class);
                     int completeIteration = report.getTotalIterations() - report.getBlockedIterations();
@@ -0,0 +1,164 @@
+package org.mpi_sws.jmc.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A runtime event for an access to a field: a read, a write, or a lock event on the field.
+ *
+ * <p>These events are reported on every instrumented field access. Building them through {@link
+ * JmcRuntimeEvent.Builder} costs a builder, a {@link HashMap} and its entries per access. Instead,
+ * this class stores the parameters in typed fields. The owner, name and descriptor strings are
+ * constants of the instrumented class and are interned by the JVM, so they are shared by all the
+ * events of a field.
+ *
+ * <p>The parameters stay visible through {@link #getParam(String)} under their usual keys ({@code
+ * "instance"}, {@code "owner"}, {@code "name"}, {@code "descriptor"}, {@code "value"} and {@code
+ * "newValue"}), so the consumers of the generic event need not know about this class. Any other
+ * parameter set with {@link #setParam(String, Object)} is kept in the parameter map of the
+ * superclass.
+ */
+public class JmcFieldAccessEvent extends JmcRuntimeEvent {
+
+    /** The instance owning the field, or {@code null} for a static field. */
+    private final Object instance;
+    /** The internal name of the class declaring the field. */
+    private final String owner;
+    /** The name of the field. */
+    private final String name;
+    /** The descriptor of the field. */
+    private final String descriptor;
+    /** The value of the field before the access (lock and read-modify-write events only). */
+    private final Object value;
+    /** The value written to the field (write, lock and read-modify-write events). */
+    private final Object newValue;
+
+    /**
+     * Constructs a new field access event.
+     *
+     * @param type       the type of the event
+     * @param taskId     the ID of the task that generated the event
+     * @param instance   the instance owning the field, or {@code null} for a static field
+     * @param owner      the internal name of the class declaring the field
+     * @param name       the name of the field
+     * @param descriptor the descriptor of the field
+     * @param value      the value of the field before the access
+     * @param newValue   the value written to the field
+     */
+    public JmcFieldAccessEvent(
+            Type type,
+            Long taskId,
+            Object instance,
+            String owner,
+            String name,
+            String descriptor,
+            Object value,
+            Object newValue) {
+        super(type, taskId, null);
+        this.instance = instance;
+        this.owner = owner;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.value = value;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Returns the instance owning the field.
+     *
+     * @return the instance owning the field, or {@code null} for a static field
+     */
+    public Object getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the internal name of the class declaring the field.
+     *
+     * @return the owner of the field
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the name of the field.
+     *
+     * @return the name of the field
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the descriptor of the field.
+     *
+     * @return the descriptor of the field
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Returns the value of the field before the access.
+     *
+     * @return the value of the field before the access
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the value written to the field.
+     *
+     * @return the value written to the field
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getParam(String key) {
+        switch (key) {
+            case "instance":
+                return (T) instance;
+            case "owner":
+                return (T) owner;
+            case "name":
+                return (T) name;
+            case "descriptor":
+                return (T) descriptor;
+            case "value":
+                return (T) value;
+            case "newValue":
+                return (T) newValue;
+            default:
+                return super.getParam(key);
+        }
+    }
+
+    /**
+     * Returns the parameters of the event as a new map.
+     *
+     * <p>The map is built on each call and is meant for debugging; use {@link #getParam(String)}
+     * or the typed getters on hot paths.
+     *
+     * @return the parameters of the event
+     */
+    @Override
+    public Map<String, Object> getParams() {
+        Map<String, Object> params = new HashMap<>();
+        Map<String, Object> extra = super.getParams();
+        if (extra != null) {
+            params.putAll(extra);
+        }
+        params.put("instance", instance);
+        params.put("owner", owner);
+        params.put("name", name);
+        params.put("descriptor", descriptor);
+        params.put("value", value);
+        params.put("newValue", newValue);
+        return params;
+    }
+}
@@ -0,0 +1,53 @@
+package org.mpi_sws.jmc.runtime;
+
+import org.mpi_sws.jmc.api.util.concurrent.JmcReentrantLock;
+
+/**
+ * An object that holds its own monitor.
+ *
+ * <p>The instrumentation adds this interface to the classes with {@code synchronized} methods or
+ * blocks, together with a synthetic field storing the monitor and the two accessors below. The
+ * monitor of such an object is then read and written in constant time, without a lookup in a
+ * shared map. The monitors of the other objects are kept by {@link JmcMonitorTable}.
+ *
+ * <p>Not intended for direct use within the codebase.
+ */
+public interface JmcMonitorHolder {
+
+    /**
+     * Returns the monitor stored in the object.
+     *
+     * @return the monitor, or null if none was stored yet
+     */
+    Monitor $jmcGetMonitor();
+
+    /**
+     * Stores the monitor of the object.
+     *
+     * @param monitor the monitor to store
+     */
+    void $jmcSetMonitor(Monitor monitor);
+
+    /**
+     * The lock backing the {@code synchronized} methods and blocks of an object, tagged with the
+     * iteration it was created in. A monitor of an earlier iteration is stale and treated as absent.
+     */
+    final class Monitor {
+        /** The lock of the object. */
+        JmcReentrantLock lock;
+
+        /** The epoch of {@link JmcMonitorTable} the lock was created in. */
+        int epoch;
+
+        /**
+         * Constructs a monitor.
+         *
+         * @param lock the lock of the object
+         * @param epoch the current epoch
+         */
+        Monitor(JmcReentrantLock lock, int epoch) {
+            this.lock = lock;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.mpi_sws.jmc.runtime;
+
+import org.mpi_sws.jmc.api.util.concurrent.JmcReentrantLock;
+import org.mpi_sws.jmc.runtime.JmcMonitorHolder.Monitor;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Holds the {@link JmcReentrantLock}s backing instrumented {@code synchronized} methods and blocks.
+ *
+ * <p>Objects are keyed by identity. An instance of an instrumented class is a {@link
+ * JmcMonitorHolder} and stores its monitor itself. The monitors of the other objects, such as
+ * library objects used in {@code synchronized} blocks, are kept in an identity map. The monitors of
+ * static {@code synchronized} methods are keyed by class name.
+ *
+ * <p>Every monitor is tagged with the epoch it was created in. Starting a new iteration increments
+ * the epoch, which makes all the monitors of the previous iterations stale, and only empties the
+ * identity map of the other objects: a lock refers to its object, so these entries would otherwise
+ * keep the objects of the previous iterations alive.
+ *
+ * <p>Only one task runs at a time; the table is not synchronized.
+ */
+class JmcMonitorTable {
+
+    /** The current epoch, incremented by {@link #clear()}. */
+    private int epoch = 1;
+
+    /** Monitors of the static synchronized methods, keyed by class name. */
+    private final Map<String, Monitor> classMonitors = new HashMap<>();
+
+    /** Monitors of the objects that are not a {@link JmcMonitorHolder}, keyed by identity. */
+    private final Map<Object, Monitor> foreignMonitors = new IdentityHashMap<>();
+
+    /**
+     * Returns the lock of the given object in the current iteration.
+     *
+     * @param instance the object
+     * @return the lock, or null if none was created in the current iteration
+     */
+    JmcReentrantLock get(Object instance) {
+        return current(monitorOf(instance));
+    }
+
+    /**
+     * Returns the lock of the given object, creating it if there is none in the current iteration.
+     *
+     * <p>Note: the lock created does not call the initial write.
+     *
+     * @param instance the object
+     * @return the lock of the object
+     */
+    JmcReentrantLock getOrCreate(Object instance) {
+        Monitor monitor = monitorOf(instance);
+        if (monitor == null) {
+            monitor = new Monitor(new JmcReentrantLock(instance), epoch);
+            setMonitor(instance, monitor);
+        } else if (monitor.epoch != epoch) {
+            monitor.lock = new JmcReentrantLock(instance);
+            monitor.epoch = epoch;
+        }
+        return monitor.lock;
+    }
+
+    /**
+     * Creates a new lock for the given object, replacing the previous one.
+     *
+     * @param instance the object
+     */
+    void register(Object instance) {
+        JmcReentrantLock lock = new JmcReentrantLock();
+        Monitor monitor = monitorOf(instance);
+        if (monitor == null) {
+            setMonitor(instance, new Monitor(lock, epoch));
+        } else {
+            monitor.lock = lock;
+            monitor.epoch = epoch;
+        }
+    }
+
+    /**
+     * Returns the lock of the static synchronized methods of the given class in the current
+     * iteration.
+     *
+     * @param className the name of the class
+     * @return the lock, or null if none was created in the current iteration
+     */
+    JmcReentrantLock getClassLock(String className) {
+        return current(classMonitors.get(className));
+    }
+
+    /**
+     * Creates a new lock for the static synchronized methods of the given class, replacing the
+     * previous one.
+     *
+     * @param className the name of the class
+     */
+    void registerClass(String className) {
+        JmcReentrantLock lock = new JmcReentrantLock();
+        Monitor monitor = classMonitors.get(className);
+        if (monitor == null) {
+            classMonitors.put(className, new Monitor(lock, epoch));
+        } else {
+            monitor.lock = lock;
+            monitor.epoch = epoch;
+        }
+    }
+
+    /** Makes all the locks stale, for the next iteration. */
+    void clear() {
+        epoch++;
+        if (!foreignMonitors.isEmpty()) {
+            foreignMonitors.clear();
+        }
+    }
+
+    private JmcReentrantLock current(Monitor monitor) {
+        if (monitor == null || monitor.epoch != epoch) {
+            return null;
+        }
+        return monitor.lock;
+    }
+
+    private Monitor monitorOf(Object instance) {
+        if (instance instanceof JmcMonitorHolder holder) {
+            return holder.$jmcGetMonitor();
+        }
+        return foreignMonitors.get(instance);
+    }
+
+    private void setMonitor(Object instance, Monitor monitor) {
+        if (instance instanceof JmcMonitorHolder holder) {
+            holder.$jmcSetMonitor(monitor);
+        } else {
+            foreignMonitors.put(instance, monitor);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.mpi_sws.jmc.runtime;
+
+/**
+ * The update of an atomic read-modify-write: maps the value it reads to the value it writes.
+ *
+ * <p>The update is reported with the read-modify-write event, see {@link
+ * JmcRuntimeUtils#rmwEventWithoutYield(Object, Object, JmcRmwUpdate, String, String, String)}. A
+ * strategy that changes the write the operation reads from can apply it to the value of that write
+ * to know what the operation does, e.g. whether a compare-and-set succeeds.
+ */
+@FunctionalInterface
+public interface JmcRmwUpdate {
+
+    /**
+     * Returned by {@link #apply(Object)} when the operation does not write, as for a failed
+     * compare-and-set.
+     */
+    Object NO_WRITE = new Object();
+
+    /**
+     * Returns the value written by the operation when it reads the given value.
+     *
+     * @param value the value read, boxed for primitive fields
+     * @return the value written, or {@link #NO_WRITE} if the operation does not write
+     */
+    Object apply(Object value);
+}
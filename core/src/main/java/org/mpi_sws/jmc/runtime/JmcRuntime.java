@@ -60,6 +60,14 @@ public class JmcRuntime {
      */
     private static JmcRuntimeConfiguration config;
 
+    /**
+     * Drops the yields that follow accesses to task-private locations.
+     *
+     * <p>Set in {@link #setup(JmcRuntimeConfiguration)} when the sharedness oracle is enabled and
+     * {@code null} otherwise. Kept across iterations so that the shared fields are learned.
+     */
+    private static SharednessOracle sharednessOracle;
+
     /**
      * Sets up the runtime with the given configuration.
      *
@@ -68,11 +76,14 @@ public class JmcRuntime {
     public static void setup(JmcRuntimeConfiguration config) {
         LOGGER.debug("Setting up!");
         JmcRuntime.config = config;
+        sharednessOracle = config.getSharednessOracle() ? new SharednessOracle() : null;
+        JmcRuntimeUtils.setStaticSnapshots(config.getStaticSnapshots());
         scheduler =
                 new Scheduler(
                         config.getStrategy(),
                         config.getSchedulerTries(),
-                        config.getSchedulerTrySleepTimeNanos());
+                        config.getSchedulerTrySleepTimeNanos(),
+                        config.getDirectHandoff());
         scheduler.start();
     }
 
@@ -90,6 +101,10 @@ public class JmcRuntime {
     public static void setupReplay(JmcRuntimeConfiguration config) throws JmcCheckerException {
         LOGGER.debug("Setting up for replay!");
         JmcRuntime.config = config;
+        // The yields dropped by the oracle depend on what earlier iterations learned, which a
+        // replay cannot reproduce. Replay every scheduling point instead.
+        sharednessOracle = null;
+        JmcRuntimeUtils.setStaticSnapshots(config.getStaticSnapshots());
         SchedulingStrategy strategy = config.getStrategy();
         if (!(strategy instanceof ReplayableSchedulingStrategy)) {
             LOGGER.error(
@@ -101,7 +116,8 @@ public class JmcRuntime {
                 new Scheduler(
                         strategy,
                         config.getSchedulerTries(),
-                        config.getSchedulerTrySleepTimeNanos());
+                        config.getSchedulerTrySleepTimeNanos(),
+                        config.getDirectHandoff());
         scheduler.start();
     }
 
@@ -152,8 +168,9 @@ public class JmcRuntime {
      * <p>When debug logging is enabled, redirects logs to a per-iteration file. Initializes the
      * strategy for the iteration, creates the main task (marking it {@link
      * TaskManager.TaskState#BLOCKED}), binds the scheduler to the task manager, emits the {@link
-     * JmcRuntimeEvent.Type#START_EVENT} for the main task, and yields control to the scheduler. From
-     * the second iteration onward, re-invokes the static initializers of instrumented classes.
+     * JmcRuntimeEvent.Type#START_EVENT} for the main task, and yields control to the scheduler. Then
+     * re-invokes the static initializers of the instrumented classes initialized so far, which
+     * include the classes initialized by an earlier check in the first iteration.
      *
      * @param iteration the iteration number
      * @param report the model checker report, forwarded to the strategy via the scheduler
@@ -179,9 +196,8 @@ public class JmcRuntime {
             LOGGER.error("Failed to start main thread.");
         }
         JmcRuntime.yield();
-        if (iteration != 0) {
-            JmcRuntimeUtils.invokeStaticInitializedClasses(iteration);
-        }
+        // Classes registered by an earlier check are reset in the first iteration too
+        JmcRuntimeUtils.invokeStaticInitializedClasses(iteration);
 
     }
 
@@ -197,6 +213,9 @@ public class JmcRuntime {
         scheduler.resetIteration(iteration);
         taskManager.reset();
         JmcRuntimeUtils.clearSyncLocks();
+        if (sharednessOracle != null) {
+            sharednessOracle.resetIteration();
+        }
     }
 
     /**
@@ -219,6 +238,12 @@ public class JmcRuntime {
      */
     public static <T> T yield() {
         Long currentTask = scheduler.currentTask();
+        if (sharednessOracle != null
+                && !scheduler.followsSchedule()
+                && sharednessOracle.dropYield(currentTask)) {
+            LOGGER.debug("Dropping the yield of task {} after a private access", currentTask);
+            return null;
+        }
         try {
             LOGGER.debug("Yielding task {}", currentTask);
             scheduler.yield();
@@ -332,6 +357,9 @@ public class JmcRuntime {
      */
     public static void updateEvent(JmcRuntimeEvent event) throws HaltTaskException {
         LOGGER.debug("Updating event: {}", event);
+        if (sharednessOracle != null) {
+            sharednessOracle.recordEvent(event.getTaskId(), event);
+        }
         try {
             scheduler.updateEvent(event);
         } catch (HaltTaskException e) {
@@ -36,6 +36,24 @@ public class JmcRuntimeConfiguration {
     /** Sleep, in nanoseconds, between scheduler retries. */
     private long schedulerTrySleepTimeNanos = 100;
 
+    /**
+     * Whether a yielding task makes the next scheduling decision itself and hands off directly to
+     * the next task, instead of waking up the scheduler thread.
+     */
+    private boolean directHandoff = false;
+
+    /**
+     * Whether the yields after accesses to locations that a single task has accessed so far are
+     * dropped.
+     */
+    private boolean sharednessOracle = false;
+
+    /**
+     * Whether the static fields of instrumented classes are restored from snapshots instead of
+     * re-running their static initializers.
+     */
+    private boolean staticSnapshots = false;
+
     /** Private constructor; instances are created through {@link Builder}. */
     private JmcRuntimeConfiguration() {}
 
@@ -84,11 +102,39 @@ public class JmcRuntimeConfiguration {
         return schedulerTrySleepTimeNanos;
     }
 
+    /**
+     * Returns whether yielding tasks hand off directly to the next task.
+     *
+     * @return {@code true} if direct handoff is enabled
+     */
+    public boolean getDirectHandoff() {
+        return directHandoff;
+    }
+
+    /**
+     * Returns whether the sharedness oracle drops the yields after task-private accesses.
+     *
+     * @return {@code true} if the sharedness oracle is enabled
+     */
+    public boolean getSharednessOracle() {
+        return sharednessOracle;
+    }
+
+    /**
+     * Returns whether the static fields of instrumented classes are restored from snapshots.
+     *
+     * @return {@code true} if static snapshots are enabled
+     */
+    public boolean getStaticSnapshots() {
+        return staticSnapshots;
+    }
+
     /**
      * Builder for {@link JmcRuntimeConfiguration}.
      *
      * <p>All values are seeded with defaults (a random scheduling strategy, debug off, the default
-     * report path, 10 scheduler tries, and a 100ns retry sleep) and can be overridden fluently.
+     * report path, 10 scheduler tries, a 100ns retry sleep, no direct handoff, no sharedness oracle,
+     * and no static snapshots) and can be overridden fluently.
      */
     public static class Builder {
         /** The scheduling strategy to build with. */
@@ -101,6 +147,12 @@ public class JmcRuntimeConfiguration {
         private int schedulerTries;
         /** The scheduler retry sleep (ns) to build with. */
         private long schedulerTrySleepTimeNanos;
+        /** The direct handoff flag to build with. */
+        private boolean directHandoff;
+        /** The sharedness oracle flag to build with. */
+        private boolean sharednessOracle;
+        /** The static snapshots flag to build with. */
+        private boolean staticSnapshots;
 
         /** Creates a builder pre-populated with the default configuration values. */
         public Builder() {
@@ -111,6 +163,9 @@ public class JmcRuntimeConfiguration {
             this.reportPath = "build/test-results/jmc-report";
             this.schedulerTries = 10;
             this.schedulerTrySleepTimeNanos = 100;
+            this.directHandoff = false;
+            this.sharednessOracle = false;
+            this.staticSnapshots = false;
         }
 
         /**
@@ -168,6 +223,58 @@ public class JmcRuntimeConfiguration {
             return this;
         }
 
+        /**
+         * Sets whether yielding tasks hand off directly to the next task.
+         *
+         * <p>With direct handoff, the task that yields runs the scheduling step (asking the
+         * strategy for the next task and resuming it) on its own thread. This saves the round trip
+         * through the scheduler thread, i.e. one thread wake-up per yield.
+         *
+         * @param directHandoff whether direct handoff is enabled
+         * @return this builder, for chaining
+         */
+        public Builder directHandoff(boolean directHandoff) {
+            this.directHandoff = directHandoff;
+            return this;
+        }
+
+        /**
+         * Sets whether the sharedness oracle is enabled.
+         *
+         * <p>The oracle tracks the tasks that access each field location. The yield after an
+         * access is dropped while the location has been accessed by a single task, and kept once a
+         * second task accesses it. Fields found shared stay scheduling points in the following
+         * iterations. The oracle is an unsound heuristic: it misses interleavings on a field until
+         * the field is found shared, so the checker rejects it for exhaustive strategies (see {@link
+         * SchedulingStrategy#isExhaustive()}). Strategies that replay a fixed schedule (see {@link
+         * SchedulingStrategy#followsSchedule()}) keep every yield while doing so, and replays of
+         * recorded traces run without the oracle.
+         *
+         * @param sharednessOracle whether the sharedness oracle is enabled
+         * @return this builder, for chaining
+         */
+        public Builder sharednessOracle(boolean sharednessOracle) {
+            this.sharednessOracle = sharednessOracle;
+            return this;
+        }
+
+        /**
+         * Sets whether static snapshots are enabled.
+         *
+         * <p>The static fields of an instrumented class are recorded once its first static
+         * initialization completes, and written back at the start of the following iterations
+         * instead of running the initializer again. The snapshot is shallow: a class with a static
+         * field holding a mutable object keeps running its initializer. Restored fields report no
+         * write events.
+         *
+         * @param staticSnapshots whether static snapshots are enabled
+         * @return this builder, for chaining
+         */
+        public Builder staticSnapshots(boolean staticSnapshots) {
+            this.staticSnapshots = staticSnapshots;
+            return this;
+        }
+
         /**
          * Builds an immutable {@link JmcRuntimeConfiguration} from the configured values.
          *
@@ -180,6 +287,9 @@ public class JmcRuntimeConfiguration {
             config.reportPath = reportPath;
             config.schedulerTries = schedulerTries;
             config.schedulerTrySleepTimeNanos = schedulerTrySleepTimeNanos;
+            config.directHandoff = directHandoff;
+            config.sharednessOracle = sharednessOracle;
+            config.staticSnapshots = staticSnapshots;
             return config;
         }
     }
@@ -14,7 +14,9 @@ import static org.mpi_sws.jmc.api.JmcObject.handleToString;
  * before a {@link JmcRuntime#yield()} and are forwarded to the scheduling strategy.
  *
  * <p>Each event carries a {@link Type}, the ID of the originating task, and an arbitrary map of
- * parameters. Instances are usually built with the fluent {@link Builder}.
+ * parameters. Instances are usually built with the fluent {@link Builder}. Field accesses and lock
+ * events, which are by far the most frequent, use the {@link JmcFieldAccessEvent} subclass that
+ * stores its parameters in typed fields instead of a map.
  */
 public class JmcRuntimeEvent {
 
@@ -23,7 +25,7 @@ public class JmcRuntimeEvent {
     private Type type;
     /** The ID of the task that generated the event. */
     private Long taskId;
-    /** The additional parameters of the event, keyed by name. */
+    /** The additional parameters of the event, keyed by name. Created lazily, may be null. */
     private Map<String, Object> params;
 
     /**
@@ -114,6 +116,9 @@ public class JmcRuntimeEvent {
      * @param value the value of the parameter
      */
     public void setParam(String key, Object value) {
+        if (params == null) {
+            params = new HashMap<>();
+        }
         params.put(key, value);
     }
 
@@ -128,7 +133,7 @@ public class JmcRuntimeEvent {
      * @return the value of the parameter, or {@code null} if no such parameter exists
      */
     public <T> T getParam(String key) {
-        return (T) params.get(key);
+        return params == null ? null : (T) params.get(key);
     }
 
     /**
@@ -166,7 +171,7 @@ public class JmcRuntimeEvent {
      */
     @Override
     public String toString() {
-        return "RuntimeEvent{" + "type=" + type + ", taskId=" + taskId + ", params=" + paramToString(params) + '}';
+        return "RuntimeEvent{" + "type=" + type + ", taskId=" + taskId + ", params=" + paramToString(getParams()) + '}';
     }
 
     /**
@@ -8,13 +8,8 @@ import org.mpi_sws.jmc.api.util.concurrent.JmcThread;
 import org.mpi_sws.jmc.runtime.scheduling.PrimitiveValue;
 
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.*;
-
-import static org.mpi_sws.jmc.api.JmcObject.handleHashCode;
 
 
 /**
@@ -29,16 +24,16 @@ public class JmcRuntimeUtils {
     private static final Logger LOGGER = LogManager.getLogger(JmcRuntimeUtils.class);
 
     /**
-     * Store of {@link JmcReentrantLock}s backing instrumented {@code synchronized} methods and
-     * blocks, keyed by the hash code of the locked instance or class name.
+     * Table of the {@link JmcReentrantLock}s backing instrumented {@code synchronized} methods and
+     * blocks, keyed by the identity of the locked instance or by class name.
      */
-    private static final JmcSyncLocksStore syncMethodLocksStore = new JmcSyncLocksStore();
+    private static final JmcMonitorTable monitorTable = new JmcMonitorTable();
 
-    // TODO: check if we need to change the type of the list here
-    /** Instrumented classes with a non-empty static initializer, in registration order. */
-    private static final List<Class<?>> staticInitializedClassesList = new ArrayList<>();
-    /** Names of the registered static-initialized classes, used to deduplicate registrations. */
-    private static final Set<String> staticInitializedClasses = new HashSet<>();
+    /**
+     * Instrumented classes with a non-empty static initializer, with their bound initializers and
+     * the snapshots of their static fields.
+     */
+    private static final JmcStaticInitializers staticInitializers = new JmcStaticInitializers();
 
     /** Private constructor to prevent instantiation of this utility class. */
     private JmcRuntimeUtils() {
@@ -85,15 +80,16 @@ public class JmcRuntimeUtils {
      * @param instance the instance on which the field is accessed
      */
     public static void readEvent(String owner, String name, String descriptor, Object instance) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.READ_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("newValue", null);
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("descriptor", descriptor);
-        JmcRuntime.updateEventAndYield(builder.params(var2).param("instance", instance).build());
+        JmcRuntime.updateEventAndYield(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.READ_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        null,
+                        null));
     }
 
     /**
@@ -109,15 +105,16 @@ public class JmcRuntimeUtils {
      */
     public static void readEventWithoutYield(
             Object instance, String owner, String name, String descriptor) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.READ_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("descriptor", descriptor);
-        var2.put("instance", instance);
-        JmcRuntime.updateEvent(builder.params(var2).build());
+        JmcRuntime.updateEvent(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.READ_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        null,
+                        null));
     }
 
     /**
@@ -132,16 +129,16 @@ public class JmcRuntimeUtils {
      */
     public static void writeEventWithoutYield(
             Object instance, Object value, String owner, String name, String descriptor) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.WRITE_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("newValue", value);
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("descriptor", descriptor);
-        var2.put("instance", instance);
-        JmcRuntime.updateEvent(builder.params(var2).build());
+        JmcRuntime.updateEvent(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.WRITE_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        null,
+                        value));
     }
 
     /**
@@ -157,15 +154,87 @@ public class JmcRuntimeUtils {
      */
     public static void writeEvent(
             Object value, String owner, String name, String descriptor, Object instance) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.WRITE_EVENT).taskId(JmcRuntime.currentTask());
+        JmcRuntime.updateEventAndYield(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.WRITE_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        null,
+                        value));
+    }
 
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("newValue", value);
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("descriptor", descriptor);
-        JmcRuntime.updateEventAndYield(builder.params(var2).param("instance", instance).build());
+    /**
+     * Creates a write event of an atomic variable for the specified instance, value, owner, name,
+     * and descriptor without yielding.
+     *
+     * <p>Unlike {@link #writeEventWithoutYield(Object, Object, String, String, String)}, the event
+     * carries the written value, so that a strategy can apply the updates of the read-modify-writes
+     * that read from it, see {@link JmcRmwUpdate}.
+     *
+     * @param instance the instance on which the field is accessed
+     * @param value the new value being written
+     * @param owner the owner of the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     */
+    public static void atomicWriteEventWithoutYield(
+            Object instance, Object value, String owner, String name, String descriptor) {
+        JmcFieldAccessEvent event =
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.WRITE_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        null,
+                        value);
+        event.setParam("atomic", true);
+        JmcRuntime.updateEvent(event);
+    }
+
+    /**
+     * Creates an atomic read-modify-write event for the specified instance, value, update, owner,
+     * name, and descriptor without yielding, and returns the value to write.
+     *
+     * <p>The read of the old value and the write of the new value form a single atomic step: the
+     * caller performs both before its next yield. An update that returns {@link
+     * JmcRmwUpdate#NO_WRITE}, as a failed compare-and-set, only reads. The event carries the update,
+     * so that a strategy that changes the write the operation reads from can tell what the
+     * operation does then.
+     *
+     * @param instance the instance on which the field is accessed
+     * @param value the value read from the field
+     * @param update the update of the value read
+     * @param owner the owner of the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     * @return the value to write, or {@link JmcRmwUpdate#NO_WRITE} if the field is left unchanged
+     */
+    public static Object rmwEventWithoutYield(
+            Object instance,
+            Object value,
+            JmcRmwUpdate update,
+            String owner,
+            String name,
+            String descriptor) {
+        Object newValue = update.apply(value);
+        JmcFieldAccessEvent event =
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.CAS_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        value,
+                        newValue);
+        event.setParam("update", update);
+        JmcRuntime.updateEvent(event);
+        return newValue;
     }
 
     /**
@@ -181,15 +250,16 @@ public class JmcRuntimeUtils {
      */
     public static void lockAcquireEvent(
             String owner, String name, Object value, String descriptor, Object instance) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.LOCK_ACQUIRE_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("value", value);
-        var2.put("descriptor", descriptor);
-        JmcRuntime.updateEventAndYield(builder.params(var2).param("instance", instance).build());
+        JmcRuntime.updateEventAndYield(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.LOCK_ACQUIRE_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        value,
+                        null));
     }
 
     /**
@@ -212,16 +282,16 @@ public class JmcRuntimeUtils {
             Object value,
             String descriptor,
             Object newValue) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.LOCK_ACQUIRED_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("value", value);
-        var2.put("newValue", newValue);
-        var2.put("descriptor", descriptor);
-        JmcRuntime.updateEvent(builder.params(var2).param("instance", instance).build());
+        JmcRuntime.updateEvent(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.LOCK_ACQUIRED_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        value,
+                        newValue));
     }
 
     /**
@@ -244,16 +314,16 @@ public class JmcRuntimeUtils {
             Object value,
             String descriptor,
             Object newValue) {
-        JmcRuntimeEvent.Builder builder = new JmcRuntimeEvent.Builder();
-        builder.type(JmcRuntimeEvent.Type.LOCK_RELEASE_EVENT).taskId(JmcRuntime.currentTask());
-
-        HashMap<String, Object> var2 = new HashMap<>();
-        var2.put("owner", owner);
-        var2.put("name", name);
-        var2.put("value", value);
-        var2.put("newValue", newValue);
-        var2.put("descriptor", descriptor);
-        JmcRuntime.updateEventAndYield(builder.params(var2).param("instance", instance).build());
+        JmcRuntime.updateEventAndYield(
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.LOCK_RELEASE_EVENT,
+                        JmcRuntime.currentTask(),
+                        instance,
+                        owner,
+                        name,
+                        descriptor,
+                        value,
+                        newValue));
     }
 
     /**
@@ -318,7 +388,8 @@ public class JmcRuntimeUtils {
 
     // Synchronized method and blocks calls are replaced with calls to
     // These methods which maintains state in a static global instance
-    // of `JmcSyncLockStore`.
+    // of `JmcMonitorTable`. Instrumented classes hold their monitor in
+    // a synthetic field (see `JmcMonitorHolder`).
 
     // For synchronized methods,
     // 1. In the constructor of the class or the static initializer
@@ -340,183 +411,151 @@ public class JmcRuntimeUtils {
     /**
      * Locks the corresponding lock of the given instance.
      *
-     * <p>This method acquires a lock on the instance's hash code.
+     * <p>This method acquires the lock registered for the instance.
      *
      * @param instance the instance to lock
      */
     public static void syncMethodLock(Object instance) {
-        syncMethodLocksStore.getLock(handleHashCode(instance)).lock();
+        monitorTable.get(instance).lock();
     }
 
     /**
      * Unlocks the corresponding lock of the given instance.
      *
-     * <p>This method releases a lock on the instance's hash code.
+     * <p>This method releases the lock registered for the instance.
      *
      * @param instance the instance to unlock
      */
     public static void syncMethodUnLock(Object instance) {
-        syncMethodLocksStore.getLock(handleHashCode(instance)).unlock();
+        monitorTable.get(instance).unlock();
     }
 
     /**
      * Locks the corresponding lock of the given class's static synchronized method.
      *
-     * <p>This method acquires a lock on the class name's hash code.
+     * <p>This method acquires the lock registered for the class name.
      *
      * @param className the class name to lock
      */
     public static void syncMethodLock(String className) {
-        syncMethodLocksStore.getLock(handleHashCode(className)).lock();
+        monitorTable.getClassLock(className).lock();
     }
 
     /**
      * Unlocks the corresponding lock of the given class's static synchronized method.
      *
-     * <p>This method releases a lock on the class name's hash code.
+     * <p>This method releases the lock registered for the class name.
      *
      * @param className the class name to unlock
      */
     public static void syncMethodUnLock(String className) {
-        syncMethodLocksStore.getLock(handleHashCode(className)).unlock();
+        monitorTable.getClassLock(className).unlock();
     }
 
     /**
      * Registers a synchronization lock for the given instance.
      *
-     * <p>This method registers a lock based on the instance's hash code.
+     * <p>This method replaces any lock previously registered for the instance.
      *
      * @param instance the instance to register a lock for
      */
     public static void registerSyncLock(Object instance) {
-        syncMethodLocksStore.registerLock(handleHashCode(instance));
+        monitorTable.register(instance);
     }
 
     /**
      * Registers a synchronization lock for the given class name.
      *
-     * <p>This method registers a lock based on the class name's hash code.
+     * <p>This method replaces any lock previously registered for the class name.
      *
      * @param className the class name to register a lock for
      */
     public static void registerSyncLock(String className) {
-        syncMethodLocksStore.registerLock(handleHashCode(className));
+        monitorTable.registerClass(className);
     }
 
     /**
      * Locks the block for the given instance.
      *
-     * <p>This method acquires a lock on the instance's hash code for synchronized blocks.
+     * <p>This method acquires the lock of the instance for synchronized blocks, creating it if
+     * needed.
      *
      * @param instance the instance to lock
      */
     public static void syncBlockLock(Object instance) {
-        syncMethodLocksStore.getWithRegister(handleHashCode(instance)).lock();
+        monitorTable.getOrCreate(instance).lock();
     }
 
     /**
      * Unlocks the block for the given instance.
      *
-     * <p>This method releases a lock on the instance's hash code for synchronized blocks.
+     * <p>This method releases the lock of the instance for synchronized blocks.
      *
      * @param instance the instance to unlock
      */
     public static void syncBlockUnLock(Object instance) {
-        syncMethodLocksStore.getWithRegister(handleHashCode(instance)).unlock();
+        monitorTable.getOrCreate(instance).unlock();
     }
 
     /**
      * Retrieves the synchronization lock for the given instance.
      *
-     * <p>This method returns the lock associated with the instance's hash code, null if none
-     * exists.
+     * <p>This method returns the lock associated with the instance in the current iteration, null
+     * if none exists.
      *
      * @param instance the instance to get the lock for
      * @return the JmcReentrantLock associated with the instance
      */
     public static JmcReentrantLock getSyncLock(Object instance) {
-        return syncMethodLocksStore.getLock(handleHashCode(instance));
+        return monitorTable.get(instance);
     }
 
     /**
      * Clears all synchronization locks.
      *
-     * <p>This method clears the internal store of synchronization locks.
+     * <p>The locks are not removed: this method makes all of them stale, so that each lock is
+     * recreated on its first use in the next iteration.
      */
     public static void clearSyncLocks() {
-        syncMethodLocksStore.clear();
+        monitorTable.clear();
     }
 
     /**
-     * Maps instance/class-name hash codes to the {@link JmcReentrantLock}s that back instrumented
-     * {@code synchronized} methods and blocks.
+     * Registers an instrumented class that has a static initializer.
+     *
+     * <p>Registration is idempotent (deduplicated by class name). The synthetic static initializer
+     * of a registered class is bound to a method handle here, and re-invoked through it at the
+     * start of subsequent iterations by {@link #invokeStaticInitializedClasses(int)}.
+     *
+     * @param clazz the instrumented class to register
      */
-    private static class JmcSyncLocksStore {
-        /** The hash-code-to-lock map. */
-        private final Map<Integer, JmcReentrantLock> lockMap;
-
-        /** Constructs an empty lock store. */
-        public JmcSyncLocksStore() {
-            lockMap = new HashMap<>();
-        }
-
-        /** Removes all registered locks. */
-        public void clear() {
-            lockMap.clear();
-        }
-
-        /**
-         * Returns a JmcReentrantLock for the given lockObject. If it does not exist, creates a new
-         * one and registers it.
-         *
-         * <p>Note: the lock created does not call the initial write.
-         *
-         * @param lockObject the object to lock on
-         * @return the JmcReentrantLock for the given lockObject
-         */
-        public JmcReentrantLock getWithRegister(Object lockObject) {
-            if (!lockMap.containsKey(handleHashCode(lockObject))) {
-                lockMap.put(handleHashCode(lockObject), new JmcReentrantLock(lockObject));
-            }
-            return lockMap.get(handleHashCode(lockObject));
-        }
-
-        /**
-         * Returns the JmcReentrantLock for the given hashCode.
-         *
-         * @param hashCode the hash code of the lock object
-         * @return the JmcReentrantLock for the given hashCode, or null if not found
-         */
-        public JmcReentrantLock getLock(Integer hashCode) {
-            return lockMap.get(hashCode);
-        }
-
-        /**
-         * Registers a new JmcReentrantLock for the given hashCode.
-         *
-         * @param hashcode the hash code of the lock object
-         */
-        public void registerLock(int hashcode) {
-            lockMap.put(hashcode, new JmcReentrantLock());
-        }
+    public static void registerStaticInitializedClass(Class<?> clazz) {
+        staticInitializers.register(clazz);
     }
 
     /**
-     * Registers an instrumented class that has a static initializer.
+     * Marks the end of the first initialization of a registered class.
      *
-     * <p>Registration is idempotent (deduplicated by class name). Registered classes have their
-     * synthetic static initializer re-invoked at the start of subsequent iterations by {@link
-     * #invokeStaticInitializedClasses(int)}.
+     * <p>If static snapshots are enabled (see {@link #setStaticSnapshots(boolean)}), records the
+     * static fields of the class so that the following iterations restore them instead of
+     * re-invoking its static initializer.
      *
-     * @param clazz the instrumented class to register
+     * @param clazz the instrumented class that completed its static initializer
      */
-    public static void registerStaticInitializedClass(Class<?> clazz) {
-        if (!staticInitializedClasses.contains(clazz.getName())) {
-            LOGGER.debug("Static classes registered are : {}", clazz.getName());
-            staticInitializedClasses.add(clazz.getName());
-            staticInitializedClassesList.add(clazz);
+    public static void staticInitializedClassDone(Class<?> clazz) {
+        staticInitializers.initialized(clazz);
+    }
 
-        }
+    /**
+     * Sets whether the static fields of the registered classes are restored from snapshots taken
+     * after their first initialization, instead of re-invoking their static initializers. Only the
+     * classes whose static fields all hold immutable values are restored; see {@link
+     * JmcStaticInitializers}.
+     *
+     * @param staticSnapshots whether static snapshots are enabled
+     */
+    public static void setStaticSnapshots(boolean staticSnapshots) {
+        staticInitializers.setSnapshots(staticSnapshots);
     }
 
     /**
@@ -568,57 +607,20 @@ public class JmcRuntimeUtils {
     //        }
     //    }
 
-    /**
-     * Invokes the synthetic {@code $staticInitExplicit} method on every registered static-initialized
-     * class.
-     *
-     * <p>Iterates over a snapshot of the registered classes and reflectively calls the generated
-     * static-init method on each, logging (but not propagating) reflective invocation failures.
-     * Called by {@link #invokeStaticInitializedClasses(int)}.
-     */
-    private static void invokeInstrumentedStaticMethod() {
-        if (staticInitializedClasses.isEmpty()) {
-            LOGGER.debug("No static initialized classes to invoke.");
-            return;
-        }
-        List<Class<?>> snapshot = new ArrayList<>(staticInitializedClassesList);
-
-        // Determine which method to call based on iteration
-        String methodName = "$staticInitExplicit";
-
-        for (Class<?> clazz : snapshot) {
-            try {
-                Method m = clazz.getDeclaredMethod(methodName);
-                m.setAccessible(true);
-                m.invoke(null);
-                LOGGER.debug("Invoked {} in class: {}", methodName, clazz.getName());
-            } catch (InvocationTargetException ite) {
-                ite.getCause().printStackTrace();
-                LOGGER.error("Error invoking {} in {}", methodName, clazz.getName(), ite.getCause());
-            } catch (IllegalAccessException e) {
-                LOGGER.error("Error invoking {} in {}", methodName, clazz.getName(), e.getCause());
-            } catch (NoSuchMethodException e) {
-                throw new RuntimeException(e);
-            }
-        }
-    }
-
-
-
     /**
      * Invokes the static initializers of all registered instrumented classes.
      *
      * <p>The instrumentation introduces a synthetic {@code $staticInitExplicit} method for each class
-     * that has a non-empty static initializer; this method invokes it on every registered class (via
-     * {@link #invokeInstrumentedStaticMethod()}) so static state is re-established deterministically
-     * in later iterations.
+     * that has a non-empty static initializer; this method invokes it on every registered class,
+     * through the method handle bound at registration, so static state is re-established
+     * deterministically in later iterations. A class recorded in a static snapshot has its static
+     * fields written back instead.
      *
-     * @param iteration the current iteration number (the static initializers are re-run from the
-     *     second iteration onward)
+     * @param iteration the current iteration number
      */
     public static void invokeStaticInitializedClasses(int iteration) {
         // reloadStaticInitializedClasses();
-        invokeInstrumentedStaticMethod();
+        staticInitializers.reinitialize();
     }
 
     /**
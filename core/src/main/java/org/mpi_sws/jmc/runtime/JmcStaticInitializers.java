@@ -0,0 +1,256 @@
+package org.mpi_sws.jmc.runtime;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the instrumented classes with a static initializer and brings their static state back to
+ * its initial values at the start of every iteration. A class initialized by an earlier check is
+ * brought back in the first iteration of the next one.
+ *
+ * <p>The synthetic {@code $staticInitExplicit} method of a class is bound to a {@link MethodHandle}
+ * once, when the class registers, and invoked through it afterwards.
+ *
+ * <p>With snapshots enabled, the static fields of a class are also recorded once its first
+ * initialization completes. The following iterations write the recorded values back instead of
+ * running the initializer again. The snapshot is shallow, so it is only taken if every static field
+ * holds a value that cannot be mutated: {@code null}, a boxed primitive, a string, a class or a
+ * constant of an enum that is not instrumented. Arrays of primitives are copied when recorded and
+ * when restored. A class with any other value, such as a collection or a lock, keeps running its
+ * initializer. Restoring a field reports no write event, so the reads of a restored field read
+ * from the initial state.
+ *
+ * <p>Running the initializer again does not create new enum constants either, so sharing the
+ * constants of an enum that is not instrumented across iterations changes nothing. The constants of
+ * an instrumented enum are recreated by its own initializer, and a class referring to them keeps
+ * running its initializer so that it picks up the new constants.
+ *
+ * <p>Only one task runs at a time; the table is not synchronized.
+ */
+class JmcStaticInitializers {
+    private static final Logger LOGGER = LogManager.getLogger(JmcStaticInitializers.class);
+
+    /** The name of the synthetic method re-running the static initializer of a class. */
+    private static final String STATIC_INIT_METHOD = "$staticInitExplicit";
+
+    /** The type of a setter adapted to take any value. */
+    private static final MethodType SETTER_TYPE =
+            MethodType.methodType(void.class, Object.class);
+
+    /** The registered classes by name, used to deduplicate registrations. */
+    private final Map<String, StaticInitializer> byName = new HashMap<>();
+
+    /** The registered classes, in registration order. */
+    private final List<StaticInitializer> initializers = new ArrayList<>();
+
+    /** Whether the static fields are restored from snapshots when possible. */
+    private boolean snapshots = false;
+
+    /**
+     * Sets whether the static fields are restored from snapshots when possible. Classes that
+     * completed their first initialization while snapshots were disabled keep running their
+     * initializer.
+     *
+     * @param snapshots whether snapshots are enabled
+     */
+    void setSnapshots(boolean snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Registers a class and binds its static initializer. Registration is idempotent.
+     *
+     * @param clazz the instrumented class
+     */
+    void register(Class<?> clazz) {
+        if (byName.containsKey(clazz.getName())) {
+            return;
+        }
+        LOGGER.debug("Static classes registered are : {}", clazz.getName());
+        MethodHandle init;
+        try {
+            Method method = clazz.getDeclaredMethod(STATIC_INIT_METHOD);
+            method.setAccessible(true);
+            init = MethodHandles.lookup().unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        StaticInitializer initializer = new StaticInitializer(clazz, init);
+        byName.put(clazz.getName(), initializer);
+        initializers.add(initializer);
+    }
+
+    /**
+     * Records the static fields of a class that completed its first initialization, if snapshots
+     * are enabled and the class can be restored from one.
+     *
+     * @param clazz the instrumented class
+     */
+    void initialized(Class<?> clazz) {
+        if (!snapshots) {
+            return;
+        }
+        StaticInitializer initializer = byName.get(clazz.getName());
+        if (initializer == null || initializer.clazz != clazz) {
+            return;
+        }
+        initializer.snapshot = StaticSnapshot.take(clazz, byName.keySet());
+        LOGGER.debug(
+                "Static fields of {} {}",
+                clazz.getName(),
+                initializer.snapshot == null ? "cannot be restored" : "recorded");
+    }
+
+    /**
+     * Brings the static state of every registered class back to its initial values, restoring the
+     * snapshot of the class if there is one and running its initializer otherwise. Failures of the
+     * initializers are logged and not propagated.
+     */
+    void reinitialize() {
+        if (initializers.isEmpty()) {
+            LOGGER.debug("No static initialized classes to invoke.");
+            return;
+        }
+        // An initializer may load and register another class
+        List<StaticInitializer> snapshot = new ArrayList<>(initializers);
+        for (StaticInitializer initializer : snapshot) {
+            if (snapshots && initializer.snapshot != null) {
+                initializer.snapshot.restore();
+                LOGGER.debug("Restored the static fields of class: {}", initializer.clazz.getName());
+                continue;
+            }
+            try {
+                initializer.init.invokeExact();
+                LOGGER.debug(
+                        "Invoked {} in class: {}", STATIC_INIT_METHOD, initializer.clazz.getName());
+            } catch (Throwable e) {
+                LOGGER.error(
+                        "Error invoking {} in {}",
+                        STATIC_INIT_METHOD,
+                        initializer.clazz.getName(),
+                        e);
+            }
+        }
+    }
+
+    /** A registered class, its bound initializer and the snapshot of its static fields. */
+    private static final class StaticInitializer {
+        private final Class<?> clazz;
+        private final MethodHandle init;
+        private StaticSnapshot snapshot;
+
+        private StaticInitializer(Class<?> clazz, MethodHandle init) {
+            this.clazz = clazz;
+            this.init = init;
+        }
+    }
+
+    /** The values of the static fields of a class, with the setters writing them back. */
+    private static final class StaticSnapshot {
+        private final MethodHandle[] setters;
+        private final Object[] values;
+
+        private StaticSnapshot(MethodHandle[] setters, Object[] values) {
+            this.setters = setters;
+            this.values = values;
+        }
+
+        /**
+         * Records the static fields of the class.
+         *
+         * @param clazz the class
+         * @param instrumented the names of the registered classes, which are instrumented
+         * @return the snapshot, or null if a field holds a mutable value or cannot be written
+         */
+        private static StaticSnapshot take(Class<?> clazz, Set<String> instrumented) {
+            List<MethodHandle> setters = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            try {
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    Object value = field.get(null);
+                    if (!isRestorable(value, instrumented)) {
+                        LOGGER.debug(
+                                "Static field {}.{} holds a mutable value",
+                                clazz.getName(),
+                                field.getName());
+                        return null;
+                    }
+                    // A final field is never written, the value it holds only needs to be
+                    // immutable
+                    if (Modifier.isFinal(field.getModifiers())) {
+                        continue;
+                    }
+                    setters.add(MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE));
+                    values.add(copyArray(value));
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                LOGGER.debug("Cannot record the static fields of {}", clazz.getName(), e);
+                return null;
+            }
+            return new StaticSnapshot(
+                    setters.toArray(new MethodHandle[0]), values.toArray());
+        }
+
+        /** Writes the recorded values back to the static fields. */
+        private void restore() {
+            for (int i = 0; i < setters.length; i++) {
+                try {
+                    setters[i].invokeExact(copyArray(values[i]));
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        private static boolean isRestorable(Object value, Set<String> instrumented) {
+            if (value == null) {
+                return true;
+            }
+            if (value instanceof Enum<?> constant) {
+                return !instrumented.contains(constant.getDeclaringClass().getName());
+            }
+            Class<?> type = value.getClass();
+            if (type.isArray()) {
+                return type.getComponentType().isPrimitive();
+            }
+            return value instanceof String
+                    || value instanceof Integer
+                    || value instanceof Long
+                    || value instanceof Short
+                    || value instanceof Byte
+                    || value instanceof Double
+                    || value instanceof Float
+                    || value instanceof Boolean
+                    || value instanceof Character
+                    || value instanceof Class;
+        }
+
+        /** Returns a copy of an array of primitives, and any other value as is. */
+        private static Object copyArray(Object value) {
+            if (value == null || !value.getClass().isArray()) {
+                return value;
+            }
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+    }
+}
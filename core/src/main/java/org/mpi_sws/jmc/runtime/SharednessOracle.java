@@ -0,0 +1,153 @@
+package org.mpi_sws.jmc.runtime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tracks which tasks access each field location and decides which scheduling points can be
+ * dropped.
+ *
+ * <p>A location is identified by the {@code owner/name/instance} triple of a {@link
+ * JmcFieldAccessEvent} (the instance is compared by identity and is {@code null} for static
+ * fields). A location is private as long as a single task accessed it in the current iteration,
+ * and becomes shared once a second task touches it. The yield that follows an access to a private
+ * location is dropped, so the task goes on to its next event without a scheduling point. The yield
+ * follows the effect of the access whichever way the access is instrumented, and the oracle knows
+ * the location of the access when the yield is made.
+ *
+ * <p>Instances do not survive an iteration, so sharedness is learned across iterations per field
+ * ({@code owner/name}): once any instance of a field is found shared, accesses to that field
+ * always yield in the following iterations. The set of shared fields only grows.
+ *
+ * <p>This is an unsound heuristic. A location is only known to be private so far: a task that
+ * accesses it later in the same iteration could have observed it between the accesses whose yields
+ * were dropped. Those interleavings are missed until the field is learned shared, which takes at
+ * least one iteration per field and may never happen for a field that is only shared in rare
+ * schedules. The checker configuration therefore rejects the oracle for exhaustive strategies.
+ *
+ * <p>Only one task runs at a time; the methods are synchronized to publish the state between the
+ * task threads.
+ */
+class SharednessOracle {
+
+    /** Marker stored in {@link #accessedBy} for a location touched by more than one task. */
+    private static final Long SHARED = -1L;
+
+    /** Fields ({@code owner/name}) found shared in any iteration so far. */
+    private final Set<FieldKey> sharedFields = new HashSet<>();
+
+    /**
+     * For each location accessed in the current iteration, the only task that accessed it, or
+     * {@link #SHARED}.
+     */
+    private final Map<LocationKey, Long> accessedBy = new HashMap<>();
+
+    /** Tasks whose last event accessed a private location, so that their next yield is dropped. */
+    private final Set<Long> lastAccessPrivate = new HashSet<>();
+
+    /**
+     * Records an event of the given task before it is reported.
+     *
+     * @param taskId the task reporting the event
+     * @param event the event
+     */
+    synchronized void recordEvent(Long taskId, JmcRuntimeEvent event) {
+        if (isFieldAccess(event) && !recordAccess(taskId, (JmcFieldAccessEvent) event)) {
+            lastAccessPrivate.add(taskId);
+        } else {
+            lastAccessPrivate.remove(taskId);
+        }
+    }
+
+    /**
+     * Checks whether the yield of the given task follows an access to a private location, in which
+     * case it is dropped.
+     *
+     * @param taskId the yielding task
+     * @return {@code true} if the yield is dropped, {@code false} if it must be performed
+     */
+    synchronized boolean dropYield(Long taskId) {
+        return lastAccessPrivate.remove(taskId);
+    }
+
+    /**
+     * Records a field access of the given task and returns whether the location is shared.
+     *
+     * @param taskId the task accessing the field
+     * @param event the field access event
+     * @return {@code true} if the location is accessed by more than one task
+     */
+    private boolean recordAccess(Long taskId, JmcFieldAccessEvent event) {
+        FieldKey field = new FieldKey(event.getOwner(), event.getName());
+        if (sharedFields.contains(field)) {
+            return true;
+        }
+        LocationKey location = new LocationKey(event.getInstance(), field);
+        Long previous = accessedBy.putIfAbsent(location, taskId);
+        if (previous == null || previous.equals(taskId)) {
+            return false;
+        }
+        accessedBy.put(location, SHARED);
+        sharedFields.add(field);
+        return true;
+    }
+
+    /**
+     * Checks whether the event is a read, a write or a read-modify-write of a field.
+     *
+     * @param event the event
+     * @return {@code true} if the event accesses a field location
+     */
+    private static boolean isFieldAccess(JmcRuntimeEvent event) {
+        if (!(event instanceof JmcFieldAccessEvent)) {
+            return false;
+        }
+        return switch (event.getType()) {
+            case READ_EVENT, WRITE_EVENT, CAS_EVENT -> true;
+            default -> false;
+        };
+    }
+
+    /** Forgets the locations of the current iteration, keeping the learned shared fields. */
+    synchronized void resetIteration() {
+        accessedBy.clear();
+        lastAccessPrivate.clear();
+    }
+
+    /**
+     * A field, identified by its owner and name.
+     *
+     * @param owner the internal name of the class declaring the field
+     * @param name the name of the field
+     */
+    private record FieldKey(String owner, String name) {}
+
+    /** A field of a given instance; the instance is compared by identity. */
+    private static final class LocationKey {
+        /** The instance owning the field, or {@code null} for a static field. */
+        private final Object instance;
+        /** The field. */
+        private final FieldKey field;
+
+        LocationKey(Object instance, FieldKey field) {
+            this.instance = instance;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof LocationKey other)) {
+                return false;
+            }
+            return instance == other.instance && field.equals(other.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(instance), field);
+        }
+    }
+}
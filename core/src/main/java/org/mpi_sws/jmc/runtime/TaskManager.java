@@ -4,24 +4,30 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Owns all per-task state used by the runtime (except the scheduler thread itself).
  *
  * <p>A <em>task</em> is any concurrent computation managed by JMC (a thread, a future, an executor
  * task, ...). For each task this class tracks its {@link TaskState} and, while the task is paused,
- * the {@link CompletableFuture} it is blocked on. Resuming a task amounts to completing that future,
+ * the pending pause the task is blocked on. Resuming a task amounts to completing that pause,
  * optionally with a value.
  *
- * <p>Centralizing task ownership here ensures futures are completed and dropped consistently,
- * avoiding memory leaks when many tasks are created. Used by {@link JmcRuntime} and by the {@code
- * Scheduler} (via the runtime) to pause, resume, block, and terminate tasks.
+ * <p>Task IDs are small and dense (starting at 1 and reset every iteration), so the per-task state
+ * is kept in an array of {@link TaskSlot}s indexed by the task ID. Each slot holds the task state
+ * and an atomic pause word, and a paused thread is parked with {@link LockSupport}. Hence pausing,
+ * resuming and waiting on a task neither lock nor allocate. The slot array is copied only when a
+ * new task is added.
+ *
+ * <p>Centralizing task ownership here ensures pauses are completed and dropped consistently. Used
+ * by {@link JmcRuntime} and by the {@code Scheduler} (via the runtime) to pause, resume, block, and
+ * terminate tasks.
  */
 public class TaskManager {
 
@@ -34,7 +40,7 @@ public class TaskManager {
     public enum TaskState {
         /** The task is currently executing (it has been resumed by the scheduler). */
         RUNNING,
-        /** The task is paused, waiting on its future to be completed. */
+        /** The task is paused, waiting on its pause to be completed. */
         BLOCKED,
         /** The task has been allocated an ID but has not started running yet. */
         CREATED,
@@ -44,26 +50,19 @@ public class TaskManager {
 
     /**
      * Monotonic counter for the next task ID to assign. Starts at 1 (the main task) and is handed
-     * out by {@link #nextTaskId()}. Guarded by {@link #idCounterLock}.
-     */
-    private Long idCounter;
-
-    /** Lock guarding {@link #idCounter}. */
-    private final Object idCounterLock = new Object();
-
-    /**
-     * Maps each task ID to its current {@link TaskState}. Guarded by {@link #tasksLock}.
+     * out by {@link #nextTaskId()}.
      */
-    private final Map<Long, TaskState> taskStates;
+    private final AtomicLong idCounter;
 
     /**
-     * Maps each currently-paused task ID to the {@link CompletableFuture} it is blocked on.
-     * Completing the future resumes the task. Guarded by {@link #tasksLock}.
+     * The per-task slots, indexed by the task ID. A {@code null} entry is a task unknown to the
+     * manager. The array is replaced, never mutated in place, when a slot is added, so readers
+     * never need to lock. Writers hold {@link #slotsLock}.
      */
-    private final Map<Long, CompletableFuture<?>> taskFutures;
+    private volatile TaskSlot[] slots;
 
-    /** Lock guarding {@link #taskStates} and {@link #taskFutures}. */
-    private final Object tasksLock = new Object();
+    /** Lock serializing the replacements of {@link #slots}. */
+    private final Object slotsLock = new Object();
 
     /**
      * Returns the next task ID to be assigned.
@@ -71,33 +70,62 @@ public class TaskManager {
      * @return the next task ID to be assigned
      */
     private Long nextTaskId() {
-        synchronized (idCounterLock) {
-            return idCounter++;
-        }
+        return idCounter.getAndIncrement();
     }
 
     /**
      * Constructs a new TaskManager object.
      */
     public TaskManager() {
-        this.idCounter = 1L;
-        this.taskStates = new HashMap<>();
-        this.taskFutures = new HashMap<>();
+        this.idCounter = new AtomicLong(1L);
+        this.slots = new TaskSlot[0];
+    }
+
+    /**
+     * Returns the slot of the task, or {@code null} if the task is unknown.
+     */
+    private TaskSlot slot(Long taskId) {
+        TaskSlot[] current = slots;
+        if (taskId == null || taskId < 0 || taskId >= current.length) {
+            return null;
+        }
+        return current[taskId.intValue()];
+    }
+
+    /**
+     * Returns the slot of the task, creating it if the task is unknown.
+     */
+    private TaskSlot slotOrCreate(Long taskId) {
+        TaskSlot slot = slot(taskId);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (slotsLock) {
+            TaskSlot[] current = slots;
+            int index = Math.toIntExact(taskId);
+            if (index < current.length && current[index] != null) {
+                return current[index];
+            }
+            TaskSlot[] updated = Arrays.copyOf(current, Math.max(current.length, index + 1));
+            slot = new TaskSlot();
+            updated[index] = slot;
+            slots = updated;
+            return slot;
+        }
     }
 
     /**
      * Resets the TaskManager object.
      */
     public void reset() {
-        synchronized (idCounterLock) {
-            idCounter = 1L;
-        }
-        synchronized (tasksLock) {
-            taskStates.clear();
-            for (CompletableFuture<?> future : taskFutures.values()) {
-                future.complete(null);
+        idCounter.set(1L);
+        synchronized (slotsLock) {
+            for (TaskSlot slot : slots) {
+                if (slot != null) {
+                    slot.complete(null, null);
+                }
             }
-            taskFutures.clear();
+            slots = new TaskSlot[0];
         }
     }
 
@@ -109,129 +137,89 @@ public class TaskManager {
      */
     public Long addNextTask() {
         Long customTaskId = nextTaskId();
-        synchronized (tasksLock) {
-            taskStates.put(customTaskId, TaskState.CREATED);
-        }
+        slotOrCreate(customTaskId).state = TaskState.CREATED;
         return customTaskId;
     }
 
     /**
-     * Pauses the task with the specified custom ID. A new future is created and stored in the
-     * {@link TaskManager#taskFutures} map. If the task is already paused, a {@link
-     * TaskAlreadyPaused} exception is thrown.
+     * Pauses the task with the specified custom ID. The pause stays pending until the task is
+     * resumed, errored or terminated, and the task can wait for it with {@link #wait(Long)}. If
+     * the task is already paused, a {@link TaskAlreadyPaused} exception is thrown.
      *
      * @param taskId the custom ID of the task
-     * @return a future that completes when the task is resumed
      * @throws TaskAlreadyPaused if the task with the specified custom ID is already paused
      */
-    public <T> CompletableFuture<T> pause(Long taskId) throws TaskAlreadyPaused {
-        CompletableFuture<T> future = new CompletableFuture<>();
-        synchronized (tasksLock) {
-            if (taskFutures.containsKey(taskId)) {
-                throw new TaskAlreadyPaused();
-            }
-            taskStates.put(taskId, TaskState.BLOCKED);
-            taskFutures.put(taskId, future);
+    public void pause(Long taskId) throws TaskAlreadyPaused {
+        TaskSlot slot = slotOrCreate(taskId);
+        if (!slot.phase.compareAndSet(TaskSlot.IDLE, TaskSlot.PAUSED)) {
+            throw new TaskAlreadyPaused();
         }
-        return future;
+        slot.state = TaskState.BLOCKED;
     }
 
     /**
-     * Resumes the task with the specified custom ID. The future associated with the task is
-     * completed.
+     * Resumes the task with the specified custom ID. The pending pause of the task is completed.
      *
      * @param taskId the custom ID of the task
      * @throws TaskNotExists if the task with the specified custom ID does not exist
      */
     public void resume(Long taskId) throws TaskNotExists {
-        synchronized (tasksLock) {
-            CompletableFuture<?> future = taskFutures.get(taskId);
-            if (future == null) {
-                // The task is not paused or has been completed.
-                throw new TaskNotExists(taskId);
-            }
-            future.complete(null);
-            //taskFutures.remove(taskId); nstead, we let the future be removed when the waiting thread is
-            // resumed and reaches the line after future.get() in wait()
-            taskStates.put(taskId, TaskState.RUNNING);
-        }
+        resume(taskId, null);
     }
 
     /**
      * Resumes the task with the specified custom ID, delivering a value to it.
      *
-     * <p>The task's future is removed and the task is marked {@link TaskState#RUNNING}, then the
-     * future is completed with {@code value}. The value becomes the return of the task's pending
-     * {@link #wait(Long)} call (used to deliver reactive/symbolic results). If the stored future
-     * cannot be cast to the expected type, a {@link TaskNotExists} is thrown.
+     * <p>The task is marked {@link TaskState#RUNNING}, then its pending pause is completed with
+     * {@code value}. The value becomes the return of the task's pending {@link #wait(Long)} call
+     * (used to deliver reactive/symbolic results).
      *
      * @param <T> the type of the value delivered to the task
      * @param taskId the custom ID of the task
      * @param value the value to deliver to the resumed task
      * @throws TaskNotExists if the task with the specified custom ID does not exist
      */
-    @SuppressWarnings("unchecked")
     public <T> void resume(Long taskId, T value) throws TaskNotExists {
-        CompletableFuture<?> future;
-        synchronized (tasksLock) {
-            future = taskFutures.get(taskId);
-            if (future == null) {
-                // The task is not paused or has been completed.
-                throw new TaskNotExists(taskId);
-            }
-            //taskFutures.remove(taskId); Instead, we let the future be removed when the waiting thread is
-            // resumed and reaches the line after future.get() in wait()
-            taskStates.put(taskId, TaskState.RUNNING);
-        }
-        try {
-            CompletableFuture<T> castedFuture = (CompletableFuture<T>) future;
-            castedFuture.complete(value);
-            LOGGER.debug("Task {} is resumed with value {} on future {}", taskId, value, future);
-        } catch (ClassCastException e) {
-            LOGGER.error("Failed to cast future for task: {}", taskId);
+        TaskSlot slot = slot(taskId);
+        if (slot == null || slot.phase.get() == TaskSlot.IDLE) {
+            // The task is not paused or has been completed.
             throw new TaskNotExists(taskId);
         }
+        // The pause is not dropped here. Instead, we let the pause be dropped when the waiting
+        // thread is resumed and consumes it in wait()
+        slot.state = TaskState.RUNNING;
+        slot.complete(value, null);
+        LOGGER.debug("Task {} is resumed with value {}", taskId, value);
     }
 
     /**
-     * Completes the task's future exceptionally with the given exception.
+     * Completes the task's pending pause exceptionally with the given exception.
      *
      * <p>Used to unblock a paused task by signalling a failure to its pending {@link #wait(Long)}
      * call (for example, blocking a task with a {@link HaltTaskException}). Does nothing if the task
-     * has no pending future.
+     * has no pending pause.
      *
      * @param taskId the custom ID of the task
-     * @param e the exception to complete the task's future with
+     * @param e the exception to complete the task's pause with
      */
     public void error(Long taskId, Exception e) {
-        synchronized (tasksLock) {
-            CompletableFuture<?> future = taskFutures.get(taskId);
-            if (future == null) {
-                return;
-            }
-            future.completeExceptionally(e);
-            //taskFutures.remove(taskId); nstead, we let the future be removed when the waiting thread is
-            // resumed and reaches the line after future.get() in wait()
+        TaskSlot slot = slot(taskId);
+        if (slot == null) {
+            return;
         }
+        slot.complete(null, e);
     }
 
     /**
-     * Terminates the task with the specified custom ID. The future associated with the task is
+     * Terminates the task with the specified custom ID. The pending pause of the task, if any, is
      * completed.
      *
      * @param taskId the custom ID of the task
      */
     public void terminate(Long taskId) {
-        synchronized (tasksLock) {
-            taskStates.put(taskId, TaskState.TERMINATED);
-            CompletableFuture<?> future = taskFutures.get(taskId);
-            if (future == null) {
-                return;
-            }
-            future.complete(null);
-            //taskFutures.remove(taskId); instead, we let the future be removed when the waiting thread is
-            // resumed and reaches the line after future.get() in wait()
-        }
+        TaskSlot slot = slotOrCreate(taskId);
+        slot.state = TaskState.TERMINATED;
+        slot.complete(null, null);
     }
 
     /**
@@ -240,9 +228,13 @@ public class TaskManager {
      * @return the size of the task pool
      */
     public int size() {
-        synchronized (tasksLock) {
-            return taskStates.size();
+        int size = 0;
+        for (TaskSlot slot : slots) {
+            if (slot != null && slot.state != null) {
+                size++;
+            }
         }
+        return size;
     }
 
     /**
@@ -252,9 +244,7 @@ public class TaskManager {
      * @param state  the new state of the task
      */
     public void markStatus(Long taskId, TaskState state) {
-        synchronized (tasksLock) {
-            taskStates.put(taskId, state);
-        }
+        slotOrCreate(taskId).state = state;
     }
 
     /**
@@ -264,24 +254,22 @@ public class TaskManager {
      * @return the state of the task
      */
     public TaskState getStatus(Long taskId) {
-        synchronized (tasksLock) {
-            return taskStates.get(taskId);
-        }
+        TaskSlot slot = slot(taskId);
+        return slot == null ? null : slot.state;
     }
 
     /**
      * Return all the tasks with the specified state.
      *
      * @param state the state of the tasks to find
-     * @return a list of tasks with the specified state
+     * @return a list of tasks with the specified state, in increasing order of ID
      */
     public List<Long> findTasksWithStatus(TaskState state) {
+        TaskSlot[] current = slots;
         List<Long> result = new ArrayList<>();
-        synchronized (tasksLock) {
-            for (Map.Entry<Long, TaskState> entry : taskStates.entrySet()) {
-                if (entry.getValue() == state) {
-                    result.add(entry.getKey());
-                }
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != null && current[i].state == state) {
+                result.add((long) i);
             }
         }
         return result;
@@ -290,15 +278,15 @@ public class TaskManager {
     /**
      * Return custom IDs of all the tasks.
      *
-     * @return a list of custom IDs of all the tasks
+     * @return a list of custom IDs of all the tasks, in increasing order
      */
     public List<Long> getActiveTasks() {
-        ArrayList<Long> result = new ArrayList<>();
-        synchronized (tasksLock) {
-            for (Map.Entry<Long, TaskState> taskStateEntry : taskStates.entrySet()) {
-                if (taskStateEntry.getValue() != TaskState.TERMINATED) {
-                    result.add(taskStateEntry.getKey());
-                }
+        TaskSlot[] current = slots;
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < current.length; i++) {
+            TaskState state = current[i] == null ? null : current[i].state;
+            if (state != null && state != TaskState.TERMINATED) {
+                result.add((long) i);
             }
         }
         return result;
@@ -313,84 +301,84 @@ public class TaskManager {
      * @return true if the task exists with status
      */
     public boolean isTaskOfStatus(Long taskId, TaskState state) {
-        synchronized (tasksLock) {
-            if (!taskStates.containsKey(taskId)) {
-                return false;
-            }
-            return taskStates.get(taskId) == state;
-        }
+        TaskState current = getStatus(taskId);
+        return current != null && current == state;
     }
 
     /**
      * Blocks until the task with the specified custom ID is resumed, returning any delivered value.
      *
-     * <p>Blocks on the task's future via {@code get()}. Returns {@code null} immediately if the task
-     * has no pending future. A {@link HaltTaskException} or a re-execution {@link
-     * HaltExecutionException} wrapped as the future's cause is unwrapped and rethrown; any other
-     * failure is propagated as {@link ExecutionException}. Invoked by {@link JmcRuntime#wait(Long)}.
+     * <p>Parks the calling thread until the task's pending pause is completed. Returns {@code null}
+     * immediately if the task has no pending pause. A {@link HaltTaskException} or a re-execution
+     * {@link HaltExecutionException} the pause was completed with is rethrown; any other failure is
+     * propagated as {@link ExecutionException}. Invoked by {@link JmcRuntime#wait(Long)}.
      *
      * @param <T> the type of the value delivered when the task is resumed
      * @param taskId the custom ID of the task
      * @return the value delivered when the task is resumed, or {@code null} if there is no pending
-     *     future
+     *     pause
      * @throws InterruptedException if the waiting thread is interrupted
-     * @throws ExecutionException if the task's future completed exceptionally
+     * @throws ExecutionException if the task's pause completed exceptionally
      */
     @SuppressWarnings("unchecked")
     public <T> T wait(Long taskId) throws InterruptedException, ExecutionException {
-        CompletableFuture<?> future;
-        synchronized (tasksLock) {
-            future = taskFutures.get(taskId);
-        }
-        if (future == null) {
-            LOGGER.debug("Task {} has no pending future to wait on", taskId);
+        TaskSlot slot = slot(taskId);
+        if (slot == null || slot.phase.get() == TaskSlot.IDLE) {
+            LOGGER.debug("Task {} has no pending pause to wait on", taskId);
             return null;
         }
-        try {
-            CompletableFuture<T> castedFuture = (CompletableFuture<T>) future;
-            LOGGER.debug("Task {} is waiting on future {}", taskId, future);
-            T result = castedFuture.get();
-            // A thread will reach this line only if the scheduler has completed it's corresponding future object.
-            // Thus, it is now safe to remove the future from taskFutures map
-            synchronized (tasksLock) {
-                taskFutures.remove(taskId);
-            }
-            LOGGER.debug("Task {} is now resumed with value {} from future {}", taskId, result, future);
-            return result;
-        } catch (Exception e) {
-            // The future must be removed from the tasksLock even if an exception happens
-            synchronized (tasksLock) {
-                taskFutures.remove(taskId);
-            }
-            Throwable cause = e.getCause();
-            if (cause instanceof HaltTaskException) {
-                throw (HaltTaskException) cause;
-            } else if (cause instanceof HaltExecutionException && ((HaltExecutionException) cause).isReexecutionNeeded()) {
-                LOGGER.debug("The future related to task {} has been completed exceptionally" +
-                        " for re-execution purpose", taskId);
-                throw HaltExecutionException.reexecutionNeeded();
-            } else {
-                throw e;
+        LOGGER.debug("Task {} is waiting", taskId);
+        // The waiter must be published before checking the phase, so that a concurrent completion
+        // either sees the waiter and unparks it or completes before the check.
+        slot.waiter = Thread.currentThread();
+        while (slot.phase.get() != TaskSlot.COMPLETED) {
+            LockSupport.park(slot);
+            if (Thread.interrupted()
+                    && slot.phase.compareAndSet(TaskSlot.PAUSED, TaskSlot.IDLE)) {
+                // The pause must be dropped even if the wait is interrupted
+                slot.waiter = null;
+                throw new InterruptedException();
             }
         }
+        slot.waiter = null;
+        Object value = slot.value;
+        Throwable failure = slot.failure;
+        slot.value = null;
+        slot.failure = null;
+        // A thread will reach this line only if the scheduler has completed its pause.
+        // Thus, it is now safe to drop the pause
+        slot.phase.set(TaskSlot.IDLE);
+        if (failure == null) {
+            LOGGER.debug("Task {} is now resumed with value {}", taskId, value);
+            return (T) value;
+        }
+        if (failure instanceof HaltTaskException) {
+            throw (HaltTaskException) failure;
+        } else if (failure instanceof HaltExecutionException
+                && ((HaltExecutionException) failure).isReexecutionNeeded()) {
+            LOGGER.debug("The pause related to task {} has been completed exceptionally" +
+                    " for re-execution purpose", taskId);
+            throw HaltExecutionException.reexecutionNeeded();
+        } else {
+            throw new ExecutionException(failure);
+        }
     }
 
     /**
      * Stops every task in the pool at once.
      *
-     * <p>Completes all pending task futures exceptionally with a {@link HaltExecutionException}
-     * error and then clears both the futures and the state map. This is the bulk counterpart to the
-     * incremental {@link #doNextStop()} / {@link #stopTask(Long)} teardown.
+     * <p>Completes all pending pauses exceptionally with a {@link HaltExecutionException} error and
+     * then clears all the task slots. This is the bulk counterpart to the incremental {@link
+     * #doNextStop()} / {@link #stopTask(Long)} teardown.
      */
     public void stopAll() {
-        synchronized (tasksLock) {
-            for (Map.Entry<Long, CompletableFuture<?>> entry : taskFutures.entrySet()) {
-                entry.getValue()
-                        .completeExceptionally(HaltExecutionException.error("Stopping execution"));
-                // wait
+        synchronized (slotsLock) {
+            for (TaskSlot slot : slots) {
+                if (slot != null) {
+                    slot.complete(null, HaltExecutionException.error("Stopping execution"));
+                }
             }
-            taskFutures.clear();
-            taskStates.clear();
+            slots = new TaskSlot[0];
         }
     }
 
@@ -404,35 +392,81 @@ public class TaskManager {
      * @return the ID of the next task to stop, or {@code -1L} if there is none
      */
     public Long doNextStop() {
-        synchronized (tasksLock) {
-            List<Long> taskIds = new ArrayList<>(taskStates.keySet());
-            taskIds.sort(Long::compareTo);
-            for (int i = taskIds.size() - 1; i >= 0; i--) {
-                Long taskId = taskIds.get(i);
-                if (taskStates.get(taskId) != TaskState.TERMINATED &&
-                        taskStates.get(taskId) != TaskState.CREATED) {
-                    return taskId;
-                }
+        TaskSlot[] current = slots;
+        for (int i = current.length - 1; i >= 0; i--) {
+            TaskState state = current[i] == null ? null : current[i].state;
+            if (state != null && state != TaskState.TERMINATED && state != TaskState.CREATED) {
+                return (long) i;
             }
         }
         return -1L;
     }
 
     /**
-     * Stops a single paused task by failing its future with a re-execution signal.
+     * Stops a single paused task by failing its pause with a re-execution signal.
      *
-     * <p>Completes the task's future exceptionally with {@link
+     * <p>Completes the task's pause exceptionally with {@link
      * HaltExecutionException#reexecutionNeeded()}, causing its pending {@link #wait(Long)} to
-     * unwind. Does nothing if the task has no pending future. Invoked by the scheduler's "stop all"
+     * unwind. Does nothing if the task has no pending pause. Invoked by the scheduler's "stop all"
      * mode (after {@link #doNextStop()} selects the task).
      *
      * @param taskId the custom ID of the task to stop
      */
     public void stopTask(Long taskId) {
-        synchronized (tasksLock) {
-            CompletableFuture<?> future = taskFutures.get(taskId);
-            if (future != null) {
-                future.completeExceptionally(HaltExecutionException.reexecutionNeeded());
+        TaskSlot slot = slot(taskId);
+        if (slot != null) {
+            slot.complete(null, HaltExecutionException.reexecutionNeeded());
+        }
+    }
+
+    /**
+     * The state of a single task: its {@link TaskState} and its reusable pause.
+     *
+     * <p>The pause moves through the phases {@link #IDLE} (no pending pause), {@link #PAUSED}
+     * (pending), {@link #COMPLETING} (a completion won the race and is publishing its result) and
+     * {@link #COMPLETED} (the result is ready for the waiting thread), and back to {@link #IDLE}
+     * once the waiting thread consumes the result. As with a future, only the first completion of a
+     * pause takes effect.
+     */
+    private static final class TaskSlot {
+        /** No pending pause. */
+        static final int IDLE = 0;
+        /** A pause is pending and not completed yet. */
+        static final int PAUSED = 1;
+        /** A completion is writing the result of the pause. */
+        static final int COMPLETING = 2;
+        /** The pause is completed and its result is ready to be consumed. */
+        static final int COMPLETED = 3;
+
+        /** The lifecycle state of the task. */
+        volatile TaskState state;
+
+        /** The phase of the pause of the task. */
+        final AtomicInteger phase = new AtomicInteger(IDLE);
+
+        /** The thread parked in {@link TaskManager#wait(Long)}, if any. */
+        volatile Thread waiter;
+
+        /** The value the pause was completed with. Published by the write to {@link #phase}. */
+        Object value;
+
+        /** The failure the pause was completed with. Published by the write to {@link #phase}. */
+        Throwable failure;
+
+        /**
+         * Completes the pending pause with the given value or failure and unparks the waiting
+         * thread. Does nothing if there is no pending pause or it is already completed.
+         */
+        void complete(Object value, Throwable failure) {
+            if (!phase.compareAndSet(PAUSED, COMPLETING)) {
+                return;
+            }
+            this.value = value;
+            this.failure = failure;
+            phase.set(COMPLETED);
+            Thread thread = waiter;
+            if (thread != null) {
+                LockSupport.unpark(thread);
             }
         }
     }
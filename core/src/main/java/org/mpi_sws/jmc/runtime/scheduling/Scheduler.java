@@ -8,7 +8,6 @@ import org.mpi_sws.jmc.runtime.*;
 import org.mpi_sws.jmc.strategies.ReplayableSchedulingStrategy;
 import org.mpi_sws.jmc.strategies.SchedulingStrategy;
 
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
@@ -52,6 +51,15 @@ public class Scheduler {
     /** Whether the scheduler is currently unwinding all tasks to end the execution. */
     private boolean stopAllMode = false;
 
+    /**
+     * Whether the yielding task runs the scheduling step itself instead of enabling the scheduler
+     * thread.
+     */
+    private final boolean directHandoff;
+
+    /** Lock serializing the scheduling steps run directly by the yielding tasks. */
+    private final Object handoffLock = new Object();
+
     /**
      * Constructs a new Scheduler object.
      *
@@ -62,10 +70,29 @@ public class Scheduler {
      */
     public Scheduler(
             SchedulingStrategy strategy, int schedulerTries, long schedulerTrySleepTimeNanos) {
+        this(strategy, schedulerTries, schedulerTrySleepTimeNanos, false);
+    }
+
+    /**
+     * Constructs a new Scheduler object.
+     *
+     * @param strategy the scheduling strategy
+     * @param schedulerTries the number of times the scheduler thread retries obtaining a runnable
+     *     task before giving up
+     * @param schedulerTrySleepTimeNanos the sleep, in nanoseconds, between those retries
+     * @param directHandoff whether a yielding task runs the scheduling step itself and resumes the
+     *     next task directly, instead of waking up the scheduler thread
+     */
+    public Scheduler(
+            SchedulingStrategy strategy,
+            int schedulerTries,
+            long schedulerTrySleepTimeNanos,
+            boolean directHandoff) {
         this.strategy = strategy;
         this.schedulerThread =
                 new SchedulerThread(this, strategy, schedulerTries, schedulerTrySleepTimeNanos);
         this.currentTask = 0L;
+        this.directHandoff = directHandoff;
     }
 
     /**
@@ -215,62 +242,86 @@ public class Scheduler {
     /**
      * Pauses the current task and yields the control to the scheduler.
      *
-     * <p>The call is non-blocking and returns immediately.
+     * <p>The call is non-blocking and returns immediately. The task waits to be resumed with
+     * {@link TaskManager#wait(Long)}.
      *
-     * @return a future that completes when the task is resumed
      * @throws TaskAlreadyPaused if the current task is already paused
      */
-    public CompletableFuture<?> yield() throws TaskAlreadyPaused {
+    public void yield() throws TaskAlreadyPaused {
         if (!isInStopAllMode()) {
-            CompletableFuture<?> future;
             synchronized (currentTaskLock) {
-                future = taskManager.pause(currentTask);
+                taskManager.pause(currentTask);
                 currentTask = null;
             }
-            // Release the scheduler thread
-            LOGGER.debug("Enabling scheduler thread.");
-            schedulerThread.enable();
-            return future;
+            handOff();
         }
-        return null;
     }
 
     /**
      * Yields control to the scheduler thread without pausing the current task.
      *
-     * <p>Clears the current task and enables the scheduler thread, but does not create a pausing
-     * future for the caller. Used when the caller must not block (e.g. {@code JmcRuntime.join}).
+     * <p>Clears the current task and enables the scheduler thread, but does not pause
+     * the caller. Used when the caller must not block (e.g. {@code JmcRuntime.join}).
      */
     public void yieldWithoutPausing() {
         synchronized (currentTaskLock) {
             currentTask = null;
         }
-        // Release the scheduler thread
-        LOGGER.debug("Enabling scheduler thread.");
-        schedulerThread.enable();
+        handOff();
     }
 
     /**
      * Pauses the task with the given ID and yields the control to the scheduler.
      *
-     * <p>The call is non-blocking and returns immediately.
+     * <p>The call is non-blocking and returns immediately. The task waits to be resumed with
+     * {@link TaskManager#wait(Long)}.
      *
      * @param taskId the ID of the task to be paused
-     * @return a future that completes when the task is resumed
      * @throws TaskAlreadyPaused if the task is already paused
      */
-    public CompletableFuture<?> yield(Long taskId) throws TaskAlreadyPaused {
+    public void yield(Long taskId) throws TaskAlreadyPaused {
         if (!isInStopAllMode()) {
-            CompletableFuture<?> future = taskManager.pause(taskId);
+            taskManager.pause(taskId);
             synchronized (currentTaskLock) {
                 currentTask = null;
             }
+            handOff();
+        }
+    }
+
+    /**
+     * Passes the control to the next task after the current task yielded.
+     *
+     * <p>By default the scheduler thread is enabled to make the scheduling decision. With direct
+     * handoff, the yielding thread makes the decision and resumes the next task itself, which saves
+     * waking up (and later parking) the scheduler thread. The steps are serialized by {@link
+     * #handoffLock}, so at most one scheduling decision is in progress at any time.
+     *
+     * <p>A failing step ends the scheduling in both modes. The scheduler thread stops its loop;
+     * with direct handoff the exception is rethrown to the yielding task, so that a {@link
+     * HaltCheckerException} or {@link HaltExecutionException} raised by the strategy reaches the
+     * model checker.
+     */
+    private void handOff() {
+        if (!directHandoff) {
             // Release the scheduler thread
             LOGGER.debug("Enabling scheduler thread.");
             schedulerThread.enable();
-            return future;
+            return;
+        }
+        LOGGER.debug("Handing off directly to the next task.");
+        synchronized (handoffLock) {
+            try {
+                schedulerThread.step();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Direct handoff was interrupted: {}", e.getMessage());
+                throw HaltExecutionException.error("Direct handoff was interrupted.");
+            } catch (RuntimeException e) {
+                LOGGER.error("Direct handoff threw an exception: {}", e.getMessage());
+                throw e;
+            }
         }
-        return null;
     }
 
     /**
@@ -321,6 +372,16 @@ public class Scheduler {
         return stopAllMode;
     }
 
+    /**
+     * Returns whether the strategy is replaying a fixed schedule (see {@link
+     * SchedulingStrategy#followsSchedule()}).
+     *
+     * @return {@code true} if every yield must be kept
+     */
+    public boolean followsSchedule() {
+        return strategy.followsSchedule();
+    }
+
     /**
      * The SchedulerThread class is responsible for scheduling the tasks.
      */
@@ -394,14 +455,51 @@ public class Scheduler {
             }
         }
 
+        /**
+         * Runs one scheduling step.
+         *
+         * <p>Either advances "stop all" mode, or asks the strategy for the next task (retrying up
+         * to {@link #schedulerTries} times with a sleep of {@link #schedulerTrySleepTimeNanos}) and
+         * applies the resulting choice via {@link Scheduler#scheduleTask(SchedulingChoice)}.
+         *
+         * <p>Invoked by the scheduler thread, or directly by the yielding task in direct handoff
+         * mode.
+         *
+         * @throws InterruptedException if interrupted while waiting between the retries
+         */
+        private void step() throws InterruptedException {
+            // Repeat until the task is not null. Error out after trying x times.
+            // It is possible that the scheduler is enabled but no task is available.
+            // The solution is to just wait for something to become available. and throw an
+            // error otherwise.
+
+            if (scheduler.isInStopAllMode()) {
+                scheduler.doNextStop();
+                return;
+            }
+
+            SchedulingChoice<?> nextTask = null;
+            for (int i = 0; i < schedulerTries; i++) {
+                nextTask = strategy.nextTask();
+                if (nextTask != null) {
+                    break;
+                }
+                if (schedulerTrySleepTimeNanos > 0) {
+                    Thread.sleep(schedulerTrySleepTimeNanos);
+                }
+            }
+            if (nextTask != null) {
+                scheduler.scheduleTask(nextTask);
+            } else {
+                LOGGER.error("No task to schedule.");
+            }
+        }
+
         /**
          * The main loop of the scheduler thread.
          *
          * <p>Blocks on {@link #enablingQueue} until enabled by a yielding task (or signalled to shut
-         * down). On each step it either advances "stop all" mode, or asks the strategy for the next
-         * task (retrying up to {@link #schedulerTries} times with a sleep of {@link
-         * #schedulerTrySleepTimeNanos}) and applies the resulting choice via {@link
-         * Scheduler#scheduleTask(SchedulingChoice)}. Any exception ends the loop.
+         * down) and then runs a scheduling {@link #step()}. Any exception ends the loop.
          */
         @Override
         public void run() {
@@ -415,31 +513,7 @@ public class Scheduler {
                         break;
                     }
                     LOGGER.debug("Scheduler thread enabled.");
-                    // Repeat until the task is not null. Error out after trying x times.
-                    // It is possible that the scheduler is enabled but no task is available.
-                    // The solution is to just wait for something to become available. and throw an
-                    // error otherwise.
-
-                    if (scheduler.isInStopAllMode()) {
-                        scheduler.doNextStop();
-                        continue;
-                    }
-
-                    SchedulingChoice<?> nextTask = null;
-                    for (int i = 0; i < schedulerTries; i++) {
-                        nextTask = strategy.nextTask();
-                        if (nextTask != null) {
-                            break;
-                        }
-                        if (schedulerTrySleepTimeNanos > 0) {
-                            Thread.sleep(schedulerTrySleepTimeNanos);
-                        }
-                    }
-                    if (nextTask != null) {
-                        scheduler.scheduleTask(nextTask);
-                    } else {
-                        LOGGER.error("No task to schedule.");
-                    }
+                    step();
                 } catch (Exception e) {
                     LOGGER.error("Scheduler thread threw an exception: {}", e.getMessage());
                     break;
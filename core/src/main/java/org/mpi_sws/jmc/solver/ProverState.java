@@ -3,9 +3,12 @@ package org.mpi_sws.jmc.solver;
 import org.mpi_sws.jmc.api.symbolic.array.SymArrayVariable;
 import org.mpi_sws.jmc.api.symbolic.bool.SymBoolVariable;
 import org.mpi_sws.jmc.api.symbolic.integer.SymIntVariable;
+import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ProverState {
@@ -14,6 +17,8 @@ public class ProverState {
     public Map<String, SymIntVariable> symIntVariableMap = new HashMap<>();
     public Map<String, SymBoolVariable> symBoolVariableMap = new HashMap<>();
     public Map<String, SymArrayVariable> symArrayVariableHashMap = new HashMap<>();
+    // Mirrors the prover stack: the formula of each level, or null for a level without one
+    public List<BooleanFormula> assertions = new ArrayList<>();
 
     public ProverState(ProverEnvironment prover) {
         this.prover = prover;
@@ -23,5 +28,6 @@ public class ProverState {
         symIntVariableMap.clear();
         symBoolVariableMap.clear();
         symArrayVariableHashMap.clear();
+        assertions.clear();
     }
 }
@@ -0,0 +1,138 @@
+package org.mpi_sws.jmc.solver;
+
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded cache of satisfiability queries and their results.
+ *
+ * <p>A query is the set of formulas asserted on the prover stack when the satisfiability check is
+ * made, i.e. the path condition together with the queried formula. The satisfiability of a
+ * conjunction depends neither on the order of its conjuncts nor on duplicates, so the set is the
+ * normalized form of the query: sibling branches of the exploration that push the same constraints
+ * in a different order share a cache entry. Formulas are compared with {@link
+ * BooleanFormula#equals(Object)}, which is structural for the solvers supported by JavaSMT.
+ *
+ * <p>For a satisfiable query, the model assignments are cached as well, so that the values of the
+ * symbolic variables can be updated without querying the solver. Results checked in another solver
+ * context are cached without their model.
+ *
+ * <p>The least recently used entry is evicted once the cache is full.
+ */
+public class SolverQueryCache {
+
+    /** The default maximum number of cached queries. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** The cached results, in access order. */
+    private final LinkedHashMap<Set<BooleanFormula>, Result> entries;
+
+    /** Number of lookups that found a cached result. */
+    private long hits = 0L;
+
+    /** Number of lookups that did not find a cached result. */
+    private long misses = 0L;
+
+    /** Constructs a cache holding at most {@link #DEFAULT_CAPACITY} queries. */
+    public SolverQueryCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache holding at most the given number of queries.
+     *
+     * @param capacity the maximum number of cached queries
+     */
+    public SolverQueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.entries =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<Set<BooleanFormula>, Result> eldest) {
+                        return size() > capacity;
+                    }
+                };
+    }
+
+    /**
+     * Returns the cached result of the query and counts a hit or a miss.
+     *
+     * @param query the formulas asserted for the check
+     * @return the cached result, or {@code null} if the query is not cached
+     */
+    public Result get(Set<BooleanFormula> query) {
+        Result result = entries.get(query);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Caches the result of the query.
+     *
+     * @param query the formulas asserted for the check
+     * @param result the result of the check
+     */
+    public void put(Set<BooleanFormula> query, Result result) {
+        entries.put(query, result);
+    }
+
+    /**
+     * Returns the number of lookups that found a cached result.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached result.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of cached queries.
+     *
+     * @return the number of cached queries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /** Resets the hit and miss counters, keeping the cached results. */
+    public void resetStatistics() {
+        hits = 0L;
+        misses = 0L;
+    }
+
+    /** Removes all the cached results. */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The result of a satisfiability check.
+     *
+     * @param satisfiable whether the asserted formulas are satisfiable
+     * @param model the model assignments if satisfiable, an empty list otherwise; {@code null} if
+     *     the query is satisfiable but the check was made in another solver context, whose
+     *     assignments must not be read into the context of the cache
+     */
+    public record Result(boolean satisfiable, List<Model.ValueAssignment> model) {}
+}
@@ -26,6 +26,10 @@ public class SolverUtil {
         return SymbolicSolverSingletonFactory.getIncrementalSolver();
     }
 
+    public static void closeSolver() {
+        SymbolicSolverSingletonFactory.closeSolver();
+    }
+
     public static BooleanFormulaManager getBmgr() {
         SymbolicSolver solver = getSolver();
         if (solver == null) {
@@ -347,4 +347,9 @@ public abstract class SymbolicSolver {
     public abstract void resetProver(ProverEnvironment prover);
 
     public abstract void resetCurrentProver();
+
+    /** Closes the solver context. The solver cannot be used afterwards. */
+    public void close() {
+        context.close();
+    }
 }
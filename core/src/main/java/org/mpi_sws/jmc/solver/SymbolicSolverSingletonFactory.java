@@ -39,6 +39,17 @@ public class SymbolicSolverSingletonFactory {
         return solver;
     }
 
+    /**
+     * Closes the solver, if any, and drops it so that the next check creates a fresh one instead of
+     * inheriting the provers and the cached queries of the previous check.
+     */
+    public static void closeSolver() {
+        if (solver != null) {
+            solver.close();
+            solver = null;
+        }
+    }
+
     public static IncrementalSolver getIncrementalSolver() {
         if (solver == null) {
             return null;
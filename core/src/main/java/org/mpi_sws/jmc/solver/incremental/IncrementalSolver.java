@@ -3,6 +3,7 @@ package org.mpi_sws.jmc.solver.incremental;
 
 import org.mpi_sws.jmc.solver.ProverState;
 import org.mpi_sws.jmc.solver.SMTSolverTypes;
+import org.mpi_sws.jmc.solver.SolverQueryCache;
 import org.mpi_sws.jmc.solver.SolverResult;
 import org.mpi_sws.jmc.solver.SymbolicSolver;
 import org.mpi_sws.jmc.api.symbolic.array.SymArrayVariable;
@@ -10,6 +11,7 @@ import org.mpi_sws.jmc.api.symbolic.bool.JmcBooleanFormula;
 import org.mpi_sws.jmc.api.symbolic.bool.SymBoolVariable;
 import org.mpi_sws.jmc.api.symbolic.integer.SymIntVariable;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -17,11 +19,16 @@ import org.sosy_lab.java_smt.api.SolverException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class IncrementalSolver extends SymbolicSolver {
 
     public ProverEnvironment prover;
+    // The state of the current prover, whose assertions mirror the prover stack
+    private ProverState proverState;
     private int proverId;
     private final Map<Integer, ProverState> proverMap = new HashMap<>();
     // Indicates the last logical prover id
@@ -30,9 +37,18 @@ public class IncrementalSolver extends SymbolicSolver {
     private int numOfCreatedProvers = 0;
     // Holds the free provers
     private final ArrayList<ProverState> proverPool = new ArrayList<>();
+    // Results of the satisfiability checks, shared by all the provers
+    private final SolverQueryCache queryCache = new SolverQueryCache();
+    // The model assignments of the last satisfiable check
+    private List<Model.ValueAssignment> modelAssignments = List.of();
+    // The type of the solver, used to create the contexts of the parallel provers
+    private final SMTSolverTypes solverType;
+    // Checks independent queries concurrently, or null to check them on the current prover
+    private ParallelProverPool parallelProvers = null;
 
     public IncrementalSolver() {
         super();
+        this.solverType = SMTSolverTypes.Z3;
         ProverState proverState = createNewProver();
         proverMap.put(1, proverState);
         setProver(proverState, 1);
@@ -40,6 +56,7 @@ public class IncrementalSolver extends SymbolicSolver {
 
     public IncrementalSolver(SMTSolverTypes solverType) {
         super(solverType);
+        this.solverType = solverType;
         ProverState proverState = createNewProver();
         proverMap.put(1, proverState);
         setProver(proverState, 1);
@@ -127,9 +144,8 @@ public class IncrementalSolver extends SymbolicSolver {
         if (prover.size() > 0) {
             try {
                 long startTime = System.nanoTime();
-                boolean isUnsat = prover.isUnsat();
+                boolean isUnsat = !check();
                 if (!isUnsat) {
-                    model = prover.getModel();
                     long endTime = System.nanoTime();
                     advanceSolverTime(endTime - startTime);
                     updateModel();
@@ -148,6 +164,7 @@ public class IncrementalSolver extends SymbolicSolver {
     public void pop() {
         long startTime = System.nanoTime();
         prover.pop();
+        proverState.assertions.remove(proverState.assertions.size() - 1);
         long endTime = System.nanoTime();
         advanceSolverTime(endTime - startTime);
     }
@@ -157,6 +174,7 @@ public class IncrementalSolver extends SymbolicSolver {
         try {
             long startTime = System.nanoTime();
             prover.push();
+            proverState.assertions.add(null);
             long endTime = System.nanoTime();
             advanceSolverTime(endTime - startTime);
         } catch (InterruptedException e) {
@@ -169,6 +187,7 @@ public class IncrementalSolver extends SymbolicSolver {
         try {
             long startTime = System.nanoTime();
             prover.push(formula);
+            proverState.assertions.add(formula);
             long endTime = System.nanoTime();
             advanceSolverTime(endTime - startTime);
         } catch (InterruptedException e) {
@@ -181,9 +200,8 @@ public class IncrementalSolver extends SymbolicSolver {
         try {
             long startTime = System.nanoTime();
             push(formula);
-            boolean isUnsat = prover.isUnsat();
+            boolean isUnsat = !check();
             if (!isUnsat) {
-                model = prover.getModel();
                 long endTime = System.nanoTime();
                 advanceSolverTime(endTime - startTime);
                 // The formula is satisfiable
@@ -201,6 +219,127 @@ public class IncrementalSolver extends SymbolicSolver {
         }
     }
 
+    /**
+     * Checks the satisfiability of the formulas on the prover stack, answering from the query cache
+     * when the same set of formulas was checked before. Updates {@link #modelAssignments} if they
+     * are satisfiable. The prover is not asked for a model on a cache hit, so {@link #model} is
+     * cleared then rather than left holding the model of an earlier query.
+     *
+     * @return true if the formulas on the prover stack are satisfiable, false otherwise
+     */
+    private boolean check() throws SolverException, InterruptedException {
+        Set<BooleanFormula> query = new HashSet<>(proverState.assertions);
+        query.remove(null);
+        SolverQueryCache.Result result = queryCache.get(query);
+        // A satisfiable result of the parallel provers has no model in this context
+        if (result == null || result.model() == null) {
+            if (prover.isUnsat()) {
+                result = new SolverQueryCache.Result(false, List.of());
+            } else {
+                model = prover.getModel();
+                result = new SolverQueryCache.Result(true, model.asList());
+            }
+            queryCache.put(query, result);
+        } else {
+            model = null;
+        }
+        if (result.satisfiable()) {
+            modelAssignments = result.model();
+        }
+        return result.satisfiable();
+    }
+
+    /**
+     * Checks both polarities of the formula under the formulas on the prover stack, leaving the
+     * stack unchanged.
+     *
+     * <p>With parallel checks enabled, the polarities that are not in the query cache are checked
+     * concurrently on the provers of the pool; otherwise, they are checked one after the other on
+     * the current prover.
+     *
+     * @param formula the formula to check
+     * @return whether the formula and whether its negation are satisfiable, in this order
+     */
+    public boolean[] checkPolarities(JmcBooleanFormula formula) {
+        if (parallelProvers == null) {
+            boolean sat = solveSymbolicFormula(formula);
+            pop();
+            boolean negationSat = disSolveSymbolicFormula(formula);
+            pop();
+            return new boolean[] {sat, negationSat};
+        }
+        long startTime = System.nanoTime();
+        List<BooleanFormula> pathCondition = new ArrayList<>();
+        for (BooleanFormula assertion : proverState.assertions) {
+            if (assertion != null) {
+                pathCondition.add(assertion);
+            }
+        }
+        BooleanFormula[] queries = {formula.getFormula(), negateFormula(formula)};
+        SolverQueryCache.Result[] results = new SolverQueryCache.Result[queries.length];
+        List<Integer> missed = new ArrayList<>();
+        for (int i = 0; i < queries.length; i++) {
+            results[i] = queryCache.get(queryOf(pathCondition, queries[i]));
+            if (results[i] == null) {
+                missed.add(i);
+            }
+        }
+        if (!missed.isEmpty()) {
+            List<BooleanFormula> missedQueries = new ArrayList<>();
+            for (int i : missed) {
+                missedQueries.add(queries[i]);
+            }
+            List<SolverQueryCache.Result> checked =
+                    parallelProvers.check(pathCondition, missedQueries);
+            for (int j = 0; j < missed.size(); j++) {
+                int i = missed.get(j);
+                results[i] = checked.get(j);
+                queryCache.put(queryOf(pathCondition, queries[i]), results[i]);
+            }
+        }
+        long endTime = System.nanoTime();
+        advanceSolverTime(endTime - startTime);
+        return new boolean[] {results[0].satisfiable(), results[1].satisfiable()};
+    }
+
+    /**
+     * Sets whether independent satisfiability checks run concurrently, each on a prover of its own
+     * solver context. See {@link #checkPolarities(JmcBooleanFormula)}.
+     *
+     * @param parallel true to run the independent checks concurrently
+     */
+    public void setParallelChecks(boolean parallel) {
+        if (parallel && parallelProvers == null) {
+            parallelProvers = new ParallelProverPool(this, solverType, 2);
+        } else if (!parallel && parallelProvers != null) {
+            parallelProvers.close();
+            parallelProvers = null;
+        }
+    }
+
+    /**
+     * Returns the key of the query cache for a formula checked under a path condition.
+     *
+     * @param pathCondition the formulas asserted in front of the formula
+     * @param formula the checked formula
+     * @return the set of asserted formulas
+     */
+    private static Set<BooleanFormula> queryOf(
+            List<BooleanFormula> pathCondition, BooleanFormula formula) {
+        Set<BooleanFormula> query = new HashSet<>(pathCondition);
+        query.add(formula);
+        return query;
+    }
+
+    /**
+     * Returns the cache of the satisfiability checks.
+     *
+     * @return the query cache
+     */
+    public SolverQueryCache getQueryCache() {
+        return queryCache;
+    }
+
     @Override
     protected void push(JmcBooleanFormula operation) {
         push(operation.getFormula());
@@ -224,6 +363,7 @@ public class IncrementalSolver extends SymbolicSolver {
     @Override
     public void setProver(ProverState proverState, int proverId) {
         this.prover = proverState.prover;
+        this.proverState = proverState;
         this.proverId = proverId;
         this.symBoolVariableMap = proverState.symBoolVariableMap;
         this.symIntVariableMap = proverState.symIntVariableMap;
@@ -241,6 +381,9 @@ public class IncrementalSolver extends SymbolicSolver {
         while (prover.size() > 0) {
             prover.pop();
         }
+        if (prover == this.prover) {
+            proverState.assertions.clear();
+        }
         long endTime = System.nanoTime();
         advanceSolverTime(endTime - startTime);
     }
@@ -251,9 +394,9 @@ public class IncrementalSolver extends SymbolicSolver {
     }
 
     private void updateModel() {
-        if (model != null) {
+        if (!modelAssignments.isEmpty()) {
             long startTime = System.nanoTime();
-            model.iterator().forEachRemaining(entry -> {
+            modelAssignments.forEach(entry -> {
                 // The key is a string like className@address. extract the class Name
                 String symbolicType = entry.getKey().toString().split("@")[0];
                 if (symbolicType.equals("SymbolicBoolean")) {
@@ -333,6 +476,24 @@ public class IncrementalSolver extends SymbolicSolver {
         return proverMap.get(id);
     }
 
+    /** Closes the provers, including the ones of the parallel checks, and the solver context. */
+    @Override
+    public void close() {
+        setParallelChecks(false);
+        // A prover may be registered under several ids
+        Set<ProverEnvironment> provers = new HashSet<>();
+        for (ProverState p : proverMap.values()) {
+            provers.add(p.prover);
+        }
+        for (ProverState p : proverPool) {
+            provers.add(p.prover);
+        }
+        provers.forEach(ProverEnvironment::close);
+        proverMap.clear();
+        proverPool.clear();
+        super.close();
+    }
+
     public void removeProver(int id) {
         ProverState p = proverMap.get(id);
         if (p == null) {
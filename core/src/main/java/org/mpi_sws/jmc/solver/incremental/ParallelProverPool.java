@@ -0,0 +1,224 @@
+package org.mpi_sws.jmc.solver.incremental;
+
+import org.mpi_sws.jmc.solver.SMTSolverTypes;
+import org.mpi_sws.jmc.solver.SolverQueryCache;
+import org.mpi_sws.jmc.solver.SymbolicSolver;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A pool of provers that check satisfiability queries concurrently.
+ *
+ * <p>The solver contexts of JavaSMT are not thread-safe, so every prover of the pool lives in a
+ * solver context of its own and runs on its own thread. The formulas of a query are translated from
+ * the context of the {@link IncrementalSolver} into the context of the prover on the calling
+ * thread, which is the only thread touching the context of the solver; the checks themselves run
+ * concurrently and the caller waits for all of them.
+ *
+ * <p>Each prover keeps the path condition of its last query on its stack. A new query only pops
+ * the levels that differ from its path condition and pushes the new ones, so consecutive queries
+ * that share a path condition translate and assert it once.
+ *
+ * <p>The results carry no model: the assignments of a prover refer to the formulas of its own
+ * context, so a satisfiable result of the pool has a {@code null} model and the solver computes the
+ * model in its own context when it needs one.
+ */
+class ParallelProverPool {
+
+    /** The formula manager of the solver the queries come from. */
+    private final FormulaManager sourceFmgr;
+
+    /** The provers of the pool. */
+    private final List<Worker> workers;
+
+    /** Runs the checks, one thread per prover. */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a pool of provers for the queries of the given solver.
+     *
+     * @param solver the solver the queries come from
+     * @param solverType the type of the solver
+     * @param size the number of provers
+     */
+    ParallelProverPool(SymbolicSolver solver, SMTSolverTypes solverType, int size) {
+        this.sourceFmgr = solver.getFmgr();
+        this.workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < size; i++) {
+                SolverContext context =
+                        SolverContextFactory.createSolverContext(
+                                solver.getConfig(),
+                                solver.getLogger(),
+                                solver.getShutdown().getNotifier(),
+                                solver.findSolverType(solverType));
+                workers.add(new Worker(context));
+            }
+        } catch (InvalidConfigurationException e) {
+            throw new RuntimeException("Error creating solver context", e);
+        }
+        this.executor =
+                Executors.newFixedThreadPool(
+                        size,
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "jmc-prover-pool");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Returns the number of provers, i.e. the number of queries that can be checked at once.
+     *
+     * @return the number of provers
+     */
+    int size() {
+        return workers.size();
+    }
+
+    /**
+     * Checks the satisfiability of each query under the path condition, concurrently.
+     *
+     * @param pathCondition the formulas asserted in front of every query, in stack order
+     * @param queries the queries, at most {@link #size()}
+     * @return the result of each query, in the order of the queries
+     */
+    List<SolverQueryCache.Result> check(
+            List<BooleanFormula> pathCondition, List<BooleanFormula> queries) {
+        if (queries.size() > workers.size()) {
+            throw new IllegalArgumentException(
+                    "Cannot check " + queries.size() + " queries on " + workers.size() + " provers");
+        }
+        List<Future<SolverQueryCache.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            Callable<SolverQueryCache.Result> task =
+                    workers.get(i).prepare(pathCondition, queries.get(i), sourceFmgr);
+            futures.add(executor.submit(task));
+        }
+        List<SolverQueryCache.Result> results = new ArrayList<>();
+        try {
+            for (Future<SolverQueryCache.Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Concurrent satisfiability check failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return results;
+    }
+
+    /** Stops the threads and closes the provers and their solver contexts. */
+    void close() {
+        executor.shutdownNow();
+        for (Worker worker : workers) {
+            worker.prover.close();
+            worker.context.close();
+        }
+    }
+
+    /** A prover of the pool, with its solver context. */
+    private static final class Worker {
+
+        /** The solver context of the prover. */
+        private final SolverContext context;
+
+        /** The prover. */
+        private final ProverEnvironment prover;
+
+        /** The formulas on the stack of the prover, in the context of the source solver. */
+        private final List<BooleanFormula> stack = new ArrayList<>();
+
+        Worker(SolverContext context) {
+            this.context = context;
+            this.prover = context.newProverEnvironment();
+        }
+
+        /**
+         * Translates the part of the query that is not on the stack yet and returns the check to run
+         * on the thread of the prover.
+         *
+         * @param pathCondition the formulas asserted in front of the query, in stack order
+         * @param query the queried formula
+         * @param sourceFmgr the formula manager the formulas come from
+         * @return the check of the query
+         */
+        Callable<SolverQueryCache.Result> prepare(
+                List<BooleanFormula> pathCondition,
+                BooleanFormula query,
+                FormulaManager sourceFmgr) {
+            FormulaManager fmgr = context.getFormulaManager();
+            int common = 0;
+            while (common < stack.size()
+                    && common < pathCondition.size()
+                    && stack.get(common).equals(pathCondition.get(common))) {
+                common++;
+            }
+            int pops = stack.size() - common;
+            List<BooleanFormula> sources =
+                    new ArrayList<>(pathCondition.subList(common, pathCondition.size()));
+            List<BooleanFormula> pushes = new ArrayList<>();
+            for (BooleanFormula formula : sources) {
+                pushes.add(fmgr.translateFrom(formula, sourceFmgr));
+            }
+            BooleanFormula translatedQuery = fmgr.translateFrom(query, sourceFmgr);
+            return () -> {
+                try {
+                    for (int i = 0; i < pops; i++) {
+                        prover.pop();
+                        stack.remove(stack.size() - 1);
+                    }
+                    for (int i = 0; i < pushes.size(); i++) {
+                        prover.push(pushes.get(i));
+                        stack.add(sources.get(i));
+                    }
+                    return check(translatedQuery);
+                } catch (SolverException | InterruptedException | RuntimeException e) {
+                    reset();
+                    throw e;
+                }
+            };
+        }
+
+        /**
+         * Checks the query on top of the stack of the prover.
+         *
+         * @param query the queried formula, in the context of the prover
+         * @return the result of the check
+         */
+        private SolverQueryCache.Result check(BooleanFormula query)
+                throws SolverException, InterruptedException {
+            prover.push(query);
+            try {
+                if (prover.isUnsat()) {
+                    return new SolverQueryCache.Result(false, List.of());
+                }
+                return new SolverQueryCache.Result(true, null);
+            } finally {
+                prover.pop();
+            }
+        }
+
+        /** Empties the stack of the prover, after a failed check left it in an unknown state. */
+        private void reset() {
+            while (prover.size() > 0) {
+                prover.pop();
+            }
+            stack.clear();
+        }
+    }
+}
@@ -51,6 +51,31 @@ public interface SchedulingStrategy {
      */
     SchedulingChoice<?> nextTask();
 
+    /**
+     * Returns whether the strategy is currently replaying a fixed schedule that expects a
+     * scheduling point after every event.
+     *
+     * <p>While this holds, the runtime does not drop any yield, so that the schedule and the
+     * execution stay aligned.
+     *
+     * @return {@code true} if the strategy is following a fixed schedule
+     */
+    default boolean followsSchedule() {
+        return false;
+    }
+
+    /**
+     * Returns whether the strategy explores every execution of the program.
+     *
+     * <p>Such a strategy cannot be combined with unsound reductions of the scheduling points, such
+     * as the sharedness oracle, which would silently void its guarantee.
+     *
+     * @return {@code true} if the strategy is exhaustive
+     */
+    default boolean isExhaustive() {
+        return false;
+    }
+
     /**
      * Resets the strategy's per-iteration state.
      *
@@ -32,6 +32,19 @@ public class SchedulingStrategyConfiguration {
      * {@code <= 0} selects automatic mode (switch once a run exceeds the learned step bound).
      */
     private int pctFairBound;
+    /**
+     * Number of consecutive iterations without a new execution graph after which the {@code
+     * coverage} strategy reports saturation and stops. A value {@code <= 0} never stops.
+     */
+    private int saturationWindow;
+    /** Whether the symbolic satisfiability checks run concurrently on separate provers. */
+    private boolean parallelSolverChecks;
+    /** Fraction of the maximum heap above which the Trust exploration stack spills to disk. */
+    private double stackSpillWatermark;
+    /** Number of independent workers (JVMs) sharing the exploration (always &ge; 1). */
+    private int workers;
+    /** Index of this worker among the {@link #workers}, in {@code [0, workers)}. */
+    private int workerIndex;
 
     /** Private constructor; instances are created through {@link Builder}. */
     private SchedulingStrategyConfiguration() {
@@ -109,12 +122,58 @@ public class SchedulingStrategyConfiguration {
         return pctFairBound;
     }
 
+    /**
+     * Returns the saturation window used by the {@code coverage} strategy.
+     *
+     * @return the number of iterations without a new graph before stopping; a value {@code <= 0}
+     *     never stops
+     */
+    public int getSaturationWindow() {
+        return saturationWindow;
+    }
+
+    /**
+     * Returns whether the symbolic satisfiability checks run concurrently.
+     *
+     * @return true if the satisfiability checks run concurrently on separate provers
+     */
+    public boolean getParallelSolverChecks() {
+        return parallelSolverChecks;
+    }
+
+    /**
+     * Returns the fraction of the maximum heap above which the exploration stack spills to disk.
+     *
+     * @return the spill watermark, {@code 0} if the stack is never spilled
+     */
+    public double getStackSpillWatermark() {
+        return stackSpillWatermark;
+    }
+
+    /**
+     * Returns the number of independent workers sharing the exploration.
+     *
+     * @return the number of workers (always &ge; 1)
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the index of this worker among the {@link #getWorkers()} workers.
+     *
+     * @return the worker index, in {@code [0, workers)}
+     */
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
     /**
      * Builder for {@link SchedulingStrategyConfiguration}.
      *
      * <p>All values start with defaults (no seed, {@code RANDOM} trust policy, the default report
-     * path, debug off, budget 2, solver {@code "off"}, bug depth 3, fair bound 0 = auto) and can be
-     * overridden fluently.
+     * path, debug off, budget 2, solver {@code "off"}, bug depth 3, fair bound 0 = auto, saturation
+     * window 0 = never stop, a single worker) and can be overridden fluently.
      */
     public static class Builder {
         /** The RNG seed to build with. */
@@ -133,6 +192,16 @@ public class SchedulingStrategyConfiguration {
         private int bugDepth;
         /** The fair-pct fair-suffix bound to build with ({@code <= 0} = auto). */
         private int pctFairBound;
+        /** The coverage saturation window to build with ({@code <= 0} = never stop). */
+        private int saturationWindow;
+        /** Whether to build with concurrent satisfiability checks. */
+        private boolean parallelSolverChecks;
+        /** The stack spill watermark to build with ({@code 0} = never spill). */
+        private double stackSpillWatermark;
+        /** The number of workers to build with. */
+        private int workers;
+        /** The worker index to build with. */
+        private int workerIndex;
 
         /** Creates a builder pre-populated with the default configuration values. */
         public Builder() {
@@ -144,6 +213,11 @@ public class SchedulingStrategyConfiguration {
             this.solver = "off";
             this.bugDepth = 3;
             this.pctFairBound = 0;
+            this.saturationWindow = 0;
+            this.parallelSolverChecks = false;
+            this.stackSpillWatermark = 0.0;
+            this.workers = 1;
+            this.workerIndex = 0;
         }
 
         /**
@@ -242,6 +316,62 @@ public class SchedulingStrategyConfiguration {
             return this;
         }
 
+        /**
+         * Sets the saturation window for the {@code coverage} strategy.
+         *
+         * @param saturationWindow the number of consecutive iterations without a new execution
+         *     graph before stopping; a value {@code <= 0} never stops
+         * @return this builder, for chaining
+         */
+        public Builder saturationWindow(int saturationWindow) {
+            this.saturationWindow = saturationWindow;
+            return this;
+        }
+
+        /**
+         * Sets whether the symbolic satisfiability checks run concurrently.
+         *
+         * @param parallelSolverChecks true to run the independent checks concurrently, each on a
+         *     prover of its own solver context
+         * @return this builder, for chaining
+         */
+        public Builder parallelSolverChecks(boolean parallelSolverChecks) {
+            this.parallelSolverChecks = parallelSolverChecks;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the maximum heap above which the exploration stack spills to disk.
+         *
+         * @param stackSpillWatermark the fraction of the maximum heap, in {@code (0, 1]}, or {@code
+         *     0} to keep the whole stack in memory
+         * @return this builder, for chaining
+         */
+        public Builder stackSpillWatermark(double stackSpillWatermark) {
+            this.stackSpillWatermark = stackSpillWatermark;
+            return this;
+        }
+
+        /**
+         * Sets the worker partition: the exploration is shared among {@code workers} independent
+         * workers and this configuration describes worker {@code workerIndex}.
+         *
+         * @param workerIndex the index of this worker, in {@code [0, workers)}
+         * @param workers     the number of workers (must be at least 1)
+         * @return this builder, for chaining
+         * @throws IllegalArgumentException if the index is out of range or {@code workers} is less
+         *                                  than 1
+         */
+        public Builder workerPartition(int workerIndex, int workers) {
+            if (workers < 1 || workerIndex < 0 || workerIndex >= workers) {
+                throw new IllegalArgumentException(
+                        "Invalid worker partition: index " + workerIndex + " of " + workers);
+            }
+            this.workerIndex = workerIndex;
+            this.workers = workers;
+            return this;
+        }
+
         /**
          * Builds an immutable {@link SchedulingStrategyConfiguration} from the configured values.
          *
@@ -257,6 +387,11 @@ public class SchedulingStrategyConfiguration {
             config.solver = this.solver;
             config.bugDepth = this.bugDepth;
             config.pctFairBound = this.pctFairBound;
+            config.saturationWindow = this.saturationWindow;
+            config.parallelSolverChecks = this.parallelSolverChecks;
+            config.stackSpillWatermark = this.stackSpillWatermark;
+            config.workers = this.workers;
+            config.workerIndex = this.workerIndex;
             return config;
         }
     }
@@ -1,5 +1,6 @@
 package org.mpi_sws.jmc.strategies;
 
+import org.mpi_sws.jmc.strategies.coverage.CoverageGuidedSchedulingStrategy;
 import org.mpi_sws.jmc.strategies.estimation.dag.DagEstimationStrategy;
 import org.mpi_sws.jmc.strategies.estimation.dag.absDag.AbsDagEstimationStrategy;
 import org.mpi_sws.jmc.strategies.estimation.dag.fjDag.FjDagEstimationStrategy;
@@ -8,6 +9,7 @@ import org.mpi_sws.jmc.strategies.estimation.trust.testor.TestorStrategy;
 import org.mpi_sws.jmc.strategies.estimation.trust.wgTrust.WgTrustEstimationStrategy;
 import org.mpi_sws.jmc.strategies.pct.FairPCTSchedulingStrategy;
 import org.mpi_sws.jmc.strategies.pct.PCTSchedulingStrategy;
+import org.mpi_sws.jmc.strategies.pos.POSSchedulingStrategy;
 import org.mpi_sws.jmc.strategies.trust.TrustStrategy;
 
 import java.util.HashSet;
@@ -25,6 +27,8 @@ public class SchedulingStrategyFactory {
         validStrategies.add("random");
         validStrategies.add("pct");
         validStrategies.add("fair-pct");
+        validStrategies.add("pos");
+        validStrategies.add("coverage");
         validStrategies.add("trust");
         validStrategies.add("pestor");
         validStrategies.add("abs-dag-estimation");
@@ -59,13 +63,23 @@ public class SchedulingStrategyFactory {
                     config.getReportPath(),
                     config.getBugDepth(),
                     config.getPctFairBound());
+        } else if (name.equals("pos")) {
+            return new POSSchedulingStrategy(config.getSeed(), config.getReportPath());
+        } else if (name.equals("coverage")) {
+            return new CoverageGuidedSchedulingStrategy(
+                    config.getSeed(), config.getReportPath(), config.getSaturationWindow());
         } else if (name.equals("trust")) {
-            return new TrustStrategy(
-                    config.getSeed(),
-                    config.getTrustSchedulingPolicy(),
-                    config.getDebug(),
-                    config.getReportPath(),
-                    config.getSolver());
+            TrustStrategy strategy =
+                    new TrustStrategy(
+                            config.getSeed(),
+                            config.getTrustSchedulingPolicy(),
+                            config.getDebug(),
+                            config.getReportPath(),
+                            config.getSolver());
+            strategy.setWorkerPartition(config.getWorkerIndex(), config.getWorkers());
+            strategy.setParallelSolverChecks(config.getParallelSolverChecks());
+            strategy.setStackSpillWatermark(config.getStackSpillWatermark());
+            return strategy;
         } else if (name.equals("pestor")) {
             return new DagEstimationStrategy(config.getSeed());
         } else if (name.equals("abs-dag-estimation")) {
@@ -0,0 +1,427 @@
+package org.mpi_sws.jmc.strategies.coverage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.runtime.HaltCheckerException;
+import org.mpi_sws.jmc.runtime.HaltExecutionException;
+import org.mpi_sws.jmc.runtime.HaltTaskException;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
+import org.mpi_sws.jmc.strategies.RandomSchedulingStrategy;
+import org.mpi_sws.jmc.strategies.trust.ExecutionGraphSimulator;
+import org.mpi_sws.jmc.util.FileUtil;
+import org.mpi_sws.jmc.util.LongIntHashMap;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A randomized scheduling strategy that steers the exploration towards execution graphs it has not
+ * seen yet.
+ *
+ * <p>Each iteration is replayed on an {@link ExecutionGraphSimulator} to build its execution graph,
+ * and the fingerprint of the graph is added to the set of visited graphs. The outcome of an
+ * iteration feeds two mechanisms that bias the following iterations:
+ *
+ * <ol>
+ *   <li><b>Per-prefix choice statistics.</b> A scheduling decision is identified by the hash of
+ *       the decisions before it (the prefix) and the chosen task. For the first {@link
+ *       #MAX_TRACKED_DECISIONS} decisions of an iteration, the strategy counts how often each
+ *       choice was taken and how often it led to a new graph, and picks a task with a weight of
+ *       {@code (1 + new graphs) / (1 + times taken)}. Choices that keep producing known graphs fade
+ *       out, and untried choices are preferred. Deeper decisions are uniformly random.
+ *   <li><b>Schedule mutation.</b> The schedules that produced a new graph are kept in a bounded
+ *       corpus. With probability {@link #MUTATION_PROBABILITY}, an iteration picks a schedule from
+ *       the corpus, weighted towards the rarely visited graphs, replays a random prefix of it and
+ *       takes a different choice right after the prefix.
+ * </ol>
+ *
+ * <p>When no new graph was found in {@link #saturationWindow} consecutive iterations, the coverage
+ * is reported as saturated and the check stops.
+ *
+ * <p>Only decisions among more than one runnable task are recorded. Like {@link
+ * org.mpi_sws.jmc.strategies.pct.PCTSchedulingStrategy}, this class extends {@link
+ * RandomSchedulingStrategy} and inherits the trackers, the seeded random generator, the reactive
+ * random values and trace recording; all the randomness comes from the seeded generator.
+ *
+ * <p>The choices of an iteration depend on the statistics and the corpus built by the earlier
+ * iterations, so the replay seed alone does not reproduce it. A replay follows the recorded choice
+ * trace instead, as {@link org.mpi_sws.jmc.strategies.trust.TrustStrategy} does.
+ */
+public class CoverageGuidedSchedulingStrategy extends RandomSchedulingStrategy {
+
+    /** Logger used to trace the mutations, new graphs and saturation. */
+    private static final Logger LOGGER =
+            LogManager.getLogger(CoverageGuidedSchedulingStrategy.class);
+
+    /** Number of leading decisions of an iteration that are guided by the choice statistics. */
+    static final int MAX_TRACKED_DECISIONS = 32;
+
+    /** Bound on the number of choices with statistics; further choices are not tracked. */
+    private static final int MAX_STATISTICS = 1 << 16;
+
+    /** Bound on the number of schedules kept for mutation. */
+    private static final int MAX_CORPUS = 256;
+
+    /** Probability that an iteration mutates a schedule of the corpus. */
+    private static final double MUTATION_PROBABILITY = 0.5;
+
+    /** Initial value of the prefix hash of an iteration. */
+    private static final long EMPTY_PREFIX = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Number of consecutive iterations without a new graph after which the check stops. A value
+     * {@code <= 0} never stops.
+     */
+    private final int saturationWindow;
+
+    /** Builds the execution graph of the current iteration. */
+    private final ExecutionGraphSimulator simulator;
+
+    /** Number of visits of each execution graph, keyed by the fingerprint of the graph. */
+    private final LongIntHashMap visitedGraphs;
+
+    /** Statistics of the choices, keyed by the prefix hash after the choice. */
+    private final Map<Long, ChoiceStatistics> statistics;
+
+    /** Schedules that produced a new graph. */
+    private final List<Schedule> corpus;
+
+    /** The tasks chosen at the decisions of the current iteration. */
+    private final List<Long> decisions;
+
+    /** The statistics of the tracked decisions of the current iteration. */
+    private final List<ChoiceStatistics> trackedChoices;
+
+    /** Hash of the decisions taken so far in the current iteration. */
+    private long prefixHash;
+
+    /** Decisions to replay at the start of the current iteration, or {@code null}. */
+    private List<Long> replayPrefix;
+
+    /** The choice to avoid right after {@link #replayPrefix}, or {@code null}. */
+    private Long avoidedChoice;
+
+    /** Number of consecutive iterations that did not produce a new graph. */
+    private int iterationsWithoutNewGraph;
+
+    /** Directory where the choice trace is written and read back for replay. */
+    private final String reportPath;
+
+    /** The remaining choices of the trace being replayed, or {@code null} if not replaying. */
+    private List<SchedulingChoice<?>> recordedTrace;
+
+    /**
+     * Constructs a new coverage-guided scheduling strategy.
+     *
+     * @param seed the seed for the random number generator
+     * @param reportPath the directory where the replay seed and trace are written
+     * @param saturationWindow the number of consecutive iterations without a new graph after which
+     *     the check stops; a value {@code <= 0} never stops
+     */
+    public CoverageGuidedSchedulingStrategy(Long seed, String reportPath, int saturationWindow) {
+        super(seed, reportPath);
+        this.reportPath = reportPath;
+        this.saturationWindow = saturationWindow;
+        this.simulator = new ExecutionGraphSimulator();
+        this.visitedGraphs = new LongIntHashMap();
+        this.statistics = new HashMap<>();
+        this.corpus = new ArrayList<>();
+        this.decisions = new ArrayList<>();
+        this.trackedChoices = new ArrayList<>();
+        this.iterationsWithoutNewGraph = 0;
+    }
+
+    /**
+     * Initializes the strategy for a new iteration.
+     *
+     * <p>Stops the check if the coverage is saturated. Otherwise, resets the per-iteration state
+     * and decides whether the iteration mutates a schedule of the corpus.
+     *
+     * @param iteration the number of the iteration
+     * @param report the model checker report; the replay seed is recorded into it
+     * @throws HaltCheckerException if the coverage is saturated
+     */
+    @Override
+    public void initIteration(int iteration, JmcModelCheckerReport report)
+            throws HaltCheckerException {
+        if (saturationWindow > 0 && iterationsWithoutNewGraph >= saturationWindow) {
+            LOGGER.info(
+                    "Coverage saturated after {} distinct graphs: no new graph in the last {}"
+                            + " iterations",
+                    visitedGraphs.size(),
+                    iterationsWithoutNewGraph);
+            throw HaltCheckerException.ok();
+        }
+        super.initIteration(iteration, report);
+        simulator.reset();
+        decisions.clear();
+        trackedChoices.clear();
+        prefixHash = EMPTY_PREFIX;
+        replayPrefix = null;
+        avoidedChoice = null;
+        if (!corpus.isEmpty() && random.nextDouble() < MUTATION_PROBABILITY) {
+            prepareMutation();
+        }
+    }
+
+    /**
+     * Updates the tracker state and the execution graph of the iteration.
+     *
+     * @param event the event that occurred
+     * @throws HaltTaskException if the originating task must be halted
+     * @throws HaltExecutionException if the current execution must be halted
+     */
+    @Override
+    public void updateEvent(JmcRuntimeEvent event)
+            throws HaltTaskException, HaltExecutionException {
+        super.updateEvent(event);
+        simulator.updateEvent(event);
+    }
+
+    /**
+     * Returns the next task to schedule.
+     *
+     * <p>Follows the recorded trace when replaying one. Otherwise, replays the mutated prefix if
+     * there is one, avoids the original choice right after it, and picks a task according to the
+     * choice statistics.
+     *
+     * @return the scheduling choice, or {@code null} if no task is active
+     */
+    @Override
+    public SchedulingChoice<?> nextTask() {
+        Set<Long> activeSet = getActiveTasks();
+        if (activeSet.isEmpty()) {
+            return null;
+        }
+        if (recordedTrace != null && !recordedTrace.isEmpty()) {
+            SchedulingChoice<?> next = recordedTrace.remove(0);
+            LOGGER.debug("Returning recorded task: {}", next);
+            return next;
+        }
+        if (activeSet.size() == 1) {
+            return makeSchedulingChoice(activeSet.iterator().next());
+        }
+        // Sorted so that the random draws are deterministic for a given seed
+        List<Long> active = new ArrayList<>(activeSet);
+        Collections.sort(active);
+
+        Long choice = null;
+        int index = decisions.size();
+        if (replayPrefix != null) {
+            if (index < replayPrefix.size() && active.contains(replayPrefix.get(index))) {
+                choice = replayPrefix.get(index);
+            } else {
+                if (index == replayPrefix.size() && active.size() > 1) {
+                    active.remove(avoidedChoice);
+                }
+                // Either the mutation point is reached or the replay diverged
+                replayPrefix = null;
+            }
+        }
+        if (choice == null) {
+            choice = pick(active, index);
+        }
+        recordDecision(choice, index);
+        return makeSchedulingChoice(choice);
+    }
+
+    /**
+     * Resets the per-iteration state and accounts for the graph of the finished iteration.
+     *
+     * <p>A new graph rewards the tracked choices of the iteration and adds its schedule to the
+     * corpus.
+     *
+     * @param iteration the number of the iteration being reset
+     */
+    @Override
+    public void resetIteration(int iteration) {
+        super.resetIteration(iteration);
+        long fingerprint = simulator.getCoverageGraph().fingerprint();
+        int visits = visitedGraphs.increment(fingerprint);
+        if (visits > 1) {
+            iterationsWithoutNewGraph++;
+            return;
+        }
+        LOGGER.debug("Iteration {} produced new graph {}", iteration, visitedGraphs.size());
+        iterationsWithoutNewGraph = 0;
+        for (ChoiceStatistics choice : trackedChoices) {
+            choice.newGraphs++;
+        }
+        if (decisions.isEmpty()) {
+            return;
+        }
+        Schedule schedule = new Schedule(new ArrayList<>(decisions), fingerprint);
+        if (corpus.size() < MAX_CORPUS) {
+            corpus.add(schedule);
+        } else {
+            corpus.set(random.nextInt(MAX_CORPUS), schedule);
+        }
+    }
+
+    /**
+     * Reports the coverage before tearing down.
+     *
+     * @param report the model checker report for the run
+     */
+    @Override
+    public void teardown(JmcModelCheckerReport report) {
+        LOGGER.info("Covered graphs: {}", visitedGraphs.size());
+        super.teardown(report);
+    }
+
+    /**
+     * Loads the choice trace written by {@link #recordTrace()}, which the following iteration
+     * replays.
+     *
+     * @throws JmcCheckerException if the trace cannot be read
+     */
+    @Override
+    public void replayRecordedTrace() throws JmcCheckerException {
+        recordedTrace =
+                FileUtil.readTaskSchedule(
+                        Paths.get(this.reportPath, "replay_trace.json").toString());
+    }
+
+    /**
+     * Returns whether a recorded trace is being replayed, which has one scheduling point per
+     * recorded choice.
+     *
+     * @return {@code true} while replaying a recorded trace
+     */
+    @Override
+    public boolean followsSchedule() {
+        return recordedTrace != null && !recordedTrace.isEmpty();
+    }
+
+    /**
+     * Returns the number of distinct execution graphs visited so far.
+     *
+     * @return the number of distinct graphs
+     */
+    public int getCoveredGraphs() {
+        return visitedGraphs.size();
+    }
+
+    /**
+     * Picks a task among the active ones, guided by the choice statistics for the tracked
+     * decisions and uniformly otherwise.
+     *
+     * @param active the sorted active tasks
+     * @param index the index of the decision in the iteration
+     * @return the chosen task
+     */
+    private Long pick(List<Long> active, int index) {
+        if (index >= MAX_TRACKED_DECISIONS) {
+            return active.get(random.nextInt(active.size()));
+        }
+        double[] weights = new double[active.size()];
+        double total = 0.0;
+        for (int i = 0; i < active.size(); i++) {
+            ChoiceStatistics stats = statistics.get(extend(prefixHash, active.get(i)));
+            weights[i] = stats == null ? 1.0 : stats.weight();
+            total += weights[i];
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < active.size(); i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return active.get(i);
+            }
+        }
+        return active.get(active.size() - 1);
+    }
+
+    /**
+     * Records a decision of the current iteration and updates the prefix hash.
+     *
+     * @param choice the chosen task
+     * @param index the index of the decision in the iteration
+     */
+    private void recordDecision(Long choice, int index) {
+        decisions.add(choice);
+        prefixHash = extend(prefixHash, choice);
+        if (index >= MAX_TRACKED_DECISIONS) {
+            return;
+        }
+        ChoiceStatistics stats = statistics.get(prefixHash);
+        if (stats == null && statistics.size() < MAX_STATISTICS) {
+            stats = new ChoiceStatistics();
+            statistics.put(prefixHash, stats);
+        }
+        if (stats != null) {
+            stats.taken++;
+            trackedChoices.add(stats);
+        }
+    }
+
+    /**
+     * Picks a schedule of the corpus, weighted by the inverse of the number of visits of its graph,
+     * and a mutation point in it.
+     */
+    private void prepareMutation() {
+        double[] weights = new double[corpus.size()];
+        double total = 0.0;
+        for (int i = 0; i < corpus.size(); i++) {
+            weights[i] = 1.0 / visitedGraphs.get(corpus.get(i).fingerprint(), 1);
+            total += weights[i];
+        }
+        double target = random.nextDouble() * total;
+        Schedule schedule = corpus.get(corpus.size() - 1);
+        for (int i = 0; i < corpus.size(); i++) {
+            target -= weights[i];
+            if (target < 0) {
+                schedule = corpus.get(i);
+                break;
+            }
+        }
+        int point = random.nextInt(schedule.decisions().size());
+        replayPrefix = schedule.decisions().subList(0, point);
+        avoidedChoice = schedule.decisions().get(point);
+        LOGGER.debug("Mutating a schedule at decision {}", point);
+    }
+
+    /**
+     * Extends a prefix hash with a choice.
+     *
+     * @param prefix the hash of the prefix
+     * @param choice the chosen task
+     * @return the hash of the extended prefix
+     */
+    private static long extend(long prefix, long choice) {
+        long hash = (prefix ^ choice) * 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 31);
+    }
+
+    /** How often a choice was taken and how often it led to a new graph. */
+    private static final class ChoiceStatistics {
+        /** Number of iterations that took the choice. */
+        private int taken;
+        /** Number of those iterations that produced a new graph. */
+        private int newGraphs;
+
+        /**
+         * Returns the weight of the choice, which favors the untried and productive choices.
+         *
+         * @return the weight of the choice
+         */
+        double weight() {
+            return (1.0 + newGraphs) / (1.0 + taken);
+        }
+    }
+
+    /**
+     * A schedule that produced a new graph.
+     *
+     * @param decisions the tasks chosen at the decisions of the schedule
+     * @param fingerprint the fingerprint of the graph it produced
+     */
+    private record Schedule(List<Long> decisions, long fingerprint) {}
+}
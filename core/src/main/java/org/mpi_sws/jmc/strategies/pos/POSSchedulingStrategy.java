@@ -0,0 +1,257 @@
+package org.mpi_sws.jmc.strategies.pos;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.runtime.HaltExecutionException;
+import org.mpi_sws.jmc.runtime.HaltTaskException;
+import org.mpi_sws.jmc.runtime.JmcFieldAccessEvent;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
+import org.mpi_sws.jmc.strategies.RandomSchedulingStrategy;
+import org.mpi_sws.jmc.strategies.trust.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A randomized scheduling strategy implementing partial order sampling (POS).
+ *
+ * <p>POS comes from <em>"Partial Order Aware Concurrency Sampling"</em> (Yuan, Yang, Gu, CAV 2018).
+ * A uniformly random scheduler draws a fresh choice at every scheduling point, but most of these
+ * choices order independent steps and lead to the same partial order. The probability of an
+ * execution graph is then skewed towards the graphs with many equivalent interleavings. POS
+ * instead keeps a random priority per task and only redraws the priorities that a step can
+ * actually affect:
+ *
+ * <ol>
+ *   <li>Every task receives a random priority the first time it becomes runnable; at each step the
+ *       runnable task of <em>maximal</em> priority runs.
+ *   <li>After a task executes an event, it gets a fresh priority for its next event.
+ *   <li>Every other task whose pending event <em>races</em> with the executed one (same location,
+ *       at least one write) gets a fresh priority too. The priorities of the tasks with
+ *       independent pending events are kept.
+ * </ol>
+ *
+ * <h2>Integration with JMC</h2>
+ *
+ * <p>JMC reports an event once the task has been scheduled to execute it, so the pending event of
+ * a paused task is not known. The last access reported by a task stands in for its pending event:
+ * tasks typically keep accessing the same locations, as in loops and retries. A wrong guess only
+ * changes which priorities are redrawn, never which tasks may run.
+ *
+ * <p>Like {@link org.mpi_sws.jmc.strategies.pct.PCTSchedulingStrategy}, this class extends {@link
+ * RandomSchedulingStrategy} so that the runnable tasks are computed by the trackers, and inherits
+ * the seeded random generator, the reactive random values, trace recording and seed-based replay.
+ * Only the selection made in {@link #nextTask()} changes.
+ *
+ * <p>Field reads and writes, atomic read-modify-writes and lock operations have a location; lock
+ * operations and read-modify-writes count as writes. Events without a location never race.
+ */
+public class POSSchedulingStrategy extends RandomSchedulingStrategy {
+
+    /** Logger used to trace priority assignments and the races that redraw them. */
+    private static final Logger LOGGER = LogManager.getLogger(POSSchedulingStrategy.class);
+
+    /**
+     * Priority of each task seen so far this iteration (higher value = higher priority), a random
+     * value in {@code [0, 1)}. Tasks are added lazily by {@link #assignPriorities(Set)}.
+     */
+    private final Map<Long, Double> priorities;
+
+    /**
+     * The last access reported by each task, standing in for its pending event. Sorted by task id
+     * so that the priorities are redrawn in a deterministic order for a given seed.
+     */
+    private final TreeMap<Long, Access> lastAccesses;
+
+    /**
+     * Constructs a new POS scheduling strategy.
+     *
+     * @param seed the seed for the random number generator
+     * @param reportPath the directory where the replay seed and trace are written
+     */
+    public POSSchedulingStrategy(Long seed, String reportPath) {
+        super(seed, reportPath);
+        this.priorities = new HashMap<>();
+        this.lastAccesses = new TreeMap<>();
+    }
+
+    /**
+     * Initializes the strategy for a new iteration.
+     *
+     * <p>Delegates to {@link RandomSchedulingStrategy#initIteration(int, JmcModelCheckerReport)}
+     * and forgets the priorities and accesses of the previous iteration.
+     *
+     * @param iteration the number of the iteration
+     * @param report the model checker report; the replay seed is recorded into it
+     * @throws HaltExecutionException if initialization fails and the execution must halt
+     */
+    @Override
+    public void initIteration(int iteration, JmcModelCheckerReport report)
+            throws HaltExecutionException {
+        super.initIteration(iteration, report);
+        priorities.clear();
+        lastAccesses.clear();
+    }
+
+    /**
+     * Returns the next task to schedule: the active task of maximal priority.
+     *
+     * @return the scheduling choice for the maximal-priority active task, or {@code null} if none is
+     *     active
+     */
+    @Override
+    public SchedulingChoice<?> nextTask() {
+        Set<Long> active = getActiveTasks();
+        if (active.isEmpty()) {
+            return null;
+        }
+        if (active.size() == 1) {
+            return makeSchedulingChoice(active.iterator().next());
+        }
+        assignPriorities(active);
+        return makeSchedulingChoice(highestPriority(active));
+    }
+
+    /**
+     * Updates the tracker state and redraws the priorities affected by the event.
+     *
+     * <p>The reporting task gets a fresh priority for its next event, and so does every task whose
+     * last access races with the event. The event then becomes the last access of its task.
+     *
+     * @param event the event that occurred
+     * @throws HaltTaskException if the originating task must be halted
+     * @throws HaltExecutionException if the current execution must be halted
+     */
+    @Override
+    public void updateEvent(JmcRuntimeEvent event)
+            throws HaltTaskException, HaltExecutionException {
+        super.updateEvent(event);
+        Long taskId = event.getTaskId();
+        Access access = Access.of(event);
+        if (access != null) {
+            for (Map.Entry<Long, Access> entry : lastAccesses.entrySet()) {
+                Long other = entry.getKey();
+                if (!other.equals(taskId)
+                        && priorities.containsKey(other)
+                        && access.racesWith(entry.getValue())) {
+                    LOGGER.debug("Task {} races with task {} on {}", other, taskId, access);
+                    redraw(other);
+                }
+            }
+            lastAccesses.put(taskId, access);
+        }
+        if (priorities.containsKey(taskId)) {
+            redraw(taskId);
+        }
+    }
+
+    /**
+     * Assigns a random initial priority to every active task not yet seen this iteration.
+     *
+     * <p>New tasks are processed in ascending id order so the sequence of random draws is
+     * deterministic for a given seed.
+     *
+     * @param active the current set of active (runnable) tasks
+     */
+    private void assignPriorities(Set<Long> active) {
+        List<Long> newTasks = new ArrayList<>();
+        for (Long task : active) {
+            if (!priorities.containsKey(task)) {
+                newTasks.add(task);
+            }
+        }
+        Collections.sort(newTasks);
+        for (Long task : newTasks) {
+            redraw(task);
+        }
+    }
+
+    /**
+     * Draws a fresh random priority for the given task.
+     *
+     * @param task the task
+     */
+    private void redraw(Long task) {
+        double priority = random.nextDouble();
+        priorities.put(task, priority);
+        LOGGER.debug("Assigned priority {} to task {}", priority, task);
+    }
+
+    /**
+     * Returns the active task with the maximal priority; ties are broken in favor of the smaller
+     * task id.
+     *
+     * @param active the current set of active (runnable) tasks
+     * @return the active task of maximal priority
+     */
+    private Long highestPriority(Set<Long> active) {
+        Long best = null;
+        double bestPriority = 0.0;
+        for (Long task : active) {
+            double priority = priorities.get(task);
+            if (best == null
+                    || priority > bestPriority
+                    || (priority == bestPriority && task < best)) {
+                best = task;
+                bestPriority = priority;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the priority of the given task.
+     *
+     * <p>Package-private; exposed for unit testing.
+     *
+     * @param task the task
+     * @return the priority of the task, or {@code null} if it has none yet
+     */
+    Double getPriority(Long task) {
+        return priorities.get(task);
+    }
+
+    /**
+     * An access to a location.
+     *
+     * @param location the location identifier (see {@link Location#idOf(JmcRuntimeEvent)})
+     * @param isWrite whether the access writes the location
+     */
+    private record Access(int location, boolean isWrite) {
+
+        /**
+         * Returns the access performed by the event, or {@code null} if the event has no location.
+         *
+         * @param event the runtime event
+         * @return the access, or {@code null}
+         */
+        static Access of(JmcRuntimeEvent event) {
+            if (!(event instanceof JmcFieldAccessEvent)) {
+                return null;
+            }
+            return switch (event.getType()) {
+                case READ_EVENT -> new Access(Location.idOf(event), false);
+                case WRITE_EVENT, CAS_EVENT, LOCK_ACQUIRE_EVENT, LOCK_RELEASE_EVENT ->
+                        new Access(Location.idOf(event), true);
+                default -> null;
+            };
+        }
+
+        /**
+         * Checks whether the two accesses race: same location and at least one write.
+         *
+         * @param other the other access
+         * @return {@code true} if the accesses race
+         */
+        boolean racesWith(Access other) {
+            return location == other.location && (isWrite || other.isWrite);
+        }
+    }
+}
@@ -8,11 +8,13 @@ import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
 import org.mpi_sws.jmc.runtime.HaltCheckerException;
 import org.mpi_sws.jmc.runtime.HaltExecutionException;
 import org.mpi_sws.jmc.runtime.HaltTaskException;
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.scheduling.ObjectValue;
 import org.mpi_sws.jmc.runtime.scheduling.PrimitiveValue;
 import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
 import org.mpi_sws.jmc.solver.ProverState;
 import org.mpi_sws.jmc.solver.SMTSolverTypes;
+import org.mpi_sws.jmc.solver.SolverQueryCache;
 import org.mpi_sws.jmc.solver.SolverResult;
 import org.mpi_sws.jmc.solver.SolverUtil;
 import org.mpi_sws.jmc.solver.incremental.IncrementalSolver;
@@ -52,6 +54,19 @@ public class Algo {
      */
     private final IncrementalSolver solver;
 
+    /**
+     * Depth of the exploration tree at which the branches are partitioned among the workers. The
+     * items above this depth are explored by every worker, so that all workers agree on the order
+     * in which the items at this depth are discovered.
+     */
+    private static final int WORKER_SPLIT_DEPTH = 1;
+    // The index of this worker in [0, numWorkers)
+    private int workerIndex = 0;
+    // The number of workers sharing the exploration. A value of 1 disables partitioning.
+    private int numWorkers = 1;
+    // The number of items at WORKER_SPLIT_DEPTH that were left to the other workers
+    private long skippedBranches = 0L;
+
     /**
      * Creates a new instance of the Trust algorithm.
      */
@@ -86,6 +101,66 @@ public class Algo {
         this.solver = initSolver(solverType);
     }
 
+    /**
+     * Partitions the exploration among {@code numWorkers} independent workers and restricts this
+     * instance to the share of worker {@code workerIndex}.
+     *
+     * <p>Each worker runs in its own JVM with its own {@link org.mpi_sws.jmc.runtime.JmcRuntime}.
+     * Since the exploration is deterministic, every worker discovers the same items of the
+     * exploration stack at depth {@link #WORKER_SPLIT_DEPTH}. The items at that depth are assigned
+     * to the workers by the {@link ExplorationStack.Item#getBranchKey() branch key} of their parent,
+     * which does not depend on the order in which they are discovered, so that the siblings that
+     * share a graph go to the same worker. A worker drops (together with their whole subtree) the
+     * items that are not assigned to it. The union of the executions explored by all the
+     * workers is the set of executions explored by a single sequential run.
+     *
+     * @param workerIndex The index of this worker, in {@code [0, numWorkers)}
+     * @param numWorkers  The total number of workers
+     */
+    public void setWorkerPartition(int workerIndex, int numWorkers) {
+        if (numWorkers < 1 || workerIndex < 0 || workerIndex >= numWorkers) {
+            throw new IllegalArgumentException(
+                    "Invalid worker partition: index " + workerIndex + " of " + numWorkers);
+        }
+        this.workerIndex = workerIndex;
+        this.numWorkers = numWorkers;
+    }
+
+    /**
+     * Sets whether the independent satisfiability checks of the symbolic exploration run
+     * concurrently, each on a prover of its own solver context. Ignored if no solver is configured.
+     * The provers are closed with the solver on {@link #teardown(JmcModelCheckerReport)}.
+     *
+     * @param parallel true to run the independent checks concurrently
+     */
+    public void setParallelSolverChecks(boolean parallel) {
+        if (solver != null) {
+            solver.setParallelChecks(parallel);
+        }
+    }
+
+    /**
+     * Sets the fraction of the maximum heap above which the exploration stack spills its oldest
+     * inner stacks to disk.
+     *
+     * @param watermark The fraction of the maximum heap, or 0 to keep the stack in memory
+     */
+    public void setStackSpillWatermark(double watermark) {
+        explorationStack.setSpillWatermark(watermark);
+    }
+
+    /**
+     * Checks whether the given item belongs to another worker. Prover removal items are never
+     * skipped since they only release state created by this worker.
+     */
+    private boolean isOwnedByOtherWorker(ExplorationStack.Item item) {
+        if (numWorkers == 1 || item.isRemoveProver() || item.getDepth() != WORKER_SPLIT_DEPTH) {
+            return false;
+        }
+        // Siblings stay together, see ExplorationStack.Item#getParentKey
+        return Math.floorMod(item.getParentKey(), numWorkers) != workerIndex;
+    }
+
     private IncrementalSolver initSolver(String solverType) {
         SMTSolverTypes type = getSolverType(solverType);
         if (type == SMTSolverTypes.OFF) {
@@ -188,15 +263,21 @@ public class Algo {
             throw HaltTaskException.blocked(choice.getTaskId());
         } else if (choice.isBlockExecution()) {
             throw HaltExecutionException.error("Encountered a block label");
-        } else if (choice.isEnd() && !EventUtils.isExclusiveRead(event)) {
+        } else if (choice.isEnd()
+                && !EventUtils.isLockAcquireRead(event)
+                && !EventUtils.isRmwRead(event)) {
             // We have observed all the events in the guiding trace, pop the end event
-            // Unless it is an exclusive read, then we expect a matching exclusive write
+            // Unless it is an exclusive read that writes, then we expect a matching exclusive
+            // write
             guidingTaskSchedule.pop();
             if (guidingTaskSchedule.isEmpty()) {
                 isGuiding = false;
                 LOGGER.debug("The guiding task schedule is empty");
             }
         }
+        if (choiceW.node() != null) {
+            updateReplayedNode(choiceW.node(), event);
+        }
         if (choiceW.hasLocation()) {
             Integer location = choiceW.location();
             if (event.getLocation() == null) {
@@ -216,6 +297,34 @@ public class Algo {
         }
     }
 
+    /**
+     * Copies the value and the update of a replayed event to its node in the graph. The values of
+     * the graph are then those of the execution that replays it, which the outcomes of the
+     * read-modify-writes are derived from, see {@link #updateRmwOutcome(ExecutionGraph,
+     * ExecutionGraphNode)}.
+     *
+     * @param node  The node of the event, or of the read of the read-modify-write if the event is
+     *              its write.
+     * @param event The replayed event.
+     */
+    private void updateReplayedNode(ExecutionGraphNode node, Event event) {
+        if (EventUtils.isRmwWrite(event)) {
+            node = executionGraph.getRmwWriteOf(node);
+        }
+        if (EventUtils.hasValue(event)) {
+            node.getEvent().setAttribute("value", EventUtils.getValue(event));
+        }
+        if (EventUtils.isUpdateRead(event)) {
+            if (EventUtils.isRmwRead(event) != EventUtils.isRmwRead(node.getEvent())) {
+                throw HaltCheckerException.error(
+                        "The replayed read-modify-write "
+                                + node.key()
+                                + " does not match the outcome in the graph");
+            }
+            node.getEvent().setAttribute("update", EventUtils.getUpdate(event));
+        }
+    }
+
     private void storeExternalValue(long id, Object value) {
         if (externalValueTracker.containsValue(id)) {
             LOGGER.error("Value for id {} already exists in external tracker. This should not happen.", id);
@@ -293,13 +402,9 @@ public class Algo {
         }
 
         // Need to assign the right location value to the event. Check aliases and update the event
-        // location accordingly.
+        // location accordingly, then assign the id the execution graph indexes it by.
         if (event.getLocation() != null) {
-            if (locationStore.containsAlias(event.getLocation())) {
-                event.setLocation(locationStore.getAlias(event.getLocation()));
-            } else {
-                locationStore.addLocation(event.getLocation());
-            }
+            locationStore.resolve(event);
         }
 
         switch (event.getType()) {
@@ -460,6 +565,11 @@ public class Algo {
 
             // Get the next exploration choice from the exploration stack.
             ExplorationStack.Item item = explorationStack.pop();
+            if (isOwnedByOtherWorker(item)) {
+                LOGGER.debug("Leaving item {} to another worker", item);
+                skippedBranches++;
+                continue;
+            }
             logUpdateGraphId(item);
             // Read the size of the exploration stack
             int stackSize = explorationStack.totalSize();
@@ -703,6 +813,7 @@ public class Algo {
             }
             solver.solveAndUpdateModel();
         }
+        completeRmwReads();
         return executionGraph.checkConsistencyAndTopologicallySort();
     }
 
@@ -717,10 +828,12 @@ public class Algo {
         GraphRestrictView restrictView = executionGraph.restrict(read);
         restrictSolverStack(restrictView);
         executionGraph.recomputeVectorClocks();
+        updateRmwOutcome(executionGraph, read);
 
         for (Event additionalEvent : item.getAdditionalEventsToProcess()) {
             processAdditionalEvent(additionalEvent);
         }
+        completeRmwReads();
 
         // The following is an optimization to avoid doing unnecessary consistency checks. If the read event is
         // a lock acquire read, we know that the graph is not consistent because the resulted graph has two
@@ -729,6 +842,13 @@ public class Algo {
             LOGGER.debug("Skipping consistency check for lock acquire read forward revisit");
             return new ArrayList<>();
         }
+        // Similarly, a write is overwritten by at most one read-modify-write. If another one reads
+        // from the same write, the graph is only explored for the backward revisits of the write
+        // of the read-modify-write, which completeRmwReads pushed.
+        if (EventUtils.isRmwRead(read.getEvent()) && executionGraph.hasOtherRmwReader(write, read)) {
+            LOGGER.debug("Skipping consistency check for conflicting read-modify-write revisit");
+            return new ArrayList<>();
+        }
         return executionGraph.checkConsistencyAndTopologicallySort();
     }
 
@@ -762,6 +882,7 @@ public class Algo {
         executionGraph.swapCoherency(write1, write2);
         GraphRestrictView restrictView = executionGraph.restrict(write1);
         restrictSolverStack(restrictView);
+        completeRmwReads();
         return executionGraph.checkConsistencyAndTopologicallySort();
     }
 
@@ -771,7 +892,13 @@ public class Algo {
 
         LOGGER.debug("Processing forward revisit of w {} -> lw", w.key());
         // set the co
-        executionGraph.trackCoherency(w);
+        if (EventUtils.isRmwWrite(w.getEvent())) {
+            // The write of a read-modify-write goes right after the write its read reads from
+            executionGraph.trackCoherencyAfter(
+                    w, executionGraph.getReadsFrom(executionGraph.getRmwReadOf(w)));
+        } else {
+            executionGraph.trackCoherency(w);
+        }
 
         GraphRestrictView restrictView = executionGraph.restrict(w);
         restrictSolverStack(restrictView);
@@ -784,6 +911,7 @@ public class Algo {
         for (Event additionalEvent : additionalEvents) {
             processAdditionalEvent(additionalEvent);
         }
+        completeRmwReads();
 
         return executionGraph.checkConsistencyAndTopologicallySort();
     }
@@ -802,6 +930,19 @@ public class Algo {
     public void teardown(JmcModelCheckerReport report) {
         // Clean up the execution graph and the task schedule.
         logLastGraphSize();
+        if (explorationStack.getSpilledBytes() > 0) {
+            long pageIns = explorationStack.getPageIns();
+            long pageInMicros =
+                    pageIns == 0 ? 0 : explorationStack.getPageInNanos() / pageIns / 1000;
+            report.setParam("stackSpilledBytes", explorationStack.getSpilledBytes());
+            report.setParam("stackPageIns", pageIns);
+            report.setParam("stackPageInMeanMicros", pageInMicros);
+            LOGGER.info(
+                    "Exploration stack: {} bytes spilled, {} page-ins of {} us on average",
+                    explorationStack.getSpilledBytes(),
+                    pageIns,
+                    pageInMicros);
+        }
         this.executionGraph.clear();
         this.explorationStack.clear();
         this.locationStore.clearAliases();
@@ -809,6 +950,23 @@ public class Algo {
         reportInconsistentGraphLogs();
         reportBlockedGraphLogs();
         report.setBlockedIterations(Math.toIntExact(numOfBlockedGraphs));
+        if (numWorkers > 1) {
+            report.setParam("skippedBranches", skippedBranches);
+        }
+        if (solver != null) {
+            SolverQueryCache queryCache = solver.getQueryCache();
+            report.setParam("solverCacheHits", queryCache.getHits());
+            report.setParam("solverCacheMisses", queryCache.getMisses());
+            LOGGER.info(
+                    "Solver query cache: {} hits, {} misses",
+                    queryCache.getHits(),
+                    queryCache.getMisses());
+            queryCache.resetStatistics();
+            // The solver is shared through a singleton: close it, with the provers of the parallel
+            // checks and their threads, so that the next check starts from a fresh one
+            SolverUtil.closeSolver();
+        }
+        skippedBranches = 0L;
     }
 
     public List<Long> getSchedulableTasks() {
@@ -835,7 +993,7 @@ public class Algo {
             return;
         }
         ExecutionGraphNode read = executionGraph.addEvent(event);
-        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocation());
+        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocationId());
 
         // TODO: If coMaxWrite is init (reading from a possibly uninitialized location). Write
         //      warning if flag is set
@@ -858,6 +1016,8 @@ public class Algo {
             executionGraph.setReadsFrom(read, coMaxWrite);
             return;
         }
+        // A read-modify-write may also read from a write that another read-modify-write reads
+        // from. That graph is inconsistent, but its write revisits the other read. See processFRW.
         List<ExecutionGraphNode> alternativeWrites = executionGraph.getAlternativeWrites(read);
 
         // Set the reads-from relation
@@ -952,12 +1112,7 @@ public class Algo {
         }
 
         for (int i = revisitViews.size() - 1; i >= 0; i--) {
-            ExplorationStack.Item newItem =
-                    ExplorationStack.Item.backwardRevisit(
-                            revisitViews.get(i).getWrite(),
-                            revisitViews.get(i).getRestrictedGraph());
-            explorationStack.push(newItem);
-            logNewChild(newItem);
+            pushBackwardRevisit(revisitViews.get(i));
         }
 
         // After batching the backward and forward revisits, we need to continue the exploration by
@@ -974,37 +1129,110 @@ public class Algo {
         if (areWeGuiding()) {
             return;
         }
-        // Add the write event to the execution graph
+        // The write of a read-modify-write follows its read, and is placed in the coherency order
+        // right after the write the read reads from.
+        ExecutionGraphNode read = executionGraph.getLastNodeOfTask(event.getTaskId());
+        if (read == null || !EventUtils.isRmwRead(read.getEvent())) {
+            throw HaltCheckerException.error(
+                    "The exclusive write is not preceded by its exclusive read.");
+        }
+        ExecutionGraphNode rfWrite = executionGraph.getReadsFrom(read);
         ExecutionGraphNode write = executionGraph.addEvent(event);
-        executionGraph.trackCoherency(write);
 
-        // There will not be any (w->w) forward revisits for exclusive writes.
-        // Because all exclusive writes to the same location are totally ordered by the
-        // happens-before
+        // There are no (w->w) forward revisits for exclusive writes, their coherency placing is
+        // fixed by the read.
 
-        // Check for (w->r) backward revisits
-        // Find potential reads that need to be revisited
-        // Additionally, we need to add a blocking label to the writes of the corresponding revisit
-        // reads.
-        // The only reason there are alternative reads to consider is due to two reads
-        // reading from the same exclusive write which is inconsistent but the one-step
-        // inconsistency is needed to ensure we explore the alternative ordering.
-        List<ExecutionGraphNode> potentialReads = executionGraph.getPotentialReads(write);
-        if (potentialReads.isEmpty()) {
-            return;
-        }
+        // Check for (w->r) backward revisits. The maximality checks and the restricted graphs must
+        // not see the write in the coherency order yet.
+        List<ExecutionGraphNode> potentialReads =
+                executionGraph.getPotentialRmwReads(write, rfWrite);
         List<BackwardRevisitView> revisitViews =
-                potentialReads.stream().map((r) -> executionGraph.revisitView(write, r)).toList();
+                potentialReads.stream()
+                        .map((r) -> executionGraph.revisitView(write, r))
+                        .filter(BackwardRevisitView::isMaximalExtension)
+                        .toList();
+        if (solver != null) {
+            revisitViews =
+                    revisitViews.stream()
+                            .filter(BackwardRevisitView::isMaximalSymbolicExtension)
+                            .toList();
+        }
 
-        revisitViews =
-                revisitViews.stream().filter(BackwardRevisitView::isMaximalExtension).toList();
+        if (!revisitViews.isEmpty()) {
+            logNewBranchs();
+        }
+        for (int i = revisitViews.size() - 1; i >= 0; i--) {
+            pushBackwardRevisit(revisitViews.get(i));
+        }
 
-        for (BackwardRevisitView revisit : revisitViews) {
-            // Block the tasks of the reads that need to be revisited
-            executionGraph.addBlockingLabel(revisit.getRead().getEvent().getTaskId());
-            explorationStack.push(
-                    ExplorationStack.Item.backwardRevisit(
-                            revisit.getWrite(), revisit.getRestrictedGraph()));
+        executionGraph.trackCoherencyAfter(write, rfWrite);
+        if (!revisitViews.isEmpty()) {
+            logConCurrChild();
+            logUpdateGraphIdWithLastGraph();
+        }
+    }
+
+    /**
+     * Pushes the backward revisit of a view. The revisited read reads from the write in the
+     * restricted graph, so the outcome of a read-modify-write read is derived again.
+     */
+    private void pushBackwardRevisit(BackwardRevisitView view) {
+        ExecutionGraph restrictedGraph = view.getRestrictedGraph();
+        updateRmwOutcome(restrictedGraph, view.getRead());
+        ExplorationStack.Item newItem =
+                ExplorationStack.Item.backwardRevisit(view.getWrite(), restrictedGraph);
+        explorationStack.push(newItem);
+        logNewChild(newItem);
+    }
+
+    /**
+     * Derives whether the read of a read-modify-write writes from the value of the write it reads
+     * from: a compare-and-set that reads an unexpected value is a plain exclusive read. The read is
+     * the last event of its task, the revisit removed the write it had. Other reads, and reads of
+     * a write whose value is not known, are left unchanged.
+     *
+     * @param graph The graph of the read.
+     * @param read  The read.
+     */
+    private static void updateRmwOutcome(ExecutionGraph graph, ExecutionGraphNode read) {
+        if (!EventUtils.isUpdateRead(read.getEvent())) {
+            return;
+        }
+        Event write = graph.getReadsFrom(read).getEvent();
+        if (!EventUtils.hasValue(write)) {
+            return;
+        }
+        Object written = EventUtils.getUpdate(read.getEvent()).apply(EventUtils.getValue(write));
+        EventUtils.setRmwWrites(read.getEvent(), written != JmcRmwUpdate.NO_WRITE);
+    }
+
+    /**
+     * Adds back the writes of the read-modify-writes whose read is in the graph but whose write was
+     * removed by a revisit. The runtime emits both events for a single atomic operation, so the
+     * guiding trace needs both of them.
+     */
+    private void completeRmwReads() {
+        List<ExecutionGraphNode> reads = executionGraph.getIncompleteRmwReads();
+        if (reads.isEmpty()) {
+            return;
+        }
+        executionGraph.recomputeVectorClocks();
+        for (ExecutionGraphNode read : reads) {
+            Event write =
+                    new Event(
+                            read.getEvent().getTaskId(),
+                            read.getEvent().getLocation(),
+                            read.getEvent().getLocationId(),
+                            Event.Type.WRITE_EX);
+            write.setAttribute("rmw", true);
+            ExecutionGraphNode rfWrite = executionGraph.getReadsFrom(read);
+            if (EventUtils.hasValue(rfWrite.getEvent())) {
+                write.setAttribute(
+                        "value",
+                        EventUtils.getUpdate(read.getEvent())
+                                .apply(EventUtils.getValue(rfWrite.getEvent())));
+            }
+            handleWriteX(write);
         }
     }
 
@@ -1013,7 +1241,7 @@ public class Algo {
             return;
         }
 
-        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocation());
+        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocationId());
         if (EventUtils.isLockAcquireWrite(coMaxWrite.getEvent())) {
             // Then we block the task and delay the acquiring of the lock
             executionGraph.blockTaskForLock(event);
@@ -1046,6 +1274,7 @@ public class Algo {
                     new Event(
                             read.getEvent().getTaskId(),
                             read.getEvent().getLocation(),
+                            read.getEvent().getLocationId(),
                             Event.Type.WRITE_EX);
             additionalWrite.setAttribute("lock_acquire", true);
             item.addAdditionalEvent(additionalWrite);
@@ -1070,7 +1299,7 @@ public class Algo {
         }
 
         ExecutionGraphNode write = executionGraph.addEvent(event);
-        executionGraph.acquireLock(event.getLocation(), event.getTaskId());
+        executionGraph.acquireLock(event.getLocationId(), event.getTaskId());
 
         List<ExecutionGraphNode> alternateLockReads = executionGraph.getAlternativeLockReads(write);
         if (!alternateLockReads.isEmpty()) {
@@ -1108,7 +1337,7 @@ public class Algo {
         }
 
         ExecutionGraphNode write = executionGraph.addEvent(event);
-        executionGraph.unblockAllTasksForLock(event.getLocation());
+        executionGraph.unblockAllTasksForLock(event.getLocationId());
         executionGraph.trackCoherency(write);
     }
 
@@ -1116,16 +1345,26 @@ public class Algo {
         if (areWeGuiding()) {
             return;
         }
-        if (!executionGraph.waitingForLock(event.getLocation(), event.getTaskId())) {
+        if (!executionGraph.waitingForLock(event.getLocationId(), event.getTaskId())) {
             // We have acquired the lock
             return;
         }
 
-        Event readEvent = new Event(event.getTaskId(), event.getLocation(), Event.Type.READ_EX);
+        Event readEvent =
+                new Event(
+                        event.getTaskId(),
+                        event.getLocation(),
+                        event.getLocationId(),
+                        Event.Type.READ_EX);
         readEvent.setAttribute("lock_acquire", true);
         handleLockAcquireRead(readEvent);
 
-        Event writeEvent = new Event(event.getTaskId(), event.getLocation(), Event.Type.WRITE_EX);
+        Event writeEvent =
+                new Event(
+                        event.getTaskId(),
+                        event.getLocation(),
+                        event.getLocationId(),
+                        Event.Type.WRITE_EX);
         writeEvent.setAttribute("lock_acquire", true);
         handleLockAcquireWrite(writeEvent);
     }
@@ -15,14 +15,25 @@ import java.util.function.Predicate;
 /**
  * Represents a restricted view of the execution graph. Some nodes are removed and some relations
  * are updated.
+ *
+ * <p>The view is lazy: until {@link #getRestrictedGraph()} (or {@link #getRead()}/{@link
+ * #getWrite()}) is called it only records the removed set over the original graph, and the
+ * maximality checks run against the original graph. Most views fail these checks and are dropped,
+ * so the graph is only copied for the revisits that are explored. The original graph must not be
+ * changed between the construction of the view and the copy, except for blocking labels which the
+ * copy ignores.
  */
 public class BackwardRevisitView {
     private static final Logger LOGGER = LogManager.getLogger(BackwardRevisitView.class);
-    private final ExecutionGraph graph;
+    // The graph the view is taken over
+    private final ExecutionGraph source;
+    // The copy of the source graph that is restricted, null until the view is materialized
+    private ExecutionGraph graph;
     private final HashSet<Event.Key> removedNodes;
     private final HashSet<Event.Key> removedSymNodes;
-    private final ExecutionGraphNode read;
-    private final ExecutionGraphNode write;
+    // The read and write nodes, of the source graph until the view is materialized
+    private ExecutionGraphNode read;
+    private ExecutionGraphNode write;
 
     // Additional event, maintained here for revisits of a write exclusive with a read exclusive.
     // The write exclusive of the revisited read exclusive is stored here.
@@ -37,7 +48,8 @@ public class BackwardRevisitView {
      */
     public BackwardRevisitView(
             ExecutionGraph graph, ExecutionGraphNode read, ExecutionGraphNode write) {
-        this.graph = graph.clone();
+        this.source = graph;
+        this.graph = null;
         this.removedNodes = new HashSet<>();
         if (SolverUtil.getSolver() != null) {
             removedSymNodes = new HashSet<>();
@@ -52,25 +64,61 @@ public class BackwardRevisitView {
             this.removedNodes.add(read.key());
         }
         try {
-            this.read = this.graph.getEventNode(read.key());
-            this.write = this.graph.getEventNode(write.key());
-            // When constructing a backward revisit of a write to a
-            // lock acquire read, the write cannot be ever removed from the graph.
-            // So we mark it as such.
-            // Leads to a cyclic exploration otherwise.
-            if (EventUtils.isLockAcquireRead(read.getEvent())) {
-                EventUtils.markLockWriteFinal(this.write.getEvent());
-            }
+            this.read = this.source.getEventNode(read.key());
+            this.write = this.source.getEventNode(write.key());
+        } catch (NoSuchEventException ignored) {
+            throw HaltCheckerException.error("The read or write event is not found.");
+        }
+    }
+
+    /**
+     * Returns the graph the view currently reads from: the restricted copy once materialized, the
+     * original graph before.
+     */
+    private ExecutionGraph currentGraph() {
+        return graph != null ? graph : source;
+    }
+
+    /**
+     * Copies the original graph, once, and moves the read and write nodes to the copy.
+     */
+    private void materialize() {
+        if (graph != null) {
+            return;
+        }
+        graph = source.clone();
+        try {
+            read = graph.getEventNode(read.key());
+            write = graph.getEventNode(write.key());
         } catch (NoSuchEventException ignored) {
             throw HaltCheckerException.error("The read or write event is not found.");
         }
+        // When constructing a backward revisit of a write to a
+        // lock acquire read, the write cannot be ever removed from the graph.
+        // So we mark it as such.
+        // Leads to a cyclic exploration otherwise.
+        if (EventUtils.isLockAcquireRead(read.getEvent())) {
+            EventUtils.markLockWriteFinal(write.getEvent());
+        }
     }
 
+    /**
+     * Returns the write node of the revisit in the restricted graph, copying the graph if needed.
+     *
+     * @return The write node
+     */
     public ExecutionGraphNode getWrite() {
+        materialize();
         return write;
     }
 
+    /**
+     * Returns the read node of the revisit in the restricted graph, copying the graph if needed.
+     *
+     * @return The read node
+     */
     public ExecutionGraphNode getRead() {
+        materialize();
         return read;
     }
 
@@ -101,7 +149,7 @@ public class BackwardRevisitView {
         // First we need to reset the current solver's stack
         solver.resetCurrentProver();
 
-        List<ExecutionGraphNode> symNodes = graph.getAllSymbolicEvents();
+        List<ExecutionGraphNode> symNodes = currentGraph().getAllSymbolicEvents();
         if (symNodes.isEmpty()) {
             return true;
         }
@@ -143,10 +191,9 @@ public class BackwardRevisitView {
                 JmcBooleanFormula formula = sym.getAttribute("booleanFormula");
                 boolean result = sym.getAttribute("result");
 
-                SAT = solver.solveSymbolicFormula(formula);
-                solver.pop();
-                UNSAT = solver.disSolveSymbolicFormula(formula);
-                solver.pop();
+                boolean[] polarities = solver.checkPolarities(formula);
+                SAT = polarities[0];
+                UNSAT = polarities[1];
 
                 if (SAT && UNSAT) {
                     if (!result) {
@@ -200,6 +247,7 @@ public class BackwardRevisitView {
         LOGGER.debug("Checking if the restricted view is a maximal extension");
         HashSet<Event.Key> nodesToCheck = new HashSet<>(this.removedNodes);
         nodesToCheck.add(read.key());
+        ExecutionGraph graph = currentGraph();
         try {
             for (Event.Key key : nodesToCheck) {
                 ExecutionGraphNode node = graph.getEventNode(key);
@@ -277,11 +325,11 @@ public class BackwardRevisitView {
                 //                        }
                 //                    }
                 //                } else {
-                Integer location = nodeWrite.getEvent().getLocation();
-                if (location == null) {
+                int location = nodeWrite.getEvent().getLocationId();
+                if (nodeWrite.getEvent().getLocation() == null) {
                     // This is because nodeWrite is the init event
                     // We get the location from the read event then
-                    location = node.getEvent().getLocation();
+                    location = node.getEvent().getLocationId();
                 }
                 writes = graph.getWrites(location);
                 int index = writes.indexOf(nodeWrite);
@@ -308,6 +356,7 @@ public class BackwardRevisitView {
      * @return The restricted graph
      */
     public ExecutionGraph getRestrictedGraph() {
+        materialize();
         ExecutionGraph restrictedGraph = graph;
         // So far the coherency of this write is not tracked
         // TODO: Maybe this should be done in the constructor?
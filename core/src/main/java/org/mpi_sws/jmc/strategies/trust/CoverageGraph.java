@@ -2,11 +2,19 @@ package org.mpi_sws.jmc.strategies.trust;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class CoverageGraph {
 
+    /** Tags that separate the hashes of the po, rf and co elements. */
+    private static final long PO_TAG = 1L;
+
+    private static final long RF_TAG = 2L;
+
+    private static final long CO_TAG = 3L;
+
     private Map<Long, List<Event>> po = new HashMap<>();
     private Map<Event, Event> rf = new HashMap<>();
     private Map<Integer, Event> coKey = new HashMap<>();
@@ -15,6 +23,15 @@ public class CoverageGraph {
     private Map<Event, Event> ts = null;
     private Map<Event, Event> tj = null;
 
+    /**
+     * Hash of each event added to po, derived from its task, its position in the task and its type
+     * so that it does not depend on the event keys being assigned yet.
+     */
+    private final Map<Event, Long> eventHashes = new IdentityHashMap<>();
+
+    /** Sum of the hashes of the po, rf and co elements added so far; see {@link #fingerprint()}. */
+    private long fingerprint = 0L;
+
     public void addPo(Event e) {
         if (po.containsKey(e.getTaskId())) {
             po.get(e.getTaskId()).add(e);
@@ -23,23 +40,35 @@ public class CoverageGraph {
             list.add(e);
             po.put(e.getTaskId(), list);
         }
+        long position = po.get(e.getTaskId()).size() - 1;
+        long hash = combine(combine(PO_TAG, e.getTaskId()), position);
+        hash = combine(hash, e.getType().ordinal());
+        eventHashes.put(e, hash);
+        fingerprint += hash;
     }
 
     public void addCo(Event w) {
+        long position;
+        Event key;
         if (coKey.containsKey(w.getLocation())) {
-            Event key = coKey.get(w.getLocation());
+            key = coKey.get(w.getLocation());
             co.get(key).add(w);
+            position = co.get(key).size() - 1;
         } else {
+            key = w;
             coKey.put(w.getLocation(), w);
             List<Event> list = new ArrayList<>();
             list.add(w);
             co.put(w, list);
+            position = 0;
         }
+        fingerprint += combine(combine(combine(CO_TAG, hashOf(key)), position), hashOf(w));
     }
 
     public void addRf(Event r) {
         Event w = getMaxCo(r);
         rf.put(r, w);
+        fingerprint += combine(combine(RF_TAG, hashOf(r)), hashOf(w));
     }
 
     private Event getMaxCo(Event e) {
@@ -79,6 +108,51 @@ public class CoverageGraph {
         }
     }
 
+    /**
+     * Returns a 64-bit fingerprint of the graph.
+     *
+     * <p>The fingerprint is the sum of the hashes of the po, rf and co elements of the graph and is
+     * maintained as the elements are added, so reading it is constant time. Since the sum does not
+     * depend on the order of the elements, two iterations that build the same graph in different
+     * interleavings have the same fingerprint. An element is identified by the tasks, positions and
+     * types of its events; like {@link #toString()}, the fingerprint ignores the locations.
+     *
+     * @return the fingerprint of the graph
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the hash of an event added to po.
+     *
+     * @param e the event
+     * @return the hash of the event
+     */
+    private long hashOf(Event e) {
+        Long hash = eventHashes.get(e);
+        if (hash == null) {
+            throw new RuntimeException("Event not in po: " + e);
+        }
+        return hash;
+    }
+
+    /**
+     * Combines a hash with a value; the result is well distributed, so that the sum of combined
+     * hashes is a good fingerprint.
+     *
+     * @param hash the hash
+     * @param value the value
+     * @return the combined hash
+     */
+    private static long combine(long hash, long value) {
+        // splitmix64 finalizer
+        long z = hash * 0x9E3779B97F4A7C15L + value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     @Override
     public String toString() {
         final String[] graph = {""};
@@ -3,6 +3,9 @@ package org.mpi_sws.jmc.strategies.trust;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,9 +14,12 @@ import java.util.Map;
  */
 public class Event {
     private Integer location;
+    /** The id of the location in the {@link LocationStore}, see {@link #getLocationId()}. */
+    private int locationId;
     private final Key key;
     private final Type type;
-    private final Map<String, Object> attributes;
+    /** The attributes of the event. Created lazily since most events have none. */
+    private Map<String, Object> attributes;
 
     /**
      * Creates a new event with the given task ID, location, and type.
@@ -23,10 +29,23 @@ public class Event {
      * @param type     The type.
      */
     public Event(Long taskId, Integer location, Type type) {
+        this(taskId, location, LocationStore.NO_LOCATION_ID, type);
+    }
+
+    /**
+     * Creates a new event with the given task ID, location and location id, and type.
+     *
+     * @param taskId     The task ID.
+     * @param location   The location.
+     * @param locationId The id of the location.
+     * @param type       The type.
+     */
+    public Event(Long taskId, Integer location, int locationId, Type type) {
         this.location = location;
+        this.locationId = locationId;
         this.type = type;
         this.key = new Key(taskId);
-        this.attributes = new HashMap<>();
+        this.attributes = null;
     }
 
     /**
@@ -35,10 +54,46 @@ public class Event {
      * @return A clone of the event.
      */
     public Event clone() {
-        Event e = new Event(key.getTaskId(), location, type);
+        Event e = new Event(key.getTaskId(), location, locationId, type);
         e.key.setTimestamp(key.getTimestamp());
         e.key.setToStamp(key().getToStamp());
-        e.attributes.putAll(attributes);
+        if (attributes != null) {
+            e.attributes = new HashMap<>(attributes);
+        }
+        return e;
+    }
+
+    /**
+     * Writes the event in the binary format of the spilled exploration stack.
+     *
+     * @param out The output.
+     * @throws IOException If the output fails or an attribute cannot be written.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        SpillCodec.writeKey(out, key);
+        SpillCodec.writeNullableInt(out, key.getToStamp());
+        SpillCodec.writeNullableInt(out, location);
+        out.writeInt(locationId);
+        out.writeByte(type.ordinal());
+        SpillCodec.writeAttributes(out, attributes);
+    }
+
+    /**
+     * Reads an event written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in The input.
+     * @return The event.
+     * @throws IOException If the input fails.
+     */
+    static Event readFrom(DataInput in) throws IOException {
+        Event.Key key = SpillCodec.readKey(in);
+        Integer toStamp = SpillCodec.readNullableInt(in);
+        Integer location = SpillCodec.readNullableInt(in);
+        int locationId = in.readInt();
+        Event e = new Event(key.getTaskId(), location, locationId, Type.values()[in.readByte()]);
+        e.key.setTimestamp(key.getTimestamp());
+        e.key.setToStamp(toStamp);
+        e.attributes = SpillCodec.readAttributes(in);
         return e;
     }
 
@@ -50,7 +105,8 @@ public class Event {
         }
         json.addProperty("type", type.toString());
         JsonObject attributesJson = new JsonObject();
-        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+        Map<String, Object> attrs = attributes == null ? Map.of() : attributes;
+        for (Map.Entry<String, Object> entry : attrs.entrySet()) {
             attributesJson.addProperty(entry.getKey(), entry.getValue().toString());
         }
         json.add("attributes", attributesJson);
@@ -79,7 +135,7 @@ public class Event {
      */
     @SuppressWarnings("unchecked")
     public <T> T getAttribute(String key) {
-        if (!attributes.containsKey(key)) {
+        if (attributes == null || !attributes.containsKey(key)) {
             return null;
         }
         return (T) attributes.get(key);
@@ -103,6 +159,9 @@ public class Event {
      * @param value The value of the attribute.
      */
     public void setAttribute(String key, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
         attributes.put(key, value);
     }
 
@@ -128,6 +187,21 @@ public class Event {
         this.location = location;
     }
 
+    /**
+     * Returns the id of the location of the event, assigned by {@link LocationStore#resolve(Event)}
+     * when the event is received. The execution graph indexes its per-location state by this id.
+     *
+     * @return The id of the location, or {@link LocationStore#NO_LOCATION_ID} if the event has no
+     *     location or it is not resolved yet.
+     */
+    public int getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(int locationId) {
+        this.locationId = locationId;
+    }
+
     /**
      * Returns the task ID of the event.
      *
@@ -213,7 +287,18 @@ public class Event {
     }
 
     public boolean hasAttribute(String key) {
-        return attributes.containsKey(key);
+        return attributes != null && attributes.containsKey(key);
+    }
+
+    /**
+     * Removes the attribute of the event with the given key, if any.
+     *
+     * @param key The key of the attribute.
+     */
+    public void removeAttribute(String key) {
+        if (attributes != null) {
+            attributes.remove(key);
+        }
     }
 
     /**
@@ -395,7 +480,7 @@ public class Event {
         if (location != null) {
             sb.append(", location: ").append(location);
         }
-        if (!attributes.isEmpty()) {
+        if (attributes != null && !attributes.isEmpty()) {
             sb.append(", attributes: ").append(attributes);
         }
         return sb.toString();
@@ -1,6 +1,7 @@
 package org.mpi_sws.jmc.strategies.trust;
 
 import org.mpi_sws.jmc.api.symbolic.bool.JmcBooleanFormula;
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
 import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
 
 import java.util.ArrayList;
@@ -34,15 +35,19 @@ public class EventFactory {
                 Event event =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.WRITE);
+                if (runtimeEvent.getParam("atomic") != null) {
+                    // The read-modify-writes reading from the write are evaluated on its value
+                    event.setAttribute("value", runtimeEvent.getParam("newValue"));
+                }
                 return List.of(event);
             }
             case READ_EVENT -> {
                 Event event =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.READ);
                 return List.of(event);
             }
@@ -84,13 +89,13 @@ public class EventFactory {
                 Event event1 =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.READ_EX);
                 event1.setAttribute("lock_acquire", true);
                 Event event2 =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.WRITE_EX);
                 event2.setAttribute("lock_acquire", true);
                 return List.of(event1, event2);
@@ -99,7 +104,7 @@ public class EventFactory {
                 Event event =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.NOOP);
                 event.setAttribute("lock_acquired", true);
                 return List.of(event);
@@ -108,11 +113,36 @@ public class EventFactory {
                 Event event =
                         new Event(
                                 runtimeEvent.getTaskId() - 1,
-                                Location.fromRuntimeEvent(runtimeEvent).hashCode(),
+                                Location.idOf(runtimeEvent),
                                 Event.Type.WRITE);
                 event.setAttribute("lock_release", true);
                 return List.of(event);
             }
+            case CAS_EVENT -> {
+                // An atomic read-modify-write. Like a lock acquire, a single runtime event is
+                // split into an exclusive read and the exclusive write that follows it. A failed
+                // compare-and-set does not write and is only the read. The read keeps the update
+                // to tell what the operation does when a revisit changes the write it reads from.
+                Event event1 =
+                        new Event(
+                                runtimeEvent.getTaskId() - 1,
+                                Location.idOf(runtimeEvent),
+                                Event.Type.READ_EX);
+                event1.setAttribute("update", runtimeEvent.getParam("update"));
+                Object newValue = runtimeEvent.getParam("newValue");
+                if (newValue == JmcRmwUpdate.NO_WRITE) {
+                    return List.of(event1);
+                }
+                event1.setAttribute("rmw", true);
+                Event event2 =
+                        new Event(
+                                runtimeEvent.getTaskId() - 1,
+                                Location.idOf(runtimeEvent),
+                                Event.Type.WRITE_EX);
+                event2.setAttribute("rmw", true);
+                event2.setAttribute("value", newValue);
+                return List.of(event1, event2);
+            }
             case ASSUME_EVENT -> {
                 Event event = new Event(runtimeEvent.getTaskId() - 1, null, Event.Type.ASSUME);
                 boolean result = runtimeEvent.getParam("result");
@@ -1,5 +1,7 @@
 package org.mpi_sws.jmc.strategies.trust;
 
+import org.mpi_sws.jmc.runtime.JmcRmwUpdate;
+
 public class EventUtils {
     public static boolean isExclusiveWrite(Event event) {
         if (event.getType() != Event.Type.WRITE_EX) {
@@ -29,6 +31,50 @@ public class EventUtils {
         return event.getType() == Event.Type.WRITE_EX && event.hasAttribute("lock_acquire");
     }
 
+    public static boolean isRmwRead(Event event) {
+        return event.getType() == Event.Type.READ_EX && event.hasAttribute("rmw");
+    }
+
+    public static boolean isRmwWrite(Event event) {
+        return event.getType() == Event.Type.WRITE_EX && event.hasAttribute("rmw");
+    }
+
+    /**
+     * Returns whether the event is the read of a read-modify-write, whether it writes or not. A
+     * failed compare-and-set is such a read without the write of {@link #isRmwRead(Event)}.
+     */
+    public static boolean isUpdateRead(Event event) {
+        return event.getType() == Event.Type.READ_EX && event.hasAttribute("update");
+    }
+
+    public static JmcRmwUpdate getUpdate(Event event) {
+        return event.getAttribute("update");
+    }
+
+    /**
+     * Returns whether the value of the write is known. Only the writes of atomic variables carry
+     * their value.
+     */
+    public static boolean hasValue(Event event) {
+        return event.hasAttribute("value");
+    }
+
+    public static Object getValue(Event event) {
+        return event.getAttribute("value");
+    }
+
+    /**
+     * Sets whether the read of a read-modify-write is followed by its write, see {@link
+     * #isRmwRead(Event)}.
+     */
+    public static void setRmwWrites(Event event, boolean writes) {
+        if (writes) {
+            event.setAttribute("rmw", true);
+        } else {
+            event.removeAttribute("rmw");
+        }
+    }
+
     public static boolean isBlockingLabel(Event event) {
         return event.getType() == Event.Type.BLOCK;
     }
@@ -10,7 +10,11 @@ import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
 import org.mpi_sws.jmc.solver.SolverResult;
 import org.mpi_sws.jmc.util.LamportVectorClock;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -37,13 +41,23 @@ public class ExecutionGraph {
     // Events observed in this execution graph grouped by task. This is the PO order
     private final List<List<ExecutionGraphNode>> taskEvents;
 
-    // Tracking coherency order between writes to the same location. This is the CO order
-    private final HashMap<Integer, List<ExecutionGraphNode>> coherencyOrder;
+    // Tracking coherency order between writes to the same location, indexed by location id. This
+    // is the CO order
+    private final LocationMap<List<ExecutionGraphNode>> coherencyOrder;
 
     // All events in the execution graph. This is the TO order
     private List<ExecutionGraphNode> allEvents;
 
-    private final HashMap<Integer, List<Long>> blockedLocks;
+    // Tasks waiting for a lock, indexed by the location id of the lock
+    private final LocationMap<List<Long>> blockedLocks;
+
+    // Nodes whose vector clock is stale since their reads-from edge changed. See
+    // recomputeVectorClocks
+    private final Set<Event.Key> staleClocks;
+
+    // Whether a restriction removed a porf predecessor of a remaining node, which makes the vector
+    // clocks of arbitrary nodes stale
+    private boolean allClocksStale;
 
     private boolean isConsistent = true;
 
@@ -52,16 +66,18 @@ public class ExecutionGraph {
      */
     public ExecutionGraph() {
         this.allEvents = new ArrayList<>();
-        this.coherencyOrder = new HashMap<>();
+        this.coherencyOrder = new LocationMap<>();
         this.taskEvents = new ArrayList<>();
-        this.blockedLocks = new HashMap<>();
+        this.blockedLocks = new LocationMap<>();
+        this.staleClocks = new HashSet<>();
+        this.allClocksStale = false;
     }
 
     /* Copy constructor */
     private ExecutionGraph(ExecutionGraph graph) {
         this.taskEvents = new ArrayList<>();
         for (List<ExecutionGraphNode> taskEvent : graph.taskEvents) {
-            List<ExecutionGraphNode> newTaskEvent = new ArrayList<>();
+            List<ExecutionGraphNode> newTaskEvent = new ArrayList<>(taskEvent.size());
             for (ExecutionGraphNode node : taskEvent) {
                 if (EventUtils.isBlockingLabel(node.getEvent())) {
                     // We ignore blocking labels when revisiting
@@ -75,7 +91,7 @@ public class ExecutionGraph {
             }
             this.taskEvents.add(newTaskEvent);
         }
-        this.allEvents = new ArrayList<>();
+        this.allEvents = new ArrayList<>(graph.allEvents.size());
         for (ExecutionGraphNode node : graph.allEvents) {
             if (node.getEvent().isInit()) {
                 // Need to clone the init event, so far it has not been added to the task events
@@ -88,10 +104,12 @@ public class ExecutionGraph {
                             .get(nodeKey.getTaskId().intValue())
                             .get(nodeKey.getTimestamp()));
         }
-        this.coherencyOrder = new HashMap<>();
-        for (Integer location : graph.coherencyOrder.keySet()) {
+        this.coherencyOrder = new LocationMap<>(graph.coherencyOrder.capacity());
+        for (int location = graph.coherencyOrder.nextId(0);
+                location >= 0;
+                location = graph.coherencyOrder.nextId(location + 1)) {
             List<ExecutionGraphNode> writes = graph.coherencyOrder.get(location);
-            List<ExecutionGraphNode> newWrites = new ArrayList<>();
+            List<ExecutionGraphNode> newWrites = new ArrayList<>(writes.size());
             for (ExecutionGraphNode write : writes) {
                 if (write.getEvent().isInit()) {
                     newWrites.add(this.allEvents.get(0));
@@ -110,7 +128,9 @@ public class ExecutionGraph {
         // It's only used for the forward revisits and
         // in the backward revisits, we ignore it.
         // Start fresh
-        this.blockedLocks = new HashMap<>();
+        this.blockedLocks = new LocationMap<>();
+        this.staleClocks = new HashSet<>(graph.staleClocks);
+        this.allClocksStale = graph.allClocksStale;
     }
 
     public boolean isConsistent() {
@@ -137,6 +157,7 @@ public class ExecutionGraph {
         taskEvents.remove(0); // Remove the first event of the main thread
 
         Integer oldLocation = null;
+        ExecutionGraphNode oldNode = null;
         for (int i = 0; i < taskEvents.size(); i++) {
             ExecutionGraphNode node = taskEvents.get(i);
             Integer newLocation = node.getEvent().getLocation();
@@ -146,35 +167,44 @@ public class ExecutionGraph {
                 if (taskId == null) {
                     result.add(
                             new SchedulingChoiceWrapper(
-                                    SchedulingChoice.blockExecution(), oldLocation));
+                                    SchedulingChoice.blockExecution(), oldLocation, oldNode));
                 } else {
                     result.add(
                             new SchedulingChoiceWrapper(
                                     SchedulingChoice.blockTask(node.getEvent().getTaskId()),
-                                    oldLocation));
+                                    oldLocation,
+                                    oldNode));
                 }
             } else if (EventUtils.isThreadStart(node.getEvent())) {
                 result.add(
                         new SchedulingChoiceWrapper(
                                 SchedulingChoice.task(EventUtils.getStartedBy(node.getEvent()) + 1),
-                                oldLocation));
-            } else if (EventUtils.isLockAcquireRead(node.getEvent())) {
+                                oldLocation,
+                                oldNode));
+            } else if (EventUtils.isLockAcquireRead(node.getEvent())
+                    || EventUtils.isRmwRead(node.getEvent())) {
                 result.add(
                         new SchedulingChoiceWrapper(
                                 SchedulingChoice.task(node.getEvent().getTaskId() + 1),
-                                oldLocation));
-                // We skip the lock acquire write since the two events are added for a single
-                // runtime event
+                                oldLocation,
+                                oldNode));
+                // We skip the lock acquire (or read-modify-write) write since the two events are
+                // added for a single runtime event
                 i++;
             } else if (EventUtils.isThreadJoin(node.getEvent())) {
                 // If we are scheduling a thread join,
                 // we duplicate the task ID. since each join in trust is two separate events in the
                 // runtime. Join request and join completion.
                 Long taskId = node.getEvent().getTaskId() + 1;
-                result.add(new SchedulingChoiceWrapper(SchedulingChoice.task(taskId), oldLocation));
+                result.add(
+                        new SchedulingChoiceWrapper(
+                                SchedulingChoice.task(taskId), oldLocation, oldNode));
                 oldLocation = newLocation;
                 newLocation = null;
-                result.add(new SchedulingChoiceWrapper(SchedulingChoice.task(taskId), oldLocation));
+                oldNode = node;
+                result.add(
+                        new SchedulingChoiceWrapper(
+                                SchedulingChoice.task(taskId), oldLocation, oldNode));
             } else if (EventUtils.isSymbolic(node.getEvent())) {
                 // Adding 1 to the task ID since the task ID is 0-indexed inside Trust but 1-indexed
                 // in JMC
@@ -183,16 +213,21 @@ public class ExecutionGraph {
                 boolean isNeg = node.getEvent().getAttribute("isNegatable");
                 SolverResult solverResult = new SolverResult(res, isNeg);
                 ObjectValue obVal = new ObjectValue(solverResult);
-                result.add(new SchedulingChoiceWrapper(SchedulingChoice.task(taskId, obVal), oldLocation));
+                result.add(
+                        new SchedulingChoiceWrapper(
+                                SchedulingChoice.task(taskId, obVal), oldLocation, oldNode));
             } else {
                 // Adding 1 to the task ID since the task ID is 0-indexed inside Trust but 1-indexed
                 // in JMC
                 Long taskId = node.getEvent().getTaskId() + 1;
-                result.add(new SchedulingChoiceWrapper(SchedulingChoice.task(taskId), oldLocation));
+                result.add(
+                        new SchedulingChoiceWrapper(
+                                SchedulingChoice.task(taskId), oldLocation, oldNode));
             }
             oldLocation = newLocation;
+            oldNode = node;
         }
-        result.add(new SchedulingChoiceWrapper(SchedulingChoice.end(), oldLocation));
+        result.add(new SchedulingChoiceWrapper(SchedulingChoice.end(), oldLocation, oldNode));
         return result;
     }
 
@@ -379,12 +414,18 @@ public class ExecutionGraph {
 
         // Track event location in the coherency order but not the event itself
         // Meaning don't add the event in the coherency order
-        Integer location = event.getLocation();
-        if (location != null && !coherencyOrder.containsKey(location)) {
-            // If the location is not already tracked, add the initial event
-            List<ExecutionGraphNode> newWrites = new ArrayList<>();
-            newWrites.add(allEvents.get(0));
-            coherencyOrder.put(location, newWrites);
+        if (event.getLocation() != null) {
+            int location = event.getLocationId();
+            if (location == LocationStore.NO_LOCATION_ID) {
+                throw HaltCheckerException.error(
+                        "The location of the event " + event.key() + " has no id.");
+            }
+            if (!coherencyOrder.containsKey(location)) {
+                // If the location is not already tracked, add the initial event
+                List<ExecutionGraphNode> newWrites = new ArrayList<>();
+                newWrites.add(allEvents.get(0));
+                coherencyOrder.put(location, newWrites);
+            }
         }
 
         return node;
@@ -425,10 +466,10 @@ public class ExecutionGraph {
         }
 
         // Tracking thread starts in the coherency order with a special static location object.
-        List<ExecutionGraphNode> threadStarts = coherencyOrder.get(LocationStore.ThreadLocation);
+        List<ExecutionGraphNode> threadStarts = coherencyOrder.get(LocationStore.THREAD_LOCATION_ID);
         ExecutionGraphNode lastThreadStart = threadStarts.get(threadStarts.size() - 1);
         lastThreadStart.addEdge(node, Relation.ThreadCreation);
-        coherencyOrder.get(LocationStore.ThreadLocation).add(node);
+        threadStarts.add(node);
     }
 
     public void trackThreadStarts(ExecutionGraphNode node) {
@@ -526,10 +567,10 @@ public class ExecutionGraph {
     /**
      * Returns the last write event to the given location.
      *
-     * @param location The location to get the last write event for.
+     * @param location The id of the location to get the last write event for.
      * @return The last write event to the given location.
      */
-    public ExecutionGraphNode getCoMax(Integer location) {
+    public ExecutionGraphNode getCoMax(int location) {
         List<ExecutionGraphNode> writes = coherencyOrder.get(location);
         if (writes == null || writes.isEmpty()) {
             // No writes to the location, therefore return the initial event
@@ -572,9 +613,8 @@ public class ExecutionGraph {
      * @return The alternative writes to the given read event.
      */
     public List<ExecutionGraphNode> getAlternativeWrites(ExecutionGraphNode read) {
-        Integer location = read.getEvent().getLocation();
-        List<ExecutionGraphNode> allWrites =
-                coherencyOrder.get(location).subList(0, coherencyOrder.get(location).size() - 1);
+        List<ExecutionGraphNode> writes = coherencyOrder.get(read.getEvent().getLocationId());
+        List<ExecutionGraphNode> allWrites = writes.subList(0, writes.size() - 1);
         return splitNodesBefore(read, allWrites);
     }
 
@@ -589,10 +629,11 @@ public class ExecutionGraph {
      * @return The alternative reads to the given write event.
      */
     public List<ExecutionGraphNode> getAlternativeLockReads(ExecutionGraphNode write) {
-        Integer location = write.getEvent().getLocation();
+        int location = write.getEvent().getLocationId();
+        List<ExecutionGraphNode> writes = coherencyOrder.get(location);
         List<ExecutionGraphNode> allWrites = new ArrayList<>();
-        for (int i = coherencyOrder.get(location).size() - 1; i >= 0; i--) {
-            ExecutionGraphNode otherWrite = coherencyOrder.get(location).get(i);
+        for (int i = writes.size() - 1; i >= 0; i--) {
+            ExecutionGraphNode otherWrite = writes.get(i);
             if (EventUtils.isFinalLockWrite(otherWrite.getEvent())) {
                 break;
             }
@@ -608,7 +649,7 @@ public class ExecutionGraph {
                 try {
                     ExecutionGraphNode readNode = getEventNode(readKey);
                     if (EventUtils.isLockAcquireRead(readNode.getEvent())
-                            && Objects.equals(readNode.getEvent().getLocation(), location)
+                            && readNode.getEvent().getLocationId() == location
                             && !readNode.happensBefore(write)) {
                         lockReads.add(readNode);
                     }
@@ -629,8 +670,7 @@ public class ExecutionGraph {
      * @return The potential writes to the given read event.
      */
     public List<ExecutionGraphNode> getAlternativeLockWrites(ExecutionGraphNode read) {
-        Integer location = read.getEvent().getLocation();
-        List<ExecutionGraphNode> allWrites = coherencyOrder.get(location);
+        List<ExecutionGraphNode> allWrites = coherencyOrder.get(read.getEvent().getLocationId());
         List<ExecutionGraphNode> alternativeWrites = splitNodesBefore(read, allWrites);
 
         List<ExecutionGraphNode> filteredAlternativeWrites = new ArrayList<>();
@@ -678,7 +718,8 @@ public class ExecutionGraph {
      * @return The potential reads to the given write event.
      */
     public List<ExecutionGraphNode> getPotentialReads(ExecutionGraphNode write) {
-        List<ExecutionGraphNode> otherWrites = coherencyOrder.get(write.getEvent().getLocation());
+        int location = write.getEvent().getLocationId();
+        List<ExecutionGraphNode> otherWrites = coherencyOrder.get(location);
 
         // Drop the recently added write ( We fixed this by updating the CO as the last step of the
         // write handling proc)
@@ -700,7 +741,7 @@ public class ExecutionGraph {
             for (Event.Key readKey : readKeys) {
                 try {
                     ExecutionGraphNode readNode = getEventNode(readKey);
-                    if (readNode.getEvent().getLocation().equals(write.getEvent().getLocation())) {
+                    if (readNode.getEvent().getLocationId() == location) {
                         reads.add(readNode);
                     }
                 } catch (NoSuchEventException e) {
@@ -747,10 +788,10 @@ public class ExecutionGraph {
     /**
      * Returns the writes to the given location.
      *
-     * @param location The location to get the writes for.
+     * @param location The id of the location to get the writes for.
      * @return The writes to the given location.
      */
-    public List<ExecutionGraphNode> getWrites(Integer location) {
+    public List<ExecutionGraphNode> getWrites(int location) {
         return coherencyOrder.get(location);
     }
 
@@ -761,7 +802,9 @@ public class ExecutionGraph {
      */
     public List<ExecutionGraphNode> getAllWrites() {
         List<ExecutionGraphNode> allWrites = new ArrayList<>();
-        for (Integer location : coherencyOrder.keySet()) {
+        for (int location = coherencyOrder.nextId(0);
+                location >= 0;
+                location = coherencyOrder.nextId(location + 1)) {
             for (ExecutionGraphNode write : coherencyOrder.get(location)) {
                 if (write.getEvent().isWrite()) {
                     allWrites.add(write);
@@ -783,8 +826,8 @@ public class ExecutionGraph {
      */
     public void swapCoherency(ExecutionGraphNode write1, ExecutionGraphNode write2) {
         // Update the coherency order
-        Integer location = write1.getEvent().getLocation();
-        if (!write2.getEvent().getLocation().equals(location)) {
+        int location = write1.getEvent().getLocationId();
+        if (write2.getEvent().getLocationId() != location) {
             throw HaltCheckerException.error("The write events are not to the same location.");
         }
 
@@ -841,7 +884,7 @@ public class ExecutionGraph {
             // and an exclusive write.
             return new ArrayList<>();
         }
-        List<ExecutionGraphNode> allWrites = coherencyOrder.get(write.getEvent().getLocation());
+        List<ExecutionGraphNode> allWrites = coherencyOrder.get(write.getEvent().getLocationId());
         List<ExecutionGraphNode> writesAfter = splitNodesBefore(write, allWrites);
         if (writesAfter.isEmpty()) {
             // Bug! There should at least be the init
@@ -880,6 +923,8 @@ public class ExecutionGraph {
             ExecutionGraphNode previousWrite = getEventNode(writes.iterator().next());
             previousWrite.removeEdge(read, Relation.ReadsFrom);
             write.addEdge(read, Relation.ReadsFrom);
+            // The clock of the read still accounts for the previous write
+            staleClocks.add(read.key());
         } catch (NoSuchEventException e) {
             throw HaltCheckerException.error("The previous write event is not found.");
         }
@@ -904,22 +949,55 @@ public class ExecutionGraph {
      * @param write The write event.
      */
     public void trackCoherency(ExecutionGraphNode write) {
-        Integer location = write.getEvent().getLocation();
-        if (!coherencyOrder.containsKey(location)) {
-            List<ExecutionGraphNode> writes = new ArrayList<>();
+        int location = write.getEvent().getLocationId();
+        List<ExecutionGraphNode> writes = coherencyOrder.get(location);
+        if (writes == null) {
+            writes = new ArrayList<>();
             writes.add(allEvents.get(0));
             coherencyOrder.put(location, writes);
         }
         ExecutionGraphNode previousWrite = allEvents.get(0);
-        if (coherencyOrder.get(location).size() > 1) {
-            previousWrite =
-                    coherencyOrder.get(location).get(coherencyOrder.get(location).size() - 1);
+        if (writes.size() > 1) {
+            previousWrite = writes.get(writes.size() - 1);
         }
         if (previousWrite.key().equals(write.key())) {
             // No clue why this happens, but it does and need to figure out why!
             return;
         }
-        coherencyOrder.get(location).add(write);
+        writes.add(write);
+        LOGGER.debug(
+                "Adding coherency edge between {} and {}",
+                previousWrite.getEvent().key().toString(),
+                write.getEvent().key().toString());
+        previousWrite.addEdge(write, Relation.Coherency);
+    }
+
+    /**
+     * Tracks the coherency order of the write of a read-modify-write. The write is placed
+     * immediately after the write its read reads from, so that no other write comes in between.
+     *
+     * @param write         The write event of the read-modify-write.
+     * @param previousWrite The write the read-modify-write reads from.
+     */
+    public void trackCoherencyAfter(ExecutionGraphNode write, ExecutionGraphNode previousWrite) {
+        int location = write.getEvent().getLocationId();
+        List<ExecutionGraphNode> writes = coherencyOrder.get(location);
+        if (writes == null) {
+            writes = new ArrayList<>();
+            writes.add(allEvents.get(0));
+            coherencyOrder.put(location, writes);
+        }
+        int index = writes.indexOf(previousWrite);
+        if (index == -1) {
+            throw HaltCheckerException.error(
+                    "The write read by the read-modify-write is not in the coherency order.");
+        }
+        if (index < writes.size() - 1) {
+            ExecutionGraphNode nextWrite = writes.get(index + 1);
+            previousWrite.removeEdge(nextWrite, Relation.Coherency);
+            write.addEdge(nextWrite, Relation.Coherency);
+        }
+        writes.add(index + 1, write);
         LOGGER.debug(
                 "Adding coherency edge between {} and {}",
                 previousWrite.getEvent().key().toString(),
@@ -927,10 +1005,148 @@ public class ExecutionGraph {
         previousWrite.addEdge(write, Relation.Coherency);
     }
 
+    /**
+     * Returns the read of the given read-modify-write write, which is its program order
+     * predecessor.
+     *
+     * @param write The write event of the read-modify-write.
+     * @return The read event of the read-modify-write.
+     */
+    public ExecutionGraphNode getRmwReadOf(ExecutionGraphNode write) {
+        List<ExecutionGraphNode> events =
+                taskEvents.get(Math.toIntExact(write.getEvent().getTaskId()));
+        int index = events.indexOf(write);
+        if (index < 1 || !EventUtils.isRmwRead(events.get(index - 1).getEvent())) {
+            throw HaltCheckerException.error(
+                    "The read-modify-write write is not preceded by its read.");
+        }
+        return events.get(index - 1);
+    }
+
+    /**
+     * Returns the write of the given read-modify-write read, which is its program order successor.
+     *
+     * @param read The read event of the read-modify-write.
+     * @return The write event of the read-modify-write.
+     */
+    public ExecutionGraphNode getRmwWriteOf(ExecutionGraphNode read) {
+        List<ExecutionGraphNode> events =
+                taskEvents.get(Math.toIntExact(read.getEvent().getTaskId()));
+        int index = events.indexOf(read);
+        if (index == -1
+                || index + 1 >= events.size()
+                || !EventUtils.isRmwWrite(events.get(index + 1).getEvent())) {
+            throw HaltCheckerException.error(
+                    "The read-modify-write read is not followed by its write.");
+        }
+        return events.get(index + 1);
+    }
+
+    /**
+     * Returns the write the given read reads from.
+     *
+     * @param read The read event.
+     * @return The write event the read reads from.
+     */
+    public ExecutionGraphNode getReadsFrom(ExecutionGraphNode read) {
+        List<Event.Key> writes = read.getPredecessors(Relation.ReadsFrom);
+        if (writes.size() != 1) {
+            throw HaltCheckerException.error("A read does not have exactly one RF back edge.");
+        }
+        try {
+            return getEventNode(writes.get(0));
+        } catch (NoSuchEventException e) {
+            throw HaltCheckerException.error("The write event of the read is not found.");
+        }
+    }
+
+    /**
+     * Returns whether the given write is read by the read of a read-modify-write other than the
+     * given read. Under sequential consistency a write is overwritten by at most one
+     * read-modify-write.
+     *
+     * @param write The write event.
+     * @param read  The read event to ignore, may be null.
+     * @return True if another read-modify-write reads from the write.
+     */
+    public boolean hasOtherRmwReader(ExecutionGraphNode write, ExecutionGraphNode read) {
+        for (Event.Key readKey : write.getSuccessors(Relation.ReadsFrom)) {
+            if (read != null && readKey.equals(read.key())) {
+                continue;
+            }
+            ExecutionGraphNode readNode = unsafeGetEventNode(readKey);
+            if (EventUtils.isRmwRead(readNode.getEvent())
+                    && readNode.getEvent().getLocationId() == write.getEvent().getLocationId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the reads of read-modify-writes whose write is missing, in the order they were
+     * added to the graph.
+     *
+     * <p>A revisit removes a suffix of the graph in insertion order. Since the write of a
+     * read-modify-write can be re-added late, the removed suffix may contain the write but not the
+     * read. Such reads are the last events of their tasks.
+     *
+     * @return The reads of incomplete read-modify-writes.
+     */
+    public List<ExecutionGraphNode> getIncompleteRmwReads() {
+        List<ExecutionGraphNode> reads = new ArrayList<>();
+        for (List<ExecutionGraphNode> events : taskEvents) {
+            if (!events.isEmpty() && EventUtils.isRmwRead(events.get(events.size() - 1).getEvent())) {
+                reads.add(events.get(events.size() - 1));
+            }
+        }
+        reads.sort(Comparator.comparingInt(allEvents::indexOf));
+        return reads;
+    }
+
+    /**
+     * Returns the potential reads to backward revisit for the write of a read-modify-write.
+     *
+     * <p>The write is placed right after the write its read reads from. The candidates are the
+     * reads of that write, and the reads of the non-exclusive writes that come after it in the
+     * coherency order. Reads that are _porf_-before the write, including its own read, are
+     * excluded.
+     *
+     * @param write   The write event of the read-modify-write.
+     * @param rfWrite The write its read reads from.
+     * @return The potential reads to the given write event.
+     */
+    public List<ExecutionGraphNode> getPotentialRmwReads(
+            ExecutionGraphNode write, ExecutionGraphNode rfWrite) {
+        int location = write.getEvent().getLocationId();
+        List<ExecutionGraphNode> writes = coherencyOrder.get(location);
+        List<ExecutionGraphNode> candidateWrites = new ArrayList<>();
+        candidateWrites.add(rfWrite);
+        if (writes != null) {
+            int index = writes.indexOf(rfWrite);
+            for (int i = index + 1; index != -1 && i < writes.size(); i++) {
+                if (!EventUtils.isExclusiveWrite(writes.get(i).getEvent())) {
+                    candidateWrites.add(writes.get(i));
+                }
+            }
+        }
+        List<ExecutionGraphNode> reads = new ArrayList<>();
+        for (ExecutionGraphNode candidateWrite : candidateWrites) {
+            for (Event.Key readKey : candidateWrite.getSuccessors(Relation.ReadsFrom)) {
+                ExecutionGraphNode readNode = unsafeGetEventNode(readKey);
+                if (readNode.getEvent().getLocationId() == location
+                        && !readNode.happensBefore(write)) {
+                    reads.add(readNode);
+                }
+            }
+        }
+        return reads;
+    }
+
     public void restrictBySet(Set<Event.Key> set) {
         // We use the following map to track the modified locations of write events.
         // It is used to update the CO-edges.
-        Map<Integer, List<ExecutionGraphNode>> modifiedLocations = new HashMap<>();
+        LocationMap<List<ExecutionGraphNode>> modifiedLocations = new LocationMap<>();
         for (Event.Key key : set) {
             // Collect and remove the event in the allEvents which it holds the key
             ExecutionGraphNode node = null;
@@ -946,7 +1162,7 @@ public class ExecutionGraph {
 
             // Collect the location of the write event
             if (node.getEvent().isWrite() || node.getEvent().isWriteEx()) {
-                Integer location = node.getEvent().getLocation();
+                int location = node.getEvent().getLocationId();
                 if (!modifiedLocations.containsKey(location)) {
                     modifiedLocations.put(location, coherencyOrder.get(location));
                 }
@@ -962,8 +1178,8 @@ public class ExecutionGraph {
             taskEvents.get(task).removeIf((event) -> event.key().equals(key));
 
             // Each event in the coherencyOrder which holds the key must be removed
-            Integer location = node.getEvent().getLocation();
-            if (location != null) {
+            if (node.getEvent().getLocation() != null) {
+                int location = node.getEvent().getLocationId();
                 if (!coherencyOrder.containsKey(location)) {
                     throw HaltCheckerException.error(
                             "The restricting node is not in coherency order");
@@ -982,20 +1198,25 @@ public class ExecutionGraph {
             Map<Relation, List<Event.Key>> predecessors = node.getAllPredecessors();
             predecessors.forEach(
                     (relation, edges) -> {
-                        edges.removeIf(set::contains);
+                        if (edges.removeIf(set::contains) && relation != Relation.Coherency) {
+                            allClocksStale = true;
+                        }
                     });
         }
+        staleClocks.removeAll(set);
 
         // Recompute the co-edges
         // TODO :: This approach is not efficient and must be revisited
-        for (Map.Entry<Integer, List<ExecutionGraphNode>> entry : modifiedLocations.entrySet()) {
-            recomputeCoEdges(entry.getKey(), entry.getValue());
+        for (int location = modifiedLocations.nextId(0);
+                location >= 0;
+                location = modifiedLocations.nextId(location + 1)) {
+            recomputeCoEdges(location, modifiedLocations.get(location));
         }
 
         // Remove blocking labels
     }
 
-    private void recomputeCoEdges(Integer location, List<ExecutionGraphNode> oldWrites) {
+    private void recomputeCoEdges(int location, List<ExecutionGraphNode> oldWrites) {
         if (!coherencyOrder.containsKey(location)) {
             throw HaltCheckerException.error("The location is not in the coherency order");
         }
@@ -1028,9 +1249,71 @@ public class ExecutionGraph {
     //    }
 
     /**
-     * Recomputes the vector clocks of all nodes in the execution graph.
+     * Brings the vector clocks of the graph up to date after reads-from changes and restrictions.
+     *
+     * <p>A revisit changes the reads-from edge of a single read and then removes every event the
+     * read could be a porf predecessor of. So in the common case only the clocks of the revisited
+     * reads are stale, and they are recomputed from their predecessors alone. All the clocks are
+     * recomputed in topological order if a restriction removed a porf predecessor of a remaining
+     * event, or if a stale event still has porf successors.
      */
     public void recomputeVectorClocks() {
+        if (!allClocksStale && recomputeStaleVectorClocks()) {
+            return;
+        }
+        recomputeAllVectorClocks();
+        staleClocks.clear();
+        allClocksStale = false;
+    }
+
+    /**
+     * Recomputes the clocks of the stale nodes if none of them has a porf successor.
+     *
+     * @return True if the clocks were recomputed, false if a full recomputation is needed.
+     */
+    private boolean recomputeStaleVectorClocks() {
+        List<ExecutionGraphNode> nodes = new ArrayList<>(staleClocks.size());
+        try {
+            for (Event.Key key : staleClocks) {
+                ExecutionGraphNode node = getEventNode(key);
+                for (Map.Entry<Relation, List<Event.Key>> entry : node.getAllSuccessors().entrySet()) {
+                    if (entry.getKey() != Relation.Coherency && !entry.getValue().isEmpty()) {
+                        return false;
+                    }
+                }
+                nodes.add(node);
+            }
+            for (ExecutionGraphNode node : nodes) {
+                Event.Key poBeforeNode = node.getPoPredecessor();
+                if (poBeforeNode == null) {
+                    throw HaltCheckerException.error("Invalid PO predecessor for the event.");
+                }
+                LamportVectorClock newClock =
+                        new LamportVectorClock(
+                                getEventNode(poBeforeNode).getVectorClock(),
+                                Math.toIntExact(node.key().getTaskId()));
+                for (Map.Entry<Relation, List<Event.Key>> entry :
+                        node.getAllPredecessors().entrySet()) {
+                    if (entry.getKey() == Relation.Coherency) {
+                        continue;
+                    }
+                    for (Event.Key pred : entry.getValue()) {
+                        newClock.update(getEventNode(pred).getVectorClock());
+                    }
+                }
+                node.setVectorClock(newClock);
+            }
+        } catch (NoSuchEventException e) {
+            throw HaltCheckerException.error("The predecessors clock is not found.");
+        }
+        staleClocks.clear();
+        return true;
+    }
+
+    /**
+     * Recomputes the vector clocks of all the nodes in a topological order.
+     */
+    private void recomputeAllVectorClocks() {
 
         TopologicalSorter topoSorter = new TopologicalSorter(this);
         try {
@@ -1094,7 +1377,7 @@ public class ExecutionGraph {
 
         // We use the following map to track the modified locations of write events.
         // It is used to update the CO-edges.
-        Map<Integer, List<ExecutionGraphNode>> modifiedLocations = new HashMap<>();
+        LocationMap<List<ExecutionGraphNode>> modifiedLocations = new LocationMap<>();
 
         // Removing and storing all inserted events after the restricting node from allEvents (
         // Insertion order )
@@ -1125,16 +1408,15 @@ public class ExecutionGraph {
                 // Based on the assumption that the init node is never removed. So, we only have to
                 // update the CO if
                 // the node is a write or writeEx event.
-                Integer location = node.getEvent().getLocation();
+                int location = node.getEvent().getLocationId();
                 if (!modifiedLocations.containsKey(location)) {
                     modifiedLocations.put(location, coherencyOrder.get(location));
                 }
             }
 
             // Removing from coherencyOrder
-            Integer location = node.getEvent().getLocation();
-
-            if (location != null) {
+            if (node.getEvent().getLocation() != null) {
+                int location = node.getEvent().getLocationId();
                 if (!coherencyOrder.containsKey(location)) {
                     throw HaltCheckerException.error(
                             "The restricting node is not in coherency order");
@@ -1161,14 +1443,20 @@ public class ExecutionGraph {
                     });
             node.forEachPredecessor(
                     (relation, edges) -> {
-                        edges.removeIf(removedKeys::contains);
+                        if (edges.removeIf(removedKeys::contains)
+                                && relation != Relation.Coherency) {
+                            allClocksStale = true;
+                        }
                     });
         }
+        staleClocks.removeAll(removedKeys);
 
         // Recompute the co-edges
         // TODO :: This approach is not efficient and must be revisited
-        for (Map.Entry<Integer, List<ExecutionGraphNode>> entry : modifiedLocations.entrySet()) {
-            recomputeCoEdges(entry.getKey(), entry.getValue());
+        for (int location = modifiedLocations.nextId(0);
+                location >= 0;
+                location = modifiedLocations.nextId(location + 1)) {
+            recomputeCoEdges(location, modifiedLocations.get(location));
         }
 
         if (numOfSymEvent == 0) {
@@ -1285,13 +1573,24 @@ public class ExecutionGraph {
         return true;
     }
 
+    /**
+     * Checks the consistency of the graph and returns its nodes in a topological order.
+     *
+     * <p>The check adds the FR edges (from a read to the writes coherence-after the write it reads
+     * from) to the graph edges. The FR edges are kept in a separate map passed to the {@link
+     * TopologicalSorter} instead of being added to a copy of the graph, so the check does not copy
+     * the graph.
+     *
+     * @return The nodes in a topological order, or an empty list if the graph is inconsistent.
+     */
     public List<ExecutionGraphNode> checkConsistency() {
-        ExecutionGraph clone = new ExecutionGraph(this);
+        Map<Event.Key, List<Event.Key>> frEdges = new HashMap<>();
         try {
             // Add edges from reads to alternative writes
-            for (Map.Entry<Integer, List<ExecutionGraphNode>> writeEntry :
-                    clone.coherencyOrder.entrySet()) {
-                List<ExecutionGraphNode> writes = writeEntry.getValue();
+            for (int location = coherencyOrder.nextId(0);
+                    location >= 0;
+                    location = coherencyOrder.nextId(location + 1)) {
+                List<ExecutionGraphNode> writes = coherencyOrder.get(location);
                 for (ExecutionGraphNode write : writes) {
                     Map<Integer, List<ExecutionGraphNode>> readsPerLocation = new HashMap<>();
                     List<Event.Key> reads = write.getSuccessors(Relation.ReadsFrom);
@@ -1299,11 +1598,13 @@ public class ExecutionGraph {
                     for (Event.Key readKey : reads) {
                         try {
                             ExecutionGraphNode readNode = getEventNode(readKey);
-                            if (!readNode.getEvent().isReadEx()) {
-                                // We only check for read exclusive events
+                            if (!EventUtils.isLockAcquireRead(readNode.getEvent())
+                                    && !EventUtils.isRmwRead(readNode.getEvent())) {
+                                // We only check for exclusive reads that write, a failed
+                                // compare-and-set is a plain read
                                 continue;
                             }
-                            Integer readLocation = readNode.getEvent().getLocation();
+                            int readLocation = readNode.getEvent().getLocationId();
                             if (!readsPerLocation.containsKey(readLocation)) {
                                 readsPerLocation.put(readLocation, new ArrayList<>());
                             }
@@ -1334,17 +1635,25 @@ public class ExecutionGraph {
                         // No reads from this write, continue
                         continue;
                     }
-                    List<ExecutionGraphNode> readNodes = new ArrayList<>();
-                    for (Event.Key key : reads) {
-                        readNodes.add(clone.getEventNode(key));
-                    }
                     ExecutionGraphNode nextWrite = writes.get(i + 1);
-                    for (ExecutionGraphNode read : readNodes) {
-                        read.addEdge(nextWrite, Relation.FR);
+                    // The write of a read-modify-write is scheduled right after its read. So the
+                    // other reads of the write it overwrites must come before its read as well.
+                    ExecutionGraphNode nextRmwRead = null;
+                    if (EventUtils.isRmwWrite(nextWrite.getEvent())) {
+                        nextRmwRead = getRmwReadOf(nextWrite);
+                    }
+                    for (Event.Key key : reads) {
+                        ExecutionGraphNode read = getEventNode(key);
+                        List<Event.Key> readFrEdges =
+                                frEdges.computeIfAbsent(read.key(), k -> new ArrayList<>(1));
+                        readFrEdges.add(nextWrite.key());
+                        if (nextRmwRead != null && !nextRmwRead.key().equals(read.key())) {
+                            readFrEdges.add(nextRmwRead.key());
+                        }
                     }
                 }
             }
-            return fixTopologicalSort(clone.iterator());
+            return fixTopologicalSort(new TopologicalSorter(this, frEdges).sort());
         } catch (NoSuchEventException e) {
             throw HaltCheckerException.error(
                     "Hit an event that doesn't exist in the graph: " + e.getMessage());
@@ -1389,9 +1698,17 @@ public class ExecutionGraph {
         for (int i = 0; i < topologicalSort.size(); i++) {
             ExecutionGraphNode node = topologicalSort.get(i);
             fixedTopologicalSort.add(node);
+            Predicate<Event> isPairedWrite;
             if (EventUtils.isLockAcquireRead(node.getEvent())) {
+                isPairedWrite = EventUtils::isLockAcquireWrite;
+            } else if (EventUtils.isRmwRead(node.getEvent())) {
+                isPairedWrite = EventUtils::isRmwWrite;
+            } else {
+                isPairedWrite = null;
+            }
+            if (isPairedWrite != null && i + 1 < topologicalSort.size()) {
                 ExecutionGraphNode next = topologicalSort.get(i + 1);
-                if (EventUtils.isLockAcquireWrite(next.getEvent())
+                if (isPairedWrite.test(next.getEvent())
                         && Objects.equals(
                         node.getEvent().getTaskId(), next.getEvent().getTaskId())) {
                     // Next event is a WriteEx event of the same task ID
@@ -1401,7 +1718,7 @@ public class ExecutionGraph {
                 // We need to find the WriteEx event of the same task ID
                 for (int j = i + 1; j < topologicalSort.size(); j++) {
                     ExecutionGraphNode nextNode = topologicalSort.get(j);
-                    if (EventUtils.isLockAcquireWrite(nextNode.getEvent())
+                    if (isPairedWrite.test(nextNode.getEvent())
                             && Objects.equals(
                             node.getEvent().getTaskId(), nextNode.getEvent().getTaskId())) {
                         // Move the WriteEx event before the ReadEx event
@@ -1432,6 +1749,142 @@ public class ExecutionGraph {
         coherencyOrder.clear();
         taskEvents.clear();
         blockedLocks.clear();
+        staleClocks.clear();
+        allClocksStale = false;
+    }
+
+    /**
+     * Writes the graph in the binary format of the spilled exploration stack.
+     *
+     * <p>The nodes are written once, grouped by task. The total order and the coherency order
+     * refer to them by their position, so that {@link #readFrom(DataInput)} restores a graph whose
+     * orders share the nodes, as in the original graph.
+     *
+     * @param out The output.
+     * @throws IOException If the output fails or an attribute of an event cannot be written.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        Map<ExecutionGraphNode, Integer> taskIndexes = new IdentityHashMap<>();
+        out.writeInt(taskEvents.size());
+        for (List<ExecutionGraphNode> events : taskEvents) {
+            out.writeInt(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                events.get(i).writeTo(out);
+                taskIndexes.put(events.get(i), i);
+            }
+        }
+        out.writeInt(allEvents.size());
+        for (ExecutionGraphNode node : allEvents) {
+            if (node.getEvent().isInit()) {
+                out.writeInt(-1);
+                node.writeTo(out);
+            } else {
+                writeNodeRef(out, node, taskIndexes);
+            }
+        }
+        out.writeInt(coherencyOrder.size());
+        for (int location = coherencyOrder.nextId(0);
+                location >= 0;
+                location = coherencyOrder.nextId(location + 1)) {
+            List<ExecutionGraphNode> writes = coherencyOrder.get(location);
+            out.writeInt(location);
+            out.writeInt(writes.size());
+            for (ExecutionGraphNode write : writes) {
+                if (write.getEvent().isInit()) {
+                    out.writeInt(-1);
+                } else {
+                    writeNodeRef(out, write, taskIndexes);
+                }
+            }
+        }
+        out.writeInt(blockedLocks.size());
+        for (int location = blockedLocks.nextId(0);
+                location >= 0;
+                location = blockedLocks.nextId(location + 1)) {
+            List<Long> taskIds = blockedLocks.get(location);
+            out.writeInt(location);
+            out.writeInt(taskIds.size());
+            for (Long taskId : taskIds) {
+                out.writeLong(taskId);
+            }
+        }
+        out.writeInt(staleClocks.size());
+        for (Event.Key key : staleClocks) {
+            SpillCodec.writeKey(out, key);
+        }
+        out.writeBoolean(allClocksStale);
+        out.writeBoolean(isConsistent);
+    }
+
+    private static void writeNodeRef(
+            DataOutput out, ExecutionGraphNode node, Map<ExecutionGraphNode, Integer> taskIndexes)
+            throws IOException {
+        Integer index = taskIndexes.get(node);
+        if (index == null) {
+            throw HaltCheckerException.error("The node " + node.key() + " is not in task events");
+        }
+        out.writeInt(node.getEvent().getTaskId().intValue());
+        out.writeInt(index);
+    }
+
+    /**
+     * Reads a graph written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in The input.
+     * @return The graph.
+     * @throws IOException If the input fails.
+     */
+    static ExecutionGraph readFrom(DataInput in) throws IOException {
+        ExecutionGraph graph = new ExecutionGraph();
+        int tasks = in.readInt();
+        for (int t = 0; t < tasks; t++) {
+            int size = in.readInt();
+            List<ExecutionGraphNode> events = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                events.add(ExecutionGraphNode.readFrom(in));
+            }
+            graph.taskEvents.add(events);
+        }
+        ExecutionGraphNode init = null;
+        int size = in.readInt();
+        graph.allEvents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int task = in.readInt();
+            if (task < 0) {
+                init = ExecutionGraphNode.readFrom(in);
+                graph.allEvents.add(init);
+            } else {
+                graph.allEvents.add(graph.taskEvents.get(task).get(in.readInt()));
+            }
+        }
+        int locations = in.readInt();
+        for (int l = 0; l < locations; l++) {
+            int location = in.readInt();
+            int writes = in.readInt();
+            List<ExecutionGraphNode> order = new ArrayList<>(writes);
+            for (int i = 0; i < writes; i++) {
+                int task = in.readInt();
+                order.add(task < 0 ? init : graph.taskEvents.get(task).get(in.readInt()));
+            }
+            graph.coherencyOrder.put(location, order);
+        }
+        int locks = in.readInt();
+        for (int l = 0; l < locks; l++) {
+            int location = in.readInt();
+            int waiting = in.readInt();
+            List<Long> taskIds = new ArrayList<>(waiting);
+            for (int i = 0; i < waiting; i++) {
+                taskIds.add(in.readLong());
+            }
+            graph.blockedLocks.put(location, taskIds);
+        }
+        int stale = in.readInt();
+        for (int i = 0; i < stale; i++) {
+            graph.staleClocks.add(SpillCodec.readKey(in));
+        }
+        graph.allClocksStale = in.readBoolean();
+        graph.isConsistent = in.readBoolean();
+        return graph;
     }
 
     public String toJsonString() {
@@ -1462,7 +1915,7 @@ public class ExecutionGraph {
 
     // For debugging
     public void printCO() {
-        for (Integer loc : coherencyOrder.keySet()) {
+        for (int loc = coherencyOrder.nextId(0); loc >= 0; loc = coherencyOrder.nextId(loc + 1)) {
             System.out.println("[Exec Graph debug]: printCO " + loc);
             for (ExecutionGraphNode write : coherencyOrder.get(loc)) {
                 System.out.println("[Exec Graph debug]: the writes " + write.getEvent().toString());
@@ -1506,12 +1959,14 @@ public class ExecutionGraph {
     }
 
     public boolean checkCoherencyEdges() {
-        for (Map.Entry<Integer, List<ExecutionGraphNode>> entry : coherencyOrder.entrySet()) {
-            if (Objects.equals(entry.getKey(), LocationStore.ThreadLocation)) {
+        for (int location = coherencyOrder.nextId(0);
+                location >= 0;
+                location = coherencyOrder.nextId(location + 1)) {
+            if (location == LocationStore.THREAD_LOCATION_ID) {
                 // Skip the thread location
                 continue;
             }
-            List<ExecutionGraphNode> writes = entry.getValue();
+            List<ExecutionGraphNode> writes = coherencyOrder.get(location);
             for (int i = 0; i < writes.size() - 1; i++) {
                 ExecutionGraphNode write = writes.get(i);
                 if (!write.hasEdge(writes.get(i + 1).getEvent().key(), Relation.Coherency)) {
@@ -1540,22 +1995,25 @@ public class ExecutionGraph {
     // We keep track of it and add a blocking label
     public void blockTaskForLock(Event event) {
         addBlockingLabel(event.getTaskId());
-        if (!blockedLocks.containsKey(event.getLocation())) {
-            blockedLocks.put(event.getLocation(), new ArrayList<>());
+        List<Long> taskIds = blockedLocks.get(event.getLocationId());
+        if (taskIds == null) {
+            taskIds = new ArrayList<>();
+            blockedLocks.put(event.getLocationId(), taskIds);
         }
-        blockedLocks.get(event.getLocation()).add(event.getTaskId());
+        taskIds.add(event.getTaskId());
     }
 
     // When a lock is released,
     // We unblock all the tasks that are waiting for it
     // This is done by removing the blocking label
     // Yet, we retain the task in the blockedLocks map
-    public void unblockAllTasksForLock(Integer location) {
-        if (!blockedLocks.containsKey(location)) {
+    public void unblockAllTasksForLock(int location) {
+        List<Long> taskIds = blockedLocks.get(location);
+        if (taskIds == null) {
             // Nothing to unblock
             return;
         }
-        for (Long taskId : blockedLocks.get(location)) {
+        for (Long taskId : taskIds) {
             unBlockTask(taskId);
         }
     }
@@ -1565,27 +2023,29 @@ public class ExecutionGraph {
     // Here the assumption is that the task has already been unblocked
     // Then for all remaining tasks that are waiting for the lock,
     // We add a blocking label
-    public void acquireLock(Integer location, Long taskId) {
-        if (!blockedLocks.containsKey(location)) {
+    public void acquireLock(int location, Long taskId) {
+        List<Long> taskIds = blockedLocks.get(location);
+        if (taskIds == null) {
             return;
         }
-        blockedLocks.get(location).remove(taskId);
-        if (blockedLocks.get(location).isEmpty()) {
+        taskIds.remove(taskId);
+        if (taskIds.isEmpty()) {
             blockedLocks.remove(location);
             return;
         }
-        for (Long taskID : blockedLocks.get(location)) {
+        for (Long taskID : taskIds) {
             addBlockingLabel(taskID);
         }
     }
 
-    public boolean waitingForLock(Integer location, Long taskId) {
-        if (!blockedLocks.containsKey(location)) {
+    public boolean waitingForLock(int location, Long taskId) {
+        List<Long> taskIds = blockedLocks.get(location);
+        if (taskIds == null) {
             // No tasks waiting for this.
             // Hence by definition, the current task is not waiting
             return false;
         }
-        return blockedLocks.get(location).contains(taskId);
+        return taskIds.contains(taskId);
     }
 
     /**
@@ -1604,6 +2064,8 @@ public class ExecutionGraph {
 
         private final ExecutionGraph graph;
         private final Map<Event.Key, ExecutionGraphNode> nodeMap;
+        // Edges considered in addition to the edges of the graph, keyed by their source
+        private final Map<Event.Key, List<Event.Key>> extraEdges;
 
         /**
          * Initializes a new topological sorter for the given graph.
@@ -1611,7 +2073,19 @@ public class ExecutionGraph {
          * @param graph The graph to sort.
          */
         public TopologicalSorter(ExecutionGraph graph) {
+            this(graph, Map.of());
+        }
+
+        /**
+         * Initializes a new topological sorter for the given graph extended with the given edges.
+         * Only {@link #sort()} considers the extra edges.
+         *
+         * @param graph      The graph to sort.
+         * @param extraEdges The additional edges, keyed by their source.
+         */
+        public TopologicalSorter(ExecutionGraph graph, Map<Event.Key, List<Event.Key>> extraEdges) {
             this.graph = graph;
+            this.extraEdges = extraEdges;
             this.nodeMap = new HashMap<>();
             for (ExecutionGraphNode node : graph.allEvents) {
                 nodeMap.put(node.key(), node);
@@ -1643,6 +2117,11 @@ public class ExecutionGraph {
             for (ExecutionGraphNode node : graph.allEvents) {
                 inDegreeMap.put(node.key(), node.getInDegree());
             }
+            for (List<Event.Key> successors : extraEdges.values()) {
+                for (Event.Key successor : successors) {
+                    inDegreeMap.merge(successor, 1, Integer::sum);
+                }
+            }
 
             while (!queue.isEmpty()) {
                 ExecutionGraphNode node = queue.pop();
@@ -1664,6 +2143,13 @@ public class ExecutionGraph {
                                         }
                                     });
                         });
+                for (Event.Key successor : extraEdges.getOrDefault(node.key(), List.of())) {
+                    int newIndegree = inDegreeMap.getOrDefault(successor, 1) - 1;
+                    inDegreeMap.put(successor, newIndegree);
+                    if (newIndegree == 0) {
+                        toAdd.add(successor);
+                    }
+                }
 
                 toAdd.sort(Event.Key::compareTo);
                 toAdd.forEach(
@@ -1793,7 +2279,7 @@ public class ExecutionGraph {
         sb.append("\n");
 
         sb.append("Coherency Order:\n");
-        for (Integer loc : coherencyOrder.keySet()) {
+        for (int loc = coherencyOrder.nextId(0); loc >= 0; loc = coherencyOrder.nextId(loc + 1)) {
             sb.append("Location ").append(loc).append(": ");
             for (ExecutionGraphNode node : coherencyOrder.get(loc)) {
                 sb.append(node.getEvent()).append(" -> ");
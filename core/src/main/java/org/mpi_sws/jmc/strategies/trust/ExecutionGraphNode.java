@@ -5,6 +5,9 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.mpi_sws.jmc.util.LamportVectorClock;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
@@ -17,7 +20,7 @@ public class ExecutionGraphNode {
     private static final Relation[] allRelations = Relation.values();
     // The event that this node represents.
     private final Event event;
-    // The attributes of this node.
+    // The attributes of this node. Created lazily, most nodes have none.
     private Map<String, Object> attributes;
     // Forward edges from this node. Grouped by edge relation.
     public final Map<Relation, List<Event.Key>> edges;
@@ -34,7 +37,7 @@ public class ExecutionGraphNode {
      */
     public ExecutionGraphNode(Event event, LamportVectorClock vectorClock) {
         this.event = event;
-        this.attributes = new HashMap<>();
+        this.attributes = null;
         this.edges = new EnumMap<>(Relation.class);
         this.backEdges = new EnumMap<>(Relation.class);
         this.vectorClock =
@@ -46,30 +49,34 @@ public class ExecutionGraphNode {
     /**
      * Copy constructor.
      *
+     * <p>The keys of the edges are shared with the copied node rather than cloned: a key is fixed
+     * once its event is added to the graph, and the exploration stack keeps many copies of a graph
+     * alive at once.
+     *
      * @param node The node to copy.
      */
     private ExecutionGraphNode(ExecutionGraphNode node) {
         this.event = node.event.clone();
-        this.attributes = new HashMap<>(node.attributes);
-        this.edges = new EnumMap<>(Relation.class);
-        for (Map.Entry<Relation, List<Event.Key>> entry : node.edges.entrySet()) {
-            List<Event.Key> newEdges = new ArrayList<>();
-            for (Event.Key key : entry.getValue()) {
-                newEdges.add(key.clone());
-            }
-            this.edges.put(entry.getKey(), newEdges);
-        }
-        this.backEdges = new EnumMap<>(Relation.class);
-        for (Map.Entry<Relation, List<Event.Key>> entry : node.backEdges.entrySet()) {
-            List<Event.Key> newBackEdges = new ArrayList<>();
-            for (Event.Key key : entry.getValue()) {
-                newBackEdges.add(key.clone());
-            }
-            this.backEdges.put(entry.getKey(), newBackEdges);
-        }
+        this.attributes = node.attributes == null ? null : new HashMap<>(node.attributes);
+        this.edges = copyEdges(node.edges);
+        this.backEdges = copyEdges(node.backEdges);
         this.vectorClock = new LamportVectorClock(node.vectorClock.getVector());
     }
 
+    /**
+     * Copies the given edges into exactly sized lists.
+     *
+     * @param edges The edges to copy.
+     * @return The copied edges.
+     */
+    private static Map<Relation, List<Event.Key>> copyEdges(Map<Relation, List<Event.Key>> edges) {
+        Map<Relation, List<Event.Key>> copy = new EnumMap<>(Relation.class);
+        for (Map.Entry<Relation, List<Event.Key>> entry : edges.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copy;
+    }
+
     /**
      * Constructs a new {@link ExecutionGraphNode} copying the given node.
      */
@@ -77,6 +84,88 @@ public class ExecutionGraphNode {
         return new ExecutionGraphNode(this);
     }
 
+    /**
+     * Constructs a node from its decoded parts. See {@link #readFrom(DataInput)}.
+     */
+    private ExecutionGraphNode(
+            Event event,
+            Map<String, Object> attributes,
+            Map<Relation, List<Event.Key>> edges,
+            Map<Relation, List<Event.Key>> backEdges,
+            LamportVectorClock vectorClock) {
+        this.event = event;
+        this.attributes = attributes;
+        this.edges = edges;
+        this.backEdges = backEdges;
+        this.vectorClock = vectorClock;
+    }
+
+    /**
+     * Writes the node, with its event, edges and vector clock, in the binary format of the spilled
+     * exploration stack.
+     *
+     * @param out The output.
+     * @throws IOException If the output fails or an attribute cannot be written.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        event.writeTo(out);
+        SpillCodec.writeAttributes(out, attributes);
+        writeEdges(out, edges);
+        writeEdges(out, backEdges);
+        int[] vector = vectorClock.getVector();
+        out.writeInt(vector.length);
+        for (int component : vector) {
+            out.writeInt(component);
+        }
+    }
+
+    /**
+     * Reads a node written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in The input.
+     * @return The node.
+     * @throws IOException If the input fails.
+     */
+    static ExecutionGraphNode readFrom(DataInput in) throws IOException {
+        Event event = Event.readFrom(in);
+        Map<String, Object> attributes = SpillCodec.readAttributes(in);
+        Map<Relation, List<Event.Key>> edges = readEdges(in);
+        Map<Relation, List<Event.Key>> backEdges = readEdges(in);
+        int[] vector = new int[in.readInt()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = in.readInt();
+        }
+        return new ExecutionGraphNode(
+                event, attributes, edges, backEdges, new LamportVectorClock(vector));
+    }
+
+    private static void writeEdges(DataOutput out, Map<Relation, List<Event.Key>> edges)
+            throws IOException {
+        out.writeInt(edges.size());
+        for (Map.Entry<Relation, List<Event.Key>> entry : edges.entrySet()) {
+            out.writeByte(entry.getKey().ordinal());
+            out.writeInt(entry.getValue().size());
+            for (Event.Key key : entry.getValue()) {
+                SpillCodec.writeKey(out, key);
+            }
+        }
+    }
+
+    private static Map<Relation, List<Event.Key>> readEdges(DataInput in) throws IOException {
+        Map<Relation, List<Event.Key>> edges = new EnumMap<>(Relation.class);
+        int relations = in.readInt();
+        for (int i = 0; i < relations; i++) {
+            Relation relation = allRelations[in.readByte()];
+            int size = in.readInt();
+            List<Event.Key> keys = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                keys.add(SpillCodec.readKey(in));
+            }
+            edges.put(relation, keys);
+        }
+        return edges;
+    }
+
     public Event.Key key() {
         return event.key();
     }
@@ -98,10 +187,7 @@ public class ExecutionGraphNode {
      * @param adjacency The adjacency of the edge.
      */
     public void addEdge(ExecutionGraphNode to, Relation adjacency) {
-        if (!edges.containsKey(adjacency)) {
-            edges.put(adjacency, new ArrayList<>());
-        }
-        edges.get(adjacency).add(to.key());
+        edges.computeIfAbsent(adjacency, k -> new ArrayList<>(1)).add(to.key());
         to.addBackEdge(this, adjacency);
     }
 
@@ -117,10 +203,7 @@ public class ExecutionGraphNode {
         if (adjacency != Relation.Coherency && adjacency != Relation.FR) {
             vectorClock.update(from.getVectorClock());
         }
-        if (!backEdges.containsKey(adjacency)) {
-            backEdges.put(adjacency, new ArrayList<>());
-        }
-        backEdges.get(adjacency).add(from.key());
+        backEdges.computeIfAbsent(adjacency, k -> new ArrayList<>(1)).add(from.key());
     }
 
     /**
@@ -361,6 +444,9 @@ public class ExecutionGraphNode {
      * @param value The value of the attribute.
      */
     public void addAttribute(String key, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
         attributes.put(key, value);
     }
 
@@ -373,7 +459,7 @@ public class ExecutionGraphNode {
      */
     @SuppressWarnings("unchecked")
     public <T> T getAttribute(String key) {
-        return (T) attributes.get(key);
+        return attributes == null ? null : (T) attributes.get(key);
     }
 
     /**
@@ -389,7 +475,8 @@ public class ExecutionGraphNode {
         JsonObject json = new JsonObject();
         json.add("event", event.toJson());
         JsonObject attributesObject = new JsonObject();
-        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+        Map<String, Object> attrs = attributes == null ? Map.of() : attributes;
+        for (Map.Entry<String, Object> entry : attrs.entrySet()) {
             json.addProperty(entry.getKey(), entry.getValue().toString());
         }
         json.add("attributes", attributesObject);
@@ -11,7 +11,11 @@ public class ExecutionGraphSimulator {
 
     private CoverageGraph coverageGraph;
 
+    // Interns the locations of the events, the graph is indexed by their ids
+    private final LocationStore locationStore;
+
     public ExecutionGraphSimulator() {
+        this.locationStore = new LocationStore();
         this.executionGraph = new ExecutionGraph();
         this.coverageGraph = new CoverageGraph();
         this.executionGraph.addEvent(Event.init());
@@ -39,6 +43,9 @@ public class ExecutionGraphSimulator {
 
     // Using this method to update the graph with trust event
     public void updateEvent(Event event) {
+        if (event.getLocation() != null) {
+            locationStore.resolve(event);
+        }
         // Add PO
         coverageGraph.addPo(event);
         switch (event.getType()) {
@@ -64,6 +71,7 @@ public class ExecutionGraphSimulator {
     }
 
     public void reset() {
+        this.locationStore.clear();
         this.executionGraph = new ExecutionGraph();
         this.coverageGraph = new CoverageGraph();
         this.executionGraph.addEvent(Event.init());
@@ -75,7 +83,7 @@ public class ExecutionGraphSimulator {
 
     public void handleRead(Event event) {
         ExecutionGraphNode read = executionGraph.addEvent(event);
-        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocation());
+        ExecutionGraphNode coMaxWrite = executionGraph.getCoMax(event.getLocationId());
         executionGraph.setReadsFrom(read, coMaxWrite);
         // Track the rf
         coverageGraph.addRf(event);
@@ -90,7 +98,7 @@ public class ExecutionGraphSimulator {
 
     public void handleReadEx(Event event) {
         ExecutionGraphNode write = executionGraph.addEvent(event);
-        ExecutionGraphNode coMaxRead = executionGraph.getCoMax(event.getLocation());
+        ExecutionGraphNode coMaxRead = executionGraph.getCoMax(event.getLocationId());
         executionGraph.setReadsFrom(write, coMaxRead);
         coverageGraph.addRf(event);
     }
@@ -3,30 +3,72 @@ package org.mpi_sws.jmc.strategies.trust;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The exploration stack used in the Trust algorithm. The stack is used to keep track of the forward
  * and backward revisits.
  *
  * <p>The stack is a list of inner stacks. Each inner stack is created for a backward revisit.
+ *
+ * <p>The items of an exhaustive exploration, each holding an execution graph, can outgrow the heap.
+ * If a spill watermark is set (see {@link #setSpillWatermark(double)}), the oldest inner stacks are
+ * written to a temporary file once the used heap crosses the watermark, and read back when
+ * {@link #pop()} reaches them. The top inner stack always stays in memory. Inner stacks with events
+ * whose attributes cannot be written, such as the formulas of symbolic events or the updates of
+ * read-modify-writes, stay in memory too.
  */
 public class ExplorationStack {
     private static final Logger LOGGER = LogManager.getLogger(ExplorationStack.class);
+
+    // The number of pushes between two checks of the used heap against the spill watermark
+    private static final int SPILL_CHECK_INTERVAL = 64;
+
     private final List<InnerStack> stack;
+    // The branch depth assigned to the items pushed next. Items pushed while exploring the
+    // subtree of an item of depth d get depth d + 1.
+    private int branchDepth;
+    // The branch key of the item whose subtree is explored, combined into the keys of the items
+    // pushed next. See Item#getBranchKey
+    private long branchKey;
+
+    // The fraction of the maximum heap above which inner stacks are spilled, 0 to never spill
+    private double spillWatermark;
+    // The file of the spilled inner stacks, created on the first spill
+    private StackSpillFile spillFile;
+    // The number of pushes since the last check of the used heap
+    private int pushesSinceSpillCheck;
+    // The number of inner stacks read back from the spill file, and the time it took
+    private long pageIns;
+    private long pageInNanos;
 
     /**
      * Creates a new exploration stack.
      */
     public ExplorationStack() {
         this.stack = new ArrayList<>();
+        this.branchDepth = 0;
+        this.branchKey = 0L;
     }
 
     public ExplorationStack(ExecutionGraph graph) {
         this.stack = new ArrayList<>();
         this.stack.add(new InnerStack(graph));
+        this.branchDepth = 0;
+        this.branchKey = 0L;
     }
 
     /**
@@ -49,12 +91,24 @@ public class ExplorationStack {
             this.stack.add(new InnerStack(null));
         }
         item.setInnerStackIndex(this.stack.size() - 1);
-        this.stack.get(this.stack.size() - 1).push(item);
+        item.setDepth(this.branchDepth);
+        item.setParentKey(this.branchKey);
+        item.setBranchKey(Item.branchKey(this.branchKey, item));
+        load(this.stack.size() - 1).push(item);
 
         ExecutionGraph g = item.getGraph();
         if (g != null) {
             this.stack.get(this.stack.size() - 1).setGraph(g);
         }
+
+        if (spillWatermark > 0 && ++pushesSinceSpillCheck >= SPILL_CHECK_INTERVAL) {
+            pushesSinceSpillCheck = 0;
+            Runtime runtime = Runtime.getRuntime();
+            long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+            if (usedHeap > spillWatermark * runtime.maxMemory()) {
+                spill();
+            }
+        }
     }
 
     private void cleanStack() {
@@ -82,8 +136,11 @@ public class ExplorationStack {
         if (this.stack.isEmpty()) {
             return null;
         }
-        InnerStack innerStack = this.stack.get(this.stack.size() - 1);
-        return innerStack.pop();
+        InnerStack innerStack = load(this.stack.size() - 1);
+        Item item = innerStack.pop();
+        this.branchDepth = item.getDepth() + 1;
+        this.branchKey = item.getBranchKey();
+        return item;
     }
 
     /**
@@ -96,7 +153,7 @@ public class ExplorationStack {
         if (this.stack.isEmpty()) {
             return null;
         }
-        InnerStack innerStack = this.stack.get(this.stack.size() - 1);
+        InnerStack innerStack = load(this.stack.size() - 1);
         return innerStack.peek();
     }
 
@@ -107,7 +164,7 @@ public class ExplorationStack {
      * @return The graph associated with the item
      */
     public ExecutionGraph getGraph(Item item) {
-        return this.stack.get(item.getInnerStackIndex()).getGraph();
+        return load(item.getInnerStackIndex()).getGraph();
     }
 
     /**
@@ -125,6 +182,232 @@ public class ExplorationStack {
      */
     public void clear() {
         this.stack.clear();
+        this.branchDepth = 0;
+        this.branchKey = 0L;
+        if (spillFile != null) {
+            spillFile.close();
+        }
+    }
+
+    /**
+     * Sets the fraction of the maximum heap above which the oldest inner stacks are spilled to disk.
+     *
+     * @param spillWatermark The fraction of the maximum heap, in {@code (0, 1]}, or {@code 0} to
+     *     keep the whole stack in memory
+     */
+    public void setSpillWatermark(double spillWatermark) {
+        if (spillWatermark < 0 || spillWatermark > 1) {
+            throw new IllegalArgumentException(
+                    "The spill watermark must be between 0 and 1: " + spillWatermark);
+        }
+        this.spillWatermark = spillWatermark;
+    }
+
+    /**
+     * Gets the total number of bytes of the inner stacks spilled to disk.
+     *
+     * @return The number of spilled bytes
+     */
+    public long getSpilledBytes() {
+        return spillFile == null ? 0L : spillFile.getWrittenBytes();
+    }
+
+    /**
+     * Gets the number of inner stacks read back from disk.
+     *
+     * @return The number of page-ins
+     */
+    public long getPageIns() {
+        return pageIns;
+    }
+
+    /**
+     * Gets the total time spent reading inner stacks back from disk.
+     *
+     * @return The page-in time in nanoseconds
+     */
+    public long getPageInNanos() {
+        return pageInNanos;
+    }
+
+    /**
+     * Spills the older half of the inner stacks that are in memory, except the top one.
+     */
+    private void spill() {
+        List<InnerStack> candidates = new ArrayList<>();
+        for (int i = 0; i < this.stack.size() - 1; i++) {
+            InnerStack innerStack = this.stack.get(i);
+            if (!innerStack.isSpilled() && !innerStack.pinned && !innerStack.isEmpty()) {
+                candidates.add(innerStack);
+            }
+        }
+        if (spillFile == null) {
+            spillFile = new StackSpillFile(Path.of(System.getProperty("java.io.tmpdir")));
+        }
+        int count = (candidates.size() + 1) / 2;
+        for (InnerStack innerStack : candidates.subList(0, count)) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                writeInnerStack(new DataOutputStream(bytes), innerStack);
+                innerStack.spill(spillFile.write(bytes.toByteArray()));
+            } catch (NotSerializableException e) {
+                LOGGER.debug("Keeping an inner stack in memory: {}", e.getMessage());
+                innerStack.pinned = true;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to encode an inner stack, keeping it in memory", e);
+                innerStack.pinned = true;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to spill the exploration stack, keeping it in memory", e);
+                spillWatermark = 0;
+                return;
+            }
+        }
+        LOGGER.debug("Spilled {} inner stacks, {} bytes in total", count, getSpilledBytes());
+    }
+
+    /**
+     * Gets the inner stack at the given index, reading it back from disk if it was spilled.
+     *
+     * @param index The index of the inner stack
+     * @return The inner stack, in memory
+     */
+    private InnerStack load(int index) {
+        InnerStack innerStack = this.stack.get(index);
+        if (!innerStack.isSpilled()) {
+            return innerStack;
+        }
+        long start = System.nanoTime();
+        StackSpillFile.Segment segment = innerStack.spilled;
+        try {
+            byte[] bytes = spillFile.read(segment);
+            readInnerStack(new DataInputStream(new ByteArrayInputStream(bytes)), innerStack);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read a spilled inner stack", e);
+        }
+        spillFile.release(segment);
+        pageIns++;
+        pageInNanos += System.nanoTime() - start;
+        return innerStack;
+    }
+
+    /**
+     * Writes the items and the graph of an inner stack. Graphs shared by several items are written
+     * once. The events of an item are written as references into the graph of the item when they
+     * are nodes of that graph.
+     */
+    static void writeInnerStack(DataOutput out, InnerStack innerStack)
+            throws IOException {
+        Map<ExecutionGraph, Integer> graphIds = new IdentityHashMap<>();
+        List<ExecutionGraph> graphs = new ArrayList<>();
+        List<ExecutionGraph> sources = new ArrayList<>();
+        sources.add(innerStack.graph);
+        for (Item item : innerStack.items) {
+            sources.add(item.graph);
+        }
+        for (ExecutionGraph graph : sources) {
+            if (graph != null && !graphIds.containsKey(graph)) {
+                graphIds.put(graph, graphs.size());
+                graphs.add(graph);
+            }
+        }
+        out.writeInt(graphs.size());
+        for (ExecutionGraph graph : graphs) {
+            graph.writeTo(out);
+        }
+        out.writeInt(innerStack.graph == null ? -1 : graphIds.get(innerStack.graph));
+        // In the order of the deque, from the top item
+        out.writeInt(innerStack.items.size());
+        for (Item item : innerStack.items) {
+            out.writeByte(item.type.ordinal());
+            out.writeInt(item.innerStackIndex);
+            out.writeInt(item.depth);
+            out.writeLong(item.parentKey);
+            out.writeLong(item.branchKey);
+            out.writeInt(item.graph == null ? -1 : graphIds.get(item.graph));
+            writeNode(out, item.event1, item.graph);
+            writeNode(out, item.event2, item.graph);
+            out.writeInt(item.additionalEventsToProcess.size());
+            for (Event event : item.additionalEventsToProcess) {
+                event.writeTo(out);
+            }
+        }
+    }
+
+    private static void writeNode(DataOutput out, ExecutionGraphNode node, ExecutionGraph graph)
+            throws IOException {
+        if (node == null) {
+            out.writeByte(0);
+        } else if (isNodeOf(graph, node)) {
+            out.writeByte(1);
+            SpillCodec.writeKey(out, node.key());
+        } else {
+            out.writeByte(2);
+            node.writeTo(out);
+        }
+    }
+
+    private static boolean isNodeOf(ExecutionGraph graph, ExecutionGraphNode node) {
+        if (graph == null || !graph.hasEventNode(node.key())) {
+            return false;
+        }
+        try {
+            return graph.getEventNode(node.key()) == node;
+        } catch (NoSuchEventException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the items and the graph of an inner stack written by {@link
+     * #writeInnerStack(DataOutput, InnerStack)} back into it.
+     */
+    static void readInnerStack(DataInput in, InnerStack innerStack) throws IOException {
+        List<ExecutionGraph> graphs = new ArrayList<>();
+        int numGraphs = in.readInt();
+        for (int i = 0; i < numGraphs; i++) {
+            graphs.add(ExecutionGraph.readFrom(in));
+        }
+        int graphId = in.readInt();
+        ArrayDeque<Item> items = new ArrayDeque<>();
+        int numItems = in.readInt();
+        for (int i = 0; i < numItems; i++) {
+            ItemType type = ItemType.values()[in.readByte()];
+            int innerStackIndex = in.readInt();
+            int depth = in.readInt();
+            long parentKey = in.readLong();
+            long branchKey = in.readLong();
+            int itemGraphId = in.readInt();
+            ExecutionGraph graph = itemGraphId < 0 ? null : graphs.get(itemGraphId);
+            ExecutionGraphNode event1 = readNode(in, graph);
+            ExecutionGraphNode event2 = readNode(in, graph);
+            Item item = new Item(type, event1, event2, graph);
+            item.setInnerStackIndex(innerStackIndex);
+            item.setDepth(depth);
+            item.setParentKey(parentKey);
+            item.setBranchKey(branchKey);
+            int additionalEvents = in.readInt();
+            for (int j = 0; j < additionalEvents; j++) {
+                item.addAdditionalEvent(Event.readFrom(in));
+            }
+            items.addLast(item);
+        }
+        innerStack.load(graphId < 0 ? null : graphs.get(graphId), items);
+    }
+
+    private static ExecutionGraphNode readNode(DataInput in, ExecutionGraph graph)
+            throws IOException {
+        byte tag = in.readByte();
+        if (tag == 0) {
+            return null;
+        } else if (tag == 1) {
+            Event.Key key = SpillCodec.readKey(in);
+            try {
+                return graph.getEventNode(key);
+            } catch (NoSuchEventException e) {
+                throw new IOException("The spilled event " + key + " is not in its graph", e);
+            }
+        }
+        return ExecutionGraphNode.readFrom(in);
     }
 
     /**
@@ -172,6 +455,10 @@ public class ExplorationStack {
         LOGGER.debug("Current stack state:");
         for (int i = 0; i < this.stack.size(); i++) {
             InnerStack innerStack = this.stack.get(i);
+            if (innerStack.isSpilled()) {
+                LOGGER.debug("Inner Stack {}: {} spilled items", i, innerStack.size());
+                continue;
+            }
             for (Item item : innerStack.items) {
                 LOGGER.debug("Inner Stack {}: {}", i, item);
             }
@@ -183,6 +470,12 @@ public class ExplorationStack {
      */
     public static class Item {
         private int innerStackIndex;
+        // The depth of the item in the exploration tree (0 for items pushed by the first execution)
+        private int depth;
+        // The branch key of the item whose subtree the item was pushed in
+        private long parentKey;
+        // Identifies the branch of the item by the path from the root of the exploration tree
+        private long branchKey;
         // The type of the item
         private final ItemType type;
         // The two events that are part of the item
@@ -323,6 +616,102 @@ public class ExplorationStack {
             return this.innerStackIndex;
         }
 
+        /**
+         * Sets the depth of the item in the exploration tree.
+         *
+         * @param depth The depth
+         */
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+
+        /**
+         * Gets the depth of the item in the exploration tree. Items pushed during the first
+         * execution have depth 0 and items pushed while exploring the subtree of an item of depth
+         * {@code d} have depth {@code d + 1}.
+         *
+         * @return The depth of the item
+         */
+        public int getDepth() {
+            return this.depth;
+        }
+
+        /**
+         * Sets the branch key of the item whose subtree the item was pushed in.
+         *
+         * @param parentKey The branch key of the parent item
+         */
+        public void setParentKey(long parentKey) {
+            this.parentKey = parentKey;
+        }
+
+        /**
+         * Gets the branch key of the item whose subtree the item was pushed in, 0 for the items
+         * pushed during the first execution. The items pushed by one parent may share a graph, and
+         * processing one of them can prepare the graph for the next ones (a last-write revisit puts
+         * the write in the coherency order that the other placings of the write then swap).
+         *
+         * @return The branch key of the parent item
+         */
+        public long getParentKey() {
+            return this.parentKey;
+        }
+
+        /**
+         * Sets the branch key of the item.
+         *
+         * @param branchKey The branch key
+         */
+        public void setBranchKey(long branchKey) {
+            this.branchKey = branchKey;
+        }
+
+        /**
+         * Gets the branch key of the item. The key combines the type and the events of the item
+         * with the key of the item whose subtree it was pushed in, so it identifies the path to the
+         * item in the exploration tree. Events are identified by their task, index in the task and
+         * type, never by their location: location ids derive from identity hash codes, so the key
+         * is the same in every JVM that runs the same exploration, whatever the order in which the
+         * items are discovered.
+         *
+         * @return The branch key of the item
+         */
+        public long getBranchKey() {
+            return this.branchKey;
+        }
+
+        /**
+         * Combines the key of the parent branch with the type and the events of the item.
+         *
+         * @param parentKey The branch key of the item whose subtree the item was pushed in
+         * @param item The item
+         * @return The branch key of the item
+         */
+        static long branchKey(long parentKey, Item item) {
+            long key = combine(parentKey, item.type.ordinal());
+            key = combine(key, eventKey(item.event1));
+            return combine(key, eventKey(item.event2));
+        }
+
+        private static long eventKey(ExecutionGraphNode node) {
+            if (node == null) {
+                return -1L;
+            }
+            Event event = node.getEvent();
+            Long taskId = event.getTaskId();
+            Integer timestamp = event.getTimestamp();
+            long key = combine(taskId == null ? -1L : taskId, event.getType().ordinal());
+            return combine(key, timestamp == null ? -1L : timestamp);
+        }
+
+        private static long combine(long hash, long value) {
+            // splitmix64 finalizer
+            long z = hash * 0x9E3779B97F4A7C15L + value;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
         /**
          * Gets the type of the item.
          *
@@ -424,9 +813,16 @@ public class ExplorationStack {
     /**
      * Represents an inner stack in the exploration stack.
      */
-    private static class InnerStack {
+    static class InnerStack {
         private ExecutionGraph graph;
-        private final ArrayDeque<Item> items;
+        // The items, null while the inner stack is spilled
+        private ArrayDeque<Item> items;
+        // The segment of the spill file holding the inner stack, null while it is in memory
+        private StackSpillFile.Segment spilled;
+        // The number of items of the inner stack while it is spilled
+        private int spilledSize;
+        // Whether the inner stack cannot be spilled
+        private boolean pinned;
         /**
          * The prover id is used to identify the prover that is used to reason symbolically for the existing items
          * in the InnerStack object. If no symbolic reasoning is needed, the prover id is -1.
@@ -456,7 +852,31 @@ public class ExplorationStack {
         }
 
         public boolean isEmpty() {
-            return this.items.isEmpty();
+            return size() == 0;
+        }
+
+        public boolean isSpilled() {
+            return this.spilled != null;
+        }
+
+        /**
+         * Drops the items and the graph of the inner stack, which were written to the given segment.
+         */
+        public void spill(StackSpillFile.Segment segment) {
+            this.spilledSize = this.items.size();
+            this.spilled = segment;
+            this.items = null;
+            this.graph = null;
+        }
+
+        /**
+         * Restores the items and the graph of a spilled inner stack.
+         */
+        public void load(ExecutionGraph graph, ArrayDeque<Item> items) {
+            this.graph = graph;
+            this.items = items;
+            this.spilled = null;
+            this.spilledSize = 0;
         }
 
         public ExecutionGraph getGraph() {
@@ -468,7 +888,7 @@ public class ExplorationStack {
         }
 
         public int size() {
-            return this.items.size();
+            return this.spilled != null ? this.spilledSize : this.items.size();
         }
 
         public int getProverId() {
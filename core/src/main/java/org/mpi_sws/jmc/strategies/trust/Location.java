@@ -1,5 +1,6 @@
 package org.mpi_sws.jmc.strategies.trust;
 
+import org.mpi_sws.jmc.runtime.JmcFieldAccessEvent;
 import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
 
 import static org.mpi_sws.jmc.api.JmcObject.handleHashCode;
@@ -13,6 +14,56 @@ public class Location {
         this.param = param;
     }
 
+    /**
+     * Returns the location identifier of the instance and parameter of the runtime event, that is
+     * the {@link #hashCode()} of the {@link Location} built by {@link
+     * #fromRuntimeEvent(JmcRuntimeEvent)}, without building it.
+     *
+     * @param runtimeEvent The runtime event.
+     * @return The location identifier.
+     */
+    public static int idOf(JmcRuntimeEvent runtimeEvent) {
+        if (runtimeEvent instanceof JmcFieldAccessEvent fieldEvent) {
+            Object instance = fieldEvent.getInstance();
+            return idOf(instance == null ? fieldEvent.getOwner() : instance, fieldEvent.getName());
+        }
+        Object instance = runtimeEvent.getParam("instance");
+        if (instance == null) {
+            // This is because the call is a static method call
+            instance = runtimeEvent.getParam("owner");
+        }
+        return idOf(instance, runtimeEvent.getParam("name"));
+    }
+
+    /**
+     * Computes the hash code of the concatenation of the handle hash code of the instance and the
+     * parameter without allocating the concatenated string.
+     *
+     * @param instance The instance (or owner class name).
+     * @param param    The parameter (field name).
+     * @return The location identifier.
+     */
+    public static int idOf(Object instance, String param) {
+        int hash = 0;
+        long value = handleHashCode(instance);
+        if (value < 0) {
+            hash = '-';
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= value) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            hash = 31 * hash + (char) ('0' + (value / divisor) % 10);
+        }
+        String suffix = param == null ? "null" : param;
+        for (int i = 0; i < suffix.length(); i++) {
+            hash = 31 * hash + suffix.charAt(i);
+        }
+        return hash;
+    }
+
     public static Location fromRuntimeEvent(JmcRuntimeEvent runtimeEvent) {
         Object instance = runtimeEvent.getParam("instance");
         if (instance == null) {
@@ -25,6 +76,6 @@ public class Location {
 
     @Override
     public int hashCode() {
-        return (handleHashCode(instance) + param).hashCode();
+        return idOf(instance, param);
     }
 }
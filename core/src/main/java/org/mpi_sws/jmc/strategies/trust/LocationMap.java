@@ -0,0 +1,134 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import java.util.Arrays;
+
+/**
+ * A map from the location ids handed out by {@link LocationStore} to values, backed by an array
+ * indexed by the id.
+ *
+ * <p>Looking up a location neither hashes nor boxes its id. The ids are dense, so the array is about
+ * as long as the number of locations, and copying the map is a single array copy.
+ *
+ * @param <V> The type of the values.
+ */
+class LocationMap<V> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] values;
+    private int size;
+
+    /** Constructs an empty map. */
+    LocationMap() {
+        this.values = EMPTY;
+        this.size = 0;
+    }
+
+    /**
+     * Constructs an empty map with room for the ids below the given capacity.
+     *
+     * @param capacity The initial capacity.
+     */
+    LocationMap(int capacity) {
+        this.values = capacity == 0 ? EMPTY : new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the value of the location.
+     *
+     * @param id The id of the location.
+     * @return The value, or null if the location is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int id) {
+        return id >= 0 && id < values.length ? (V) values[id] : null;
+    }
+
+    /**
+     * Returns if the location is in the map.
+     *
+     * @param id The id of the location.
+     * @return True if the location has a value.
+     */
+    boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Sets the value of the location.
+     *
+     * @param id    The id of the location.
+     * @param value The value, not null.
+     */
+    void put(int id, V value) {
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+        }
+        if (values[id] == null) {
+            size++;
+        }
+        values[id] = value;
+    }
+
+    /**
+     * Removes the location from the map.
+     *
+     * @param id The id of the location.
+     */
+    void remove(int id) {
+        if (id >= 0 && id < values.length && values[id] != null) {
+            values[id] = null;
+            size--;
+        }
+    }
+
+    /**
+     * Returns the number of locations in the map.
+     *
+     * @return The number of locations.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns if the map is empty.
+     *
+     * @return True if no location has a value.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all the locations, keeping the capacity. */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest id of a location in the map that is at least the given id. The locations
+     * are visited in increasing order of id with {@code for (int id = map.nextId(0); id >= 0; id =
+     * map.nextId(id + 1))}.
+     *
+     * @param from The id to start from.
+     * @return The id, or -1 if there is none.
+     */
+    int nextId(int from) {
+        for (int id = Math.max(from, 0); id < values.length; id++) {
+            if (values[id] != null) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of the backing array, an upper bound of the ids in the map.
+     *
+     * @return The capacity.
+     */
+    int capacity() {
+        return values.length;
+    }
+}
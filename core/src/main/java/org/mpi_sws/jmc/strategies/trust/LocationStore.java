@@ -1,9 +1,7 @@
 package org.mpi_sws.jmc.strategies.trust;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * A single class to store references to locations and to keep track of location aliases.
@@ -12,13 +10,18 @@ import java.util.Set;
  * checker runs, we will replace the Location object associated with the old hashcode with the new
  * one and add an alias that points the new hash code to the old one.
  *
+ * <p>Each location is interned to a dense id, handed out in increasing order from {@link
+ * #THREAD_LOCATION_ID}. The execution graph indexes its per-location state by these ids (see {@link
+ * LocationMap}), so an event is resolved to its id once, when it is received, rather than hashed
+ * every time the graph looks up its location.
+ *
  * <p>LocationStore is accessed when events are accessed.
  *
  * <p>The lifetime of a location store is that of the algorithm.
  */
 public class LocationStore {
-    // A map of location hash codes to locations
-    private final Set<Integer> locations;
+    // A map of location hash codes to their dense ids
+    private final Map<Integer, Integer> locationIds;
     // When a location is replaced, a mapping is added to aliases
     private final Map<Integer, Integer> aliases;
 
@@ -27,21 +30,40 @@ public class LocationStore {
     // Essentially, thread starts are writes on the thread location
     public static Integer ThreadLocation = "thread".hashCode();
 
+    /** The id of {@link #ThreadLocation}, the first id handed out by every store. */
+    public static final int THREAD_LOCATION_ID = 0;
+
+    /** The id of the events without a location. */
+    public static final int NO_LOCATION_ID = -1;
+
     /** Constructs a new location store. */
     public LocationStore() {
-        locations = new HashSet<>();
-        locations.add(ThreadLocation);
+        locationIds = new HashMap<>();
+        locationIds.put(ThreadLocation, THREAD_LOCATION_ID);
         aliases = new HashMap<>();
     }
 
-    /** Add a location to the store. */
-    public void addLocation(Integer location) {
-        locations.add(location);
+    /**
+     * Add a location to the store.
+     *
+     * @return the id of the location
+     */
+    public int addLocation(Integer location) {
+        Integer id = locationIds.get(location);
+        if (id == null) {
+            id = locationIds.size();
+            locationIds.put(location, id);
+        }
+        return id;
     }
 
-    /** Remove all locations from the store. */
+    /**
+     * Remove all locations from the store. The ids are handed out anew, so the graphs holding
+     * events of the removed locations must be discarded too.
+     */
     public void clear() {
-        locations.clear();
+        locationIds.clear();
+        locationIds.put(ThreadLocation, THREAD_LOCATION_ID);
     }
 
     /** Remove all aliases from the store. */
@@ -51,7 +73,7 @@ public class LocationStore {
 
     /** Returns if a location is contained in the store. */
     public boolean contains(Integer hashCode) {
-        return locations.contains(hashCode) || aliases.containsKey(hashCode);
+        return locationIds.containsKey(hashCode) || aliases.containsKey(hashCode);
     }
 
     /** Returns if an alias is contained in the store. */
@@ -61,7 +83,7 @@ public class LocationStore {
 
     /** Adds an alias between the two location codes. */
     public void addAlias(Integer oldL, Integer newL) {
-        locations.add(oldL);
+        addLocation(oldL);
         aliases.put(newL, oldL);
     }
 
@@ -69,4 +91,18 @@ public class LocationStore {
     public Integer getAlias(Integer hashCode) {
         return aliases.get(hashCode);
     }
+
+    /**
+     * Resolves the location of the event: replaces an aliased location with the location it
+     * stands for, and sets the id of the location on the event.
+     *
+     * @param event the event, with a non-null location
+     */
+    public void resolve(Event event) {
+        Integer alias = aliases.get(event.getLocation());
+        if (alias != null) {
+            event.setLocation(alias);
+        }
+        event.setLocationId(addLocation(event.getLocation()));
+    }
 }
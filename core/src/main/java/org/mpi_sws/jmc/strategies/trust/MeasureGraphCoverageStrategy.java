@@ -13,14 +13,13 @@ import org.mpi_sws.jmc.runtime.HaltTaskException;
 import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
 import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
 import org.mpi_sws.jmc.strategies.SchedulingStrategy;
-import org.mpi_sws.jmc.util.StringUtil;
 import org.mpi_sws.jmc.util.FileUtil;
+import org.mpi_sws.jmc.util.LongIntHashMap;
 
 import java.io.FileOutputStream;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -36,8 +35,11 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
 
     private final ExecutionGraphSimulator simulator;
 
-    private final ConcurrentHashMap<String, Integer> visitedGraphs;
-    private final Set<String> coveredGraphs;
+    /** Number of visits of each graph, keyed by {@link CoverageGraph#fingerprint()}. */
+    private final LongIntHashMap visitedGraphs;
+
+    /** Number of distinct graphs, read by the measuring thread. */
+    private volatile int coveredGraphs;
     private final MeasuringThread measuringThread;
     private final ArrayList<Integer> coverages;
 
@@ -50,8 +52,8 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
             SchedulingStrategy schedulingStrategy, MeasureGraphCoverageStrategyConfig config) {
         this.schedulingStrategy = schedulingStrategy;
         this.simulator = new ExecutionGraphSimulator();
-        this.coveredGraphs = new HashSet<>();
-        this.visitedGraphs = new ConcurrentHashMap<>();
+        this.coveredGraphs = 0;
+        this.visitedGraphs = new LongIntHashMap();
         this.coverages = new ArrayList<>();
         this.config = config;
         if (config.isRecordPerIteration()) {
@@ -64,7 +66,7 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
     }
 
     private void updateCoverage() {
-        int val = this.coveredGraphs.size();
+        int val = this.coveredGraphs;
         this.coverages.add(val);
     }
 
@@ -122,42 +124,34 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
         return this.schedulingStrategy.nextTask();
     }
 
+    @Override
+    public boolean followsSchedule() {
+        return this.schedulingStrategy.followsSchedule();
+    }
+
+    @Override
+    public boolean isExhaustive() {
+        return this.schedulingStrategy.isExhaustive();
+    }
+
     @Override
     public void resetIteration(int iteration) {
         this.schedulingStrategy.resetIteration(iteration);
-        ExecutionGraph executionGraph = simulator.getExecutionGraph();
-        CoverageGraph coverageGraph = simulator.getCoverageGraph();
-        String json = executionGraph.toJsonStringIgnoreLocation();
-        String coverage = coverageGraph.toString();
-        // System.out.println(coverage);
-        try {
-            String hash = StringUtil.sha256Hash(json);
-            String hashCoverage = StringUtil.sha256Hash(coverage);
-            if (!coveredGraphs.contains(hashCoverage)) {
-                coveredGraphs.add(hashCoverage);
-                if (config.isDebugEnabled()) {
-                    FileUtil.unsafeStoreToFile(
-                            Paths.get(config.getRecordPath(), coveredGraphs.size() + ".txt")
-                                    .toString(),
-                            coverage);
-                }
+        long fingerprint = simulator.getCoverageGraph().fingerprint();
+        if (visitedGraphs.increment(fingerprint) == 1) {
+            coveredGraphs = visitedGraphs.size();
+            // Serialize the graphs only when they are recorded
+            if (config.isDebugEnabled()) {
+                FileUtil.unsafeStoreToFile(
+                        Paths.get(config.getRecordPath(), coveredGraphs + ".txt").toString(),
+                        simulator.getCoverageGraph().toString());
+                FileUtil.unsafeStoreToFile(
+                        Paths.get(config.getRecordPath(), coveredGraphs + ".json").toString(),
+                        simulator.getExecutionGraph().toJsonStringIgnoreLocation());
             }
-            if (visitedGraphs.containsKey(hash)) {
-                visitedGraphs.put(hash, visitedGraphs.get(hash) + 1);
-            } else {
-                visitedGraphs.put(hash, 1);
-                if (config.isDebugEnabled()) {
-                    FileUtil.unsafeStoreToFile(
-                            Paths.get(config.getRecordPath(), visitedGraphs.size() + ".json")
-                                    .toString(),
-                            json);
-                }
-            }
-            if (config.isRecordPerIteration()) {
-                updateCoverage();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        }
+        if (config.isRecordPerIteration()) {
+            updateCoverage();
         }
     }
 
@@ -181,15 +175,15 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
                     FileUtil.unsafeCreateFile(
                             Paths.get(config.getRecordPath(), "hash_coverage.txt").toString());
             if (fileOutputStream != null) {
-                for (HashMap.Entry<String, Integer> entry : visitedGraphs.entrySet()) {
-                    StringBuilder sb = new StringBuilder();
-                    sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
-                    try {
-                        fileOutputStream.write(sb.toString().getBytes());
-                    } catch (Exception e) {
-                        LOGGER.error("Error while writing to file", e);
-                    }
-                }
+                visitedGraphs.forEach(
+                        (fingerprint, visits) -> {
+                            String line = Long.toHexString(fingerprint) + ": " + visits + "\n";
+                            try {
+                                fileOutputStream.write(line.getBytes());
+                            } catch (Exception e) {
+                                LOGGER.error("Error while writing to file", e);
+                            }
+                        });
                 try {
                     fileOutputStream.close();
                 } catch (Exception e) {
@@ -211,6 +205,6 @@ public class MeasureGraphCoverageStrategy implements SchedulingStrategy {
         FileUtil.unsafeStoreToFile(
                 Paths.get(config.getRecordPath(), "coverage.json").toString(), json);
 
-        LOGGER.info("Covered graphs: {}", coveredGraphs.size());
+        LOGGER.info("Covered graphs: {}", coveredGraphs);
     }
 }
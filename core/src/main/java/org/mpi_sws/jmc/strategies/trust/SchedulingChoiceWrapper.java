@@ -3,16 +3,18 @@ package org.mpi_sws.jmc.strategies.trust;
 import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
 
 /**
- * Represents a scheduling choice with an optional location.
+ * Represents a scheduling choice with an optional location, and the optional node of the graph
+ * whose event the runtime reports before the choice is taken.
  */
-public record SchedulingChoiceWrapper(SchedulingChoice<?> choice, Integer location) {
+public record SchedulingChoiceWrapper(
+        SchedulingChoice<?> choice, Integer location, ExecutionGraphNode node) {
     /**
-     * Creates a new scheduling choice with the given choice and empty location.
+     * Creates a new scheduling choice with the given choice and empty location and node.
      *
      * @param choice The choice.
      */
     public SchedulingChoiceWrapper(SchedulingChoice<?> choice) {
-        this(choice, null);
+        this(choice, null, null);
     }
 
     /**
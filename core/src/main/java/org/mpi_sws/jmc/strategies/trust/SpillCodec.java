@@ -0,0 +1,180 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for the binary format of the spilled segments of the {@link ExplorationStack}.
+ *
+ * <p>The format is private to a single run of the model checker: it is written and read back by the
+ * same version of the classes, so it carries no version or schema information.
+ */
+final class SpillCodec {
+
+    /** Tag of an attribute value of type {@link Boolean}. */
+    private static final byte BOOLEAN = 0;
+
+    /** Tag of an attribute value of type {@link Integer}. */
+    private static final byte INTEGER = 1;
+
+    /** Tag of an attribute value of type {@link Long}. */
+    private static final byte LONG = 2;
+
+    /** Tag of an attribute value of type {@link String}. */
+    private static final byte STRING = 3;
+
+    /** Tag of a {@code null} attribute value. */
+    private static final byte NULL = 4;
+
+    private SpillCodec() {}
+
+    /**
+     * Writes a nullable long.
+     *
+     * @param out the output
+     * @param value the value, or {@code null}
+     * @throws IOException if the output fails
+     */
+    static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Reads a nullable long written by {@link #writeNullableLong(DataOutput, Long)}.
+     *
+     * @param in the input
+     * @return the value, or {@code null}
+     * @throws IOException if the input fails
+     */
+    static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    /**
+     * Writes a nullable integer.
+     *
+     * @param out the output
+     * @param value the value, or {@code null}
+     * @throws IOException if the output fails
+     */
+    static void writeNullableInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads a nullable integer written by {@link #writeNullableInt(DataOutput, Integer)}.
+     *
+     * @param in the input
+     * @return the value, or {@code null}
+     * @throws IOException if the input fails
+     */
+    static Integer readNullableInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    /**
+     * Writes the task and the timestamp of an event key. The total order stamp is not part of the
+     * identity of a key and is not written.
+     *
+     * @param out the output
+     * @param key the key
+     * @throws IOException if the output fails
+     */
+    static void writeKey(DataOutput out, Event.Key key) throws IOException {
+        writeNullableLong(out, key.getTaskId());
+        writeNullableInt(out, key.getTimestamp());
+    }
+
+    /**
+     * Reads an event key written by {@link #writeKey(DataOutput, Event.Key)}.
+     *
+     * @param in the input
+     * @return the key
+     * @throws IOException if the input fails
+     */
+    static Event.Key readKey(DataInput in) throws IOException {
+        Event.Key key = new Event.Key(readNullableLong(in));
+        key.setTimestamp(readNullableInt(in));
+        return key;
+    }
+
+    /**
+     * Writes a nullable map of attributes.
+     *
+     * @param out the output
+     * @param attributes the attributes, or {@code null}
+     * @throws NotSerializableException if a value is not {@code null}, a boolean, an integer, a
+     *     long or a string, e.g. the formula of a symbolic event
+     * @throws IOException if the output fails
+     */
+    static void writeAttributes(DataOutput out, Map<String, Object> attributes)
+            throws IOException {
+        if (attributes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Boolean b) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(b);
+            } else if (value instanceof Integer i) {
+                out.writeByte(INTEGER);
+                out.writeInt(i);
+            } else if (value instanceof Long l) {
+                out.writeByte(LONG);
+                out.writeLong(l);
+            } else if (value instanceof String s) {
+                out.writeByte(STRING);
+                out.writeUTF(s);
+            } else {
+                throw new NotSerializableException(
+                        "Attribute " + entry.getKey() + " of type " + value.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Reads a nullable map of attributes written by {@link #writeAttributes(DataOutput, Map)}.
+     *
+     * @param in the input
+     * @return the attributes, or {@code null}
+     * @throws IOException if the input fails
+     */
+    static Map<String, Object> readAttributes(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Object> attributes = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            byte tag = in.readByte();
+            Object value =
+                    switch (tag) {
+                        case BOOLEAN -> in.readBoolean();
+                        case INTEGER -> in.readInt();
+                        case LONG -> in.readLong();
+                        case STRING -> in.readUTF();
+                        case NULL -> null;
+                        default -> throw new IOException("Unknown attribute tag " + tag);
+                    };
+            attributes.put(key, value);
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,154 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * A temporary file holding the spilled segments of an {@link ExplorationStack}.
+ *
+ * <p>Segments are appended and read back with positional reads of the channel. The exploration
+ * stack spills its oldest segments and pages them back in as it pops, so segments are mostly
+ * released in the reverse order of their writing: the space of the released segments at the end of
+ * the file is reused by the next writes.
+ */
+final class StackSpillFile {
+
+    /** The directory of the file. */
+    private final Path directory;
+
+    /** The file, created on the first write. */
+    private Path path;
+
+    /** The channel of the file, open from the first write until {@link #close()}. */
+    private FileChannel channel;
+
+    /** The written segments, in the order of their position in the file. */
+    private final ArrayDeque<Segment> segments;
+
+    /** The position of the next write. */
+    private long position;
+
+    /** The total number of bytes written, including the bytes of released segments. */
+    private long writtenBytes;
+
+    /**
+     * Creates a spill file in the given directory. The file itself is created on the first write.
+     *
+     * @param directory the directory of the file
+     */
+    StackSpillFile(Path directory) {
+        this.directory = directory;
+        this.segments = new ArrayDeque<>();
+        this.position = 0L;
+        this.writtenBytes = 0L;
+    }
+
+    /**
+     * Writes a segment at the end of the file.
+     *
+     * @param bytes the encoded segment
+     * @return the handle of the segment
+     * @throws IOException if the file cannot be created or written
+     */
+    Segment write(byte[] bytes) throws IOException {
+        if (channel == null) {
+            path = Files.createTempFile(directory, "jmc-stack-", ".spill");
+            path.toFile().deleteOnExit();
+            channel =
+                    FileChannel.open(
+                            path,
+                            StandardOpenOption.READ,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        Segment segment = new Segment(position, bytes.length);
+        segments.addLast(segment);
+        position += bytes.length;
+        writtenBytes += bytes.length;
+        return segment;
+    }
+
+    /**
+     * Reads a written segment back.
+     *
+     * @param segment the segment
+     * @return the bytes of the segment
+     * @throws IOException if the file cannot be read
+     */
+    byte[] read(Segment segment) throws IOException {
+        byte[] bytes = new byte[segment.length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long offset = segment.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("The spill file ends inside a segment");
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    /**
+     * Releases a segment that was read back. Its space is reused once the segments written after it
+     * are released as well.
+     *
+     * @param segment the segment
+     */
+    void release(Segment segment) {
+        segment.released = true;
+        while (!segments.isEmpty() && segments.peekLast().released) {
+            position = segments.removeLast().offset;
+        }
+    }
+
+    /**
+     * Returns the total number of bytes written to the file.
+     *
+     * @return the number of written bytes
+     */
+    long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /** Releases all the segments and deletes the file. */
+    void close() {
+        segments.clear();
+        position = 0L;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // The file is deleted on exit at the latest
+        }
+        channel = null;
+        path = null;
+    }
+
+    /** A segment written to the file. */
+    static final class Segment {
+        private final long offset;
+        private final int length;
+        private boolean released;
+
+        private Segment(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+            this.released = false;
+        }
+    }
+}
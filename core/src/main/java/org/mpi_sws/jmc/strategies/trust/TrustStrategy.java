@@ -200,6 +200,51 @@ public class TrustStrategy extends TrackActiveTasksStrategy
         }
     }
 
+    /**
+     * Restricts the exploration to the share of worker {@code workerIndex} out of {@code
+     * numWorkers} independent workers. See {@link Algo#setWorkerPartition(int, int)}.
+     *
+     * @param workerIndex The index of this worker, in {@code [0, numWorkers)}
+     * @param numWorkers  The total number of workers
+     */
+    public void setWorkerPartition(int workerIndex, int numWorkers) {
+        algoInstance.setWorkerPartition(workerIndex, numWorkers);
+    }
+
+    /**
+     * Sets whether the symbolic satisfiability checks run concurrently. See {@link
+     * Algo#setParallelSolverChecks(boolean)}.
+     *
+     * @param parallel true to run the independent checks concurrently
+     */
+    public void setParallelSolverChecks(boolean parallel) {
+        algoInstance.setParallelSolverChecks(parallel);
+    }
+
+    /**
+     * Sets the fraction of the maximum heap above which the exploration stack spills to disk. See
+     * {@link ExplorationStack#setSpillWatermark(double)}.
+     *
+     * @param watermark the fraction of the maximum heap, or 0 to keep the stack in memory
+     */
+    public void setStackSpillWatermark(double watermark) {
+        algoInstance.setStackSpillWatermark(watermark);
+    }
+
+    /**
+     * Returns whether the algorithm is guiding the execution along the schedule of an execution
+     * graph, which has one scheduling point per event.
+     */
+    @Override
+    public boolean followsSchedule() {
+        return algoInstance.areWeGuiding();
+    }
+
+    @Override
+    public boolean isExhaustive() {
+        return true;
+    }
+
     public ExecutionGraph getExecutionGraph() {
         return algoInstance.getExecutionGraph();
     }
@@ -35,22 +35,13 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
      * @param index The index of the component to increment.
      */
     public LamportVectorClock(LamportVectorClock other, int index) {
-        if (index >= other.vector.length) {
-            this.vector = new int[index + 1];
-            System.arraycopy(other.vector, 0, this.vector, 0, other.vector.length);
-            other.vector = new int[index + 1];
-            System.arraycopy(this.vector, 0, other.vector, 0, other.vector.length);
-            for (int i = other.vector.length; i < index + 1; i++) {
-                this.vector[i] = 0;
-                other.vector[i] = 0;
-            }
-        } else if (index < 0) {
+        if (index < 0) {
             throw new IllegalArgumentException("Index cannot be negative");
-        } else {
-            this.vector = new int[other.vector.length];
-            System.arraycopy(other.vector, 0, this.vector, 0, other.vector.length);
         }
-        this.vector[index] = other.vector[index] + 1;
+        // Missing components are zero, the other clock is left as it is
+        this.vector = new int[Math.max(index + 1, other.vector.length)];
+        System.arraycopy(other.vector, 0, this.vector, 0, other.vector.length);
+        this.vector[index] = other.component(index) + 1;
     }
 
     /**
@@ -71,33 +62,29 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
         return vector.length;
     }
 
-    private int grow(LamportVectorClock other) {
-        // Can't copy values. Need to initialize zeros here.
-        if (other.vector.length > vector.length) {
-            int[] newVector = new int[other.vector.length];
-            System.arraycopy(this.vector, 0, newVector, 0, this.vector.length);
-            this.vector = newVector;
-            return other.vector.length;
-        } else if (vector.length > other.vector.length) {
-            int[] newVector = new int[vector.length];
-            System.arraycopy(other.vector, 0, newVector, 0, other.vector.length);
-            other.vector = newVector;
-            return this.vector.length;
-        }
-        return this.vector.length;
+    /**
+     * Returns the component at the given index. Components beyond the length of the vector are
+     * zero.
+     */
+    private int component(int index) {
+        return index < vector.length ? vector[index] : 0;
     }
 
     /**
      * Updates the vector clock with the given vector clock.
      *
+     * <p>Only this clock grows if the other one is longer; the other clock is never modified.
+     *
      * @param other The other vector clock.
      */
     public void update(LamportVectorClock other) {
-        grow(other);
-        if (this.vector.length != other.vector.length) {
-            throw new RuntimeException("Vector sizes do not match");
+        if (other.vector.length > vector.length) {
+            // Can't copy values. Need to initialize zeros here.
+            int[] newVector = new int[other.vector.length];
+            System.arraycopy(this.vector, 0, newVector, 0, this.vector.length);
+            this.vector = newVector;
         }
-        for (int i = 0; i < vector.length; i++) {
+        for (int i = 0; i < other.vector.length; i++) {
             this.vector[i] = Math.max(this.vector[i], other.vector[i]);
         }
     }
@@ -105,24 +92,23 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
     /**
      * Checks if this vector clock happens before the other vector clock. (less than or equal to)
      *
+     * <p>Clocks of different lengths are compared as if the shorter one was padded with zeros,
+     * without allocating or modifying either clock.
+     *
      * @param other The other vector clock.
      * @return True if this vector clock happened before the other vector clock, false otherwise.
      */
     public boolean happensBefore(LamportVectorClock other) {
-        boolean happenedBefore = false;
-        boolean happenedAfter = false;
-        int size = this.vector.length;
-        if (vector.length != other.vector.length) {
-            size = grow(other);
+        int size = Math.max(vector.length, other.vector.length);
+        if (size == 0) {
+            return false;
         }
         for (int i = 0; i < size; i++) {
-            if (vector[i] <= other.vector[i]) {
-                happenedBefore = true;
-            } else if (vector[i] > other.vector[i]) {
-                happenedAfter = true;
+            if (component(i) > other.component(i)) {
+                return false;
             }
         }
-        return happenedBefore && !happenedAfter;
+        return true;
     }
 
     /**
@@ -131,11 +117,9 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
      * @return The string representation of the vector clock.
      */
     public boolean equals(LamportVectorClock other) {
-        if (vector.length != other.vector.length) {
-            return false;
-        }
-        for (int i = 0; i < vector.length; i++) {
-            if (vector[i] != other.vector[i]) {
+        int size = Math.max(vector.length, other.vector.length);
+        for (int i = 0; i < size; i++) {
+            if (component(i) != other.component(i)) {
                 return false;
             }
         }
@@ -149,9 +133,9 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
      */
     public int max() {
         int max = 0;
-        for (Integer integer : vector) {
-            if (integer > max) {
-                max = integer;
+        for (int value : vector) {
+            if (value > max) {
+                max = value;
             }
         }
         return max;
@@ -196,8 +180,8 @@ public class LamportVectorClock implements PartialOrder<LamportVectorClock> {
                                 + " and "
                                 + other.index);
             }
-            int t1Component = this.clock.vector[this.index];
-            int t2Component = other.clock.vector[other.index];
+            int t1Component = this.clock.component(this.index);
+            int t2Component = other.clock.component(other.index);
             if (t1Component < t2Component) {
                 return Relation.LT;
             } else if (t1Component > t2Component) {
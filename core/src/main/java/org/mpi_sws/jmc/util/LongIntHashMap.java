@@ -0,0 +1,274 @@
+package org.mpi_sws.jmc.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code long} keys to {@code int} values.
+ *
+ * <p>Uses open addressing with linear probing over two parallel arrays, so that neither the keys
+ * nor the values are boxed. Intended for counting 64-bit fingerprints, where a {@code Map<Long,
+ * Integer>} spends most of its memory and time on boxing. Removal shifts the following entries
+ * of the probe sequence back, so that the table needs no tombstones. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    /** Marks an empty slot; the key {@code 0} is stored separately. */
+    private static final long EMPTY = 0L;
+
+    /** Maximum ratio of used slots before the table grows. */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /** The keys of the slots; {@link #EMPTY} for an empty slot. */
+    private long[] keys;
+
+    /** The values of the slots. */
+    private int[] values;
+
+    /** Number of entries, including the entry for the key {@code 0}. */
+    private int size;
+
+    /** Whether the key {@code 0} is present. */
+    private boolean hasZeroKey;
+
+    /** The value of the key {@code 0}. */
+    private int zeroValue;
+
+    /** Constructs an empty map. */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty map able to hold the given number of entries without growing.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public LongIntHashMap(int expectedSize) {
+        // Smallest power of two holding expectedSize entries within the load factor
+        int slots = Math.max(2, (int) (expectedSize / LOAD_FACTOR));
+        int capacity = Integer.highestOneBit(slots - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key the key
+     * @param defaultValue the value returned if the key is absent
+     * @return the value of the key, or {@code defaultValue} if the key is absent
+     */
+    public int get(long key, int defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = find(keys, key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Checks whether the map contains the given key.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return keys[find(keys, key)] == key;
+    }
+
+    /**
+     * Adds the given delta to the value of the key, inserting the key with value {@code 0} first if
+     * it is absent.
+     *
+     * @param key the key
+     * @param delta the value to add
+     * @return the new value of the key
+     */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue += delta;
+            return zeroValue;
+        }
+        int slot = find(keys, key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * Increments the value of the key, inserting it with value {@code 1} if it is absent.
+     *
+     * @param key the key
+     * @return the new value of the key
+     */
+    public int increment(long key) {
+        return addTo(key, 1);
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @param key the key
+     * @param defaultValue the value returned if the key is absent
+     * @return the value the key had, or {@code defaultValue} if the key is absent
+     */
+    public int remove(long key, int defaultValue) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return defaultValue;
+            }
+            int value = zeroValue;
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            return value;
+        }
+        int slot = find(keys, key);
+        if (keys[slot] != key) {
+            return defaultValue;
+        }
+        int value = values[slot];
+        shiftBack(slot);
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map has no entries.
+     *
+     * @return {@code true} if the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all the entries. */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    /**
+     * Performs the given action for each entry, in no particular order.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(EMPTY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /** Doubles the capacity of the table and rehashes the entries. */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Empties the given slot, moving back the entries after it that would no longer be reachable
+     * from their home slot.
+     *
+     * @param gap the slot to empty
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = (int) mix(key) & mask;
+            // The entry may fill the gap unless its home slot lies between the gap and the slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+    }
+
+    /**
+     * Returns the slot of the key in the table, or the empty slot where it would be inserted.
+     *
+     * @param table the table of keys
+     * @param key the key, different from {@link #EMPTY}
+     * @return the slot of the key
+     */
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the key, so that keys with equal low bits land in different slots.
+     *
+     * @param key the key
+     * @return the mixed key
+     */
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /** An action on an entry of a {@link LongIntHashMap}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs the action on the entry.
+         *
+         * @param key the key of the entry
+         * @param value the value of the entry
+         */
+        void accept(long key, int value);
+    }
+}
@@ -1,8 +1,15 @@
 package org.mpi_sws.jmc.checker;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import org.junit.jupiter.api.Test;
 import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
 import org.mpi_sws.jmc.checker.exceptions.JmcInvalidConfigurationException;
+import org.mpi_sws.jmc.strategies.JmcInvalidStrategyException;
+import org.mpi_sws.jmc.strategies.trust.TrustStrategy;
 
 import java.time.Duration;
 
@@ -28,4 +35,110 @@ public class JmcConfigurationTest {
             // Expected exception
         }
     }
+
+    @Test
+    public void testValidWorkerPartition() {
+        assertDoesNotThrow(
+                () ->
+                        new JmcCheckerConfiguration.Builder()
+                                .numIterations(10)
+                                .workerPartition(3, 4)
+                                .runId("run")
+                                .build());
+    }
+
+    @Test
+    public void testInvalidWorkerPartition() {
+        assertThrows(
+                JmcInvalidConfigurationException.class,
+                () ->
+                        new JmcCheckerConfiguration.Builder()
+                                .numIterations(10)
+                                .workerPartition(4, 4)
+                                .build());
+    }
+
+    @Test
+    public void testSharednessOracleIsRejectedUnderTrust() throws JmcCheckerException {
+        assertThrows(
+                JmcInvalidConfigurationException.class,
+                () ->
+                        new JmcCheckerConfiguration.Builder()
+                                .numIterations(10)
+                                .strategyType("trust")
+                                .sharednessOracle(true)
+                                .build());
+
+        // A trust strategy built by a constructor is only known once it is created
+        JmcCheckerConfiguration config =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(10)
+                        .strategyConstructor(strategyConfig -> new TrustStrategy())
+                        .sharednessOracle(true)
+                        .build();
+        assertThrows(JmcInvalidStrategyException.class, config::toRuntimeConfiguration);
+
+        assertDoesNotThrow(
+                () ->
+                        new JmcCheckerConfiguration.Builder()
+                                .numIterations(10)
+                                .strategyType("random")
+                                .sharednessOracle(true)
+                                .build()
+                                .toRuntimeConfiguration());
+    }
+
+    @Test
+    public void testWorkerRunNeedsRunId() {
+        assertThrows(
+                JmcInvalidConfigurationException.class,
+                () ->
+                        new JmcCheckerConfiguration.Builder()
+                                .numIterations(10)
+                                .strategyType("trust")
+                                .seed(42L)
+                                .workerPartition(0, 2)
+                                .build());
+    }
+
+    @Test
+    public void testWorkersWithoutSeedShareOne() throws JmcCheckerException {
+        JmcCheckerConfiguration first =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(10)
+                        .strategyType("trust")
+                        .workerPartition(0, 2)
+                        .runId("run")
+                        .build();
+        JmcCheckerConfiguration second =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(10)
+                        .strategyType("trust")
+                        .workerPartition(1, 2)
+                        .runId("run")
+                        .build();
+        assertEquals(first.getSeed(), second.getSeed());
+        assertEquals(first.getWorkerSeed(), second.getWorkerSeed());
+    }
+
+    @Test
+    public void testSeedShardedIterations() throws JmcCheckerException {
+        int total = 0;
+        for (int i = 0; i < 3; i++) {
+            JmcCheckerConfiguration config =
+                    new JmcCheckerConfiguration.Builder()
+                            .numIterations(100)
+                            .strategyType("random")
+                            .seed(42L)
+                            .workerPartition(i, 3)
+                            .runId("run")
+                            .build();
+            total += config.getWorkerNumIterations();
+            assertNotEquals(42L, config.getWorkerSeed());
+        }
+        assertEquals(100, total);
+        assertNotEquals(
+                JmcCheckerConfiguration.deriveWorkerSeed(42L, 0),
+                JmcCheckerConfiguration.deriveWorkerSeed(42L, 1));
+    }
 }
@@ -0,0 +1,76 @@
+package org.mpi_sws.jmc.checker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mpi_sws.jmc.annotations.JmcCheck;
+import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
+import org.mpi_sws.jmc.annotations.JmcExpectExecutions;
+import org.mpi_sws.jmc.annotations.strategies.JmcTrustStrategy;
+import org.mpi_sws.jmc.api.util.concurrent.JmcThread;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.programs.correct.counter.Counter;
+import org.mpi_sws.jmc.runtime.HaltCheckerException;
+import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
+import org.mpi_sws.jmc.strategies.tracker.TrackActiveTasksStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Checks that the yielding tasks make the same scheduling decisions as the scheduler thread. */
+public class JmcDirectHandoffTest {
+
+    private void racyCounter(int numThreads) {
+        Counter counter = new Counter();
+        List<JmcThread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            threads.add(new JmcThread(() -> counter.set(counter.get() + 1)));
+        }
+        for (JmcThread thread : threads) {
+            thread.start();
+        }
+        for (JmcThread thread : threads) {
+            try {
+                thread.join1();
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        }
+    }
+
+    // Same program and count as JmcTrustTest#testTrustRacyCounter: handing off directly must not
+    // change the explored executions.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000, directHandoff = true)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(36)
+    public void testTrustRacyCounterDirectHandoff() {
+        racyCounter(3);
+    }
+
+    private static class FailingStrategy extends TrackActiveTasksStrategy {
+        @Override
+        public SchedulingChoice<?> nextTask() {
+            throw HaltCheckerException.error("Failing strategy");
+        }
+    }
+
+    // The failing step runs on the yielding main task, the check must fail instead of waiting for
+    // a task that is never resumed.
+    @Test
+    @Timeout(30)
+    void testStrategyFailureReachesChecker() throws JmcCheckerException {
+        JmcCheckerConfiguration config =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(10)
+                        .directHandoff(true)
+                        .strategyConstructor((sConfig) -> new FailingStrategy())
+                        .build();
+        JmcModelChecker jmc = new JmcModelChecker(config);
+
+        assertThrows(
+                JmcCheckerException.class,
+                () -> jmc.check(new JmcFunctionalTestTarget("FailingProgram", () -> racyCounter(2))));
+    }
+}
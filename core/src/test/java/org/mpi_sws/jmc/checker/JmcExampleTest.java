@@ -2,9 +2,11 @@ package org.mpi_sws.jmc.checker;
 
 import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
 import org.mpi_sws.jmc.annotations.JmcCheck;
+import org.mpi_sws.jmc.annotations.JmcExpectAssertionFailure;
 import org.mpi_sws.jmc.programs.atomic.counter.AtomicCounter;
 import org.mpi_sws.jmc.programs.correct.counter.CorrectCounter;
 import org.mpi_sws.jmc.programs.mockKafka.ShareConsumerTest;
+import org.mpi_sws.jmc.programs.shared.late.LateSharedCell;
 
 @JmcCheckConfiguration(numIterations = 10, strategy = "random")
 public class JmcExampleTest {
@@ -38,4 +40,13 @@ public class JmcExampleTest {
     public void testRandomCorrectCounter() {
         CorrectCounter.main(new String[0]);
     }
+
+    // The writes to the cell are private until the reader reads it, so the first iteration cannot
+    // interleave the read between them. Once the field is learned shared, a later iteration can.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 100, strategy = "random", sharednessOracle = true)
+    @JmcExpectAssertionFailure
+    public void testRandomSharednessOracleLearnsLateSharedCell() {
+        LateSharedCell.main(new String[0]);
+    }
 }
@@ -0,0 +1,105 @@
+package org.mpi_sws.jmc.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.runtime.HaltExecutionException;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/** Checks how the reports of the workers of a run are stored and merged. */
+public class JmcModelCheckerReportTest {
+
+    @TempDir Path reportPath;
+
+    private JmcModelCheckerReport workerReport(int workerIndex, String runId) {
+        JmcModelCheckerReport report =
+                new JmcModelCheckerReport(reportPath.resolve("worker-" + workerIndex).toString());
+        report.setRunId(runId);
+        report.setWorkerIndex(workerIndex);
+        report.setTotalIterations(10 * (workerIndex + 1));
+        report.setBlockedIterations(workerIndex);
+        report.setTotalTimeMillis(100L * (3 - workerIndex));
+        return report;
+    }
+
+    @Test
+    void testMergeCombinesTheWorkers() {
+        JmcModelCheckerReport first = workerReport(0, "run");
+        JmcModelCheckerReport second = workerReport(1, "run");
+        second.setErrorMessage("bug");
+        second.setErrorIteration(7);
+        second.setReplaySeed(42L);
+
+        JmcModelCheckerReport merged =
+                JmcModelCheckerReport.merge(reportPath.toString(), List.of(first, second));
+
+        assertEquals(30, merged.getTotalIterations());
+        assertEquals(1, merged.getBlockedIterations());
+        assertEquals(300L, merged.getTotalTimeMillis());
+        assertEquals("bug", merged.getErrorMessage());
+        assertEquals(7, merged.getErrorIteration());
+        assertEquals(1, merged.getWorkerIndex());
+        assertEquals(42L, merged.getReplaySeed());
+    }
+
+    @Test
+    void testStoredReportsOfEarlierRunsAreNotMerged() {
+        workerReport(0, "current").store();
+        workerReport(1, "earlier").store();
+        assertNull(JmcModelCheckerReport.mergeWorkerReports(reportPath.toString(), 2, "current"));
+
+        workerReport(1, "current").store();
+        JmcModelCheckerReport merged =
+                JmcModelCheckerReport.mergeWorkerReports(reportPath.toString(), 2, "current");
+        assertNotNull(merged);
+        assertEquals(30, merged.getTotalIterations());
+        assertNull(merged.getErrorMessage());
+    }
+
+    // The last worker to finish stores the merged report, with the bug found by the other one
+    @Test
+    void testLastWorkerStoresTheMergedReport() throws JmcCheckerException {
+        int[] invocations = new int[1];
+        assertThrows(
+                JmcCheckerException.class,
+                () ->
+                        new JmcModelChecker(worker(0))
+                                .check(
+                                        new JmcFunctionalTestTarget(
+                                                "Buggy",
+                                                () -> {
+                                                    if (++invocations[0] == 5) {
+                                                        throw HaltExecutionException.error("bug");
+                                                    }
+                                                })));
+        assertNull(JmcModelCheckerReport.read(reportPath.resolve("report.json")));
+
+        new JmcModelChecker(worker(1)).check(new JmcFunctionalTestTarget("Empty", () -> {}));
+
+        JmcModelCheckerReport merged =
+                JmcModelCheckerReport.read(reportPath.resolve("report.json"));
+        assertNotNull(merged);
+        assertEquals("run", merged.getRunId());
+        assertEquals(0, merged.getWorkerIndex());
+        assertTrue(merged.getErrorMessage().contains("bug"), merged.getErrorMessage());
+    }
+
+    private JmcCheckerConfiguration worker(int workerIndex) throws JmcCheckerException {
+        return new JmcCheckerConfiguration.Builder()
+                .numIterations(200)
+                .strategyType("random")
+                .seed(42L)
+                .reportPath(reportPath.toString())
+                .workerPartition(workerIndex, 2)
+                .runId("run")
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package org.mpi_sws.jmc.checker;
+
+import org.mpi_sws.jmc.annotations.JmcCheck;
+import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
+import org.mpi_sws.jmc.annotations.JmcExpectExecutions;
+import org.mpi_sws.jmc.annotations.strategies.JmcTrustStrategy;
+import org.mpi_sws.jmc.api.symbolic.SymbolicFormula;
+import org.mpi_sws.jmc.api.symbolic.integer.ArithmeticFormula;
+import org.mpi_sws.jmc.api.symbolic.integer.SymbolicInteger;
+import org.mpi_sws.jmc.api.util.concurrent.JmcThread;
+import org.mpi_sws.jmc.programs.correct.counter.Counter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Checks the symbolic exploration of the trust strategy. */
+public class JmcSymbolicTest {
+
+    // Thread i increments the counter if the shared symbolic integer is at least i + 1.
+    private void symbolicCounter(int numThreads) {
+        Counter counter = new Counter();
+        SymbolicInteger x = new SymbolicInteger("x");
+        List<JmcThread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            int bound = i + 1;
+            threads.add(
+                    new JmcThread(
+                            () -> {
+                                int count = counter.get();
+                                ArithmeticFormula formula = new ArithmeticFormula();
+                                if (new SymbolicFormula().evaluate(formula.geq(x, bound))) {
+                                    counter.set(count + 1);
+                                }
+                            }));
+        }
+        for (JmcThread thread : threads) {
+            thread.start();
+        }
+        for (JmcThread thread : threads) {
+            try {
+                thread.join1();
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        }
+    }
+
+    // Either no thread increments the counter (one execution), only the first one does (the second
+    // reads the counter before or after, two executions) or both do and race (four executions).
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000)
+    @JmcTrustStrategy(solver = "smtinterpol")
+    @JmcExpectExecutions(7)
+    public void testTrustSymbolicCounter() {
+        symbolicCounter(2);
+    }
+
+    // The checks of both polarities of a branch run concurrently on provers of their own. The
+    // exploration is the same as with sequential checks.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000, parallelSolverChecks = true)
+    @JmcTrustStrategy(solver = "smtinterpol")
+    @JmcExpectExecutions(7)
+    public void testTrustSymbolicCounterParallelChecks() {
+        symbolicCounter(2);
+    }
+}
@@ -0,0 +1,165 @@
+package org.mpi_sws.jmc.checker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mpi_sws.jmc.annotations.JmcCheck;
+import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
+import org.mpi_sws.jmc.annotations.JmcExpectExecutions;
+import org.mpi_sws.jmc.annotations.strategies.JmcTrustStrategy;
+import org.mpi_sws.jmc.api.util.concurrent.JmcAtomicInteger;
+import org.mpi_sws.jmc.api.util.concurrent.JmcThread;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.programs.atomic.counter.AtomicCounter;
+import org.mpi_sws.jmc.programs.correct.counter.Counter;
+import org.mpi_sws.jmc.programs.det.stack.Client1;
+import org.mpi_sws.jmc.strategies.JmcInvalidStrategyException;
+import org.mpi_sws.jmc.strategies.SchedulingStrategyFactory;
+import org.mpi_sws.jmc.strategies.trust.MeasureGraphCoverageStrategy;
+import org.mpi_sws.jmc.strategies.trust.MeasureGraphCoverageStrategyConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks the number of executions the trust strategy explores on small programs. */
+public class JmcTrustTest {
+
+    private void racyCounter(int numThreads) {
+        Counter counter = new Counter();
+        List<JmcThread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            threads.add(new JmcThread(() -> counter.set(counter.get() + 1)));
+        }
+        for (JmcThread thread : threads) {
+            thread.start();
+        }
+        for (JmcThread thread : threads) {
+            try {
+                thread.join1();
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        }
+    }
+
+    // Forward revisits of a read restrict the graph to the events added before the read, which
+    // can drop a write that an earlier read reads from. All the vector clocks are recomputed then.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(36)
+    public void testTrustRacyCounter() {
+        racyCounter(3);
+    }
+
+    // Each compare-and-set is one read-modify-write: the thread that goes second reads the write
+    // of the first one and fails.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(2)
+    public void testTrustAtomicCounter() {
+        AtomicCounter.main(new String[0]);
+    }
+
+    // Three concurrent pushes on a Treiber stack. A failed compare-and-set only reads the top, so
+    // each consistent graph is explored once.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(60)
+    public void testTrustLockFreeStack() {
+        Client1.main(new String[0]);
+    }
+
+    // The compare-and-set first fails reading the initial value, then the write of the other task
+    // revisits its read and it succeeds. The revisit derives the outcome from the value read, so
+    // the graph gets the write the replayed update performs.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 1000)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(2)
+    public void testTrustRevisitedCompareAndSet() {
+        JmcAtomicInteger value = new JmcAtomicInteger(0);
+        boolean[] updated = new boolean[1];
+        JmcThread updater = new JmcThread(() -> updated[0] = value.compareAndSet(1, 2));
+        JmcThread writer = new JmcThread(() -> value.set(1));
+        updater.start();
+        writer.start();
+        try {
+            updater.join1();
+            writer.join1();
+        } catch (InterruptedException e) {
+            // Ignore
+        }
+        assertEquals(updated[0] ? 2 : 1, value.get());
+    }
+
+    @TempDir Path recordPath;
+
+    /**
+     * Explores the racy counter as the given worker and returns the fingerprints of the execution
+     * graphs it covered.
+     */
+    private Set<Long> exploredGraphs(int workerIndex, int workers)
+            throws JmcCheckerException, IOException {
+        Path workerRecordPath = recordPath.resolve("worker-" + workerIndex);
+        MeasureGraphCoverageStrategyConfig measureConfig =
+                MeasureGraphCoverageStrategyConfig.builder()
+                        .recordGraphs(true)
+                        .recordPath(workerRecordPath.toString())
+                        .recordPerIteration()
+                        .build();
+        JmcCheckerConfiguration config =
+                new JmcCheckerConfiguration.Builder()
+                        .numIterations(1000)
+                        .strategyConstructor(
+                                (strategyConfig) -> {
+                                    try {
+                                        return new MeasureGraphCoverageStrategy(
+                                                SchedulingStrategyFactory.createSchedulingStrategy(
+                                                        "trust", strategyConfig),
+                                                measureConfig);
+                                    } catch (JmcInvalidStrategyException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                })
+                        .seed(42L)
+                        .reportPath(recordPath.resolve("report").toString())
+                        .workerPartition(workerIndex, workers)
+                        .runId("partition")
+                        .build();
+        new JmcModelChecker(config)
+                .check(new JmcFunctionalTestTarget("RacyCounter", () -> racyCounter(3)));
+
+        Set<Long> graphs = new HashSet<>();
+        for (String line : Files.readAllLines(workerRecordPath.resolve("hash_coverage.txt"))) {
+            graphs.add(Long.parseUnsignedLong(line.substring(0, line.indexOf(':')), 16));
+        }
+        // The iteration that finds the exploration stack empty records the empty graph
+        graphs.remove(0L);
+        return graphs;
+    }
+
+    // Every worker explores the executions above the split depth, and each branch at that depth is
+    // explored by exactly one worker: together the workers cover exactly the sequential graphs.
+    @Test
+    void testTrustWorkerPartition() throws JmcCheckerException, IOException {
+        Set<Long> sequential = exploredGraphs(0, 1);
+        assertEquals(36, sequential.size());
+        Set<Long> union = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Set<Long> explored = exploredGraphs(i, 3);
+            assertTrue(explored.size() < sequential.size(), "Worker " + i + " explored the whole tree");
+            union.addAll(explored);
+        }
+        assertEquals(sequential, union);
+    }
+}
@@ -0,0 +1,98 @@
+package org.mpi_sws.jmc.checker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.runtime.HaltExecutionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Checks how the workers of a seed-sharded run use the marker of the first bug found. */
+public class JmcWorkerBugMarkerTest {
+
+    @TempDir Path reportPath;
+
+    private JmcCheckerConfiguration worker(int workerIndex, String runId, int numIterations)
+            throws JmcCheckerException {
+        return new JmcCheckerConfiguration.Builder()
+                .numIterations(numIterations)
+                .strategyType("random")
+                .seed(42L)
+                .reportPath(reportPath.toString())
+                .workerPartition(workerIndex, 2)
+                .runId(runId)
+                .build();
+    }
+
+    // A marker left by an earlier run carries another run id: the worker runs all its iterations
+    // and leaves the marker alone.
+    @Test
+    void testMarkerOfEarlierRunIsIgnored() throws IOException, JmcCheckerException {
+        Path marker = reportPath.resolve("worker-bug-found.txt");
+        Files.writeString(marker, "run=earlier seed=42\nworker=1 seed=0 iteration=0\n");
+
+        JmcCheckerConfiguration config = worker(0, "current", 400);
+        JmcModelCheckerReport report =
+                new JmcModelChecker(config).check(new JmcFunctionalTestTarget("Empty", () -> {}));
+
+        assertTrue(Files.exists(marker));
+        assertEquals(config.getWorkerNumIterations() - 1, report.getTotalIterations());
+    }
+
+    // Another worker of the run records a bug during the run: the worker stops at the next poll.
+    @Test
+    void testMarkerStopsWorker() throws JmcCheckerException {
+        Path marker = reportPath.resolve("worker-bug-found.txt");
+        int[] invocations = new int[1];
+        JmcCheckerConfiguration config = worker(0, "current", 800);
+        JmcModelCheckerReport report =
+                new JmcModelChecker(config)
+                        .check(
+                                new JmcFunctionalTestTarget(
+                                        "SignalledByOtherWorker",
+                                        () -> {
+                                            if (++invocations[0] == 150) {
+                                                try {
+                                                    Files.writeString(
+                                                            marker, "run=current seed=42\n");
+                                                } catch (IOException e) {
+                                                    throw new RuntimeException(e);
+                                                }
+                                            }
+                                        }));
+
+        // The marker is polled every 100 iterations
+        assertEquals(199, report.getTotalIterations());
+    }
+
+    // Worker 1 finds a bug before worker 0 starts: worker 0 still sees the marker and stops.
+    @Test
+    void testWorkerStartingAfterSignalStops() throws JmcCheckerException {
+        int[] invocations = new int[1];
+        assertThrows(
+                JmcCheckerException.class,
+                () ->
+                        new JmcModelChecker(worker(1, "current", 800))
+                                .check(
+                                        new JmcFunctionalTestTarget(
+                                                "Buggy",
+                                                () -> {
+                                                    if (++invocations[0] == 10) {
+                                                        throw HaltExecutionException.error("bug");
+                                                    }
+                                                })));
+        assertTrue(Files.exists(reportPath.resolve("worker-bug-found.txt")));
+
+        JmcModelCheckerReport report =
+                new JmcModelChecker(worker(0, "current", 800))
+                        .check(new JmcFunctionalTestTarget("Empty", () -> {}));
+
+        assertEquals(99, report.getTotalIterations());
+    }
+}
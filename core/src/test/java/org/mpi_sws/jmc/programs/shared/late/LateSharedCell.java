@@ -0,0 +1,57 @@
+package org.mpi_sws.jmc.programs.shared.late;
+
+import org.mpi_sws.jmc.api.util.concurrent.JmcThread;
+import org.mpi_sws.jmc.runtime.JmcRuntimeUtils;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * A cell that only the writer accesses until the reader reads it. The cell is not written on
+ * construction, so the location is private to the writer until the read.
+ */
+public class LateSharedCell {
+    private int value;
+
+    public int get() {
+        int out = value;
+        JmcRuntimeUtils.readEvent(
+                "org/mpi_sws/jmc/programs/shared/late/LateSharedCell", "value", "I", this);
+        return out;
+    }
+
+    public void set(int value) {
+        this.value = value;
+        JmcRuntimeUtils.writeEvent(
+                value, "org/mpi_sws/jmc/programs/shared/late/LateSharedCell", "value", "I", this);
+    }
+
+    /**
+     * Runs a writer that sets the cell to 1 and back to 0, and a reader of the cell.
+     *
+     * @return the value read by the reader
+     */
+    public static int run() {
+        LateSharedCell cell = new LateSharedCell();
+        int[] read = new int[1];
+        JmcThread writer =
+                new JmcThread(
+                        () -> {
+                            cell.set(1);
+                            cell.set(0);
+                        });
+        JmcThread reader = new JmcThread(() -> read[0] = cell.get());
+        writer.start();
+        reader.start();
+        try {
+            writer.join1();
+            reader.join1();
+        } catch (InterruptedException e) {
+            System.out.println("Interrupted");
+        }
+        return read[0];
+    }
+
+    public static void main(String[] args) {
+        assertNotEquals(1, run(), "The reader saw the intermediate value of the cell");
+    }
+}
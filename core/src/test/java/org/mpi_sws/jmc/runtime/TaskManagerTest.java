@@ -0,0 +1,153 @@
+package org.mpi_sws.jmc.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class TaskManagerTest {
+
+    /** Waits on the pause of the task from another thread. */
+    private static CompletableFuture<Object> waitInBackground(TaskManager manager, Long taskId) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Thread waiter =
+                new Thread(
+                        () -> {
+                            try {
+                                result.complete(manager.wait(taskId));
+                            } catch (Throwable e) {
+                                result.completeExceptionally(e);
+                            }
+                        });
+        waiter.start();
+        return result;
+    }
+
+    @Test
+    public void slotsGrowPastTheFirstTasks() throws Exception {
+        TaskManager manager = new TaskManager();
+        for (long i = 1; i <= 100; i++) {
+            assertEquals(i, manager.addNextTask());
+        }
+        assertEquals(100, manager.size());
+        assertEquals(TaskManager.TaskState.CREATED, manager.getStatus(100L));
+        assertNull(manager.getStatus(101L));
+
+        // A task marked ahead of the next ID grows the slots and leaves a gap of unknown tasks
+        manager.markStatus(300L, TaskManager.TaskState.RUNNING);
+        assertNull(manager.getStatus(200L));
+        assertEquals(List.of(300L), manager.findTasksWithStatus(TaskManager.TaskState.RUNNING));
+        assertEquals(101, manager.size());
+
+        // The slots of the first tasks survive the growth
+        manager.pause(1L);
+        CompletableFuture<Object> resumed = waitInBackground(manager, 1L);
+        manager.markStatus(1000L, TaskManager.TaskState.CREATED);
+        manager.resume(1L, "value");
+        assertEquals("value", resumed.get(10, TimeUnit.SECONDS));
+        assertEquals(TaskManager.TaskState.RUNNING, manager.getStatus(1L));
+    }
+
+    @Test
+    public void pauseIsReusedAfterEachResume() throws Exception {
+        TaskManager manager = new TaskManager();
+        Long task = manager.addNextTask();
+        for (int i = 0; i < 3; i++) {
+            manager.pause(task);
+            assertEquals(TaskManager.TaskState.BLOCKED, manager.getStatus(task));
+            assertThrows(TaskAlreadyPaused.class, () -> manager.pause(task));
+            CompletableFuture<Object> resumed = waitInBackground(manager, task);
+            manager.resume(task, i);
+            assertEquals(i, resumed.get(10, TimeUnit.SECONDS));
+        }
+        // The last pause has been consumed
+        assertThrows(TaskNotExists.class, () -> manager.resume(task));
+        assertNull(manager.wait(task));
+    }
+
+    @Test
+    public void terminateCompletesThePauseAndTheSlotIsReused() throws Exception {
+        TaskManager manager = new TaskManager();
+        Long main = manager.addNextTask();
+        Long task = manager.addNextTask();
+        manager.pause(task);
+        CompletableFuture<Object> released = waitInBackground(manager, task);
+
+        manager.terminate(task);
+        assertNull(released.get(10, TimeUnit.SECONDS));
+        assertEquals(TaskManager.TaskState.TERMINATED, manager.getStatus(task));
+        assertEquals(List.of(main), manager.getActiveTasks());
+        assertThrows(TaskNotExists.class, () -> manager.resume(task));
+
+        // The IDs start over in the next iteration and the terminated slot is a fresh task again
+        manager.reset();
+        assertEquals(main, manager.addNextTask());
+        assertEquals(task, manager.addNextTask());
+        assertEquals(TaskManager.TaskState.CREATED, manager.getStatus(task));
+        manager.pause(task);
+        CompletableFuture<Object> resumed = waitInBackground(manager, task);
+        manager.resume(task, "again");
+        assertEquals("again", resumed.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void resetReleasesAndClearsEverySlot() throws Exception {
+        TaskManager manager = new TaskManager();
+        for (int i = 0; i < 40; i++) {
+            manager.addNextTask();
+        }
+        manager.pause(7L);
+        manager.pause(40L);
+        CompletableFuture<Object> waiting = waitInBackground(manager, 40L);
+        manager.markStatus(3L, TaskManager.TaskState.TERMINATED);
+        manager.markStatus(5L, TaskManager.TaskState.RUNNING);
+
+        manager.reset();
+
+        // The pending pauses are completed, so no thread stays parked across iterations
+        assertNull(waiting.get(10, TimeUnit.SECONDS));
+        assertEquals(0, manager.size());
+        assertTrue(manager.getActiveTasks().isEmpty());
+        for (TaskManager.TaskState state : TaskManager.TaskState.values()) {
+            assertTrue(manager.findTasksWithStatus(state).isEmpty());
+        }
+        for (long task = 1; task <= 40; task++) {
+            assertNull(manager.getStatus(task));
+            assertFalse(manager.isTaskOfStatus(task, TaskManager.TaskState.BLOCKED));
+        }
+        assertEquals(-1L, manager.doNextStop());
+        assertEquals(1L, manager.addNextTask());
+    }
+
+    @Test
+    public void stopTaskUnwindsTheTasksInDescendingOrder() throws Exception {
+        TaskManager manager = new TaskManager();
+        for (int i = 0; i < 3; i++) {
+            manager.addNextTask();
+        }
+        for (long task = 1; task <= 3; task++) {
+            manager.markStatus(task, TaskManager.TaskState.RUNNING);
+            manager.pause(task);
+        }
+        for (long expected = 3; expected >= 1; expected--) {
+            Long task = manager.doNextStop();
+            assertEquals(expected, task);
+            CompletableFuture<Object> unwound = waitInBackground(manager, task);
+            manager.stopTask(task);
+            ExecutionException e =
+                    assertThrows(
+                            ExecutionException.class, () -> unwound.get(10, TimeUnit.SECONDS));
+            assertTrue(((HaltExecutionException) e.getCause()).isReexecutionNeeded());
+            manager.terminate(task);
+        }
+        assertEquals(-1L, manager.doNextStop());
+    }
+}
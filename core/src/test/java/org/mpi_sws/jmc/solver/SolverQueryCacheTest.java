@@ -0,0 +1,114 @@
+package org.mpi_sws.jmc.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.solver.incremental.IncrementalSolver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SolverQueryCacheTest {
+
+    private static final SolverQueryCache.Result SAT = new SolverQueryCache.Result(true, List.of());
+    private static final SolverQueryCache.Result UNSAT =
+            new SolverQueryCache.Result(false, List.of());
+
+    private IncrementalSolver solver;
+    private BooleanFormula a;
+    private BooleanFormula b;
+    private BooleanFormula c;
+
+    @BeforeEach
+    public void setUp() {
+        // SMTInterpol is written in Java and needs no native library
+        solver = new IncrementalSolver(SMTSolverTypes.SMTINTERPOL);
+        IntegerFormulaManager imgr = solver.getImgr();
+        IntegerFormula x = imgr.makeVariable("x");
+        a = imgr.greaterThan(x, imgr.makeNumber(0));
+        b = imgr.lessThan(x, imgr.makeNumber(10));
+        c = imgr.equal(x, imgr.makeNumber(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        solver.close();
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        SolverQueryCache cache = new SolverQueryCache();
+        assertNull(cache.get(Set.of(a)));
+        cache.put(Set.of(a), SAT);
+        assertSame(SAT, cache.get(Set.of(a)));
+        assertSame(SAT, cache.get(Set.of(a)));
+        assertNull(cache.get(Set.of(a, b)));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void keysIgnoreTheOrderOfTheFormulas() {
+        SolverQueryCache cache = new SolverQueryCache();
+        Set<BooleanFormula> pushed = new LinkedHashSet<>(List.of(a, b, c));
+        cache.put(pushed, UNSAT);
+
+        // A sibling branch pushes the same constraints, equal but separately built, in reverse
+        IntegerFormulaManager imgr = solver.getImgr();
+        IntegerFormula x = imgr.makeVariable("x");
+        Set<BooleanFormula> reversed =
+                new LinkedHashSet<>(
+                        List.of(
+                                imgr.equal(x, imgr.makeNumber(5)),
+                                imgr.lessThan(x, imgr.makeNumber(10)),
+                                imgr.greaterThan(x, imgr.makeNumber(0))));
+        assertSame(UNSAT, cache.get(reversed));
+        assertNull(cache.get(Set.of(a, b)));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedQuery() {
+        SolverQueryCache cache = new SolverQueryCache(2);
+        BooleanFormulaManager bmgr = solver.getBmgr();
+        Set<BooleanFormula> first = Set.of(a);
+        Set<BooleanFormula> second = Set.of(b);
+        Set<BooleanFormula> third = Set.of(bmgr.and(a, c));
+        cache.put(first, SAT);
+        cache.put(second, SAT);
+
+        // Looking up the first query makes the second one the least recently used
+        assertNotNull(cache.get(first));
+        cache.put(third, SAT);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    @Test
+    public void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SolverQueryCache(0));
+    }
+}
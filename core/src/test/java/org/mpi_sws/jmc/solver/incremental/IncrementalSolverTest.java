@@ -0,0 +1,72 @@
+package org.mpi_sws.jmc.solver.incremental;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.api.symbolic.bool.JmcBooleanFormula;
+import org.mpi_sws.jmc.solver.SMTSolverTypes;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.IntegerFormulaManager;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+public class IncrementalSolverTest {
+
+    @Test
+    public void cacheHitClearsTheModelOfTheLastQuery() {
+        IncrementalSolver solver = new IncrementalSolver(SMTSolverTypes.SMTINTERPOL);
+        try {
+            IntegerFormulaManager imgr = solver.getImgr();
+            IntegerFormula x = imgr.makeVariable("x");
+            BooleanFormula positive = imgr.greaterThan(x, imgr.makeNumber(0));
+            BooleanFormula large = imgr.greaterThan(x, imgr.makeNumber(100));
+
+            assertTrue(solver.solve(positive));
+            solver.pop();
+            assertTrue(solver.solve(large));
+            assertNotNull(solver.getModel());
+            solver.pop();
+
+            // Answered from the cache: the model of the query for large values must not remain
+            assertTrue(solver.solve(positive));
+            assertEquals(1, solver.getQueryCache().getHits());
+            assertNull(solver.getModel());
+            solver.pop();
+        } finally {
+            solver.close();
+        }
+    }
+
+    @Test
+    public void parallelSatResultIsSolvedAgainForItsModel() {
+        IncrementalSolver solver = new IncrementalSolver(SMTSolverTypes.SMTINTERPOL);
+        try {
+            IntegerFormulaManager imgr = solver.getImgr();
+            IntegerFormula x = imgr.makeVariable("x");
+            BooleanFormula large = imgr.greaterThan(x, imgr.makeNumber(100));
+            JmcBooleanFormula formula = new JmcBooleanFormula();
+            formula.setFormula(large);
+
+            solver.setParallelChecks(true);
+            assertArrayEquals(new boolean[] {true, true}, solver.checkPolarities(formula));
+            // The pool only tells satisfiable queries apart, their models stay in its contexts
+            assertNull(solver.getQueryCache().get(Set.of(large)).model());
+
+            // A sequential query for the same formulas needs a model of this context
+            assertTrue(solver.solve(large));
+            assertNotNull(solver.getModel());
+            BigInteger value = solver.getModel().evaluate(x);
+            assertTrue(value.compareTo(BigInteger.valueOf(100)) > 0);
+            assertNotNull(solver.getQueryCache().get(Set.of(large)).model());
+            solver.pop();
+        } finally {
+            solver.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.mpi_sws.jmc.strategies.coverage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.checker.exceptions.JmcCheckerException;
+import org.mpi_sws.jmc.runtime.HaltCheckerException;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link CoverageGuidedSchedulingStrategy} that exercise the scheduling decisions
+ * and the saturation check in isolation.
+ *
+ * <p>As in the POS tests, a {@link TestableCoverage} subclass overrides {@link
+ * CoverageGuidedSchedulingStrategy#getActiveTasks()} to inject a controlled active set.
+ */
+public class CoverageGuidedSchedulingStrategyTest {
+
+    private static final String REPORT_PATH = "build/test-results/jmc-report-test";
+
+    /** A test seam over {@link CoverageGuidedSchedulingStrategy} with an injectable active set. */
+    private static final class TestableCoverage extends CoverageGuidedSchedulingStrategy {
+        private Set<Long> active = new HashSet<>();
+
+        TestableCoverage(long seed, int saturationWindow) {
+            this(seed, REPORT_PATH, saturationWindow);
+        }
+
+        TestableCoverage(long seed, String reportPath, int saturationWindow) {
+            super(seed, reportPath, saturationWindow);
+        }
+
+        @Override
+        protected Set<Long> getActiveTasks() {
+            return new HashSet<>(active);
+        }
+
+        void setActive(Long... ids) {
+            this.active = new HashSet<>(Arrays.asList(ids));
+        }
+
+        /** Invokes {@link #nextTask()} and returns the chosen task id (or {@code null}). */
+        Long pick() {
+            SchedulingChoice<?> choice = nextTask();
+            return choice == null ? null : choice.getTaskId();
+        }
+
+        /**
+         * Picks a task and lets it write a shared field. The coherence order of the writes, and so
+         * the execution graph, records the order of the picks.
+         */
+        Long pickAndWrite() {
+            Long task = pick();
+            updateEvent(
+                    new JmcRuntimeEvent.Builder()
+                            .type(JmcRuntimeEvent.Type.WRITE_EVENT)
+                            .taskId(task)
+                            .param("newValue", 0)
+                            .param("owner", "Shared")
+                            .param("name", "value")
+                            .param("descriptor", "I")
+                            .build());
+            return task;
+        }
+    }
+
+    private static JmcModelCheckerReport report() {
+        return new JmcModelCheckerReport(REPORT_PATH);
+    }
+
+    @Test
+    public void emptyActiveSetReturnsNull() {
+        TestableCoverage strategy = new TestableCoverage(1L, 0);
+        strategy.setActive();
+        strategy.initIteration(0, report());
+        assertEquals(null, strategy.pick());
+    }
+
+    @Test
+    public void picksAnActiveTask() {
+        TestableCoverage strategy = new TestableCoverage(3L, 0);
+        strategy.setActive(1L, 2L, 3L);
+        strategy.initIteration(0, report());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(Set.of(1L, 2L, 3L).contains(strategy.pick()));
+        }
+    }
+
+    @Test
+    public void repeatedGraphsSaturateTheCoverage() {
+        TestableCoverage strategy = new TestableCoverage(5L, 3);
+        strategy.setActive(1L);
+        // Without events, every iteration produces the same empty graph
+        for (int i = 0; i < 4; i++) {
+            strategy.initIteration(i, report());
+            strategy.pick();
+            strategy.resetIteration(i);
+        }
+        assertEquals(1, strategy.getCoveredGraphs());
+        HaltCheckerException e =
+                assertThrows(HaltCheckerException.class, () -> strategy.initIteration(4, report()));
+        assertTrue(e.isOkay());
+    }
+
+    @Test
+    public void sameSeedGivesTheSameSchedules() {
+        assertEquals(schedules(11L), schedules(11L));
+    }
+
+    private static List<Long> schedules(long seed) {
+        TestableCoverage strategy = new TestableCoverage(seed, 0);
+        strategy.setActive(1L, 2L, 3L);
+        List<Long> picks = new ArrayList<>();
+        for (int iteration = 0; iteration < 5; iteration++) {
+            strategy.initIteration(iteration, report());
+            for (int i = 0; i < 10; i++) {
+                picks.add(strategy.pick());
+            }
+            strategy.resetIteration(iteration);
+        }
+        return picks;
+    }
+
+    // Iterations that start with task 2 always produce the same graph, while those that start
+    // with task 1 keep producing new ones. The statistics of the first decision steer towards 1.
+    @Test
+    public void newCoverageIsFavoured() {
+        TestableCoverage strategy = new TestableCoverage(13L, 0);
+        strategy.setActive(1L, 2L);
+        int startsWithOne = 0;
+        int iterations = 300;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            strategy.initIteration(iteration, report());
+            if (strategy.pickAndWrite() == 1L) {
+                startsWithOne++;
+                for (int i = 0; i < 12; i++) {
+                    strategy.pickAndWrite();
+                }
+            }
+            strategy.resetIteration(iteration);
+        }
+        assertTrue(
+                startsWithOne > iterations * 3 / 4,
+                "Only " + startsWithOne + " of " + iterations + " iterations started with task 1");
+    }
+
+    // Every schedule produces a new graph, so the choice statistics stay uniform. Independent
+    // schedules of 3 tasks share a prefix of 15 picks with a probability of about 3^-15. A mutated
+    // iteration replays a prefix of a schedule of the corpus, of a random length up to 40.
+    @Test
+    public void mutationsReplayAPrefixOfTheCorpus() {
+        TestableCoverage strategy = new TestableCoverage(17L, 0);
+        strategy.setActive(1L, 2L, 3L);
+        List<List<Long>> schedules = new ArrayList<>();
+        int longSharedPrefixes = 0;
+        for (int iteration = 0; iteration < 200; iteration++) {
+            strategy.initIteration(iteration, report());
+            List<Long> schedule = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                schedule.add(strategy.pickAndWrite());
+            }
+            strategy.resetIteration(iteration);
+            int sharedPrefix = 0;
+            for (List<Long> earlier : schedules) {
+                int length = 0;
+                while (length < 40 && earlier.get(length).equals(schedule.get(length))) {
+                    length++;
+                }
+                sharedPrefix = Math.max(sharedPrefix, length);
+            }
+            if (sharedPrefix >= 15) {
+                longSharedPrefixes++;
+            }
+            schedules.add(schedule);
+        }
+        // About half the iterations mutate, and most of them at a point past 15
+        assertTrue(
+                longSharedPrefixes > 30,
+                "Only " + longSharedPrefixes + " schedules share a long prefix");
+        assertEquals(200, strategy.getCoveredGraphs());
+    }
+
+    // The choices of an iteration depend on the earlier iterations, a fresh strategy reproduces
+    // them from the recorded trace only.
+    @Test
+    public void recordedTraceIsReplayed(@TempDir Path reportPath) throws JmcCheckerException {
+        TestableCoverage strategy = new TestableCoverage(19L, reportPath.toString(), 0);
+        strategy.setActive(1L, 2L, 3L);
+        List<Long> last = new ArrayList<>();
+        for (int iteration = 0; iteration < 20; iteration++) {
+            strategy.initIteration(iteration, report());
+            last.clear();
+            for (int i = 0; i < 8; i++) {
+                last.add(strategy.pickAndWrite());
+            }
+            if (iteration < 19) {
+                strategy.resetIteration(iteration);
+            }
+        }
+        strategy.recordTrace();
+
+        TestableCoverage replay = new TestableCoverage(23L, reportPath.toString(), 0);
+        replay.setActive(1L, 2L, 3L);
+        replay.replayRecordedTrace();
+        replay.initIteration(0, report());
+        assertTrue(replay.followsSchedule());
+        List<Long> replayed = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            replayed.add(replay.pickAndWrite());
+        }
+        assertEquals(last, replayed);
+        assertTrue(!replay.followsSchedule());
+    }
+}
@@ -0,0 +1,159 @@
+package org.mpi_sws.jmc.strategies.pos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.checker.JmcModelCheckerReport;
+import org.mpi_sws.jmc.runtime.JmcFieldAccessEvent;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+import org.mpi_sws.jmc.runtime.scheduling.SchedulingChoice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link POSSchedulingStrategy} that exercise the priority updates in isolation.
+ *
+ * <p>As in the PCT tests, a {@link TestablePOS} subclass overrides {@link
+ * POSSchedulingStrategy#getActiveTasks()} to inject a controlled active set, and the events are
+ * fed directly to {@link POSSchedulingStrategy#updateEvent(JmcRuntimeEvent)}.
+ */
+public class POSSchedulingStrategyTest {
+
+    private static final String REPORT_PATH = "build/test-results/jmc-report-test";
+
+    private static final String OWNER = "org/mpi_sws/jmc/test/Shared";
+
+    /** A test seam over {@link POSSchedulingStrategy} with an injectable active set. */
+    private static final class TestablePOS extends POSSchedulingStrategy {
+        private Set<Long> active = new HashSet<>();
+
+        TestablePOS(long seed) {
+            super(seed, REPORT_PATH);
+        }
+
+        @Override
+        protected Set<Long> getActiveTasks() {
+            return new HashSet<>(active);
+        }
+
+        void setActive(Long... ids) {
+            this.active = new HashSet<>(Arrays.asList(ids));
+        }
+
+        /** Invokes {@link #nextTask()} and returns the chosen task id (or {@code null}). */
+        Long pick() {
+            SchedulingChoice<?> choice = nextTask();
+            return choice == null ? null : choice.getTaskId();
+        }
+    }
+
+    private static JmcModelCheckerReport report() {
+        return new JmcModelCheckerReport(REPORT_PATH);
+    }
+
+    private static JmcRuntimeEvent read(Long taskId, String field) {
+        return new JmcFieldAccessEvent(
+                JmcRuntimeEvent.Type.READ_EVENT, taskId, null, OWNER, field, "I", null, null);
+    }
+
+    private static JmcRuntimeEvent write(Long taskId, String field) {
+        return new JmcFieldAccessEvent(
+                JmcRuntimeEvent.Type.WRITE_EVENT, taskId, null, OWNER, field, "I", null, 1);
+    }
+
+    private static TestablePOS started(long seed, Long... activeIds) {
+        TestablePOS strategy = new TestablePOS(seed);
+        strategy.setActive(activeIds);
+        strategy.initIteration(0, report());
+        strategy.pick();
+        return strategy;
+    }
+
+    @Test
+    public void emptyActiveSetReturnsNull() {
+        TestablePOS strategy = new TestablePOS(1L);
+        strategy.setActive();
+        strategy.initIteration(0, report());
+        assertEquals(null, strategy.pick());
+    }
+
+    @Test
+    public void picksTheTaskOfMaximalPriority() {
+        TestablePOS strategy = started(3L, 1L, 2L, 3L);
+        Long best = null;
+        for (Long task : List.of(1L, 2L, 3L)) {
+            if (best == null || strategy.getPriority(task) > strategy.getPriority(best)) {
+                best = task;
+            }
+        }
+        assertEquals(best, strategy.pick());
+    }
+
+    @Test
+    public void independentStepKeepsTheOtherPriorities() {
+        TestablePOS strategy = started(5L, 1L, 2L);
+        strategy.updateEvent(write(2L, "y"));
+        Double before = strategy.getPriority(2L);
+
+        strategy.updateEvent(write(1L, "x"));
+
+        assertEquals(before, strategy.getPriority(2L));
+    }
+
+    @Test
+    public void racingStepRedrawsThePriorityOfTheOtherTask() {
+        TestablePOS strategy = started(5L, 1L, 2L);
+        strategy.updateEvent(write(2L, "x"));
+        Double before = strategy.getPriority(2L);
+
+        strategy.updateEvent(read(1L, "x"));
+
+        assertNotEquals(before, strategy.getPriority(2L));
+    }
+
+    @Test
+    public void concurrentReadsDoNotRace() {
+        TestablePOS strategy = started(5L, 1L, 2L);
+        strategy.updateEvent(read(2L, "x"));
+        Double before = strategy.getPriority(2L);
+
+        strategy.updateEvent(read(1L, "x"));
+
+        assertEquals(before, strategy.getPriority(2L));
+    }
+
+    @Test
+    public void steppingTaskGetsAFreshPriority() {
+        TestablePOS strategy = started(5L, 1L, 2L);
+        Double before = strategy.getPriority(1L);
+
+        strategy.updateEvent(write(1L, "x"));
+
+        assertNotEquals(before, strategy.getPriority(1L));
+    }
+
+    @Test
+    public void sameSeedGivesTheSameSchedule() {
+        List<Long> first = schedule(11L);
+        List<Long> second = schedule(11L);
+        assertEquals(first, second);
+    }
+
+    private static List<Long> schedule(long seed) {
+        TestablePOS strategy = new TestablePOS(seed);
+        strategy.setActive(1L, 2L, 3L);
+        strategy.initIteration(0, report());
+        List<Long> winners = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Long task = strategy.pick();
+            winners.add(task);
+            strategy.updateEvent(i % 2 == 0 ? write(task, "x") : read(task, "y"));
+        }
+        return winners;
+    }
+}
@@ -0,0 +1,46 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ExecutionGraphTest {
+
+    private static final int LOCATION = 42;
+    private static final int LOCATION_ID = 0;
+
+    private static Event event(long task, Event.Type type) {
+        return new Event(task, LOCATION, LOCATION_ID, type);
+    }
+
+    @Test
+    public void restrictRecomputesAllVectorClocks() {
+        ExecutionGraph graph = new ExecutionGraph();
+        graph.addEvent(Event.init());
+
+        // Task 1 reads from a write of task 0 that was added after the read, as after a backward
+        // revisit.
+        ExecutionGraphNode read = graph.addEvent(event(1, Event.Type.READ));
+        graph.setReadsFrom(read, graph.getCoMax(LOCATION_ID));
+        ExecutionGraphNode first = graph.addEvent(event(0, Event.Type.WRITE));
+        graph.trackCoherency(first);
+        ExecutionGraphNode second = graph.addEvent(event(0, Event.Type.WRITE));
+        graph.trackCoherency(second);
+        graph.changeReadsFrom(read, second);
+        graph.recomputeVectorClocks();
+        assertArrayEquals(new int[] {2, 1}, read.getVectorClock().getVector());
+
+        // Dropping the write the read reads from makes every clock stale. The clocks are then
+        // recomputed from the clock of the init event, which is empty.
+        graph.restrict(first);
+        graph.setReadsFrom(read, first);
+        graph.recomputeVectorClocks();
+
+        assertFalse(graph.contains(second.key()));
+        assertArrayEquals(new int[] {1}, first.getVectorClock().getVector());
+        assertArrayEquals(new int[] {1, 1}, read.getVectorClock().getVector());
+        assertTrue(first.happensBefore(read));
+    }
+}
@@ -0,0 +1,139 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExplorationStackSpillTest {
+
+    private static final int LOCATION = 42;
+    private static final int LOCATION_ID = 0;
+
+    private static Event event(long task, Event.Type type) {
+        return new Event(task, LOCATION, LOCATION_ID, type);
+    }
+
+    // A write of task 0 read by task 1. The read carries a null attribute.
+    private static ExecutionGraph graph() {
+        ExecutionGraph graph = new ExecutionGraph();
+        graph.addEvent(Event.init());
+        ExecutionGraphNode write = graph.addEvent(event(0, Event.Type.WRITE));
+        graph.trackCoherency(write);
+        Event readEvent = event(1, Event.Type.READ);
+        readEvent.setAttribute("value", null);
+        ExecutionGraphNode read = graph.addEvent(readEvent);
+        graph.setReadsFrom(read, write);
+        return graph;
+    }
+
+    private static ExecutionGraphNode node(ExecutionGraph graph, long task) {
+        for (ExecutionGraphNode node : graph.unsafeIterator()) {
+            if (node.key().getTaskId() != null && node.key().getTaskId() == task) {
+                return node;
+            }
+        }
+        throw new AssertionError("No event of task " + task);
+    }
+
+    @Test
+    public void nullAttributesRoundTrip() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("missing", null);
+        attributes.put("count", 3);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SpillCodec.writeAttributes(new DataOutputStream(bytes), attributes);
+        Map<String, Object> read =
+                SpillCodec.readAttributes(
+                        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(attributes, read);
+        assertTrue(read.containsKey("missing"));
+    }
+
+    @Test
+    public void innerStackRoundTrip() throws Exception {
+        ExecutionGraph graph = graph();
+        ExecutionGraphNode write = node(graph, 0);
+        ExecutionGraphNode read = node(graph, 1);
+
+        ExplorationStack.InnerStack innerStack = new ExplorationStack.InnerStack(graph);
+        ExplorationStack.Item forward = ExplorationStack.Item.forwardRW(read, write, graph);
+        forward.setInnerStackIndex(2);
+        forward.setDepth(3);
+        forward.setParentKey(0x7EDCBA9876543210L);
+        forward.setBranchKey(0x0123456789ABCDEFL);
+        forward.addAdditionalEvent(event(2, Event.Type.WRITE));
+        innerStack.push(forward);
+        innerStack.push(ExplorationStack.Item.continueCurrent());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExplorationStack.writeInnerStack(new DataOutputStream(bytes), innerStack);
+        ExplorationStack.InnerStack loaded = new ExplorationStack.InnerStack(null);
+        ExplorationStack.readInnerStack(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), loaded);
+
+        assertEquals(2, loaded.size());
+        assertEquals(graph, loaded.getGraph());
+
+        ExplorationStack.Item top = loaded.pop();
+        assertEquals(ExplorationStack.ItemType.CONT, top.getType());
+        assertNull(top.getGraph());
+
+        ExplorationStack.Item item = loaded.pop();
+        assertEquals(ExplorationStack.ItemType.FRW, item.getType());
+        assertEquals(2, item.getInnerStackIndex());
+        assertEquals(3, item.getDepth());
+        assertEquals(0x7EDCBA9876543210L, item.getParentKey());
+        assertEquals(0x0123456789ABCDEFL, item.getBranchKey());
+        // The item and the inner stack shared their graph, and still do
+        assertSame(loaded.getGraph(), item.getGraph());
+        assertSame(item.getGraph().getEventNode(read.key()), item.getEvent1());
+        assertSame(item.getGraph().getEventNode(write.key()), item.getEvent2());
+        assertNull(item.getEvent1().getEvent().getAttribute("value"));
+        assertEquals(1, item.getAdditionalEventsToProcess().size());
+        Event additional = item.getAdditionalEventsToProcess().get(0);
+        assertEquals(2L, additional.getTaskId());
+        assertEquals(Event.Type.WRITE, additional.getType());
+    }
+
+    @Test
+    public void spilledInnerStacksArePagedBackInOrder() throws Exception {
+        ExplorationStack stack = new ExplorationStack();
+        // Any used heap is above the watermark, the stack spills at every check
+        stack.setSpillWatermark(Double.MIN_VALUE);
+
+        int numItems = 100;
+        for (int i = 0; i < numItems; i++) {
+            ExecutionGraph graph = graph();
+            // Each backward revisit opens its own inner stack
+            stack.push(ExplorationStack.Item.backwardRevisit(node(graph, 0), graph));
+        }
+        assertTrue(stack.getSpilledBytes() > 0);
+        assertEquals(numItems, stack.totalSize());
+
+        for (int i = numItems - 1; i >= 0; i--) {
+            ExplorationStack.Item item = stack.pop();
+            assertNotNull(item);
+            // The first push also opens the bottom inner stack, which stays empty
+            assertEquals(i + 1, item.getInnerStackIndex());
+            assertEquals(ExplorationStack.ItemType.BWR, item.getType());
+            assertEquals(graph(), item.getGraph());
+            assertSame(item.getGraph().getEventNode(item.getEvent1().key()), item.getEvent1());
+        }
+        assertTrue(stack.isEmpty());
+        assertTrue(stack.getPageIns() > 0);
+        stack.clear();
+    }
+}
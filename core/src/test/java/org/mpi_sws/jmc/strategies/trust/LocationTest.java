@@ -0,0 +1,104 @@
+package org.mpi_sws.jmc.strategies.trust;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mpi_sws.jmc.api.JmcObject.handleHashCode;
+
+import org.junit.jupiter.api.Test;
+import org.mpi_sws.jmc.runtime.JmcFieldAccessEvent;
+import org.mpi_sws.jmc.runtime.JmcRuntimeEvent;
+
+import java.util.List;
+
+/** Checks that the location identifiers keep the value of the concatenated-string hash. */
+public class LocationTest {
+
+    /** An instrumented object whose handle hash code is chosen by the test. */
+    public static class Hashed {
+        private final int hash;
+
+        Hashed(int hash) {
+            this.hash = hash;
+        }
+
+        public int jmcHashCode() {
+            return hash;
+        }
+    }
+
+    /** The location hash before {@link Location#idOf(Object, String)}. */
+    private static int legacyId(Object instance, String param) {
+        return (handleHashCode(instance) + param).hashCode();
+    }
+
+    private static List<Object> instances() {
+        return List.of(
+                new Object(),
+                "org/example/Owner",
+                new Hashed(0),
+                new Hashed(7),
+                new Hashed(-12345),
+                new Hashed(Integer.MAX_VALUE),
+                new Hashed(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void testInstanceField() {
+        for (Object instance : instances()) {
+            assertEquals(legacyId(instance, "value"), Location.idOf(instance, "value"));
+            assertEquals(legacyId(instance, ""), Location.idOf(instance, ""));
+        }
+    }
+
+    @Test
+    public void testStaticField() {
+        String owner = "org/example/Owner";
+        assertEquals(legacyId(owner, "COUNTER"), Location.idOf(owner, "COUNTER"));
+
+        JmcRuntimeEvent event =
+                new JmcFieldAccessEvent(
+                        JmcRuntimeEvent.Type.READ_EVENT,
+                        1L,
+                        null,
+                        owner,
+                        "COUNTER",
+                        "I",
+                        null,
+                        null);
+        assertEquals(legacyId(owner, "COUNTER"), Location.idOf(event));
+        assertEquals(Location.fromRuntimeEvent(event).hashCode(), Location.idOf(event));
+    }
+
+    @Test
+    public void testNullInstanceAndParam() {
+        assertEquals(legacyId(null, "value"), Location.idOf(null, "value"));
+        assertEquals(legacyId(null, null), Location.idOf(null, null));
+        for (Object instance : instances()) {
+            assertEquals(legacyId(instance, null), Location.idOf(instance, null));
+        }
+
+        JmcRuntimeEvent event =
+                new JmcRuntimeEvent.Builder()
+                        .type(JmcRuntimeEvent.Type.READ_EVENT)
+                        .taskId(1L)
+                        .param("name", "value")
+                        .build();
+        assertEquals(legacyId(null, "value"), Location.idOf(event));
+        assertEquals(Location.fromRuntimeEvent(event).hashCode(), Location.idOf(event));
+    }
+
+    @Test
+    public void testEventParams() {
+        for (Object instance : instances()) {
+            JmcRuntimeEvent event =
+                    new JmcRuntimeEvent.Builder()
+                            .type(JmcRuntimeEvent.Type.WRITE_EVENT)
+                            .taskId(1L)
+                            .param("instance", instance)
+                            .param("owner", "org/example/Owner")
+                            .param("name", "value")
+                            .build();
+            assertEquals(legacyId(instance, "value"), Location.idOf(event));
+            assertEquals(Location.fromRuntimeEvent(event).hashCode(), Location.idOf(event));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.mpi_sws.jmc.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LamportVectorClockTest {
+
+    @Test
+    public void incrementEmptyClock() {
+        // The initial event of the execution graph has an empty clock
+        LamportVectorClock empty = new LamportVectorClock(0);
+        LamportVectorClock clock = new LamportVectorClock(empty, 2);
+        assertArrayEquals(new int[] {0, 0, 1}, clock.getVector());
+        assertEquals(0, empty.getSize());
+    }
+
+    @Test
+    public void incrementShorterClock() {
+        LamportVectorClock shorter = new LamportVectorClock(new int[] {3, 1});
+        LamportVectorClock clock = new LamportVectorClock(shorter, 3);
+        assertArrayEquals(new int[] {3, 1, 0, 1}, clock.getVector());
+        assertArrayEquals(new int[] {3, 1}, shorter.getVector());
+    }
+
+    @Test
+    public void incrementWithinClock() {
+        LamportVectorClock other = new LamportVectorClock(new int[] {3, 1, 2});
+        LamportVectorClock clock = new LamportVectorClock(other, 1);
+        assertArrayEquals(new int[] {3, 2, 2}, clock.getVector());
+        assertArrayEquals(new int[] {3, 1, 2}, other.getVector());
+    }
+
+    @Test
+    public void incrementNegativeIndex() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new LamportVectorClock(new LamportVectorClock(1), -1));
+    }
+
+    @Test
+    public void compareClocksOfDifferentLengths() {
+        LamportVectorClock shorter = new LamportVectorClock(new int[] {1});
+        LamportVectorClock longer = new LamportVectorClock(new int[] {1, 0, 2});
+        assertTrue(shorter.happensBefore(longer));
+        assertFalse(longer.happensBefore(shorter));
+        assertTrue(shorter.equals(new LamportVectorClock(new int[] {1, 0, 0})));
+        assertEquals(1, shorter.getSize());
+        assertEquals(3, longer.getSize());
+    }
+}
@@ -0,0 +1,141 @@
+package org.mpi_sws.jmc.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongIntHashMapTest {
+
+    // A map expecting 16 entries starts with 32 slots
+    private static final int SLOTS = 32;
+
+    /** Returns keys whose home slot in a table of {@link #SLOTS} slots is the given one. */
+    private static long[] collidingKeys(int slot, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & (SLOTS - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    public void zeroKeyIsAnOrdinaryKey() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(0L));
+        assertEquals(-1, map.get(0L, -1));
+
+        assertEquals(1, map.increment(0L));
+        assertEquals(3, map.addTo(0L, 2));
+        assertTrue(map.containsKey(0L));
+        assertEquals(3, map.get(0L, -1));
+        assertEquals(1, map.size());
+
+        assertEquals(3, map.remove(0L, -1));
+        assertFalse(map.containsKey(0L));
+        assertEquals(-1, map.remove(0L, -1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void collidingKeysKeepTheirValues() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        long[] keys = collidingKeys(SLOTS - 1, 4);
+        for (int i = 0; i < keys.length; i++) {
+            map.addTo(keys[i], i + 1);
+        }
+        // The probe sequence of the last slot wraps around to the start of the table
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i + 1, map.get(keys[i], -1));
+        }
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        long[] home = collidingKeys(SLOTS - 1, 3);
+        long[] next = collidingKeys(0, 2);
+        // Probe order: home[0], home[1], home[2], next[0], next[1] in slots 31, 0, 1, 2, 3
+        for (long key : home) {
+            map.increment(key);
+        }
+        for (long key : next) {
+            map.addTo(key, 2);
+        }
+
+        assertEquals(1, map.remove(home[0], -1));
+        assertEquals(2, map.remove(next[0], -1));
+        assertEquals(-1, map.remove(next[0], -1));
+
+        assertFalse(map.containsKey(home[0]));
+        assertFalse(map.containsKey(next[0]));
+        assertEquals(1, map.get(home[1], -1));
+        assertEquals(1, map.get(home[2], -1));
+        assertEquals(2, map.get(next[1], -1));
+        assertEquals(3, map.size());
+
+        // Removed keys are inserted afresh
+        assertEquals(5, map.addTo(home[0], 5));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void growsPastTheLoadFactor() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (long key = -500; key < 500; key++) {
+            map.addTo(key * 31, (int) key);
+        }
+        assertEquals(1000, map.size());
+        for (long key = -500; key < 500; key++) {
+            assertEquals((int) key, map.get(key * 31, Integer.MIN_VALUE));
+        }
+        assertFalse(map.containsKey(1L));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // A small key range makes removals and collisions frequent
+            long key = random.nextInt(256) - 128;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key, -1));
+            } else {
+                int delta = random.nextInt(10);
+                expected.merge(key, delta, Integer::sum);
+                assertEquals(expected.get(key), map.addTo(key, delta));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.increment(0L);
+        map.increment(7L);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0L));
+        assertFalse(map.containsKey(7L));
+        map.forEach((key, value) -> {
+            throw new AssertionError("Unexpected entry " + key);
+        });
+    }
+}
@@ -23,8 +23,18 @@ java {
     withJavadocJar()
 }
 
+dependencies {
+    testImplementation(gradleTestKit())
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.10.0")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
 tasks.test {
     useJUnitPlatform()
+    // The TestKit builds resolve the agent and the library of this version from Maven local
+    dependsOn(":agent:publishToMavenLocal", ":core:publishToMavenLocal")
+    systemProperty("jmc.version", project.version.toString())
 }
 
 gradlePlugin {
@@ -0,0 +1,176 @@
+package org.mpi_sws.jmc.gradle
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.FileSystemOperations
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.CacheableTask
+import org.gradle.api.tasks.Classpath
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.TaskAction
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+import org.gradle.workers.WorkerExecutor
+import java.io.File
+import java.util.zip.ZipFile
+import javax.inject.Inject
+
+/**
+ * Instruments the classes of a classpath ahead of time with the JMC agent, so that the tests can
+ * run them without attaching the agent to every test JVM.
+ *
+ * Each root of [roots], a directory or a jar, is instrumented into its own subdirectory of
+ * [outputDir], holding the classes matched by the instrumented packages. Putting these
+ * subdirectories before the roots, in the same order ([instrumentedClasspath]), makes the
+ * instrumented classes shadow the original ones.
+ *
+ * The class files are split into batches instrumented in parallel by the Gradle worker pool. Every
+ * run instruments all the roots again: the escape analysis reads the constructors of classes in
+ * other roots and the frames are computed against common superclasses from the whole classpath, so
+ * the output of a root depends on the others. The task is cacheable, so the output is shared between
+ * the forks of a test task and, with a remote build cache, between CI runs.
+ */
+@CacheableTask
+abstract class JmcInstrumentTask : DefaultTask() {
+
+    /** The classpath roots to instrument, in classpath order. */
+    @get:Classpath
+    abstract val roots: ConfigurableFileCollection
+
+    /** The classpath the instrumented classes are resolved against, including the JMC library. */
+    @get:Classpath
+    abstract val analysisClasspath: ConfigurableFileCollection
+
+    /** The JMC agent jar, which holds the instrumentation. */
+    @get:Classpath
+    abstract val agentClasspath: ConfigurableFileCollection
+
+    /** The agent arguments that affect the instrumentation, see `JmcPlugin.buildAgentArgs`. */
+    @get:Input
+    abstract val agentArgs: Property<String>
+
+    /** The maximum number of class files instrumented by a single worker. */
+    @get:Input
+    abstract val batchSize: Property<Int>
+
+    /** The directory holding one subdirectory of instrumented classes per root. */
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    /**
+     * The instrumented classes, in the order of [roots], to put before the original classpath.
+     * Derived from [roots] and [outputDir] without accessing the project, so that it can be
+     * resolved when the test tasks run from the configuration cache. Built by this task.
+     */
+    @get:Internal
+    abstract val instrumentedClasspath: ConfigurableFileCollection
+
+    @get:Inject
+    abstract val workerExecutor: WorkerExecutor
+
+    @get:Inject
+    abstract val fileSystemOperations: FileSystemOperations
+
+    init {
+        batchSize.convention(500)
+        val rootFiles = roots
+        instrumentedClasspath.from(outputDir.map { dir ->
+            rootFiles.files.mapIndexed { index, root -> dir.dir(rootDirName(index, root)) }
+        })
+        instrumentedClasspath.builtBy(this)
+    }
+
+    @TaskAction
+    fun instrument() {
+        val rootList = roots.files.toList()
+        val output = outputDir.get().asFile
+        val previous = output.listFiles() ?: emptyArray()
+        fileSystemOperations.delete { it.delete(*previous) }
+
+        val queue = workerExecutor.classLoaderIsolation { spec ->
+            spec.classpath.from(agentClasspath)
+        }
+        val args = agentArgs.get()
+        val classpath = analysisClasspath.files.toList()
+        var batches = 0
+        for ((index, root) in rootList.withIndex()) {
+            val rootOutput = File(output, rootDirName(index, root))
+            rootOutput.mkdirs()
+            for (batch in classEntries(root).chunked(batchSize.get())) {
+                queue.submit(InstrumentAction::class.java) { params ->
+                    params.agentArgs.set(args)
+                    params.classpath.from(classpath)
+                    params.root.set(root)
+                    params.entries.set(batch)
+                    params.outputDir.set(rootOutput)
+                }
+                batches++
+            }
+        }
+        queue.await()
+        logger.info("Instrumented {} classpath roots in {} batches", rootList.size, batches)
+    }
+
+    /** Parameters of a batch of class files instrumented by [InstrumentAction]. */
+    interface InstrumentParameters : WorkParameters {
+        val agentArgs: Property<String>
+        val classpath: ConfigurableFileCollection
+        val root: Property<File>
+        val entries: ListProperty<String>
+        val outputDir: DirectoryProperty
+    }
+
+    /**
+     * Instruments a batch of class files in a worker whose classpath is the agent jar. The plugin
+     * does not depend on the agent, whose version is chosen by the build, so the agent is called
+     * reflectively.
+     */
+    abstract class InstrumentAction : WorkAction<InstrumentParameters> {
+        override fun execute() {
+            val instrumentor = Class.forName(OFFLINE_INSTRUMENTOR, true, javaClass.classLoader)
+            val method = instrumentor.getMethod(
+                "instrument",
+                String::class.java,
+                List::class.java,
+                File::class.java,
+                List::class.java,
+                File::class.java,
+            )
+            method.invoke(
+                null,
+                parameters.agentArgs.get(),
+                parameters.classpath.files.toList(),
+                parameters.root.get(),
+                parameters.entries.get(),
+                parameters.outputDir.get().asFile,
+            )
+        }
+    }
+
+    companion object {
+        private const val OFFLINE_INSTRUMENTOR = "org.mpi_sws.jmc.agent.OfflineInstrumentor"
+
+        private fun rootDirName(index: Int, root: File): String = "$index-${root.name}"
+
+        /** Lists the class files of a root, leaving out module descriptors and versioned entries. */
+        private fun classEntries(root: File): List<String> {
+            val entries = if (root.isDirectory) {
+                root.walkTopDown()
+                    .filter { it.isFile }
+                    .map { it.relativeTo(root).invariantSeparatorsPath }
+                    .toList()
+            } else if (root.isFile) {
+                ZipFile(root).use { jar -> jar.entries().asSequence().map { it.name }.toList() }
+            } else {
+                emptyList()
+            }
+            return entries.filter {
+                it.endsWith(".class") && !it.endsWith("module-info.class") && !it.startsWith("META-INF/")
+            }.sorted()
+        }
+    }
+}
@@ -2,7 +2,10 @@ package org.mpi_sws.jmc.gradle
 
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.plugins.JavaPluginExtension
+import org.gradle.api.tasks.TaskProvider
 import org.gradle.api.tasks.testing.Test
+import java.io.File
 
 /**
  * Gradle plugin for applying the JMC agent to test tasks.
@@ -36,6 +39,10 @@ import org.gradle.api.tasks.testing.Test
  * The plugin creates a `jmcTest` task on the target project that runs only JMC tests,
  * leaving the regular `test` task unaffected. Run with:
  *   ./gradlew :iceberg-core:jmcTest --tests org.apache.iceberg.TestInMemoryCatalogJmc
+ *
+ * With `aheadOfTime = true`, the test runtime classpath is instrumented once by the
+ * `jmcInstrument` task ([JmcInstrumentTask]) and the test tasks run the instrumented classes
+ * without the agent.
  */
 class JmcPlugin : Plugin<Project> {
     override fun apply(project: Project) {
@@ -77,10 +84,26 @@ class JmcPlugin : Plugin<Project> {
                 // Add the JMC library as a test dependency
                 targetProject.dependencies.add("testImplementation", libraryDependency)
 
+                val instrumentTask = if (extension.aheadOfTime) {
+                    registerInstrumentTask(targetProject, extension, agentJarFile, libraryJarFile)
+                } else {
+                    null
+                }
+                val attach = { testTask: Test ->
+                    if (instrumentTask == null) {
+                        testTask.doFirst { testTask.jvmArgs(agentArg) }
+                    } else {
+                        // The instrumented classes shadow the original ones, no agent needed
+                        testTask.classpath = targetProject.files(
+                            instrumentTask.map { it.instrumentedClasspath }
+                        ).builtBy(instrumentTask) + testTask.classpath
+                    }
+                }
+
                 if (taskName.isEmpty()) {
                     // No specific task — attach to all Test tasks (simple project mode)
                     targetProject.tasks.withType(Test::class.java).configureEach { testTask ->
-                        testTask.doFirst { testTask.jvmArgs(agentArg) }
+                        attach(testTask)
                     }
                 } else {
                     // Create the task if it doesn't exist, then configure it
@@ -99,7 +122,7 @@ class JmcPlugin : Plugin<Project> {
                     } else {
                         targetProject.tasks.named(taskName, Test::class.java).get()
                     }
-                    jmcTask.doFirst { jmcTask.jvmArgs(agentArg) }
+                    attach(jmcTask)
                 }
             }
 
@@ -111,6 +134,27 @@ class JmcPlugin : Plugin<Project> {
         }
     }
 
+    private fun registerInstrumentTask(
+        project: Project,
+        extension: JmcExtension,
+        agentJarFile: File,
+        libraryJarFile: File
+    ): TaskProvider<JmcInstrumentTask> {
+        val testSourceSet = project.extensions
+            .getByType(JavaPluginExtension::class.java)
+            .sourceSets.getByName("test")
+        return project.tasks.register(INSTRUMENT_TASK, JmcInstrumentTask::class.java) { t ->
+            t.description = "Instruments the test runtime classpath with the JMC agent ahead of time."
+            t.group = "verification"
+            // The JMC library is the runtime of the instrumented code, never instrumented itself
+            t.roots.from(testSourceSet.runtimeClasspath.filter { it != libraryJarFile })
+            t.analysisClasspath.from(testSourceSet.runtimeClasspath, libraryJarFile)
+            t.agentClasspath.from(agentJarFile)
+            t.agentArgs.set(buildInstrumentArgs(extension).joinToString(","))
+            t.outputDir.set(project.layout.buildDirectory.dir("jmc/instrumented"))
+        }
+    }
+
     private fun buildAgentArgs(extension: JmcExtension, libraryJarFile: java.io.File): List<String> {
         val args = mutableListOf<String>()
         args.add("jmcRuntimeJarPath=$libraryJarFile")
@@ -118,14 +162,32 @@ class JmcPlugin : Plugin<Project> {
             args.add("debug")
             args.add("debugSavePath=${extension.debugPath}")
         }
+        args.addAll(buildInstrumentArgs(extension))
+        if (extension.cachePath.isNotEmpty()) {
+            args.add("cachePath=${extension.cachePath}")
+        }
+        return args
+    }
+
+    /** The agent arguments that affect how the classes are instrumented. */
+    private fun buildInstrumentArgs(extension: JmcExtension): List<String> {
+        val args = mutableListOf<String>()
         if (extension.instrumentingPackage.isNotEmpty()) {
             args.add("instrumentingPackages=${extension.instrumentingPackage.joinToString(";")}")
         }
         if (extension.excludedPackages.isNotEmpty()) {
             args.add("excludedPackages=${extension.excludedPackages.joinToString(";")}")
         }
+        if (extension.escapeAnalysis) {
+            args.add("escapeAnalysis=true")
+        }
         return args
     }
+
+    companion object {
+        /** The name of the task instrumenting the test runtime classpath ahead of time. */
+        const val INSTRUMENT_TASK = "jmcInstrument"
+    }
 }
 
 /**
@@ -166,4 +228,24 @@ open class JmcExtension {
 
     /** The list of packages to exclude from instrumentation. */
     var excludedPackages: List<String> = ArrayList()
+
+    /**
+     * Directory of the on-disk cache of instrumented classes, shared by all test JVMs.
+     * When empty (default), every JVM instruments the classes it loads afresh.
+     */
+    var cachePath: String = ""
+
+    /**
+     * Whether to leave uninstrumented the field accesses on objects that never leave the thread
+     * allocating them. Disables the instrumentation cache.
+     */
+    var escapeAnalysis: Boolean = false
+
+    /**
+     * Whether to instrument the test runtime classpath ahead of time with the `jmcInstrument`
+     * task, instead of attaching the agent to the test JVMs. The instrumented classes are put
+     * before the original ones on the classpath of the test tasks. Classes that are not on the
+     * classpath, e.g. generated at run time, are left uninstrumented.
+     */
+    var aheadOfTime: Boolean = false
 }
@@ -0,0 +1,170 @@
+package org.mpi_sws.jmc.gradle
+
+import org.gradle.testkit.runner.GradleRunner
+import org.gradle.testkit.runner.TaskOutcome
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+
+/**
+ * Runs `jmcInstrument` on a small project with Gradle TestKit. The agent and the library are
+ * resolved from Maven local, where the build publishes them before running these tests.
+ */
+class JmcInstrumentTaskTest {
+
+    @TempDir
+    lateinit var projectDir: File
+
+    @BeforeEach
+    fun setUp() {
+        val jmcVersion = System.getProperty("jmc.version")
+        File(projectDir, "settings.gradle.kts").writeText("rootProject.name = \"example\"\n")
+        File(projectDir, "build.gradle.kts").writeText(
+            """
+            plugins {
+                java
+                id("org.mpi_sws.jmc.gradle")
+            }
+
+            repositories {
+                mavenLocal()
+                mavenCentral()
+            }
+
+            // Only the classes of this project are instrumented, the dependencies of the library
+            // are not needed
+            configurations.named("testRuntimeClasspath") { isTransitive = false }
+
+            jmc {
+                version = "$jmcVersion"
+                aheadOfTime = true
+                instrumentingPackage = listOf("example")
+            }
+            """.trimIndent()
+        )
+        val sources = File(projectDir, "src/main/java/example").apply { mkdirs() }
+        File(sources, "Counter.java").writeText(
+            """
+            package example;
+
+            public class Counter {
+                private int value;
+
+                public void increment() {
+                    value = value + 1;
+                }
+            }
+            """.trimIndent()
+        )
+    }
+
+    private fun runner(vararg arguments: String): GradleRunner =
+        GradleRunner.create()
+            .withProjectDir(projectDir)
+            .withPluginClasspath()
+            .withArguments(*arguments, "--configuration-cache", "--stacktrace")
+
+    /** Finds the given class file in the output subdirectories of the roots. */
+    private fun instrumented(path: String): File? =
+        File(projectDir, "build/jmc/instrumented").listFiles()
+            ?.map { File(it, path) }
+            ?.firstOrNull { it.isFile }
+
+    private fun callsRuntime(classFile: File): Boolean =
+        String(classFile.readBytes(), Charsets.ISO_8859_1).contains("org/mpi_sws/jmc/runtime/")
+
+    private fun reportsFieldAccesses(classFile: File): Boolean =
+        String(classFile.readBytes(), Charsets.ISO_8859_1).contains("EventWithoutYield")
+
+    @Test
+    fun instrumentsTheTestRuntimeClasspath() {
+        val result = runner("jmcInstrument").build()
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(":jmcInstrument")?.outcome)
+        val original = File(projectDir, "build/classes/java/main/example/Counter.class")
+        assertFalse(callsRuntime(original))
+        val counter = instrumented("example/Counter.class")
+        assertTrue(counter != null && callsRuntime(counter), "Counter was not instrumented")
+    }
+
+    @Test
+    fun reusesTheConfigurationCache() {
+        runner("jmcInstrument").build()
+        val result = runner("jmcInstrument").build()
+
+        assertTrue(result.output.contains("Reusing configuration cache"), result.output)
+        assertEquals(TaskOutcome.UP_TO_DATE, result.task(":jmcInstrument")?.outcome)
+    }
+
+    @Test
+    fun testTasksRunTheInstrumentedClasses() {
+        // Resolving the classpath of the test task from the configuration cache runs the task
+        val result = runner("test").build()
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(":jmcInstrument")?.outcome)
+    }
+
+    @Test
+    fun constructorChangeReinstrumentsTheOtherRoots() {
+        File(projectDir, "build.gradle.kts").appendText("\n\njmc { escapeAnalysis = true }\n")
+        val sources = File(projectDir, "src/main/java/example")
+        File(sources, "Box.java").writeText(
+            """
+            package example;
+
+            public class Box {
+                public int value;
+
+                public Box() {
+                }
+            }
+            """.trimIndent()
+        )
+        // In the test classes, another root than Box: whether the box stays thread-local depends
+        // on the constructor of Box
+        val testSources = File(projectDir, "src/test/java/example").apply { mkdirs() }
+        File(testSources, "UseBox.java").writeText(
+            """
+            package example;
+
+            public class UseBox {
+                public static int run() {
+                    Box box = new Box();
+                    box.value = 1;
+                    return box.value;
+                }
+            }
+            """.trimIndent()
+        )
+        runner("jmcInstrument").build()
+        val useBox = instrumented("example/UseBox.class")
+        assertTrue(useBox != null && !reportsFieldAccesses(useBox), "The local box was instrumented")
+
+        File(sources, "Box.java").writeText(
+            """
+            package example;
+
+            public class Box {
+                public static Box last;
+                public int value;
+
+                public Box() {
+                    last = this;
+                }
+            }
+            """.trimIndent()
+        )
+        val result = runner("jmcInstrument").build()
+
+        assertEquals(TaskOutcome.SUCCESS, result.task(":jmcInstrument")?.outcome)
+        val reinstrumented = instrumented("example/UseBox.class")
+        assertTrue(
+            reinstrumented != null && reportsFieldAccesses(reinstrumented),
+            "The box leaked by its constructor was not instrumented",
+        )
+    }
+}
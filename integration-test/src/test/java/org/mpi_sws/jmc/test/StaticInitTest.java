@@ -3,11 +3,19 @@ package org.mpi_sws.jmc.test;
 import org.mpi_sws.jmc.annotations.JmcCheck;
 import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
 import org.mpi_sws.jmc.test.features.StaticInitBlock;
+import org.mpi_sws.jmc.test.features.StaticListField;
+import org.mpi_sws.jmc.test.features.StaticSnapshotFields;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StaticInitTest {
 
+    // The test instance is shared by the iterations of a check
+    private long initializedAt;
+
     @JmcCheck
     @JmcCheckConfiguration(numIterations = 10)
     public void testStaticInitBlock() {
@@ -27,4 +35,34 @@ public class StaticInitTest {
 
         assertEquals(1, StaticInitBlock.getX());
     }
+
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 5, staticSnapshots = true)
+    public void testStaticSnapshotRestoresFields() {
+        // The fields are restored from the snapshot: the initializer only ran in the first
+        // iteration, and the changes of the previous iteration are undone
+        if (initializedAt == 0L) {
+            initializedAt = StaticSnapshotFields.getInitializedAt();
+        }
+        assertEquals(initializedAt, StaticSnapshotFields.getInitializedAt());
+        assertEquals(0, StaticSnapshotFields.getCount());
+        assertEquals("initial", StaticSnapshotFields.getName());
+        assertArrayEquals(new int[] {1, 2, 3}, StaticSnapshotFields.getValues());
+
+        StaticSnapshotFields.setCount(StaticSnapshotFields.getCount() + 1);
+        StaticSnapshotFields.setName("changed");
+        StaticSnapshotFields.getValues()[0] = 42;
+    }
+
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 5, staticSnapshots = true)
+    public void testStaticSnapshotRerunsInitializerOfMutableFields() {
+        // A list cannot be restored from a shallow snapshot, the initializer runs in every
+        // iteration
+        assertNotEquals(initializedAt, StaticListField.getInitializedAt());
+        initializedAt = StaticListField.getInitializedAt();
+        assertTrue(StaticListField.getItems().isEmpty());
+
+        StaticListField.getItems().add(1);
+    }
 }
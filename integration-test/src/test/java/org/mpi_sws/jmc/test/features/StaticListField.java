@@ -0,0 +1,26 @@
+package org.mpi_sws.jmc.test.features;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A static list, which a shallow snapshot would share across iterations. The initializer records
+ * when it ran.
+ */
+public class StaticListField {
+    static List<Integer> items;
+    static long initializedAt;
+
+    static {
+        items = new ArrayList<>();
+        initializedAt = System.nanoTime();
+    }
+
+    public static List<Integer> getItems() {
+        return items;
+    }
+
+    public static long getInitializedAt() {
+        return initializedAt;
+    }
+}
@@ -0,0 +1,43 @@
+package org.mpi_sws.jmc.test.features;
+
+/**
+ * Static fields that a snapshot can restore: primitives, a string and an array of primitives. The
+ * initializer records when it ran.
+ */
+public class StaticSnapshotFields {
+    static int count;
+    static String name;
+    static int[] values;
+    static long initializedAt;
+
+    static {
+        count = 0;
+        name = "initial";
+        values = new int[] {1, 2, 3};
+        initializedAt = System.nanoTime();
+    }
+
+    public static int getCount() {
+        return count;
+    }
+
+    public static void setCount(int count) {
+        StaticSnapshotFields.count = count;
+    }
+
+    public static String getName() {
+        return name;
+    }
+
+    public static void setName(String name) {
+        StaticSnapshotFields.name = name;
+    }
+
+    public static int[] getValues() {
+        return values;
+    }
+
+    public static long getInitializedAt() {
+        return initializedAt;
+    }
+}
@@ -2,6 +2,8 @@ package org.mpi_sws.jmc.test.features;
 
 import org.mpi_sws.jmc.annotations.JmcCheck;
 import org.mpi_sws.jmc.annotations.JmcCheckConfiguration;
+import org.mpi_sws.jmc.annotations.JmcExpectExecutions;
+import org.mpi_sws.jmc.annotations.strategies.JmcTrustStrategy;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -22,4 +24,26 @@ public class SynchronisedAnnotationTest {
         SynchronisedExtension e = new SynchronisedExtension();
         assertEquals(1, e.doSomething());
     }
+
+    // Both classes hold a monitor field, the accessors of the subclass override the ones of the
+    // superclass: the synchronized methods of both lock the same monitor. With two monitors the
+    // increments would interleave and one of them would be lost.
+    @JmcCheck
+    @JmcCheckConfiguration(numIterations = 100)
+    @JmcTrustStrategy
+    @JmcExpectExecutions(2)
+    public void testTrustSynchronisedSuperclassAndSubclass() {
+        SynchronisedSubclass counter = new SynchronisedSubclass();
+        Thread base = new Thread(counter::incrementBase);
+        Thread subclass = new Thread(counter::incrementSubclass);
+        base.start();
+        subclass.start();
+        try {
+            base.join();
+            subclass.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        assertEquals(2, counter.getCount());
+    }
 }
@@ -0,0 +1,15 @@
+package org.mpi_sws.jmc.test.features;
+
+public class SynchronisedBase {
+
+    protected int count;
+
+    public synchronized void incrementBase() {
+        int value = count;
+        count = value + 1;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
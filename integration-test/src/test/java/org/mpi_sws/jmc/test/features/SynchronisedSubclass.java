@@ -0,0 +1,9 @@
+package org.mpi_sws.jmc.test.features;
+
+public class SynchronisedSubclass extends SynchronisedBase {
+
+    public synchronized void incrementSubclass() {
+        int value = count;
+        count = value + 1;
+    }
+}
@@ -35,7 +35,7 @@ public class AtomicCounterTest {
     @JmcCheck
     @JmcCheckConfiguration(numIterations = 100000)
     @JmcTrustStrategy
-    @JmcExpectExecutions(6) // For input 7 = 5040
+    @JmcExpectExecutions(3) // One per winning compare-and-set, so input 7 = 7
     public void runAtomicCounterTest() {
         atomicCounterTest(3);
     }
@@ -6,3 +6,4 @@ include("gradle-plugin")
 include("agent")
 include("core")
 include("integration-test")
+include("benchmarks")